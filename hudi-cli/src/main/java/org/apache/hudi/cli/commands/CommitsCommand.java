@@ -209,7 +209,8 @@ public class CommitsCommand implements CommandMarker {
     if (StringUtils.isNullOrEmpty(endTs)) {
       endTs = CommitUtil.getTimeDaysAgo(1);
     }
-    HoodieArchivedTimeline archivedTimeline = HoodieCLI.getTableMetaClient().getArchivedTimeline();
+    // only the archived instants of the time range are read
+    HoodieArchivedTimeline archivedTimeline = new HoodieArchivedTimeline(HoodieCLI.getTableMetaClient(), startTs, endTs);
     try {
       archivedTimeline.loadInstantDetailsInMemory(startTs, endTs);
       HoodieDefaultTimeline timelineRange = archivedTimeline.findInstantsInRange(startTs, endTs);
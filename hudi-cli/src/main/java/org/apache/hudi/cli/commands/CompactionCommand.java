@@ -149,7 +149,8 @@ public class CompactionCommand implements CommandMarker {
     }
 
     HoodieTableMetaClient client = checkAndGetMetaClient();
-    HoodieArchivedTimeline archivedTimeline = client.getArchivedTimeline();
+    // only the archived instants of the time range are read
+    HoodieArchivedTimeline archivedTimeline = new HoodieArchivedTimeline(client, startTs, endTs);
     archivedTimeline.loadInstantDetailsInMemory(startTs, endTs);
     try {
       return printAllCompactions(archivedTimeline,
@@ -172,19 +173,15 @@ public class CompactionCommand implements CommandMarker {
                   unspecifiedDefaultValue = "false") final boolean headerOnly)
           throws Exception {
     HoodieTableMetaClient client = checkAndGetMetaClient();
-    HoodieArchivedTimeline archivedTimeline = client.getArchivedTimeline();
     HoodieInstant instant = new HoodieInstant(HoodieInstant.State.COMPLETED,
             HoodieTimeline.COMPACTION_ACTION, compactionInstantTime);
     String startTs = CommitUtil.addHours(compactionInstantTime, -1);
     String endTs = CommitUtil.addHours(compactionInstantTime, 1);
-    try {
-      archivedTimeline.loadInstantDetailsInMemory(startTs, endTs);
-      HoodieCompactionPlan compactionPlan = TimelineMetadataUtils.deserializeCompactionPlan(
-              archivedTimeline.getInstantDetails(instant).get());
-      return printCompaction(compactionPlan, sortByField, descending, limit, headerOnly);
-    } finally {
-      archivedTimeline.clearInstantDetailsFromMemory(startTs, endTs);
-    }
+    // the details of the instant are read on demand from the blocks holding it
+    HoodieArchivedTimeline archivedTimeline = new HoodieArchivedTimeline(client, startTs, endTs);
+    HoodieCompactionPlan compactionPlan = TimelineMetadataUtils.deserializeCompactionPlan(
+            archivedTimeline.getInstantDetails(instant).get());
+    return printCompaction(compactionPlan, sortByField, descending, limit, headerOnly);
   }
 
   @CliCommand(value = "compaction schedule", help = "Schedule Compaction")
@@ -63,6 +63,7 @@ import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.table.HoodieTimelineArchiveLog;
 import org.apache.hudi.table.MarkerFiles;
 import org.apache.hudi.table.action.HoodieWriteMetadata;
+import org.apache.hudi.table.action.commit.PartitionFileStatsCache;
 import org.apache.hudi.table.action.savepoint.SavepointHelpers;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
@@ -93,6 +94,8 @@ public abstract class AbstractHoodieWriteClient<T extends HoodieRecordPayload, I
 
   protected final transient HoodieMetrics metrics;
   private final transient HoodieIndex<T, I, K, O> index;
+  // lent to the tables written through this client, for the adaptive insert planning
+  protected final transient PartitionFileStatsCache partitionFileStatsCache = new PartitionFileStatsCache();
 
   protected transient Timer.Context writeTimer = null;
   protected transient Timer.Context compactionTimer;
@@ -758,6 +761,7 @@ public abstract class AbstractHoodieWriteClient<T extends HoodieRecordPayload, I
     try {
       HeartbeatUtils.cleanExpiredHeartbeats(this.heartbeatClient.getAllExistingHeartbeatInstants(),
           createMetaClient(true), basePath);
+      this.heartbeatClient.cleanExpiredBatchedHeartbeats();
     } catch (IOException io) {
       LOG.error("Unable to delete heartbeat files", io);
     }
@@ -770,13 +774,12 @@ public abstract class AbstractHoodieWriteClient<T extends HoodieRecordPayload, I
     if (config.getFailedWritesCleanPolicy().isEager()) {
       return inflightInstantsStream.map(HoodieInstant::getTimestamp).collect(Collectors.toList());
     } else if (config.getFailedWritesCleanPolicy().isLazy()) {
-      return inflightInstantsStream.filter(instant -> {
-        try {
-          return heartbeatClient.isHeartbeatExpired(instant.getTimestamp());
-        } catch (IOException io) {
-          throw new HoodieException("Failed to check heartbeat for instant " + instant, io);
-        }
-      }).map(HoodieInstant::getTimestamp).collect(Collectors.toList());
+      List<String> inflightInstants = inflightInstantsStream.map(HoodieInstant::getTimestamp).collect(Collectors.toList());
+      try {
+        return heartbeatClient.getExpiredHeartbeatInstants(inflightInstants);
+      } catch (IOException io) {
+        throw new HoodieException("Failed to check heartbeats for instants " + inflightInstants, io);
+      }
     } else if (config.getFailedWritesCleanPolicy().isNever()) {
       return Collections.EMPTY_LIST;
     } else {
@@ -930,5 +933,6 @@ public abstract class AbstractHoodieWriteClient<T extends HoodieRecordPayload, I
     // before this point
     this.index.close();
     this.heartbeatClient.stop();
+    this.partitionFileStatsCache.clear();
   }
 }
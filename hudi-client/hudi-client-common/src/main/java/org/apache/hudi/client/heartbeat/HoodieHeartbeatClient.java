@@ -22,6 +22,7 @@ import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.util.FileIOUtils;
 import org.apache.hudi.common.util.ValidationUtils;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.exception.HoodieHeartbeatException;
@@ -30,14 +31,22 @@ import org.apache.log4j.Logger;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -46,11 +55,16 @@ import java.util.TimerTask;
  * This class creates heartbeat for hudi client. This heartbeat is used to ascertain whether the running job is or not.
  * NOTE: Due to CPU contention on the driver/client node, the heartbeats could be delayed, hence it's important to set
  *       the value high enough to avoid that possibility.
+ * <p>
+ * By default every instant has its own heartbeat file, touched by its own timer. In batched mode, a single scheduler
+ * thread of the client rewrites one heartbeat file of the client listing all its active instants, so that the number
+ * of heartbeat files and of their updates does not grow with the number of concurrent instants.
  */
 @NotThreadSafe
 public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
 
   private static final Logger LOG = LogManager.getLogger(HoodieHeartbeatClient.class);
+  private static final String BATCHED_HEARTBEAT_FILE_PREFIX = "batch_";
 
   private final transient FileSystem fs;
   private final String basePath;
@@ -61,9 +75,19 @@ public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
   private Integer numTolerableHeartbeatMisses;
   private final Long maxAllowableHeartbeatIntervalInMs;
   private Map<String, Heartbeat> instantToHeartbeatMap;
+  // whether the heartbeats of all the instants are batched in a single heartbeat file of the client
+  private final boolean batched;
+  // name of the heartbeat file of the client in batched mode
+  private final String batchedHeartbeatFileName;
+  private transient ScheduledExecutorService batchedHeartbeatExecutor;
 
   public HoodieHeartbeatClient(FileSystem fs, String basePath, Long heartbeatIntervalInMs,
                                Integer numTolerableHeartbeatMisses) {
+    this(fs, basePath, heartbeatIntervalInMs, numTolerableHeartbeatMisses, false);
+  }
+
+  public HoodieHeartbeatClient(FileSystem fs, String basePath, Long heartbeatIntervalInMs,
+                               Integer numTolerableHeartbeatMisses, boolean batched) {
     ValidationUtils.checkArgument(heartbeatIntervalInMs >= 1000, "Cannot set heartbeat lower than 1 second");
     this.fs = fs;
     this.basePath = basePath;
@@ -71,7 +95,9 @@ public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
     this.heartbeatIntervalInMs = heartbeatIntervalInMs;
     this.numTolerableHeartbeatMisses = numTolerableHeartbeatMisses;
     this.maxAllowableHeartbeatIntervalInMs = this.heartbeatIntervalInMs * this.numTolerableHeartbeatMisses;
-    this.instantToHeartbeatMap = new HashMap<>();
+    this.instantToHeartbeatMap = new ConcurrentHashMap<>();
+    this.batched = batched;
+    this.batchedHeartbeatFileName = BATCHED_HEARTBEAT_FILE_PREFIX + UUID.randomUUID().toString();
   }
 
   class Heartbeat {
@@ -81,7 +107,7 @@ public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
     private Boolean isHeartbeatStopped = false;
     private Long lastHeartbeatTime;
     private Integer numHeartbeats = 0;
-    private Timer timer = new Timer();
+    private Timer timer;
 
     public String getInstantTime() {
       return instantTime;
@@ -172,13 +198,38 @@ public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
     } else {
       Heartbeat newHeartbeat = new Heartbeat();
       newHeartbeat.setHeartbeatStarted(true);
+      newHeartbeat.setInstantTime(instantTime);
       instantToHeartbeatMap.put(instantTime, newHeartbeat);
       // Ensure heartbeat is generated for the first time with this blocking call.
       // Since timer submits the task to a thread, no guarantee when that thread will get CPU
       // cycles to generate the first heartbeat.
-      updateHeartbeat(instantTime);
-      newHeartbeat.getTimer().scheduleAtFixedRate(new HeartbeatTask(instantTime), this.heartbeatIntervalInMs,
-          this.heartbeatIntervalInMs);
+      if (batched) {
+        updateBatchedHeartbeat();
+        startBatchedHeartbeatExecutor();
+      } else {
+        updateHeartbeat(instantTime);
+        newHeartbeat.setTimer(new Timer());
+        newHeartbeat.getTimer().scheduleAtFixedRate(new HeartbeatTask(instantTime), this.heartbeatIntervalInMs,
+            this.heartbeatIntervalInMs);
+      }
+    }
+  }
+
+  private synchronized void startBatchedHeartbeatExecutor() {
+    if (batchedHeartbeatExecutor == null) {
+      batchedHeartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hoodie-batched-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+      });
+      batchedHeartbeatExecutor.scheduleAtFixedRate(() -> {
+        try {
+          updateBatchedHeartbeat();
+        } catch (Exception e) {
+          // the heartbeats of the instants expire if the failures go on, which is detected on commit
+          LOG.error("Failed to update the batched heartbeat " + batchedHeartbeatFileName, e);
+        }
+      }, heartbeatIntervalInMs, heartbeatIntervalInMs, TimeUnit.MILLISECONDS);
     }
   }
 
@@ -191,11 +242,18 @@ public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
     Heartbeat heartbeat = instantToHeartbeatMap.get(instantTime);
     if (heartbeat != null && heartbeat.isHeartbeatStarted() && !heartbeat.isHeartbeatStopped()) {
       LOG.info("Stopping heartbeat for instant " + instantTime);
-      heartbeat.getTimer().cancel();
+      if (heartbeat.getTimer() != null) {
+        heartbeat.getTimer().cancel();
+      }
       heartbeat.setHeartbeatStopped(true);
       LOG.info("Stopped heartbeat for instant " + instantTime);
-      HeartbeatUtils.deleteHeartbeatFile(fs, basePath, instantTime);
-      LOG.info("Deleted heartbeat file for instant " + instantTime);
+      if (batched) {
+        // drop the instant from the heartbeat file of the client
+        updateBatchedHeartbeat();
+      } else {
+        HeartbeatUtils.deleteHeartbeatFile(fs, basePath, instantTime);
+        LOG.info("Deleted heartbeat file for instant " + instantTime);
+      }
     }
   }
 
@@ -213,7 +271,7 @@ public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
       return fs.getFileStatus(heartbeatFilePath).getModificationTime();
     } else {
       // NOTE : This can happen when a writer is upgraded to use lazy cleaning and the last write had failed
-      return 0L;
+      return readLastHeartbeatTimes(fs, basePath, Long.MAX_VALUE).getOrDefault(instantTime, 0L);
     }
   }
 
@@ -222,7 +280,45 @@ public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
     if (fs.exists(heartbeatFilePath)) {
       return true;
     }
-    return false;
+    return readLastHeartbeatTimes(fs, basePath, Long.MAX_VALUE).containsKey(instantTime);
+  }
+
+  /**
+   * Reads the last heartbeat time of all the instants with a heartbeat, with a single listing of the heartbeat folder
+   * and a read of each batched heartbeat file not older than the given age.
+   */
+  private static Map<String, Long> readLastHeartbeatTimes(FileSystem fs, String basePath, long maxBatchedHeartbeatAgeInMs)
+      throws IOException {
+    Path heartbeatFolder = new Path(HoodieTableMetaClient.getHeartbeatFolderPath(basePath));
+    Map<String, Long> lastHeartbeatTimes = new HashMap<>();
+    if (!fs.exists(heartbeatFolder)) {
+      return lastHeartbeatTimes;
+    }
+    long currentTime = System.currentTimeMillis();
+    for (FileStatus fileStatus : fs.listStatus(heartbeatFolder)) {
+      if (!isBatchedHeartbeatFile(fileStatus.getPath())) {
+        lastHeartbeatTimes.merge(fileStatus.getPath().getName(), fileStatus.getModificationTime(), Math::max);
+      } else if (currentTime - fileStatus.getModificationTime() <= maxBatchedHeartbeatAgeInMs) {
+        for (String instantTime : readBatchedHeartbeatInstants(fs, fileStatus.getPath())) {
+          lastHeartbeatTimes.merge(instantTime, fileStatus.getModificationTime(), Math::max);
+        }
+      }
+    }
+    return lastHeartbeatTimes;
+  }
+
+  private static List<String> readBatchedHeartbeatInstants(FileSystem fs, Path batchedHeartbeatFile) throws IOException {
+    try (InputStream inputStream = fs.open(batchedHeartbeatFile)) {
+      String instants = FileIOUtils.readAsUTFString(inputStream);
+      return Arrays.stream(instants.split("\n")).filter(instant -> !instant.isEmpty()).collect(Collectors.toList());
+    } catch (FileNotFoundException e) {
+      // the writer completed all its instants in the meantime
+      return Collections.emptyList();
+    }
+  }
+
+  private static boolean isBatchedHeartbeatFile(Path path) {
+    return path.getName().startsWith(BATCHED_HEARTBEAT_FILE_PREFIX);
   }
 
   public boolean isHeartbeatExpired(String instantTime) throws IOException {
@@ -235,23 +331,64 @@ public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
       lastHeartbeatForWriter.setLastHeartbeatTime(lastHeartbeatForWriterTime);
       lastHeartbeatForWriter.setInstantTime(instantTime);
     }
-    if (currentTime - lastHeartbeatForWriter.getLastHeartbeatTime() > this.maxAllowableHeartbeatIntervalInMs) {
-      LOG.warn("Heartbeat expired, currentTime = " + currentTime + ", last heartbeat = " + lastHeartbeatForWriter
+    return isHeartbeatExpired(lastHeartbeatForWriter, currentTime);
+  }
+
+  private boolean isHeartbeatExpired(Heartbeat heartbeat, long currentTime) {
+    if (currentTime - heartbeat.getLastHeartbeatTime() > this.maxAllowableHeartbeatIntervalInMs) {
+      LOG.warn("Heartbeat expired, currentTime = " + currentTime + ", last heartbeat = " + heartbeat
           + ", heartbeat interval = " + this.heartbeatIntervalInMs);
       return true;
     }
     return false;
   }
 
+  /**
+   * Returns the given instants whose heartbeat has expired, in the given order. The heartbeats not started by this
+   * client are read at once, instead of one file status per instant.
+   */
+  public List<String> getExpiredHeartbeatInstants(List<String> instantTimes) throws IOException {
+    Map<String, Long> lastHeartbeatTimes = instantTimes.stream().allMatch(instantToHeartbeatMap::containsKey)
+        ? Collections.emptyMap() : readLastHeartbeatTimes(fs, basePath, maxAllowableHeartbeatIntervalInMs);
+    long currentTime = System.currentTimeMillis();
+    return instantTimes.stream().filter(instantTime -> {
+      Heartbeat heartbeat = instantToHeartbeatMap.get(instantTime);
+      if (heartbeat == null) {
+        heartbeat = new Heartbeat();
+        heartbeat.setInstantTime(instantTime);
+        heartbeat.setLastHeartbeatTime(lastHeartbeatTimes.getOrDefault(instantTime, 0L));
+      }
+      return isHeartbeatExpired(heartbeat, currentTime);
+    }).collect(Collectors.toList());
+  }
+
   public List<String> getAllExistingHeartbeatInstants() throws IOException {
     Path heartbeatFolder = new Path(heartbeatFolderPath);
     if (this.fs.exists(heartbeatFolder)) {
       FileStatus[] fileStatus = this.fs.listStatus(new Path(heartbeatFolderPath));
-      return Arrays.stream(fileStatus).map(fs -> fs.getPath().getName()).collect(Collectors.toList());
+      return Arrays.stream(fileStatus).filter(fs -> !isBatchedHeartbeatFile(fs.getPath()))
+          .map(fs -> fs.getPath().getName()).collect(Collectors.toList());
     }
     return Collections.EMPTY_LIST;
   }
 
+  /**
+   * Deletes the batched heartbeat files of the clients whose heartbeats have all expired.
+   */
+  public void cleanExpiredBatchedHeartbeats() throws IOException {
+    Path heartbeatFolder = new Path(heartbeatFolderPath);
+    if (this.fs.exists(heartbeatFolder)) {
+      long currentTime = System.currentTimeMillis();
+      for (FileStatus fileStatus : this.fs.listStatus(heartbeatFolder)) {
+        if (isBatchedHeartbeatFile(fileStatus.getPath())
+            && currentTime - fileStatus.getModificationTime() > this.maxAllowableHeartbeatIntervalInMs) {
+          LOG.info("Deleting expired batched heartbeat file " + fileStatus.getPath());
+          this.fs.delete(fileStatus.getPath(), false);
+        }
+      }
+    }
+  }
+
   private void updateHeartbeat(String instantTime) throws HoodieHeartbeatException {
     try {
       Long newHeartbeatTime = System.currentTimeMillis();
@@ -273,6 +410,36 @@ public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
     }
   }
 
+  /**
+   * Rewrites the heartbeat file of the client with all its active instants, or deletes it if there are none.
+   */
+  private synchronized void updateBatchedHeartbeat() throws HoodieHeartbeatException {
+    try {
+      Long newHeartbeatTime = System.currentTimeMillis();
+      List<Heartbeat> activeHeartbeats = instantToHeartbeatMap.values().stream()
+          .filter(heartbeat -> !heartbeat.isHeartbeatStopped()).collect(Collectors.toList());
+      Path batchedHeartbeatFile = new Path(heartbeatFolderPath + File.separator + batchedHeartbeatFileName);
+      if (activeHeartbeats.isEmpty()) {
+        this.fs.delete(batchedHeartbeatFile, false);
+        return;
+      }
+      try (OutputStream outputStream = this.fs.create(batchedHeartbeatFile, true)) {
+        String instants = activeHeartbeats.stream().map(Heartbeat::getInstantTime).collect(Collectors.joining("\n"));
+        outputStream.write(instants.getBytes(StandardCharsets.UTF_8));
+      }
+      for (Heartbeat heartbeat : activeHeartbeats) {
+        if (heartbeat.getLastHeartbeatTime() != null && isHeartbeatExpired(heartbeat, newHeartbeatTime)) {
+          LOG.error("Missed generating heartbeat for instant " + heartbeat.getInstantTime() + " within allowable interval "
+              + this.maxAllowableHeartbeatIntervalInMs);
+        }
+        heartbeat.setLastHeartbeatTime(newHeartbeatTime);
+        heartbeat.setNumHeartbeats(heartbeat.getNumHeartbeats() + 1);
+      }
+    } catch (IOException io) {
+      throw new HoodieHeartbeatException("Unable to generate batched heartbeat ", io);
+    }
+  }
+
   public String getHeartbeatFolderPath() {
     return heartbeatFolderPath;
   }
@@ -285,5 +452,11 @@ public class HoodieHeartbeatClient implements AutoCloseable, Serializable {
   public void close() {
     this.stop();
     this.instantToHeartbeatMap.clear();
+    synchronized (this) {
+      if (batchedHeartbeatExecutor != null) {
+        batchedHeartbeatExecutor.shutdownNow();
+        batchedHeartbeatExecutor = null;
+      }
+    }
   }
 }
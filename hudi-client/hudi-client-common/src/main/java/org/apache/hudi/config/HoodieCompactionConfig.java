@@ -51,12 +51,22 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
   // Run a compaction when time elapsed > N seconds since last compaction
   public static final String INLINE_COMPACT_TIME_DELTA_SECONDS_PROP = "hoodie.compact.inline.max.delta.seconds";
   public static final String INLINE_COMPACT_TRIGGER_STRATEGY_PROP = "hoodie.compact.inline.trigger.strategy";
+  // Run a compaction when the average number of log blocks per file group since last compaction >= N
+  public static final String INLINE_COMPACT_READ_AMPLIFICATION_PROP = "hoodie.compact.inline.max.read.amplification";
+  // Log compaction merges the log files of a file slice once it has at least N log files
+  public static final String LOG_COMPACTION_MIN_LOG_FILES_PROP = "hoodie.log.compaction.min.log.files";
   public static final String CLEANER_FILE_VERSIONS_RETAINED_PROP = "hoodie.cleaner.fileversions.retained";
   public static final String CLEANER_COMMITS_RETAINED_PROP = "hoodie.cleaner.commits.retained";
   public static final String CLEANER_INCREMENTAL_MODE = "hoodie.cleaner.incremental.mode";
   public static final String MAX_COMMITS_TO_KEEP_PROP = "hoodie.keep.max.commits";
   public static final String MIN_COMMITS_TO_KEEP_PROP = "hoodie.keep.min.commits";
   public static final String COMMITS_ARCHIVAL_BATCH_SIZE_PROP = "hoodie.commits.archival.batch";
+  // Archive with this parallelism, reading the instants and deleting their files concurrently. 1 archives serially
+  public static final String COMMITS_ARCHIVAL_PARALLELISM_PROP = "hoodie.commits.archival.parallelism";
+  // Merge the older archive files smaller than the limit once there are this many of them in a row. 0 disables merging
+  public static final String COMMITS_ARCHIVAL_MERGE_MIN_FILES_PROP = "hoodie.commits.archival.merge.min.files";
+  public static final String COMMITS_ARCHIVAL_MERGE_SMALL_FILE_LIMIT_BYTES_PROP =
+      "hoodie.commits.archival.merge.small.file.limit.bytes";
   // Set true to clean bootstrap source files when necessary
   public static final String CLEANER_BOOTSTRAP_BASE_FILE_ENABLED = "hoodie.cleaner.delete.bootstrap.base.file";
   // Upsert uses this file size to compact new data onto existing files..
@@ -88,6 +98,10 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
   // Used to determine how much more can be packed into a small file, before it exceeds the size
   // limit.
   public static final String DEFAULT_COPY_ON_WRITE_TABLE_RECORD_SIZE_ESTIMATE = String.valueOf(1024);
+  // Config to plan the inserts with per partition record size estimates and file stats cached across commits,
+  // packing them into the small files with the most room first and splitting the rest evenly into new files
+  public static final String COPY_ON_WRITE_TABLE_ADAPTIVE_INSERT_PLANNING = "hoodie.copyonwrite.insert.adaptive.planning";
+  public static final String DEFAULT_COPY_ON_WRITE_TABLE_ADAPTIVE_INSERT_PLANNING = String.valueOf(false);
   public static final String CLEANER_PARALLELISM = "hoodie.cleaner.parallelism";
   public static final String DEFAULT_CLEANER_PARALLELISM = String.valueOf(200);
   public static final String TARGET_IO_PER_COMPACTION_IN_MB_PROP = "hoodie.compaction.target.io";
@@ -118,12 +132,18 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
   private static final String DEFAULT_INCREMENTAL_CLEANER = "true";
   private static final String DEFAULT_INLINE_COMPACT_NUM_DELTA_COMMITS = "5";
   private static final String DEFAULT_INLINE_COMPACT_TIME_DELTA_SECONDS = String.valueOf(60 * 60);
+  private static final String DEFAULT_INLINE_COMPACT_READ_AMPLIFICATION = "10";
+  private static final String DEFAULT_LOG_COMPACTION_MIN_LOG_FILES = "5";
   private static final String DEFAULT_INLINE_COMPACT_TRIGGER_STRATEGY = CompactionTriggerStrategy.NUM_COMMITS.name();
   private static final String DEFAULT_CLEANER_FILE_VERSIONS_RETAINED = "3";
   private static final String DEFAULT_CLEANER_COMMITS_RETAINED = "10";
   private static final String DEFAULT_MAX_COMMITS_TO_KEEP = "30";
   private static final String DEFAULT_MIN_COMMITS_TO_KEEP = "20";
   private static final String DEFAULT_COMMITS_ARCHIVAL_BATCH_SIZE = String.valueOf(10);
+  private static final String DEFAULT_COMMITS_ARCHIVAL_PARALLELISM = String.valueOf(1);
+  private static final String DEFAULT_COMMITS_ARCHIVAL_MERGE_MIN_FILES = String.valueOf(10);
+  // 20 MB
+  private static final String DEFAULT_COMMITS_ARCHIVAL_MERGE_SMALL_FILE_LIMIT_BYTES = String.valueOf(20 * 1024 * 1024);
   private static final String DEFAULT_CLEANER_BOOTSTRAP_BASE_FILE_ENABLED = "false";
   public static final String TARGET_PARTITIONS_PER_DAYBASED_COMPACTION_PROP =
       "hoodie.compaction.daybased.target.partitions";
@@ -220,6 +240,11 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withAdaptiveInsertPlanning(boolean adaptiveInsertPlanning) {
+      props.setProperty(COPY_ON_WRITE_TABLE_ADAPTIVE_INSERT_PLANNING, String.valueOf(adaptiveInsertPlanning));
+      return this;
+    }
+
     public Builder approxRecordSize(int recordSizeEstimate) {
       props.setProperty(COPY_ON_WRITE_TABLE_RECORD_SIZE_ESTIMATE, String.valueOf(recordSizeEstimate));
       return this;
@@ -255,6 +280,16 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withMaxReadAmplificationBeforeCompaction(double maxReadAmplificationBeforeCompaction) {
+      props.setProperty(INLINE_COMPACT_READ_AMPLIFICATION_PROP, String.valueOf(maxReadAmplificationBeforeCompaction));
+      return this;
+    }
+
+    public Builder withLogCompactionMinLogFiles(int minLogFiles) {
+      props.setProperty(LOG_COMPACTION_MIN_LOG_FILES_PROP, String.valueOf(minLogFiles));
+      return this;
+    }
+
     public Builder withCompactionLazyBlockReadEnabled(Boolean compactionLazyBlockReadEnabled) {
       props.setProperty(COMPACTION_LAZY_BLOCK_READ_ENABLED_PROP, String.valueOf(compactionLazyBlockReadEnabled));
       return this;
@@ -275,6 +310,21 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withCommitsArchivalParallelism(int parallelism) {
+      props.setProperty(COMMITS_ARCHIVAL_PARALLELISM_PROP, String.valueOf(parallelism));
+      return this;
+    }
+
+    public Builder withCommitsArchivalMergeMinFiles(int minFiles) {
+      props.setProperty(COMMITS_ARCHIVAL_MERGE_MIN_FILES_PROP, String.valueOf(minFiles));
+      return this;
+    }
+
+    public Builder withCommitsArchivalMergeSmallFileLimit(long smallFileLimitBytes) {
+      props.setProperty(COMMITS_ARCHIVAL_MERGE_SMALL_FILE_LIMIT_BYTES_PROP, String.valueOf(smallFileLimitBytes));
+      return this;
+    }
+
     public Builder withCleanBootstrapBaseFileEnabled(Boolean cleanBootstrapSourceFileEnabled) {
       props.setProperty(CLEANER_BOOTSTRAP_BASE_FILE_ENABLED, String.valueOf(cleanBootstrapSourceFileEnabled));
       return this;
@@ -298,6 +348,10 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
           INLINE_COMPACT_NUM_DELTA_COMMITS_PROP, DEFAULT_INLINE_COMPACT_NUM_DELTA_COMMITS);
       setDefaultOnCondition(props, !props.containsKey(INLINE_COMPACT_TIME_DELTA_SECONDS_PROP),
           INLINE_COMPACT_TIME_DELTA_SECONDS_PROP, DEFAULT_INLINE_COMPACT_TIME_DELTA_SECONDS);
+      setDefaultOnCondition(props, !props.containsKey(INLINE_COMPACT_READ_AMPLIFICATION_PROP),
+          INLINE_COMPACT_READ_AMPLIFICATION_PROP, DEFAULT_INLINE_COMPACT_READ_AMPLIFICATION);
+      setDefaultOnCondition(props, !props.containsKey(LOG_COMPACTION_MIN_LOG_FILES_PROP),
+          LOG_COMPACTION_MIN_LOG_FILES_PROP, DEFAULT_LOG_COMPACTION_MIN_LOG_FILES);
       setDefaultOnCondition(props, !props.containsKey(INLINE_COMPACT_TRIGGER_STRATEGY_PROP),
           INLINE_COMPACT_TRIGGER_STRATEGY_PROP, DEFAULT_INLINE_COMPACT_TRIGGER_STRATEGY);
       setDefaultOnCondition(props, !props.containsKey(CLEANER_POLICY_PROP), CLEANER_POLICY_PROP,
@@ -320,6 +374,8 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
           COPY_ON_WRITE_TABLE_AUTO_SPLIT_INSERTS, DEFAULT_COPY_ON_WRITE_TABLE_AUTO_SPLIT_INSERTS);
       setDefaultOnCondition(props, !props.containsKey(COPY_ON_WRITE_TABLE_RECORD_SIZE_ESTIMATE),
           COPY_ON_WRITE_TABLE_RECORD_SIZE_ESTIMATE, DEFAULT_COPY_ON_WRITE_TABLE_RECORD_SIZE_ESTIMATE);
+      setDefaultOnCondition(props, !props.containsKey(COPY_ON_WRITE_TABLE_ADAPTIVE_INSERT_PLANNING),
+          COPY_ON_WRITE_TABLE_ADAPTIVE_INSERT_PLANNING, DEFAULT_COPY_ON_WRITE_TABLE_ADAPTIVE_INSERT_PLANNING);
       setDefaultOnCondition(props, !props.containsKey(CLEANER_PARALLELISM), CLEANER_PARALLELISM,
           DEFAULT_CLEANER_PARALLELISM);
       setDefaultOnCondition(props, !props.containsKey(COMPACTION_STRATEGY_PROP), COMPACTION_STRATEGY_PROP,
@@ -335,6 +391,12 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
           TARGET_PARTITIONS_PER_DAYBASED_COMPACTION_PROP, DEFAULT_TARGET_PARTITIONS_PER_DAYBASED_COMPACTION);
       setDefaultOnCondition(props, !props.containsKey(COMMITS_ARCHIVAL_BATCH_SIZE_PROP),
           COMMITS_ARCHIVAL_BATCH_SIZE_PROP, DEFAULT_COMMITS_ARCHIVAL_BATCH_SIZE);
+      setDefaultOnCondition(props, !props.containsKey(COMMITS_ARCHIVAL_PARALLELISM_PROP),
+          COMMITS_ARCHIVAL_PARALLELISM_PROP, DEFAULT_COMMITS_ARCHIVAL_PARALLELISM);
+      setDefaultOnCondition(props, !props.containsKey(COMMITS_ARCHIVAL_MERGE_MIN_FILES_PROP),
+          COMMITS_ARCHIVAL_MERGE_MIN_FILES_PROP, DEFAULT_COMMITS_ARCHIVAL_MERGE_MIN_FILES);
+      setDefaultOnCondition(props, !props.containsKey(COMMITS_ARCHIVAL_MERGE_SMALL_FILE_LIMIT_BYTES_PROP),
+          COMMITS_ARCHIVAL_MERGE_SMALL_FILE_LIMIT_BYTES_PROP, DEFAULT_COMMITS_ARCHIVAL_MERGE_SMALL_FILE_LIMIT_BYTES);
       setDefaultOnCondition(props, !props.containsKey(CLEANER_BOOTSTRAP_BASE_FILE_ENABLED),
           CLEANER_BOOTSTRAP_BASE_FILE_ENABLED, DEFAULT_CLEANER_BOOTSTRAP_BASE_FILE_ENABLED);
       setDefaultOnCondition(props, !props.containsKey(FAILED_WRITES_CLEANER_POLICY_PROP),
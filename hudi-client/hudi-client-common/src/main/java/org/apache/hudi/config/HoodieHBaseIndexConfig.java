@@ -120,6 +120,23 @@ public class HoodieHBaseIndexConfig extends DefaultHoodieConfig {
   public static final String HBASE_INDEX_ROLLBACK_SYNC = "hoodie.index.hbase.rollback.sync";
   public static final Boolean DEFAULT_HBASE_INDEX_ROLLBACK_SYNC = false;
 
+  /**
+   * Maximum number of batches of gets or puts a task keeps outstanding against HBase. The default of 1 waits for
+   * each batch before sending the next one.
+   */
+  public static final String HBASE_MAX_OUTSTANDING_BATCHES_PROP = "hoodie.index.hbase.max.outstanding.batches";
+  public static final int DEFAULT_HBASE_MAX_OUTSTANDING_BATCHES = 1;
+
+  /**
+   * When set to true, the batch sizes of the gets and puts of a task are adjusted to the observed latency of its
+   * batches, aiming at HBASE_TARGET_BATCH_LATENCY_MS_PROP per batch. The configured batch sizes are the initial
+   * ones, the QPS limits still apply.
+   */
+  public static final String HBASE_ADAPTIVE_BATCH_SIZE_PROP = "hoodie.index.hbase.adaptive.batch.size";
+  public static final Boolean DEFAULT_HBASE_ADAPTIVE_BATCH_SIZE = false;
+  public static final String HBASE_TARGET_BATCH_LATENCY_MS_PROP = "hoodie.index.hbase.target.batch.latency.ms";
+  public static final long DEFAULT_HBASE_TARGET_BATCH_LATENCY_MS = 100L;
+
   public HoodieHBaseIndexConfig(final Properties props) {
     super(props);
   }
@@ -261,6 +278,21 @@ public class HoodieHBaseIndexConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder hbaseIndexMaxOutstandingBatches(int maxOutstandingBatches) {
+      props.setProperty(HBASE_MAX_OUTSTANDING_BATCHES_PROP, String.valueOf(maxOutstandingBatches));
+      return this;
+    }
+
+    public Builder hbaseIndexAdaptiveBatchSize(boolean adaptiveBatchSize) {
+      props.setProperty(HBASE_ADAPTIVE_BATCH_SIZE_PROP, String.valueOf(adaptiveBatchSize));
+      return this;
+    }
+
+    public Builder hbaseIndexTargetBatchLatencyMs(long targetBatchLatencyMs) {
+      props.setProperty(HBASE_TARGET_BATCH_LATENCY_MS_PROP, String.valueOf(targetBatchLatencyMs));
+      return this;
+    }
+
     public HoodieHBaseIndexConfig build() {
       HoodieHBaseIndexConfig config = new HoodieHBaseIndexConfig(props);
       setDefaultOnCondition(props, !props.containsKey(HBASE_GET_BATCH_SIZE_PROP), HBASE_GET_BATCH_SIZE_PROP,
@@ -291,6 +323,12 @@ public class HoodieHBaseIndexConfig extends DefaultHoodieConfig {
           String.valueOf(DEFAULT_HBASE_INDEX_UPDATE_PARTITION_PATH));
       setDefaultOnCondition(props, !props.containsKey(HBASE_INDEX_ROLLBACK_SYNC), HBASE_INDEX_ROLLBACK_SYNC,
           String.valueOf(DEFAULT_HBASE_INDEX_ROLLBACK_SYNC));
+      setDefaultOnCondition(props, !props.containsKey(HBASE_MAX_OUTSTANDING_BATCHES_PROP), HBASE_MAX_OUTSTANDING_BATCHES_PROP,
+          String.valueOf(DEFAULT_HBASE_MAX_OUTSTANDING_BATCHES));
+      setDefaultOnCondition(props, !props.containsKey(HBASE_ADAPTIVE_BATCH_SIZE_PROP), HBASE_ADAPTIVE_BATCH_SIZE_PROP,
+          String.valueOf(DEFAULT_HBASE_ADAPTIVE_BATCH_SIZE));
+      setDefaultOnCondition(props, !props.containsKey(HBASE_TARGET_BATCH_LATENCY_MS_PROP), HBASE_TARGET_BATCH_LATENCY_MS_PROP,
+          String.valueOf(DEFAULT_HBASE_TARGET_BATCH_LATENCY_MS));
       return config;
     }
 
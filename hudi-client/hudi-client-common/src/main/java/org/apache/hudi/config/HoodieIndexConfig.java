@@ -74,6 +74,12 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
   // 10M checks in 2500ms, thus amortizing the cost of reading bloom filter across partitions.
   public static final String BLOOM_INDEX_KEYS_PER_BUCKET_PROP = "hoodie.bloom.index.keys.per.bucket";
   public static final String DEFAULT_BLOOM_INDEX_KEYS_PER_BUCKET = "10000000";
+  // Checks the keys of each partition path locally against its files, instead of shuffling key-file comparisons.
+  public static final String BLOOM_INDEX_PARTITION_LOCAL_CHECKING_PROP = "hoodie.bloom.index.partition.local.checking";
+  public static final String DEFAULT_BLOOM_INDEX_PARTITION_LOCAL_CHECKING = "false";
+  // Partition paths with more incoming keys are split into tasks by key range, smaller ones are packed together.
+  public static final String BLOOM_INDEX_PARTITION_LOCAL_KEYS_PER_TASK_PROP = "hoodie.bloom.index.partition.local.keys.per.task";
+  public static final String DEFAULT_BLOOM_INDEX_PARTITION_LOCAL_KEYS_PER_TASK = "1000000";
 
   // ***** HBase Index Configs *****
   public static final String HBASE_ZKQUORUM_PROP = "hoodie.index.hbase.zkquorum";
@@ -104,6 +110,19 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
   public static final String SIMPLE_INDEX_UPDATE_PARTITION_PATH = "hoodie.simple.index.update.partition.path";
   public static final String DEFAULT_SIMPLE_INDEX_UPDATE_PARTITION_PATH = "false";
 
+  /**
+   * Only read the record key column of the base files when loading the locations of the simple index, taking the
+   * partition path of the keys from their base file instead of reading it per record.
+   */
+  public static final String SIMPLE_INDEX_READ_KEYS_ONLY_PROP = "hoodie.simple.index.read.keys.only";
+  public static final String DEFAULT_SIMPLE_INDEX_READ_KEYS_ONLY = "false";
+
+  // ***** Bucket Index Configs *****
+  // Number of file groups (buckets) of each partition, a record goes to the bucket hash(record key) mod num buckets.
+  // Partitions written with another number of buckets keep it, until they are rewritten by clustering.
+  public static final String BUCKET_INDEX_NUM_BUCKETS_PROP = "hoodie.bucket.index.num.buckets";
+  public static final String DEFAULT_BUCKET_INDEX_NUM_BUCKETS = "256";
+
   private EngineType engineType;
 
   /**
@@ -214,6 +233,16 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder bloomIndexPartitionLocalChecking(boolean partitionLocalChecking) {
+      props.setProperty(BLOOM_INDEX_PARTITION_LOCAL_CHECKING_PROP, String.valueOf(partitionLocalChecking));
+      return this;
+    }
+
+    public Builder bloomIndexPartitionLocalKeysPerTask(int keysPerTask) {
+      props.setProperty(BLOOM_INDEX_PARTITION_LOCAL_KEYS_PER_TASK_PROP, String.valueOf(keysPerTask));
+      return this;
+    }
+
     public Builder withBloomIndexInputStorageLevel(String level) {
       props.setProperty(BLOOM_INDEX_INPUT_STORAGE_LEVEL, level);
       return this;
@@ -244,11 +273,21 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder simpleIndexReadKeysOnly(boolean readKeysOnly) {
+      props.setProperty(SIMPLE_INDEX_READ_KEYS_ONLY_PROP, String.valueOf(readKeysOnly));
+      return this;
+    }
+
     public Builder withGlobalSimpleIndexUpdatePartitionPath(boolean updatePartitionPath) {
       props.setProperty(SIMPLE_INDEX_UPDATE_PARTITION_PATH, String.valueOf(updatePartitionPath));
       return this;
     }
 
+    public Builder withBucketNum(int numBuckets) {
+      props.setProperty(BUCKET_INDEX_NUM_BUCKETS_PROP, String.valueOf(numBuckets));
+      return this;
+    }
+
     public Builder withEngineType(EngineType engineType) {
       this.engineType = engineType;
       return this;
@@ -277,6 +316,10 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
           BLOOM_INDEX_BUCKETIZED_CHECKING_PROP, DEFAULT_BLOOM_INDEX_BUCKETIZED_CHECKING);
       setDefaultOnCondition(props, !props.containsKey(BLOOM_INDEX_KEYS_PER_BUCKET_PROP),
           BLOOM_INDEX_KEYS_PER_BUCKET_PROP, DEFAULT_BLOOM_INDEX_KEYS_PER_BUCKET);
+      setDefaultOnCondition(props, !props.containsKey(BLOOM_INDEX_PARTITION_LOCAL_CHECKING_PROP),
+          BLOOM_INDEX_PARTITION_LOCAL_CHECKING_PROP, DEFAULT_BLOOM_INDEX_PARTITION_LOCAL_CHECKING);
+      setDefaultOnCondition(props, !props.containsKey(BLOOM_INDEX_PARTITION_LOCAL_KEYS_PER_TASK_PROP),
+          BLOOM_INDEX_PARTITION_LOCAL_KEYS_PER_TASK_PROP, DEFAULT_BLOOM_INDEX_PARTITION_LOCAL_KEYS_PER_TASK);
       setDefaultOnCondition(props, !props.containsKey(BLOOM_INDEX_FILTER_TYPE),
           BLOOM_INDEX_FILTER_TYPE, DEFAULT_BLOOM_INDEX_FILTER_TYPE);
       setDefaultOnCondition(props, !props.containsKey(HOODIE_BLOOM_INDEX_FILTER_DYNAMIC_MAX_ENTRIES),
@@ -291,6 +334,10 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
           DEFAULT_GLOBAL_SIMPLE_INDEX_PARALLELISM);
       setDefaultOnCondition(props, !props.containsKey(SIMPLE_INDEX_UPDATE_PARTITION_PATH),
           SIMPLE_INDEX_UPDATE_PARTITION_PATH, DEFAULT_SIMPLE_INDEX_UPDATE_PARTITION_PATH);
+      setDefaultOnCondition(props, !props.containsKey(SIMPLE_INDEX_READ_KEYS_ONLY_PROP),
+          SIMPLE_INDEX_READ_KEYS_ONLY_PROP, DEFAULT_SIMPLE_INDEX_READ_KEYS_ONLY);
+      setDefaultOnCondition(props, !props.containsKey(BUCKET_INDEX_NUM_BUCKETS_PROP),
+          BUCKET_INDEX_NUM_BUCKETS_PROP, DEFAULT_BUCKET_INDEX_NUM_BUCKETS);
       // Throws IllegalArgumentException if the value set is not a known Hoodie Index Type
       HoodieIndex.IndexType.valueOf(props.getProperty(INDEX_TYPE_PROP));
       return config;
@@ -108,6 +108,9 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
   public static final String BULKINSERT_SORT_MODE = "hoodie.bulkinsert.sort.mode";
   public static final String DEFAULT_BULKINSERT_SORT_MODE = BulkInsertSortMode.GLOBAL_SORT
       .toString();
+  // Number of writer threads, each with its own open file, that a bulk insert task spreads its records across
+  public static final String BULKINSERT_PARALLEL_WRITERS = "hoodie.bulkinsert.parallel.writers";
+  public static final String DEFAULT_BULKINSERT_PARALLEL_WRITERS = "1";
 
   public static final String EMBEDDED_TIMELINE_SERVER_ENABLED = "hoodie.embed.timeline.server";
   public static final String DEFAULT_EMBEDDED_TIMELINE_SERVER_ENABLED = "true";
@@ -139,6 +142,11 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
   private static final String MERGE_DATA_VALIDATION_CHECK_ENABLED = "hoodie.merge.data.validation.enabled";
   private static final String DEFAULT_MERGE_DATA_VALIDATION_CHECK_ENABLED = "false";
 
+  // Merge incoming records that do not fit in the merge memory by streaming or partitioning them, instead of
+  // random lookups against a spilled map
+  private static final String MERGE_BOUNDED_MEMORY_ENABLED = "hoodie.merge.bounded.memory.enabled";
+  private static final String DEFAULT_MERGE_BOUNDED_MEMORY_ENABLED = "false";
+
   // Allow duplicates with inserts while merging with existing records
   private static final String MERGE_ALLOW_DUPLICATE_ON_INSERTS = "hoodie.merge.allow.duplicate.on.inserts";
   private static final String DEFAULT_MERGE_ALLOW_DUPLICATE_ON_INSERTS = "false";
@@ -149,6 +157,10 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
   public static final String CLIENT_HEARTBEAT_NUM_TOLERABLE_MISSES_PROP = "hoodie.client.heartbeat.tolerable.misses";
   public static final Integer DEFAULT_CLIENT_HEARTBEAT_NUM_TOLERABLE_MISSES = 2;
 
+  // Batch the heartbeats of all the instants of a client in a single heartbeat file, updated by a single thread
+  public static final String CLIENT_HEARTBEAT_BATCHED_PROP = "hoodie.client.heartbeat.batched";
+  public static final String DEFAULT_CLIENT_HEARTBEAT_BATCHED = "false";
+
   /**
    * HUDI-858 : There are users who had been directly using RDD APIs and have relied on a behavior in 0.4.x to allow
    * multiple write operations (upsert/buk-insert/...) to be executed within a single commit.
@@ -356,10 +368,18 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return BulkInsertSortMode.valueOf(sortMode.toUpperCase());
   }
 
+  public int getBulkInsertParallelWriters() {
+    return Integer.parseInt(props.getProperty(BULKINSERT_PARALLEL_WRITERS));
+  }
+
   public boolean isMergeDataValidationCheckEnabled() {
     return Boolean.parseBoolean(props.getProperty(MERGE_DATA_VALIDATION_CHECK_ENABLED));
   }
 
+  public boolean isMergeBoundedMemoryEnabled() {
+    return Boolean.parseBoolean(props.getProperty(MERGE_BOUNDED_MEMORY_ENABLED));
+  }
+
   public boolean allowDuplicateInserts() {
     return Boolean.parseBoolean(props.getProperty(MERGE_ALLOW_DUPLICATE_ON_INSERTS));
   }
@@ -411,6 +431,10 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Boolean.parseBoolean(props.getProperty(HoodieCompactionConfig.COPY_ON_WRITE_TABLE_AUTO_SPLIT_INSERTS));
   }
 
+  public boolean isAdaptiveInsertPlanningEnabled() {
+    return Boolean.parseBoolean(props.getProperty(HoodieCompactionConfig.COPY_ON_WRITE_TABLE_ADAPTIVE_INSERT_PLANNING));
+  }
+
   public int getCleanerParallelism() {
     return Integer.parseInt(props.getProperty(HoodieCompactionConfig.CLEANER_PARALLELISM));
   }
@@ -443,6 +467,14 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Integer.parseInt(props.getProperty(HoodieCompactionConfig.INLINE_COMPACT_TIME_DELTA_SECONDS_PROP));
   }
 
+  public double getInlineCompactReadAmplificationMax() {
+    return Double.parseDouble(props.getProperty(HoodieCompactionConfig.INLINE_COMPACT_READ_AMPLIFICATION_PROP));
+  }
+
+  public int getLogCompactionMinLogFiles() {
+    return Integer.parseInt(props.getProperty(HoodieCompactionConfig.LOG_COMPACTION_MIN_LOG_FILES_PROP));
+  }
+
   public CompactionStrategy getCompactionStrategy() {
     return ReflectionUtils.loadClass(props.getProperty(HoodieCompactionConfig.COMPACTION_STRATEGY_PROP));
   }
@@ -488,6 +520,18 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Integer.parseInt(props.getProperty(HoodieCompactionConfig.COMMITS_ARCHIVAL_BATCH_SIZE_PROP));
   }
 
+  public int getCommitArchivalParallelism() {
+    return Integer.parseInt(props.getProperty(HoodieCompactionConfig.COMMITS_ARCHIVAL_PARALLELISM_PROP));
+  }
+
+  public int getCommitArchivalMergeMinFiles() {
+    return Integer.parseInt(props.getProperty(HoodieCompactionConfig.COMMITS_ARCHIVAL_MERGE_MIN_FILES_PROP));
+  }
+
+  public long getCommitArchivalMergeSmallFileLimit() {
+    return Long.parseLong(props.getProperty(HoodieCompactionConfig.COMMITS_ARCHIVAL_MERGE_SMALL_FILE_LIMIT_BYTES_PROP));
+  }
+
   public Boolean shouldCleanBootstrapBaseFile() {
     return Boolean.valueOf(props.getProperty(HoodieCompactionConfig.CLEANER_BOOTSTRAP_BASE_FILE_ENABLED));
   }
@@ -579,6 +623,18 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Boolean.parseBoolean(props.getProperty(HoodieHBaseIndexConfig.HBASE_INDEX_ROLLBACK_SYNC));
   }
 
+  public int getHbaseIndexMaxOutstandingBatches() {
+    return Integer.parseInt(props.getProperty(HoodieHBaseIndexConfig.HBASE_MAX_OUTSTANDING_BATCHES_PROP));
+  }
+
+  public boolean getHbaseIndexAdaptiveBatchSize() {
+    return Boolean.parseBoolean(props.getProperty(HoodieHBaseIndexConfig.HBASE_ADAPTIVE_BATCH_SIZE_PROP));
+  }
+
+  public long getHbaseIndexTargetBatchLatencyMs() {
+    return Long.parseLong(props.getProperty(HoodieHBaseIndexConfig.HBASE_TARGET_BATCH_LATENCY_MS_PROP));
+  }
+
   public int getHbaseIndexPutBatchSize() {
     return Integer.parseInt(props.getProperty(HoodieHBaseIndexConfig.HBASE_PUT_BATCH_SIZE_PROP));
   }
@@ -672,6 +728,14 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Integer.parseInt(props.getProperty(HoodieIndexConfig.BLOOM_INDEX_KEYS_PER_BUCKET_PROP));
   }
 
+  public boolean useBloomIndexPartitionLocalChecking() {
+    return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.BLOOM_INDEX_PARTITION_LOCAL_CHECKING_PROP));
+  }
+
+  public int getBloomIndexPartitionLocalKeysPerTask() {
+    return Integer.parseInt(props.getProperty(HoodieIndexConfig.BLOOM_INDEX_PARTITION_LOCAL_KEYS_PER_TASK_PROP));
+  }
+
   public boolean getBloomIndexUpdatePartitionPath() {
     return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.BLOOM_INDEX_UPDATE_PARTITION_PATH));
   }
@@ -684,6 +748,10 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.SIMPLE_INDEX_USE_CACHING_PROP));
   }
 
+  public boolean getSimpleIndexReadKeysOnly() {
+    return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.SIMPLE_INDEX_READ_KEYS_ONLY_PROP));
+  }
+
   public int getGlobalSimpleIndexParallelism() {
     return Integer.parseInt(props.getProperty(HoodieIndexConfig.GLOBAL_SIMPLE_INDEX_PARALLELISM_PROP));
   }
@@ -692,6 +760,10 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.SIMPLE_INDEX_UPDATE_PARTITION_PATH));
   }
 
+  public int getBucketIndexNumBuckets() {
+    return Integer.parseInt(props.getProperty(HoodieIndexConfig.BUCKET_INDEX_NUM_BUCKETS_PROP));
+  }
+
   /**
    * storage properties.
    */
@@ -951,6 +1023,10 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Integer.valueOf(props.getProperty(CLIENT_HEARTBEAT_NUM_TOLERABLE_MISSES_PROP));
   }
 
+  public boolean isHoodieClientHeartbeatBatched() {
+    return Boolean.parseBoolean(props.getProperty(CLIENT_HEARTBEAT_BATCHED_PROP));
+  }
+
   /**
    * File listing metadata configs.
    */
@@ -1224,6 +1300,11 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withBulkInsertParallelWriters(int numWriters) {
+      props.setProperty(BULKINSERT_PARALLEL_WRITERS, String.valueOf(numWriters));
+      return this;
+    }
+
     public Builder withAllowMultiWriteOnSameInstant(boolean allow) {
       props.setProperty(ALLOW_MULTI_WRITE_ON_SAME_INSTANT, String.valueOf(allow));
       return this;
@@ -1239,6 +1320,11 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withMergeBoundedMemoryEnabled(boolean enabled) {
+      props.setProperty(MERGE_BOUNDED_MEMORY_ENABLED, String.valueOf(enabled));
+      return this;
+    }
+
     public Builder withMergeAllowDuplicateOnInserts(boolean routeInsertsToNewFiles) {
       props.setProperty(MERGE_ALLOW_DUPLICATE_ON_INSERTS, String.valueOf(routeInsertsToNewFiles));
       return this;
@@ -1254,6 +1340,11 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withHeartbeatBatched(boolean heartbeatBatched) {
+      props.setProperty(CLIENT_HEARTBEAT_BATCHED_PROP, String.valueOf(heartbeatBatched));
+      return this;
+    }
+
     public Builder withProperties(Properties properties) {
       this.props.putAll(properties);
       return this;
@@ -1306,14 +1397,20 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
       setDefaultOnCondition(props, !props.containsKey(AVRO_SCHEMA_VALIDATE), AVRO_SCHEMA_VALIDATE, DEFAULT_AVRO_SCHEMA_VALIDATE);
       setDefaultOnCondition(props, !props.containsKey(BULKINSERT_SORT_MODE),
           BULKINSERT_SORT_MODE, DEFAULT_BULKINSERT_SORT_MODE);
+      setDefaultOnCondition(props, !props.containsKey(BULKINSERT_PARALLEL_WRITERS),
+          BULKINSERT_PARALLEL_WRITERS, DEFAULT_BULKINSERT_PARALLEL_WRITERS);
       setDefaultOnCondition(props, !props.containsKey(MERGE_DATA_VALIDATION_CHECK_ENABLED),
           MERGE_DATA_VALIDATION_CHECK_ENABLED, DEFAULT_MERGE_DATA_VALIDATION_CHECK_ENABLED);
+      setDefaultOnCondition(props, !props.containsKey(MERGE_BOUNDED_MEMORY_ENABLED),
+          MERGE_BOUNDED_MEMORY_ENABLED, DEFAULT_MERGE_BOUNDED_MEMORY_ENABLED);
       setDefaultOnCondition(props, !props.containsKey(MERGE_ALLOW_DUPLICATE_ON_INSERTS),
           MERGE_ALLOW_DUPLICATE_ON_INSERTS, DEFAULT_MERGE_ALLOW_DUPLICATE_ON_INSERTS);
       setDefaultOnCondition(props, !props.containsKey(CLIENT_HEARTBEAT_INTERVAL_IN_MS_PROP),
           CLIENT_HEARTBEAT_INTERVAL_IN_MS_PROP, String.valueOf(DEFAULT_CLIENT_HEARTBEAT_INTERVAL_IN_MS));
       setDefaultOnCondition(props, !props.containsKey(CLIENT_HEARTBEAT_NUM_TOLERABLE_MISSES_PROP),
           CLIENT_HEARTBEAT_NUM_TOLERABLE_MISSES_PROP, String.valueOf(DEFAULT_CLIENT_HEARTBEAT_NUM_TOLERABLE_MISSES));
+      setDefaultOnCondition(props, !props.containsKey(CLIENT_HEARTBEAT_BATCHED_PROP),
+          CLIENT_HEARTBEAT_BATCHED_PROP, DEFAULT_CLIENT_HEARTBEAT_BATCHED);
 
       // Make sure the props is propagated
       setDefaultOnCondition(props, !isIndexConfigSet, HoodieIndexConfig.newBuilder().withEngineType(engineType).fromProperties(props).build());
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.execution;
+
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.engine.TaskContextSupplier;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.util.queue.BoundedInMemoryQueue;
+import org.apache.hudi.common.util.queue.BoundedInMemoryQueueConsumer;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieException;
+import org.apache.hudi.execution.HoodieLazyInsertIterable.HoodieInsertValueGenResult;
+import org.apache.hudi.io.HoodieWriteHandle;
+import org.apache.hudi.io.WriteHandleFactory;
+import org.apache.hudi.table.HoodieTable;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Consumes stream of hoodie records from in-memory queue and spreads them across a pool of writer threads. Each
+ * writer thread runs its own {@link CopyOnWriteInsertHandler}, so every writer owns its own create-handles and the
+ * file encoding of a single task is done on several cores.
+ *
+ * <p>The records of a partition path are handed over in small batches, and consecutive batches go to the writers in
+ * turn. A batch takes at most half of a writer's queue, so the consumer thread moves on to the next writer while the
+ * previous one is still encoding, and all the writers are busy at the same time. Every writer keeps one rolling file
+ * per partition path, so a partition path with more than one batch of records is written into up to as many files
+ * as there are writers. Sorted input stays sorted within every file written.
+ */
+public class CopyOnWriteParallelInsertHandler<T extends HoodieRecordPayload>
+    extends BoundedInMemoryQueueConsumer<HoodieInsertValueGenResult<HoodieRecord>, List<WriteStatus>> {
+
+  private static final Logger LOG = LogManager.getLogger(CopyOnWriteParallelInsertHandler.class);
+
+  private final HoodieWriteConfig config;
+  private final String instantTime;
+  private final boolean areRecordsSorted;
+  private final HoodieTable hoodieTable;
+  private final String idPrefix;
+  private final TaskContextSupplier taskContextSupplier;
+  private final WriteHandleFactory writeHandleFactory;
+  private final int numWriters;
+
+  // Executor service used for launching writer threads.
+  private final ExecutorService writerService;
+  // Queues feeding the writer threads, started lazily so that writers without records do not open any file
+  private final List<BoundedInMemoryQueue<HoodieInsertValueGenResult<HoodieRecord>, HoodieInsertValueGenResult<HoodieRecord>>> queues =
+      new ArrayList<>();
+  private final List<Future<List<WriteStatus>>> writerResults = new ArrayList<>();
+  private final List<WriteStatus> statuses = new ArrayList<>();
+  // Maximum number of records in a batch
+  private final long recordsPerBatch;
+  // Partition path -> writer and size of its current batch
+  private final Map<String, Batch> currentBatches = new HashMap<>();
+  private int numBatches = 0;
+
+  public CopyOnWriteParallelInsertHandler(HoodieWriteConfig config, String instantTime,
+                                          boolean areRecordsSorted, HoodieTable hoodieTable, String idPrefix,
+                                          TaskContextSupplier taskContextSupplier,
+                                          WriteHandleFactory writeHandleFactory, int numWriters) {
+    this.config = config;
+    this.instantTime = instantTime;
+    this.areRecordsSorted = areRecordsSorted;
+    this.hoodieTable = hoodieTable;
+    this.idPrefix = idPrefix;
+    this.taskContextSupplier = taskContextSupplier;
+    this.writeHandleFactory = new SynchronizedWriteHandleFactory(writeHandleFactory);
+    this.numWriters = numWriters;
+    this.recordsPerBatch = Math.max(1L, getWriterQueueSizeInBytes() / (2L * config.getCopyOnWriteRecordSizeEstimate()));
+    this.writerService = Executors.newFixedThreadPool(numWriters);
+  }
+
+  /**
+   * Callback to implement environment specific behavior before a writer thread starts writing.
+   */
+  protected void preWrite() {
+    // Do Nothing in general context
+  }
+
+  @Override
+  public List<WriteStatus> consume(BoundedInMemoryQueue<?, HoodieInsertValueGenResult<HoodieRecord>> queue) throws Exception {
+    try {
+      return super.consume(queue);
+    } catch (Exception e) {
+      // Stop the writers, they would otherwise wait for records that are never going to come
+      queues.forEach(writerQueue -> writerQueue.markAsFailed(e));
+      throw e;
+    } finally {
+      writerService.shutdownNow();
+    }
+  }
+
+  @Override
+  protected void consumeOneRecord(HoodieInsertValueGenResult<HoodieRecord> payload) {
+    String partitionPath = payload.record.getPartitionPath();
+    Batch batch = currentBatches.get(partitionPath);
+    if (batch == null || batch.numRecords == recordsPerBatch) {
+      // start a new batch on the next writer, so that the writers encode their batches at the same time
+      batch = new Batch(numBatches++ % numWriters);
+      currentBatches.put(partitionPath, batch);
+      if (batch.writerIndex == queues.size()) {
+        startWriter();
+      }
+    }
+    batch.numRecords++;
+    int writerIndex = batch.writerIndex;
+    try {
+      queues.get(writerIndex).insertRecord(payload);
+    } catch (Exception e) {
+      throw new HoodieException("Failed to hand over record to writer " + writerIndex, e);
+    }
+  }
+
+  @Override
+  protected void finish() {
+    queues.forEach(BoundedInMemoryQueue::close);
+    for (Future<List<WriteStatus>> writerResult : writerResults) {
+      try {
+        statuses.addAll(writerResult.get());
+      } catch (Exception e) {
+        throw new HoodieException("Failed to write records in parallel writer", e);
+      }
+    }
+    assert statuses.size() > 0;
+  }
+
+  @Override
+  protected List<WriteStatus> getResult() {
+    return statuses;
+  }
+
+  private long getWriterQueueSizeInBytes() {
+    return Math.max(1, config.getWriteBufferLimitBytes() / numWriters);
+  }
+
+  private void startWriter() {
+    final BoundedInMemoryQueue<HoodieInsertValueGenResult<HoodieRecord>, HoodieInsertValueGenResult<HoodieRecord>> queue =
+        new BoundedInMemoryQueue<>(getWriterQueueSizeInBytes(), Function.identity());
+    final CopyOnWriteInsertHandler<T> writer = new CopyOnWriteInsertHandler<>(config, instantTime, areRecordsSorted,
+        hoodieTable, idPrefix, taskContextSupplier, writeHandleFactory);
+    final int writerIndex = queues.size();
+    queues.add(queue);
+    writerResults.add(writerService.submit(() -> {
+      LOG.info("starting parallel writer " + writerIndex);
+      preWrite();
+      try {
+        return writer.consume(queue);
+      } catch (Exception e) {
+        LOG.error("error writing records in parallel writer " + writerIndex, e);
+        queue.markAsFailed(e);
+        throw e;
+      }
+    }));
+  }
+
+  /**
+   * Contiguous records of a partition path handed over to the same writer.
+   */
+  private static class Batch {
+
+    private final int writerIndex;
+    private long numRecords = 0;
+
+    Batch(int writerIndex) {
+      this.writerIndex = writerIndex;
+    }
+  }
+
+  /**
+   * Write handle factory shared by the writer threads, which hands out file ids one at a time.
+   */
+  private static class SynchronizedWriteHandleFactory<T extends HoodieRecordPayload, I, K, O> extends WriteHandleFactory<T, I, K, O> {
+
+    private final WriteHandleFactory<T, I, K, O> delegate;
+
+    SynchronizedWriteHandleFactory(WriteHandleFactory<T, I, K, O> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public HoodieWriteHandle<T, I, K, O> create(HoodieWriteConfig config, String commitTime, HoodieTable<T, I, K, O> hoodieTable,
+                                                String partitionPath, String fileIdPrefix, TaskContextSupplier taskContextSupplier) {
+      synchronized (delegate) {
+        return delegate.create(config, commitTime, hoodieTable, partitionPath, fileIdPrefix, taskContextSupplier);
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bucket;
+
+import org.apache.hudi.common.fs.FSUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Maps record keys to buckets and buckets to file ids for the bucket index.
+ * <p>
+ * The file id of a bucket starts with the bucket id and the number of buckets of its partition, e.g.
+ * {@code 00000003-00000256-xxxx-xxxxxxxxxxxx-0}, so that the layout of a partition can be derived from
+ * its file groups alone.
+ */
+public class BucketIdentifier {
+
+  private static final Pattern BUCKET_FILE_ID_PATTERN = Pattern.compile("^\\d{8}-\\d{8}-.*");
+
+  private BucketIdentifier() {
+  }
+
+  public static int getBucketId(String recordKey, int numBuckets) {
+    // String#hashCode is specified by the JLS, so every writer computes the same bucket
+    return (recordKey.hashCode() & Integer.MAX_VALUE) % numBuckets;
+  }
+
+  /**
+   * Returns a new file id prefix for the bucket, in the format of {@link FSUtils#createNewFileIdPfx()}.
+   */
+  public static String newBucketFileIdPrefix(int bucketId, int numBuckets) {
+    return String.format("%08d-%08d", bucketId, numBuckets) + FSUtils.createNewFileIdPfx().substring(18);
+  }
+
+  /**
+   * Returns the file id prefix for the bucket derived from the given seed, so that concurrent writers assigning
+   * a new file group to the same bucket pick the same file group.
+   */
+  public static String newBucketFileIdPrefix(int bucketId, int numBuckets, String seed) {
+    String uuid = UUID.nameUUIDFromBytes((seed + "/" + bucketId + "/" + numBuckets).getBytes(StandardCharsets.UTF_8)).toString();
+    return String.format("%08d-%08d", bucketId, numBuckets) + uuid.substring(18);
+  }
+
+  /**
+   * Returns a new file id for the bucket, as written by the {@link org.apache.hudi.io.SingleFileHandleCreateFactory}
+   * for the prefix of {@link #newBucketFileIdPrefix(int, int)}.
+   */
+  public static String newBucketFileId(int bucketId, int numBuckets) {
+    return newBucketFileIdPrefix(bucketId, numBuckets) + "-0";
+  }
+
+  public static boolean isBucketFileId(String fileId) {
+    return BUCKET_FILE_ID_PATTERN.matcher(fileId).matches();
+  }
+
+  public static int bucketIdFromFileId(String fileId) {
+    return Integer.parseInt(fileId.substring(0, 8));
+  }
+
+  public static int numBucketsFromFileId(String fileId) {
+    return Integer.parseInt(fileId.substring(9, 17));
+  }
+}
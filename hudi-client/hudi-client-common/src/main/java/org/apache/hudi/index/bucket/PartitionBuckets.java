@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bucket;
+
+import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.collection.Pair;
+import org.apache.hudi.exception.HoodieIndexException;
+import org.apache.hudi.index.HoodieIndexUtils;
+import org.apache.hudi.table.HoodieTable;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The bucket layout of a partition: its number of buckets and the location of the existing file group of each bucket.
+ */
+public class PartitionBuckets implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String partitionPath;
+  private final int numBuckets;
+  private final Map<Integer, HoodieRecordLocation> bucketIdToLocation;
+
+  private PartitionBuckets(String partitionPath, int numBuckets, Map<Integer, HoodieRecordLocation> bucketIdToLocation) {
+    this.partitionPath = partitionPath;
+    this.numBuckets = numBuckets;
+    this.bucketIdToLocation = bucketIdToLocation;
+  }
+
+  /**
+   * Loads the buckets of the partition from its latest file slices. A new partition gets the given number of buckets,
+   * an existing one keeps the number of buckets it was written with.
+   */
+  public static PartitionBuckets load(HoodieTable<?, ?, ?, ?> hoodieTable, String partitionPath, int defaultNumBuckets) {
+    List<FileSlice> fileSlices = hoodieTable.getSliceView().getLatestFileSlices(partitionPath).collect(Collectors.toList());
+    List<String> nonBucketFileIds = fileSlices.stream().map(FileSlice::getFileId)
+        .filter(fileId -> !BucketIdentifier.isBucketFileId(fileId)).collect(Collectors.toList());
+    if (!nonBucketFileIds.isEmpty()) {
+      // the records of these file groups could hash to any bucket, writing beside them would duplicate their keys
+      throw new HoodieIndexException("Partition " + partitionPath + " has " + nonBucketFileIds.size()
+          + " file groups not laid out by the bucket index, e.g. "
+          + nonBucketFileIds.subList(0, Math.min(3, nonBucketFileIds.size()))
+          + ". Cluster the partition into buckets with SparkBucketResizeClusteringPlanStrategy before using the bucket index");
+    }
+    Map<Integer, HoodieRecordLocation> bucketIdToLocation = new HashMap<>();
+    int numBuckets = -1;
+    for (FileSlice fileSlice : fileSlices) {
+      String fileId = fileSlice.getFileId();
+      int fileNumBuckets = BucketIdentifier.numBucketsFromFileId(fileId);
+      if (numBuckets != -1 && numBuckets != fileNumBuckets) {
+        throw new HoodieIndexException("Partition " + partitionPath + " has file groups of " + numBuckets
+            + " and " + fileNumBuckets + " buckets");
+      }
+      numBuckets = fileNumBuckets;
+      HoodieRecordLocation previous = bucketIdToLocation.put(BucketIdentifier.bucketIdFromFileId(fileId),
+          new HoodieRecordLocation(fileSlice.getBaseInstantTime(), fileId));
+      if (previous != null) {
+        throw new HoodieIndexException("Bucket of file group " + fileId + " of partition " + partitionPath
+            + " already has the file group " + previous.getFileId());
+      }
+    }
+    return new PartitionBuckets(partitionPath, numBuckets == -1 ? defaultNumBuckets : numBuckets, bucketIdToLocation);
+  }
+
+  /**
+   * Tags the records with the location of the file group of their bucket, loading the buckets of each partition once.
+   * The records of the buckets without a file group yet are left untagged, i.e. inserts.
+   */
+  public static <T extends HoodieRecordPayload> Iterator<HoodieRecord<T>> tagLocation(Iterator<HoodieRecord<T>> records,
+      HoodieTable<?, ?, ?, ?> hoodieTable, int defaultNumBuckets) {
+    Map<String, PartitionBuckets> partitionToBuckets = new HashMap<>();
+    return new Iterator<HoodieRecord<T>>() {
+      @Override
+      public boolean hasNext() {
+        return records.hasNext();
+      }
+
+      @Override
+      public HoodieRecord<T> next() {
+        HoodieRecord<T> record = records.next();
+        PartitionBuckets buckets = partitionToBuckets.computeIfAbsent(record.getPartitionPath(),
+            partitionPath -> load(hoodieTable, partitionPath, defaultNumBuckets));
+        return HoodieIndexUtils.getTaggedRecord(record, buckets.getLocation(buckets.getBucketId(record.getRecordKey())));
+      }
+    };
+  }
+
+  /**
+   * Returns the partition path and bucket id of each record, loading the buckets of each partition once.
+   */
+  public static Iterator<Pair<String, Integer>> getBucketIds(Iterator<? extends HoodieRecord<?>> records,
+      HoodieTable<?, ?, ?, ?> hoodieTable, int defaultNumBuckets) {
+    Map<String, PartitionBuckets> partitionToBuckets = new HashMap<>();
+    return new Iterator<Pair<String, Integer>>() {
+      @Override
+      public boolean hasNext() {
+        return records.hasNext();
+      }
+
+      @Override
+      public Pair<String, Integer> next() {
+        HoodieRecord<?> record = records.next();
+        PartitionBuckets buckets = partitionToBuckets.computeIfAbsent(record.getPartitionPath(),
+            partitionPath -> load(hoodieTable, partitionPath, defaultNumBuckets));
+        return Pair.of(record.getPartitionPath(), buckets.getBucketId(record.getRecordKey()));
+      }
+    };
+  }
+
+  public String getPartitionPath() {
+    return partitionPath;
+  }
+
+  public int getNumBuckets() {
+    return numBuckets;
+  }
+
+  public int getBucketId(String recordKey) {
+    return BucketIdentifier.getBucketId(recordKey, numBuckets);
+  }
+
+  /**
+   * Returns the location of the existing file group of the bucket, if any.
+   */
+  public Option<HoodieRecordLocation> getLocation(int bucketId) {
+    return Option.ofNullable(bucketIdToLocation.get(bucketId));
+  }
+
+  @Override
+  public String toString() {
+    return "PartitionBuckets{partitionPath=" + partitionPath + ", numBuckets=" + numBuckets
+        + ", existingBuckets=" + bucketIdToLocation.size() + '}';
+  }
+}
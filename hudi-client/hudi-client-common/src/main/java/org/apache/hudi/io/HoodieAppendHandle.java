@@ -93,6 +93,8 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
   protected long updatedRecordsWritten = 0;
   // Total number of new records inserted into the delta file
   protected long insertRecordsWritten = 0;
+  // Total number of log blocks appended during an append
+  protected long blocksWritten = 0;
 
   // Average record size for a HoodieRecord. This size is updated at the end of every log block flushed to disk
   private long averageRecordSize = 0;
@@ -106,6 +108,8 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
   private final int maxBlockSize = config.getLogFileDataBlockMaxSize();
   // Header metadata for a log block
   protected final Map<HeaderMetadataType, String> header = new HashMap<>();
+  // Whether the incoming records already carry the hoodie metadata fields, which are then written as is
+  protected boolean preserveMetadataFields = false;
   private SizeEstimator<HoodieRecord> sizeEstimator;
 
   public HoodieAppendHandle(HoodieWriteConfig config, String instantTime, HoodieTable<T, I, K, O> hoodieTable,
@@ -189,15 +193,18 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
   private Option<IndexedRecord> getIndexedRecord(HoodieRecord<T> hoodieRecord) {
     Option<Map<String, String>> recordMetadata = hoodieRecord.getData().getMetadata();
     try {
-      Option<IndexedRecord> avroRecord = hoodieRecord.getData().getInsertValue(writerSchema);
+      Option<IndexedRecord> avroRecord = hoodieRecord.getData()
+          .getInsertValue(preserveMetadataFields ? writerSchemaWithMetafields : writerSchema);
       if (avroRecord.isPresent()) {
         // Convert GenericRecord to GenericRecord with hoodie commit metadata in schema
         avroRecord = Option.of(rewriteRecord((GenericRecord) avroRecord.get()));
-        String seqId =
-            HoodieRecord.generateSequenceId(instantTime, getPartitionId(), RECORD_COUNTER.getAndIncrement());
-        HoodieAvroUtils.addHoodieKeyToRecord((GenericRecord) avroRecord.get(), hoodieRecord.getRecordKey(),
-            hoodieRecord.getPartitionPath(), fileId);
-        HoodieAvroUtils.addCommitMetadataToRecord((GenericRecord) avroRecord.get(), instantTime, seqId);
+        if (!preserveMetadataFields) {
+          String seqId =
+              HoodieRecord.generateSequenceId(instantTime, getPartitionId(), RECORD_COUNTER.getAndIncrement());
+          HoodieAvroUtils.addHoodieKeyToRecord((GenericRecord) avroRecord.get(), hoodieRecord.getRecordKey(),
+              hoodieRecord.getPartitionPath(), fileId);
+          HoodieAvroUtils.addCommitMetadataToRecord((GenericRecord) avroRecord.get(), instantTime, seqId);
+        }
         if (isUpdateRecord(hoodieRecord)) {
           updatedRecordsWritten++;
         } else {
@@ -249,6 +256,7 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
     updatedRecordsWritten = 0;
     insertRecordsWritten = 0;
     recordsDeleted = 0;
+    blocksWritten = 0;
   }
 
   private void updateWriteCounts(HoodieDeltaWriteStat stat, AppendResult result) {
@@ -256,6 +264,7 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
     stat.setNumUpdateWrites(updatedRecordsWritten);
     stat.setNumInserts(insertRecordsWritten);
     stat.setNumDeletes(recordsDeleted);
+    stat.setTotalLogBlocks(blocksWritten);
     stat.setTotalWriteBytes(result.size());
   }
 
@@ -264,6 +273,7 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
     stat.setNumUpdateWrites(stat.getNumUpdateWrites() + updatedRecordsWritten);
     stat.setNumInserts(stat.getNumInserts() + insertRecordsWritten);
     stat.setNumDeletes(stat.getNumDeletes() + recordsDeleted);
+    stat.setTotalLogBlocks(stat.getTotalLogBlocks() + blocksWritten);
     stat.setTotalWriteBytes(stat.getTotalWriteBytes() + result.size());
   }
 
@@ -345,6 +355,7 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
 
       if (blocks.size() > 0) {
         AppendResult appendResult = writer.appendBlocks(blocks);
+        blocksWritten += blocks.size();
         processAppendResult(appendResult);
         recordList.clear();
         keysToDelete.clear();
@@ -404,7 +415,7 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
     return statuses;
   }
 
-  private Writer createLogWriter(Option<FileSlice> fileSlice, String baseCommitTime)
+  protected Writer createLogWriter(Option<FileSlice> fileSlice, String baseCommitTime)
       throws IOException, InterruptedException {
     Option<HoodieLogFile> latestLogFile = fileSlice.get().getLatestLogFile();
 
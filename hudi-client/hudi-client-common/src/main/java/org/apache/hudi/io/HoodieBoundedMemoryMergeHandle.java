@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.io;
+
+import org.apache.hudi.avro.HoodieAvroUtils;
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.engine.TaskContextSupplier;
+import org.apache.hudi.common.model.HoodieFileFormat;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.util.HoodieRecordSizeEstimator;
+import org.apache.hudi.common.util.ParquetUtils;
+import org.apache.hudi.common.util.SizeEstimator;
+import org.apache.hudi.common.util.collection.ExternalSorter;
+import org.apache.hudi.common.util.collection.SequentialSpillFile;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieUpsertException;
+import org.apache.hudi.table.HoodieTable;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hoodie merge handle for update batches that may not fit in the merge memory.
+ * <p>
+ * The incoming records are kept in memory as long as they fit in {@link IOUtils#getMaxMemoryPerPartitionMerge},
+ * in which case the handle merges exactly like the {@link HoodieMergeHandle}. Otherwise, instead of looking up every
+ * old record in a spilled map, which costs a random disk read per old record:
+ * <ul>
+ *   <li>if the old file is sorted by record key, the incoming records are sorted externally and merged with the old
+ *   records in a single streaming pass, keeping the new file sorted;</li>
+ *   <li>otherwise the incoming and the old records are both spilled into hash partitions of the record key, sized so
+ *   that the incoming records of a partition fit in memory, and the partitions are merged one after the other.</li>
+ * </ul>
+ */
+public class HoodieBoundedMemoryMergeHandle<T extends HoodieRecordPayload, I, K, O> extends HoodieMergeHandle<T, I, K, O> {
+
+  private static final Logger LOG = LogManager.getLogger(HoodieBoundedMemoryMergeHandle.class);
+
+  // Re-estimate the size of the incoming records every so many records
+  private static final int NUMBER_OF_RECORDS_TO_ESTIMATE_SIZE = 100;
+
+  // Set by init(fileId, newRecordsItr), which runs within the constructor of the parent
+  private Iterator<HoodieRecord<T>> newRecordsItr;
+  private long memoryForMerge;
+
+  // Streaming merge against a sorted old file
+  private ExternalSorter<HoodieRecord<T>> newRecordsSorter;
+  private Iterator<HoodieRecord<T>> sortedNewRecordsItr;
+  private HoodieRecord<T> sortedNewRecordsLookahead;
+  private HoodieRecord<T> nextSortedNewRecord;
+  private HoodieRecord<T> lastMergedRecord;
+
+  // Partitioned merge against an unsorted old file
+  private List<SequentialSpillFile<HoodieRecord<T>>> newRecordPartitions;
+  private List<SequentialSpillFile<byte[]>> oldRecordPartitions;
+  private Schema oldRecordSchema;
+
+  public HoodieBoundedMemoryMergeHandle(HoodieWriteConfig config, String instantTime, HoodieTable<T, I, K, O> hoodieTable,
+      Iterator<HoodieRecord<T>> recordItr, String partitionPath, String fileId, TaskContextSupplier taskContextSupplier) {
+    super(config, instantTime, hoodieTable, recordItr, partitionPath, fileId, taskContextSupplier);
+    loadNewRecords();
+  }
+
+  @Override
+  protected void init(String fileId, Iterator<HoodieRecord<T>> newRecordsItr) {
+    // the records are loaded once the old file is known, to decide how to merge them
+    this.newRecordsItr = newRecordsItr;
+    this.keyToNewRecords = new HashMap<>();
+  }
+
+  private HoodieRecord<T> nextNewRecord() {
+    HoodieRecord<T> record = newRecordsItr.next();
+    // update the new location of the record, so we know where to find it next
+    if (needsUpdateLocation()) {
+      record.unseal();
+      record.setNewLocation(new HoodieRecordLocation(instantTime, fileId));
+      record.seal();
+    }
+    return record;
+  }
+
+  private void loadNewRecords() {
+    memoryForMerge = IOUtils.getMaxMemoryPerPartitionMerge(taskContextSupplier, config.getProps());
+    LOG.info("MaxMemoryPerPartitionMerge => " + memoryForMerge);
+    SizeEstimator<HoodieRecord<T>> sizeEstimator = new HoodieRecordSizeEstimator<>(writerSchema);
+    long numRecords = 0;
+    long estimatedRecordSize = 0;
+    while (newRecordsItr.hasNext()) {
+      HoodieRecord<T> record = nextNewRecord();
+      if (numRecords % NUMBER_OF_RECORDS_TO_ESTIMATE_SIZE == 0) {
+        long recordSize = sizeEstimator.sizeEstimate(record);
+        estimatedRecordSize = numRecords == 0 ? recordSize : (long) (0.9 * estimatedRecordSize + 0.1 * recordSize);
+      }
+      numRecords++;
+      keyToNewRecords.put(record.getRecordKey(), record);
+      if (keyToNewRecords.size() * estimatedRecordSize > memoryForMerge) {
+        if (isOldFileSorted()) {
+          sortNewRecords(sizeEstimator);
+        } else {
+          partitionNewRecords(numRecords, estimatedRecordSize);
+        }
+        return;
+      }
+    }
+    LOG.info("Number of entries in memory => " + keyToNewRecords.size());
+  }
+
+  private boolean isOldFileSorted() {
+    if (hoodieTable.requireSortedRecords()) {
+      return true;
+    }
+    return oldFilePath.getName().endsWith(HoodieFileFormat.PARQUET.getFileExtension())
+        && ParquetUtils.isSortedByRecordKey(hoodieTable.getHadoopConf(), oldFilePath);
+  }
+
+  private void sortNewRecords(SizeEstimator<HoodieRecord<T>> sizeEstimator) {
+    newRecordsSorter = new ExternalSorter<>(memoryForMerge, config.getSpillableMapBasePath(),
+        Comparator.comparing(HoodieRecord::getRecordKey), sizeEstimator);
+    keyToNewRecords.values().forEach(newRecordsSorter::add);
+    keyToNewRecords = new HashMap<>();
+    while (newRecordsItr.hasNext()) {
+      newRecordsSorter.add(nextNewRecord());
+    }
+    LOG.info("Old file " + oldFilePath + " is sorted, merging " + newRecordsSorter.size() + " sorted records spilled in "
+        + newRecordsSorter.getNumSpilledRuns() + " runs");
+    sortedNewRecordsItr = newRecordsSorter.sortedIterator();
+    sortedNewRecordsLookahead = sortedNewRecordsItr.hasNext() ? sortedNewRecordsItr.next() : null;
+    advanceSortedNewRecords();
+  }
+
+  /**
+   * Moves to the next incoming record in key order, keeping only the last one of the records of a key.
+   */
+  private void advanceSortedNewRecords() {
+    HoodieRecord<T> record = sortedNewRecordsLookahead;
+    sortedNewRecordsLookahead = sortedNewRecordsItr.hasNext() ? sortedNewRecordsItr.next() : null;
+    while (record != null && sortedNewRecordsLookahead != null
+        && sortedNewRecordsLookahead.getRecordKey().equals(record.getRecordKey())) {
+      record = sortedNewRecordsLookahead;
+      sortedNewRecordsLookahead = sortedNewRecordsItr.hasNext() ? sortedNewRecordsItr.next() : null;
+    }
+    nextSortedNewRecord = record;
+  }
+
+  private void partitionNewRecords(long numRecordsLoaded, long estimatedRecordSize) {
+    try {
+      // spill everything first, the number of partitions depends on the number of records
+      SequentialSpillFile<HoodieRecord<T>> allNewRecords = new SequentialSpillFile<>(config.getSpillableMapBasePath());
+      keyToNewRecords.values().forEach(allNewRecords::append);
+      keyToNewRecords = new HashMap<>();
+      while (newRecordsItr.hasNext()) {
+        allNewRecords.append(nextNewRecord());
+      }
+      // leave room for skew between the partitions
+      int numPartitions = (int) Math.max(2, Math.min(Integer.MAX_VALUE,
+          (2 * allNewRecords.size() * estimatedRecordSize + memoryForMerge - 1) / memoryForMerge));
+      newRecordPartitions = new ArrayList<>(numPartitions);
+      oldRecordPartitions = new ArrayList<>(numPartitions);
+      for (int i = 0; i < numPartitions; i++) {
+        newRecordPartitions.add(new SequentialSpillFile<>(config.getSpillableMapBasePath()));
+        oldRecordPartitions.add(new SequentialSpillFile<>(config.getSpillableMapBasePath()));
+      }
+      for (HoodieRecord<T> record : allNewRecords) {
+        newRecordPartitions.get(getPartition(record.getRecordKey())).append(record);
+      }
+      LOG.info("Old file " + oldFilePath + " is not sorted, merging " + allNewRecords.size() + " records in "
+          + numPartitions + " partitions, " + numRecordsLoaded + " records fit in memory");
+      allNewRecords.close();
+    } catch (IOException e) {
+      throw new HoodieUpsertException("Failed to spill incoming records for fileId " + fileId, e);
+    }
+  }
+
+  private int getPartition(String recordKey) {
+    return (recordKey.hashCode() & Integer.MAX_VALUE) % newRecordPartitions.size();
+  }
+
+  @Override
+  public void write(GenericRecord oldRecord) {
+    if (newRecordsSorter != null) {
+      writeSorted(oldRecord);
+    } else if (newRecordPartitions != null) {
+      String key = oldRecord.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString();
+      if (oldRecordSchema == null) {
+        oldRecordSchema = oldRecord.getSchema();
+      }
+      oldRecordPartitions.get(getPartition(key)).append(HoodieAvroUtils.avroToBytes(oldRecord));
+    } else {
+      super.write(oldRecord);
+    }
+  }
+
+  private void writeSorted(GenericRecord oldRecord) {
+    String key = oldRecord.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString();
+    // To maintain overall sorted order across updates and inserts, write any new inserts whose keys are less than
+    // the oldRecord's key.
+    while (nextSortedNewRecord != null && nextSortedNewRecord.getRecordKey().compareTo(key) < 0) {
+      writeSortedInsertRecord(nextSortedNewRecord);
+      advanceSortedNewRecords();
+    }
+    if (nextSortedNewRecord != null && nextSortedNewRecord.getRecordKey().equals(key)) {
+      lastMergedRecord = nextSortedNewRecord;
+      advanceSortedNewRecords();
+    }
+    if (lastMergedRecord != null && lastMergedRecord.getRecordKey().equals(key)) {
+      // the old file may hold duplicates of the key, so merge a copy as the written record gets deflated
+      if (writeMergedRecord(new HoodieRecord<>(lastMergedRecord), oldRecord)) {
+        return;
+      }
+    }
+    copyOldRecord(key, oldRecord);
+  }
+
+  private void writeSortedInsertRecord(HoodieRecord<T> hoodieRecord) {
+    try {
+      writeInsertRecord(hoodieRecord);
+    } catch (IOException e) {
+      throw new HoodieUpsertException("Failed to write records", e);
+    }
+  }
+
+  @Override
+  public List<WriteStatus> close() {
+    if (newRecordsSorter != null) {
+      while (nextSortedNewRecord != null) {
+        writeSortedInsertRecord(nextSortedNewRecord);
+        advanceSortedNewRecords();
+      }
+      newRecordsSorter.close();
+      newRecordsSorter = null;
+    } else if (newRecordPartitions != null) {
+      for (int i = 0; i < newRecordPartitions.size(); i++) {
+        mergePartition(newRecordPartitions.get(i), oldRecordPartitions.get(i));
+      }
+      newRecordPartitions = null;
+      oldRecordPartitions = null;
+    }
+    keyToNewRecords = Collections.emptyMap();
+    writtenRecordKeys.clear();
+    return super.close();
+  }
+
+  private void mergePartition(SequentialSpillFile<HoodieRecord<T>> newRecords, SequentialSpillFile<byte[]> oldRecords) {
+    try {
+      keyToNewRecords = new HashMap<>();
+      for (HoodieRecord<T> record : newRecords) {
+        keyToNewRecords.put(record.getRecordKey(), record);
+      }
+      writtenRecordKeys.clear();
+      for (byte[] oldRecord : oldRecords) {
+        super.write(HoodieAvroUtils.bytesToAvro(oldRecord, oldRecordSchema));
+      }
+      for (HoodieRecord<T> record : keyToNewRecords.values()) {
+        if (!writtenRecordKeys.contains(record.getRecordKey())) {
+          writeInsertRecord(record);
+        }
+      }
+    } catch (IOException e) {
+      throw new HoodieUpsertException("Failed to merge spilled records for fileId " + fileId, e);
+    } finally {
+      newRecords.close();
+      oldRecords.close();
+    }
+  }
+}
@@ -154,9 +154,9 @@ public class HoodieCreateHandle<T extends HoodieRecordPayload, I, K, O> extends
         final String key = keyIterator.next();
         HoodieRecord<T> record = recordMap.get(key);
         if (useWriterSchema) {
-          write(record, record.getData().getInsertValue(writerSchemaWithMetafields));
+          write(record, record.getData().getInsertValue(writerSchemaWithMetafields, config.getPayloadConfig().getProps(), true));
         } else {
-          write(record, record.getData().getInsertValue(writerSchema));
+          write(record, record.getData().getInsertValue(writerSchema, config.getPayloadConfig().getProps(), true));
         }
       }
     } catch (IOException io) {
@@ -23,13 +23,14 @@ import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecordLocation;
 import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.util.ParquetUtils;
+import org.apache.hudi.common.util.collection.CompactStringArray;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.table.HoodieTable;
 
 import org.apache.hadoop.fs.Path;
 
-import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * {@link HoodieRecordLocation} fetch handle for all records from {@link HoodieBaseFile} of interest.
@@ -46,10 +47,21 @@ public class HoodieKeyLocationFetchHandle<T extends HoodieRecordPayload, I, K, O
     this.partitionPathBaseFilePair = partitionPathBaseFilePair;
   }
 
-  public Stream<Pair<HoodieKey, HoodieRecordLocation>> locations() {
+  /**
+   * Reads the keys of all the records in the base file. They all live at the same location, which is returned once
+   * alongside them, so callers pair each key with it only as they consume the keys.
+   */
+  public Pair<HoodieRecordLocation, Iterable<HoodieKey>> keysAtLocation() {
     HoodieBaseFile baseFile = partitionPathBaseFilePair.getRight();
-    return ParquetUtils.fetchRecordKeyPartitionPathFromParquet(hoodieTable.getHadoopConf(), new Path(baseFile.getPath())).stream()
-        .map(entry -> Pair.of(entry,
-            new HoodieRecordLocation(baseFile.getCommitTime(), baseFile.getFileId())));
+    HoodieRecordLocation location = new HoodieRecordLocation(baseFile.getCommitTime(), baseFile.getFileId());
+    if (config.getSimpleIndexReadKeysOnly()) {
+      // all the records of a base file belong to its partition, so only the key column needs to be read
+      String partitionPath = partitionPathBaseFilePair.getLeft();
+      CompactStringArray recordKeys = ParquetUtils.readRecordKeyColumn(hoodieTable.getHadoopConf(), new Path(baseFile.getPath()));
+      Iterable<HoodieKey> keys = () -> StreamSupport.stream(recordKeys.spliterator(), false)
+          .map(recordKey -> new HoodieKey(recordKey, partitionPath)).iterator();
+      return Pair.of(location, keys);
+    }
+    return Pair.of(location, ParquetUtils.fetchRecordKeyPartitionPathFromParquet(hoodieTable.getHadoopConf(), new Path(baseFile.getPath())));
   }
 }
@@ -77,7 +77,8 @@ public class HoodieKeyLookupHandle<T extends HoodieRecordPayload, I, K, O> exten
                                                  Path filePath) throws HoodieIndexException {
     List<String> foundRecordKeys = new ArrayList<>();
     try {
-      // Load all rowKeys from the file, to double-confirm
+      // Look the candidates up in the file, to double-confirm. Only the row groups whose key range covers
+      // some candidate are read, which prunes most of the file when it is sorted by record key.
       if (!candidateRecordKeys.isEmpty()) {
         HoodieTimer timer = new HoodieTimer().startTimer();
         Set<String> fileRowKeys = createNewFileReader().filterRowKeys(new HashSet<>(candidateRecordKeys));
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.io;
+
+import org.apache.hudi.common.engine.TaskContextSupplier;
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.common.model.HoodieLogFile;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.table.log.HoodieLogFormat;
+import org.apache.hudi.common.table.log.HoodieLogFormat.Writer;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.table.HoodieTable;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * IO Operation to write the merged log records of a file slice into a new log file of the slice, without touching
+ * its base file.
+ * <p>
+ * The records are written as is, keeping their hoodie metadata fields, in compacted blocks whose
+ * {@link HeaderMetadataType#COMPACTED_BLOCK_TIMES} header lists the instants of the log blocks they replace.
+ * Log scanners discard the replaced blocks when they read a compacted block, so the slice reads the same
+ * before and after the cleaner deletes the replaced log files.
+ */
+public class HoodieLogCompactionHandle<T extends HoodieRecordPayload, I, K, O> extends HoodieAppendHandle<T, I, K, O> {
+
+  public HoodieLogCompactionHandle(HoodieWriteConfig config, String instantTime, HoodieTable<T, I, K, O> hoodieTable,
+                                   String partitionPath, String fileId, Iterator<HoodieRecord<T>> recordItr,
+                                   Set<String> compactedInstants, TaskContextSupplier taskContextSupplier) {
+    super(config, instantTime, hoodieTable, partitionPath, fileId, recordItr, taskContextSupplier);
+    this.preserveMetadataFields = true;
+    this.header.put(HeaderMetadataType.COMPACTED_BLOCK_TIMES, String.join(",", compactedInstants));
+  }
+
+  @Override
+  protected boolean isUpdateRecord(HoodieRecord<T> hoodieRecord) {
+    // every merged record rewrites a record of the replaced log blocks
+    return true;
+  }
+
+  @Override
+  protected boolean needsUpdateLocation() {
+    // records stay in the same file group
+    return false;
+  }
+
+  @Override
+  protected Writer createLogWriter(Option<FileSlice> fileSlice, String baseCommitTime)
+      throws IOException, InterruptedException {
+    // always start a new log file, so that the replaced log files can be deleted as a whole
+    Option<HoodieLogFile> latestLogFile = fileSlice.get().getLatestLogFile();
+
+    return HoodieLogFormat.newWriterBuilder()
+        .onParentPath(FSUtils.getPartitionPath(hoodieTable.getMetaClient().getBasePath(), partitionPath))
+        .withFileId(fileId).overBaseCommit(baseCommitTime)
+        .withLogVersion(latestLogFile.map(logFile -> logFile.getLogVersion() + 1).orElse(HoodieLogFile.LOGFILE_BASE_VERSION))
+        .withFileSize(0L)
+        .withSizeThreshold(config.getLogFileMaxSize()).withFs(fs)
+        .withRolloverLogWriteToken(writeToken)
+        .withLogWriteToken(writeToken)
+        .withFileExtension(HoodieLogFile.DELTA_EXTENSION).build();
+  }
+}
@@ -276,38 +276,62 @@ public class HoodieMergeHandle<T extends HoodieRecordPayload, I, K, O> extends H
       // If we have duplicate records that we are updating, then the hoodie record will be deflated after
       // writing the first record. So make a copy of the record to be merged
       HoodieRecord<T> hoodieRecord = new HoodieRecord<>(keyToNewRecords.get(key));
-      try {
-        Option<IndexedRecord> combinedAvroRecord =
-            hoodieRecord.getData().combineAndGetUpdateValue(oldRecord, useWriterSchema ? writerSchemaWithMetafields : writerSchema,
-                config.getPayloadConfig().getProps());
-        if (writeUpdateRecord(hoodieRecord, combinedAvroRecord)) {
-          /*
-           * ONLY WHEN 1) we have an update for this key AND 2) We are able to successfully write the the combined new
-           * value
-           *
-           * We no longer need to copy the old record over.
-           */
-          copyOldRecord = false;
-        }
-        writtenRecordKeys.add(key);
-      } catch (Exception e) {
-        throw new HoodieUpsertException("Failed to combine/merge new record with old value in storage, for new record {"
-            + keyToNewRecords.get(key) + "}, old value {" + oldRecord + "}", e);
-      }
+      /*
+       * ONLY WHEN 1) we have an update for this key AND 2) We are able to successfully write the the combined new
+       * value
+       *
+       * We no longer need to copy the old record over.
+       */
+      copyOldRecord = !writeMergedRecord(hoodieRecord, oldRecord);
+      writtenRecordKeys.add(key);
     }
 
     if (copyOldRecord) {
-      // this should work as it is, since this is an existing record
-      try {
-        fileWriter.writeAvro(key, oldRecord);
-      } catch (IOException | RuntimeException e) {
-        String errMsg = String.format("Failed to merge old record into new file for key %s from old file %s to new file %s with writerSchema %s",
-                key, getOldFilePath(), newFilePath, writerSchemaWithMetafields.toString(true));
-        LOG.debug("Old record is " + oldRecord);
-        throw new HoodieUpsertException(errMsg, e);
-      }
-      recordsWritten++;
+      copyOldRecord(key, oldRecord);
+    }
+  }
+
+  /**
+   * Combines the new record with the old record and writes the result, returns whether it was written.
+   */
+  protected boolean writeMergedRecord(HoodieRecord<T> hoodieRecord, GenericRecord oldRecord) {
+    try {
+      Option<IndexedRecord> combinedAvroRecord =
+          hoodieRecord.getData().combineAndGetUpdateValue(oldRecord, useWriterSchema ? writerSchemaWithMetafields : writerSchema,
+              config.getPayloadConfig().getProps(), true);
+      return writeUpdateRecord(hoodieRecord, combinedAvroRecord);
+    } catch (Exception e) {
+      throw new HoodieUpsertException("Failed to combine/merge new record with old value in storage, for new record {"
+          + hoodieRecord + "}, old value {" + oldRecord + "}", e);
+    }
+  }
+
+  /**
+   * Writes the old record as is, for old records without a new version.
+   */
+  protected void copyOldRecord(String key, GenericRecord oldRecord) {
+    // this should work as it is, since this is an existing record
+    try {
+      fileWriter.writeAvro(key, oldRecord);
+    } catch (IOException | RuntimeException e) {
+      String errMsg = String.format("Failed to merge old record into new file for key %s from old file %s to new file %s with writerSchema %s",
+              key, getOldFilePath(), newFilePath, writerSchemaWithMetafields.toString(true));
+      LOG.debug("Old record is " + oldRecord);
+      throw new HoodieUpsertException(errMsg, e);
     }
+    recordsWritten++;
+  }
+
+  /**
+   * Writes a new record without an old version.
+   */
+  protected void writeInsertRecord(HoodieRecord<T> hoodieRecord) throws IOException {
+    if (useWriterSchema) {
+      writeRecord(hoodieRecord, hoodieRecord.getData().getInsertValue(writerSchemaWithMetafields, config.getPayloadConfig().getProps(), true));
+    } else {
+      writeRecord(hoodieRecord, hoodieRecord.getData().getInsertValue(writerSchema, config.getPayloadConfig().getProps(), true));
+    }
+    insertRecordsWritten++;
   }
 
   @Override
@@ -319,16 +343,13 @@ public class HoodieMergeHandle<T extends HoodieRecordPayload, I, K, O> extends H
       while (newRecordsItr.hasNext()) {
         HoodieRecord<T> hoodieRecord = newRecordsItr.next();
         if (!writtenRecordKeys.contains(hoodieRecord.getRecordKey())) {
-          if (useWriterSchema) {
-            writeRecord(hoodieRecord, hoodieRecord.getData().getInsertValue(writerSchemaWithMetafields));
-          } else {
-            writeRecord(hoodieRecord, hoodieRecord.getData().getInsertValue(writerSchema));
-          }
-          insertRecordsWritten++;
+          writeInsertRecord(hoodieRecord);
         }
       }
 
-      ((ExternalSpillableMap) keyToNewRecords).close();
+      if (keyToNewRecords instanceof ExternalSpillableMap) {
+        ((ExternalSpillableMap) keyToNewRecords).close();
+      }
       writtenRecordKeys.clear();
 
       if (fileWriter != null) {
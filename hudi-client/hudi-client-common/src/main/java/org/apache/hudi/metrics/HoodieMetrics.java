@@ -214,6 +214,34 @@ public class HoodieMetrics {
     }
   }
 
+  public void updateInsertPlanningMetrics(long durationInMs, long recordSizeEstimationDurationInMs,
+      long smallFilesLookupDurationInMs, long numPartitionsListed, long numSmallFilesPacked, long numNewFileGroups) {
+    if (config.isMetricsOn()) {
+      LOG.info(String.format("Sending insert planning metrics (duration=%d, recordSizeEstimationDuration=%d, "
+              + "smallFilesLookupDuration=%d, numPartitionsListed=%d, numSmallFilesPacked=%d, numNewFileGroups=%d)",
+          durationInMs, recordSizeEstimationDurationInMs, smallFilesLookupDurationInMs, numPartitionsListed,
+          numSmallFilesPacked, numNewFileGroups));
+      Metrics.registerGauge(getMetricsName("insertPlanning", "duration"), durationInMs);
+      Metrics.registerGauge(getMetricsName("insertPlanning", "recordSizeEstimationDuration"), recordSizeEstimationDurationInMs);
+      Metrics.registerGauge(getMetricsName("insertPlanning", "smallFilesLookupDuration"), smallFilesLookupDurationInMs);
+      Metrics.registerGauge(getMetricsName("insertPlanning", "numPartitionsListed"), numPartitionsListed);
+      Metrics.registerGauge(getMetricsName("insertPlanning", "numSmallFilesPacked"), numSmallFilesPacked);
+      Metrics.registerGauge(getMetricsName("insertPlanning", "numNewFileGroups"), numNewFileGroups);
+    }
+  }
+
+  /**
+   * Records the latency of a stage of the streaming commits into a histogram, so that the
+   * distribution over the checkpoints is reported instead of the last value.
+   */
+  public void updateStreamingCommitLatency(final String stage, final long durationInMs) {
+    if (config.isMetricsOn()) {
+      Metrics.getInstance().getRegistry()
+          .histogram(getMetricsName("streamingCommit", String.format("%s.latencyInMs", stage)))
+          .update(durationInMs);
+    }
+  }
+
   String getMetricsName(String action, String metric) {
     return config == null ? null : String.format("%s.%s.%s", tableName, action, metric);
   }
@@ -65,8 +65,10 @@ import org.apache.hudi.exception.HoodieInsertException;
 import org.apache.hudi.exception.HoodieUpsertException;
 import org.apache.hudi.index.HoodieIndex;
 import org.apache.hudi.metadata.HoodieTableMetadata;
+import org.apache.hudi.metrics.HoodieMetrics;
 import org.apache.hudi.table.action.HoodieWriteMetadata;
 import org.apache.hudi.table.action.bootstrap.HoodieBootstrapWriteMetadata;
+import org.apache.hudi.table.action.commit.PartitionFileStatsCache;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
@@ -102,6 +104,10 @@ public abstract class HoodieTable<T extends HoodieRecordPayload, I, K, O> implem
   private transient FileSystemViewManager viewManager;
   protected final transient HoodieEngineContext context;
 
+  // owned by the write client creating the table for a write, null otherwise
+  private transient PartitionFileStatsCache partitionFileStatsCache;
+  private transient HoodieMetrics metrics;
+
   protected HoodieTable(HoodieWriteConfig config, HoodieEngineContext context, HoodieTableMetaClient metaClient) {
     this.config = config;
     this.hadoopConfiguration = context.getHadoopConf();
@@ -359,6 +365,16 @@ public abstract class HoodieTable<T extends HoodieRecordPayload, I, K, O> implem
   public abstract HoodieWriteMetadata<O> compact(HoodieEngineContext context,
                                               String compactionInstantTime);
 
+  /**
+   * Run log compaction on the table. Log compaction merges the log files of a file slice into a new log file,
+   * leaving its base file untouched.
+   *
+   * @param context HoodieEngineContext
+   * @param instantTime Instant Time for the action
+   * @return HoodieWriteMetadata
+   */
+  public abstract HoodieWriteMetadata<O> logCompact(HoodieEngineContext context, String instantTime);
+
 
   /**
    * Schedule clustering for the instant time.
@@ -578,6 +594,22 @@ public abstract class HoodieTable<T extends HoodieRecordPayload, I, K, O> implem
     return taskContextSupplier;
   }
 
+  /**
+   * Lends the table the partition file stats cache and the metrics of the write client writing through it.
+   */
+  public void setWriteClientResources(PartitionFileStatsCache partitionFileStatsCache, HoodieMetrics metrics) {
+    this.partitionFileStatsCache = partitionFileStatsCache;
+    this.metrics = metrics;
+  }
+
+  public Option<PartitionFileStatsCache> getPartitionFileStatsCache() {
+    return Option.ofNullable(partitionFileStatsCache);
+  }
+
+  public Option<HoodieMetrics> getMetrics() {
+    return Option.ofNullable(metrics);
+  }
+
   /**
    * Ensure that the current writerSchema is compatible with the latest schema of this dataset.
    *
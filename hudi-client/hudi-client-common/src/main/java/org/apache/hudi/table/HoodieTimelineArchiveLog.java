@@ -22,18 +22,24 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hudi.avro.HoodieAvroUtils;
 import org.apache.hudi.avro.model.HoodieArchivedMetaEntry;
 import org.apache.hudi.avro.model.HoodieCompactionPlan;
 import org.apache.hudi.avro.model.HoodieRollbackMetadata;
 import org.apache.hudi.avro.model.HoodieSavepointMetadata;
 import org.apache.hudi.client.ReplaceArchivalHelper;
 import org.apache.hudi.common.engine.HoodieEngineContext;
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.fs.HoodieWrapperFileSystem;
 import org.apache.hudi.common.model.ActionType;
 import org.apache.hudi.common.model.HoodieArchivedLogFile;
 import org.apache.hudi.common.model.HoodieAvroPayload;
 import org.apache.hudi.common.model.HoodieCommitMetadata;
 import org.apache.hudi.common.model.HoodieFailedWritesCleaningPolicy;
+import org.apache.hudi.common.model.HoodieLogFile;
+import org.apache.hudi.common.model.HoodiePartitionMetadata;
 import org.apache.hudi.common.model.HoodieReplaceCommitMetadata;
 import org.apache.hudi.common.model.HoodieRollingStatMetadata;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
@@ -44,6 +50,7 @@ import org.apache.hudi.common.table.log.block.HoodieLogBlock;
 import org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType;
 import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
 import org.apache.hudi.common.table.timeline.HoodieArchivedTimeline;
+import org.apache.hudi.common.table.timeline.HoodieArchivedTimelineIndex;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
 import org.apache.hudi.common.table.timeline.TimelineMetadataUtils;
@@ -67,6 +74,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -83,6 +91,10 @@ import static org.apache.hudi.common.table.timeline.HoodieTimeline.LESSER_THAN_O
 public class HoodieTimelineArchiveLog<T extends HoodieAvroPayload, I, K, O> {
 
   private static final Logger LOG = LogManager.getLogger(HoodieTimelineArchiveLog.class);
+  // the merged archive files are written under this file id, and take this write token when moved in place
+  private static final String MERGE_ARCHIVE_FILE_ID = "commits_merge";
+  private static final String MERGED_ARCHIVE_WRITE_TOKEN = "0-0-0";
+  private static final int MAX_ARCHIVE_FILES_TO_MERGE = 1000;
 
   private final Path archiveFilePath;
   private final HoodieWriteConfig config;
@@ -119,6 +131,7 @@ public class HoodieTimelineArchiveLog<T extends HoodieAvroPayload, I, K, O> {
     try {
       if (this.writer != null) {
         this.writer.close();
+        this.writer = null;
       }
     } catch (IOException e) {
       throw new HoodieException("Unable to close HoodieLogFormat writer", e);
@@ -138,7 +151,9 @@ public class HoodieTimelineArchiveLog<T extends HoodieAvroPayload, I, K, O> {
         LOG.info("Archiving instants " + instantsToArchive);
         archive(context, instantsToArchive);
         LOG.info("Deleting archived instants " + instantsToArchive);
-        success = deleteArchivedInstants(instantsToArchive);
+        success = deleteArchivedInstants(context, instantsToArchive);
+        close();
+        mergeArchiveFilesAndUpdateIndex();
       } else {
         LOG.info("No Instants to archive");
       }
@@ -236,18 +251,27 @@ public class HoodieTimelineArchiveLog<T extends HoodieAvroPayload, I, K, O> {
             HoodieInstant.getComparableAction(hoodieInstant.getAction()))).stream());
   }
 
-  private boolean deleteArchivedInstants(List<HoodieInstant> archivedInstants) throws IOException {
+  private boolean deleteArchivedInstants(HoodieEngineContext context, List<HoodieInstant> archivedInstants) throws IOException {
     LOG.info("Deleting instants " + archivedInstants);
     boolean success = true;
-    for (HoodieInstant archivedInstant : archivedInstants) {
-      Path commitFile = new Path(metaClient.getMetaPath(), archivedInstant.getFileName());
-      try {
-        if (metaClient.getFs().exists(commitFile)) {
-          success &= metaClient.getFs().delete(commitFile, false);
-          LOG.info("Archived and deleted instant file " + commitFile);
+    if (config.getCommitArchivalParallelism() > 1) {
+      // Delete the requested and inflight files before the completed ones, so that an archived instant
+      // is never seen as pending on the active timeline
+      Map<Boolean, List<HoodieInstant>> completedToInstants = archivedInstants.stream()
+          .collect(Collectors.partitioningBy(HoodieInstant::isCompleted));
+      success &= deleteInstantFilesInParallel(context, completedToInstants.get(false));
+      success &= deleteInstantFilesInParallel(context, completedToInstants.get(true));
+    } else {
+      for (HoodieInstant archivedInstant : archivedInstants) {
+        Path commitFile = new Path(metaClient.getMetaPath(), archivedInstant.getFileName());
+        try {
+          if (metaClient.getFs().exists(commitFile)) {
+            success &= metaClient.getFs().delete(commitFile, false);
+            LOG.info("Archived and deleted instant file " + commitFile);
+          }
+        } catch (IOException e) {
+          throw new HoodieIOException("Failed to delete archived instant " + archivedInstant, e);
         }
-      } catch (IOException e) {
-        throw new HoodieIOException("Failed to delete archived instant " + archivedInstant, e);
       }
     }
 
@@ -261,6 +285,25 @@ public class HoodieTimelineArchiveLog<T extends HoodieAvroPayload, I, K, O> {
     return success;
   }
 
+  private boolean deleteInstantFilesInParallel(HoodieEngineContext context, List<HoodieInstant> instants) {
+    if (instants.isEmpty()) {
+      return true;
+    }
+    HoodieTableMetaClient metaClient = this.metaClient;
+    List<String> instantFiles = instants.stream()
+        .map(instant -> new Path(metaClient.getMetaPath(), instant.getFileName()).toString())
+        .collect(Collectors.toList());
+    context.setJobStatus(this.getClass().getSimpleName(), "Delete archived instant files");
+    return context.map(instantFiles, instantFile -> {
+      Path commitFile = new Path(instantFile);
+      try {
+        return !metaClient.getFs().exists(commitFile) || metaClient.getFs().delete(commitFile, false);
+      } catch (IOException e) {
+        throw new HoodieIOException("Failed to delete archived instant file " + instantFile, e);
+      }
+    }, Math.min(instantFiles.size(), config.getCommitArchivalParallelism())).stream().allMatch(deleted -> deleted);
+  }
+
   /**
    * Remove older instants from auxiliary meta folder.
    *
@@ -306,6 +349,10 @@ public class HoodieTimelineArchiveLog<T extends HoodieAvroPayload, I, K, O> {
   }
 
   public void archive(HoodieEngineContext context, List<HoodieInstant> instants) throws HoodieCommitException {
+    if (config.getCommitArchivalParallelism() > 1) {
+      archiveInParallel(context, instants);
+      return;
+    }
     try {
       HoodieTimeline commitTimeline = metaClient.getActiveTimeline().getAllCommitsTimeline().filterCompletedInstants();
       Schema wrapperSchema = HoodieArchivedMetaEntry.getClassSchema();
@@ -319,7 +366,7 @@ public class HoodieTimelineArchiveLog<T extends HoodieAvroPayload, I, K, O> {
         }
         try {
           deleteAnyLeftOverMarkerFiles(context, hoodieInstant);
-          records.add(convertToAvroRecord(commitTimeline, hoodieInstant));
+          records.add(convertToAvroRecord(metaClient, commitTimeline, hoodieInstant));
           if (records.size() >= this.config.getCommitArchivalBatchSize()) {
             writeToFile(wrapperSchema, records);
           }
@@ -336,6 +383,167 @@ public class HoodieTimelineArchiveLog<T extends HoodieAvroPayload, I, K, O> {
     }
   }
 
+  /**
+   * Archives the instants by reading their details through the engine context, a bounded number of batches at a time,
+   * and appending each batch to the archive log as one block. Only the instants are shipped to the tasks, which return
+   * the archived entries as avro bytes to be decoded here.
+   */
+  private void archiveInParallel(HoodieEngineContext context, List<HoodieInstant> instants) throws HoodieCommitException {
+    try {
+      Schema wrapperSchema = HoodieArchivedMetaEntry.getClassSchema();
+      LOG.info("Wrapper schema " + wrapperSchema.toString());
+      for (HoodieInstant hoodieInstant : instants) {
+        boolean deleteSuccess = deleteReplacedFileGroups(context, hoodieInstant);
+        if (!deleteSuccess) {
+          LOG.warn("Unable to delete file(s) for " + hoodieInstant.getFileName() + ", replaced files possibly deleted by cleaner");
+        }
+        deleteAnyLeftOverMarkerFiles(context, hoodieInstant);
+      }
+
+      HoodieTableMetaClient metaClient = this.metaClient;
+      boolean failOnArchivingError = config.isFailOnTimelineArchivingEnabled();
+      int parallelism = config.getCommitArchivalParallelism();
+      int batchSize = config.getCommitArchivalBatchSize();
+      for (List<HoodieInstant> batches : CollectionUtils.batches(instants, batchSize * parallelism)) {
+        context.setJobStatus(this.getClass().getSimpleName(), "Read details of instants to archive");
+        List<byte[]> serializedRecords = context.map(batches, hoodieInstant -> {
+          try {
+            // the details are read straight from the instant files, so the instants of the timeline are not needed
+            IndexedRecord record = convertToAvroRecord(metaClient, metaClient.getActiveTimeline(), hoodieInstant);
+            return HoodieAvroUtils.indexedRecordToBytes(record);
+          } catch (Exception e) {
+            LOG.error("Failed to archive commits, .commit file: " + hoodieInstant.getFileName(), e);
+            if (failOnArchivingError) {
+              throw new HoodieCommitException("Failed to archive " + hoodieInstant, e);
+            }
+            return null;
+          }
+        }, Math.min(batches.size(), parallelism));
+        List<IndexedRecord> records = new ArrayList<>();
+        for (byte[] serializedRecord : serializedRecords) {
+          if (serializedRecord != null) {
+            records.add(HoodieAvroUtils.bytesToAvro(serializedRecord, wrapperSchema));
+          }
+        }
+        for (List<IndexedRecord> batch : CollectionUtils.batches(records, batchSize)) {
+          writeToFile(wrapperSchema, new ArrayList<>(batch));
+        }
+      }
+    } catch (Exception e) {
+      throw new HoodieCommitException("Failed to archive commits", e);
+    }
+  }
+
+  /**
+   * Merges the older small archive files, so that the readers open fewer files, and brings the archived timeline index
+   * up to date. Failures are only logged, as the instants are archived already and the readers do not depend on either.
+   */
+  private void mergeArchiveFilesAndUpdateIndex() {
+    try {
+      HoodieArchivedTimelineIndex index = HoodieArchivedTimelineIndex.sync(metaClient);
+      List<FileStatus> filesToMerge = getArchiveFilesToMerge();
+      if (!filesToMerge.isEmpty()) {
+        mergeArchiveFiles(index, filesToMerge);
+      }
+    } catch (Exception e) {
+      LOG.warn("Failed to merge the archive files and update the archived timeline index", e);
+    }
+  }
+
+  /**
+   * Returns the oldest run of consecutive archive files smaller than the small file limit, if it is long enough to be
+   * merged. The latest archive file is left out, as it is still appended to.
+   */
+  private List<FileStatus> getArchiveFilesToMerge() throws IOException {
+    int minFilesToMerge = config.getCommitArchivalMergeMinFiles();
+    if (minFilesToMerge <= 1) {
+      return Collections.emptyList();
+    }
+    // sorted from the latest to the oldest
+    FileStatus[] archiveFiles = HoodieArchivedTimelineIndex.listArchiveFiles(metaClient);
+    List<FileStatus> filesToMerge = new ArrayList<>();
+    for (int i = archiveFiles.length - 1; i > 0 && filesToMerge.size() < MAX_ARCHIVE_FILES_TO_MERGE; i--) {
+      if (archiveFiles[i].getLen() < config.getCommitArchivalMergeSmallFileLimit()) {
+        filesToMerge.add(archiveFiles[i]);
+      } else if (filesToMerge.size() >= minFilesToMerge) {
+        break;
+      } else {
+        filesToMerge.clear();
+      }
+    }
+    // the merged file takes the version of the last file, which should not be a merged file already
+    while (!filesToMerge.isEmpty() && MERGED_ARCHIVE_WRITE_TOKEN.equals(
+        FSUtils.getWriteTokenFromLogPath(filesToMerge.get(filesToMerge.size() - 1).getPath()))) {
+      filesToMerge.remove(filesToMerge.size() - 1);
+    }
+    return filesToMerge.size() >= minFilesToMerge ? filesToMerge : Collections.emptyList();
+  }
+
+  /**
+   * Rewrites the archive blocks of the given consecutive archive files into a new archive file which takes the version
+   * of the last one, then deletes them. The new file is written under a name the readers do not list, and is only
+   * moved in place after the index records it as replacing the merged files, so the readers never see both.
+   */
+  private void mergeArchiveFiles(HoodieArchivedTimelineIndex index, List<FileStatus> filesToMerge) throws Exception {
+    HoodieWrapperFileSystem fs = metaClient.getFs();
+    Path archiveFolder = archiveFilePath.getParent();
+    // clean up the leftovers of the merges which failed before moving the merged file in place
+    FileStatus[] leftovers = fs.globStatus(new Path(archiveFolder, "." + MERGE_ARCHIVE_FILE_ID + "_*"));
+    if (leftovers != null) {
+      for (FileStatus leftover : leftovers) {
+        fs.delete(leftover.getPath(), false);
+      }
+    }
+
+    int mergedVersion = FSUtils.getFileVersionFromLog(filesToMerge.get(filesToMerge.size() - 1).getPath());
+    LOG.info("Merging archive files " + filesToMerge + " into version " + mergedVersion);
+    Schema wrapperSchema = HoodieArchivedMetaEntry.getClassSchema();
+    Writer mergeWriter = HoodieLogFormat.newWriterBuilder().onParentPath(archiveFolder)
+        .withFileId(MERGE_ARCHIVE_FILE_ID).withFileExtension(HoodieArchivedLogFile.ARCHIVE_EXTENSION)
+        .overBaseCommit("").withLogVersion(mergedVersion).withFileSize(0L).withSizeThreshold(Long.MAX_VALUE)
+        .withLogWriteToken(MERGED_ARCHIVE_WRITE_TOKEN).withRolloverLogWriteToken(MERGED_ARCHIVE_WRITE_TOKEN)
+        .withFs(fs).build();
+    Path tmpPath = mergeWriter.getLogFile().getPath();
+    try {
+      List<IndexedRecord> records = new ArrayList<>();
+      for (FileStatus fileToMerge : filesToMerge) {
+        try (HoodieLogFormat.Reader reader = HoodieLogFormat.newReader(fs, new HoodieLogFile(fileToMerge.getPath()), wrapperSchema)) {
+          while (reader.hasNext()) {
+            HoodieLogBlock block = reader.next();
+            if (block instanceof HoodieAvroDataBlock) {
+              records.addAll(((HoodieAvroDataBlock) block).getRecords());
+              if (records.size() >= config.getCommitArchivalBatchSize()) {
+                writeToFile(mergeWriter, wrapperSchema, records);
+              }
+            }
+          }
+        }
+      }
+      writeToFile(mergeWriter, wrapperSchema, records);
+    } finally {
+      mergeWriter.close();
+    }
+
+    List<String> mergedFileNames = filesToMerge.stream().map(f -> f.getPath().getName()).collect(Collectors.toList());
+    Path mergedPath = new Path(archiveFolder, FSUtils.makeLogFileName(archiveFilePath.getName(),
+        HoodieArchivedLogFile.ARCHIVE_EXTENSION, "", mergedVersion, MERGED_ARCHIVE_WRITE_TOKEN));
+    if (fs.exists(tmpPath)) {
+      index.replaceFiles(mergedFileNames, mergedPath.getName(),
+          HoodieArchivedTimelineIndex.indexFile(fs, fs.getFileStatus(tmpPath)));
+      index.save(metaClient);
+      if (!fs.rename(tmpPath, mergedPath)) {
+        throw new HoodieIOException("Failed to move merged archive file " + tmpPath + " to " + mergedPath);
+      }
+    }
+    for (FileStatus fileToMerge : filesToMerge) {
+      if (!fs.delete(fileToMerge.getPath(), false)) {
+        throw new HoodieIOException("Failed to delete merged archive file " + fileToMerge.getPath());
+      }
+    }
+    // drop the deleted files from the index
+    HoodieArchivedTimelineIndex.sync(metaClient);
+  }
+
   private void deleteAnyLeftOverMarkerFiles(HoodieEngineContext context, HoodieInstant instant) {
     MarkerFiles markerFiles = new MarkerFiles(table, instant.getTimestamp());
     if (markerFiles.deleteMarkerDir(context, config.getMarkersDeleteParallelism())) {
@@ -367,17 +575,27 @@ public class HoodieTimelineArchiveLog<T extends HoodieAvroPayload, I, K, O> {
   }
 
   private void writeToFile(Schema wrapperSchema, List<IndexedRecord> records) throws Exception {
+    writeToFile(writer, wrapperSchema, records);
+  }
+
+  private static void writeToFile(Writer writer, Schema wrapperSchema, List<IndexedRecord> records) throws IOException, InterruptedException {
     if (records.size() > 0) {
       Map<HeaderMetadataType, String> header = new HashMap<>();
       header.put(HoodieLogBlock.HeaderMetadataType.SCHEMA, wrapperSchema.toString());
+      // the instant time range of the block lets readers skip the blocks out of the time range they load
+      int commitTimePos = wrapperSchema.getField(HoodiePartitionMetadata.COMMIT_TIME_KEY).pos();
+      List<String> instantTimes = records.stream().map(record -> record.get(commitTimePos).toString())
+          .sorted().collect(Collectors.toList());
+      header.put(HeaderMetadataType.MIN_INSTANT_TIME, instantTimes.get(0));
+      header.put(HeaderMetadataType.MAX_INSTANT_TIME, instantTimes.get(instantTimes.size() - 1));
       HoodieAvroDataBlock block = new HoodieAvroDataBlock(records, header);
       writer.appendBlock(block);
       records.clear();
     }
   }
 
-  private IndexedRecord convertToAvroRecord(HoodieTimeline commitTimeline, HoodieInstant hoodieInstant)
-      throws IOException {
+  private static IndexedRecord convertToAvroRecord(HoodieTableMetaClient metaClient, HoodieTimeline commitTimeline,
+                                                  HoodieInstant hoodieInstant) throws IOException {
     HoodieArchivedMetaEntry archivedMetaWrapper = new HoodieArchivedMetaEntry();
     archivedMetaWrapper.setCommitTime(hoodieInstant.getTimestamp());
     archivedMetaWrapper.setActionState(hoodieInstant.getState().name());
@@ -23,6 +23,7 @@ import org.apache.hudi.common.util.collection.Pair;
 
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.HashSet;
 
 /**
  * Wraps stats about a single partition path.
@@ -35,8 +36,12 @@ public class WorkloadStat implements Serializable {
 
   private HashMap<String, Pair<String, Long>> updateLocationToCount;
 
+  // ids of the buckets the inserts hash to, only tracked with the bucket index
+  private HashSet<Integer> insertBucketIds;
+
   public WorkloadStat() {
     updateLocationToCount = new HashMap<>();
+    insertBucketIds = new HashSet<>();
   }
 
   public long addInserts(long numInserts) {
@@ -54,6 +59,10 @@ public class WorkloadStat implements Serializable {
     return this.numUpdates += numUpdates;
   }
 
+  public void addInsertBucketId(int bucketId) {
+    insertBucketIds.add(bucketId);
+  }
+
   public long getNumUpdates() {
     return numUpdates;
   }
@@ -66,6 +75,10 @@ public class WorkloadStat implements Serializable {
     return updateLocationToCount;
   }
 
+  public HashSet<Integer> getInsertBucketIds() {
+    return insertBucketIds;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder("WorkloadStat {");
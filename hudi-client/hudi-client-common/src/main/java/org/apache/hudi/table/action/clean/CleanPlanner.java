@@ -39,6 +39,7 @@ import org.apache.hudi.common.table.timeline.TimelineMetadataUtils;
 import org.apache.hudi.common.table.timeline.versioning.clean.CleanPlanV1MigrationHandler;
 import org.apache.hudi.common.table.timeline.versioning.clean.CleanPlanV2MigrationHandler;
 import org.apache.hudi.common.table.view.SyncableFileSystemView;
+import org.apache.hudi.common.util.CompactionUtils;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieWriteConfig;
@@ -55,6 +56,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -76,6 +78,7 @@ public class CleanPlanner<T extends HoodieRecordPayload, I, K, O> implements Ser
   private final SyncableFileSystemView fileSystemView;
   private final HoodieTimeline commitTimeline;
   private final Map<HoodieFileGroupId, CompactionOperation> fgIdToPendingCompactionOperations;
+  private Map<HoodieFileGroupId, Set<String>> fgIdToReplacedLogFiles;
   private HoodieTable<T, I, K, O> hoodieTable;
   private HoodieWriteConfig config;
   private transient HoodieEngineContext context;
@@ -216,6 +219,8 @@ public class CleanPlanner<T extends HoodieRecordPayload, I, K, O> implements Ser
     // In this scenario, we will assume that once replaced a file group automatically becomes eligible for cleaning completely
     // In other words, the file versions only apply to the active file groups.
     deletePaths.addAll(getReplacedFilesEligibleToClean(savepointedFiles, partitionPath, Option.empty()));
+    // the same goes for the log files replaced by log compactions
+    deletePaths.addAll(getReplacedLogFilesEligibleToClean(partitionPath, Option.empty()));
 
     List<HoodieFileGroup> fileGroups = fileSystemView.getAllFileGroups(partitionPath).collect(Collectors.toList());
     for (HoodieFileGroup fileGroup : fileGroups) {
@@ -277,6 +282,8 @@ public class CleanPlanner<T extends HoodieRecordPayload, I, K, O> implements Ser
       HoodieInstant earliestCommitToRetain = earliestCommitToRetainOption.get();
       // all replaced file groups before earliestCommitToRetain are eligible to clean
       deletePaths.addAll(getReplacedFilesEligibleToClean(savepointedFiles, partitionPath, earliestCommitToRetainOption));
+      // all log files replaced by log compactions before earliestCommitToRetain are eligible to clean
+      deletePaths.addAll(getReplacedLogFilesEligibleToClean(partitionPath, earliestCommitToRetainOption));
       // add active files
       List<HoodieFileGroup> fileGroups = fileSystemView.getAllFileGroups(partitionPath).collect(Collectors.toList());
       for (HoodieFileGroup fileGroup : fileGroups) {
@@ -345,6 +352,41 @@ public class CleanPlanner<T extends HoodieRecordPayload, I, K, O> implements Ser
         .collect(Collectors.toList());
   }
 
+  /**
+   * Returns the log files of the latest file slices replaced by the log compactions completed before the earliest
+   * commit to retain, or by any completed log compaction when there is none. Log compactions after the earliest
+   * savepoint are skipped, restoring the savepoint rolls them back. Older file slices are cleaned as a whole.
+   */
+  private List<CleanFileInfo> getReplacedLogFilesEligibleToClean(String partitionPath, Option<HoodieInstant> earliestCommitToRetain) {
+    if (hoodieTable.getMetaClient().getTableType() != HoodieTableType.MERGE_ON_READ) {
+      return Collections.emptyList();
+    }
+    if (fgIdToReplacedLogFiles == null) {
+      HoodieTimeline logCompactionTimeline = commitTimeline;
+      if (earliestCommitToRetain.isPresent()) {
+        logCompactionTimeline = logCompactionTimeline.findInstantsBefore(earliestCommitToRetain.get().getTimestamp());
+      }
+      Option<String> earliestSavepoint = Option.fromJavaOptional(hoodieTable.getSavepoints().stream().min(String::compareTo));
+      if (earliestSavepoint.isPresent()) {
+        logCompactionTimeline = logCompactionTimeline.findInstantsBefore(earliestSavepoint.get());
+      }
+      fgIdToReplacedLogFiles = CompactionUtils.getLogFilesReplacedByLogCompaction(logCompactionTimeline);
+    }
+    if (fgIdToReplacedLogFiles.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return fileSystemView.getAllFileGroups(partitionPath)
+        // a pending compaction reads the replaced log files
+        .filter(fileGroup -> fgIdToReplacedLogFiles.containsKey(fileGroup.getFileGroupId()) && !isFileGroupInPendingCompaction(fileGroup))
+        .flatMap(fileGroup -> {
+          Set<String> replacedLogFiles = fgIdToReplacedLogFiles.get(fileGroup.getFileGroupId());
+          return fileGroup.getLatestFileSlice().map(FileSlice::getLogFiles).orElse(Stream.empty())
+              .filter(logFile -> replacedLogFiles.contains(logFile.getFileName()));
+        })
+        .map(logFile -> new CleanFileInfo(logFile.getPath().toString(), false))
+        .collect(Collectors.toList());
+  }
+
   /**
    * Gets the latest version < instantTime. This version file could still be used by queries.
    */
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.table.action.commit;
+
+import org.apache.hudi.common.model.HoodieCommitMetadata;
+import org.apache.hudi.common.model.HoodieReplaceCommitMetadata;
+import org.apache.hudi.common.model.HoodieWriteStat;
+import org.apache.hudi.common.table.timeline.HoodieInstant;
+import org.apache.hudi.common.table.timeline.HoodieTimeline;
+import org.apache.hudi.common.util.Option;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Caches, for a write client, the write stats of the completed commits and the small files of the partitions across
+ * commits, so that planning the inserts of a commit neither parses the metadata of the previous commits nor lists the
+ * partitions untouched since the previous plan again. The write client lends it to the tables it writes through.
+ * <p>
+ * The small files of a partition stay valid as long as no new completed commit wrote to the partition, the pending
+ * compactions and clusterings are the same and the small files are computed the same way. A completed commit
+ * disappearing from the timeline other than through archival, i.e. a rollback or a restore, drops the whole cache.
+ */
+public class PartitionFileStatsCache {
+
+  private static final Logger LOG = LogManager.getLogger(PartitionFileStatsCache.class);
+
+  // write stats of the completed commits of the active timeline, by instant time
+  private final TreeMap<String, InstantWriteStats> instantToWriteStats = new TreeMap<>();
+  // bumped for every new completed commit writing to the partition
+  private final Map<String, Long> partitionToVersion = new HashMap<>();
+  private final Map<String, CachedSmallFiles> partitionToSmallFiles = new HashMap<>();
+  private List<String> pendingTableServices = new ArrayList<>();
+
+  public PartitionFileStatsCache() {
+  }
+
+  /**
+   * Drops everything cached.
+   */
+  public synchronized void clear() {
+    instantToWriteStats.clear();
+    partitionToVersion.clear();
+    partitionToSmallFiles.clear();
+    pendingTableServices = new ArrayList<>();
+  }
+
+  /**
+   * Catches up with the completed commits of the table, reading the metadata of the commits not seen yet only.
+   *
+   * @param completedCommitsTimeline the completed commits, delta commits and replace commits of the table
+   * @param activeTimeline           the active timeline of the table, for its pending compactions and clusterings
+   */
+  public synchronized void sync(HoodieTimeline completedCommitsTimeline, HoodieTimeline activeTimeline) {
+    List<HoodieInstant> instants = completedCommitsTimeline.getInstants().collect(Collectors.toList());
+    Set<String> instantTimes = instants.stream().map(HoodieInstant::getTimestamp).collect(Collectors.toSet());
+    String firstInstantTime = instants.isEmpty() ? null : instants.get(0).getTimestamp();
+
+    boolean removedCommits = false;
+    Iterator<String> cachedInstantTimes = instantToWriteStats.keySet().iterator();
+    while (cachedInstantTimes.hasNext()) {
+      String instantTime = cachedInstantTimes.next();
+      if (!instantTimes.contains(instantTime)) {
+        // archival only removes the oldest commits
+        removedCommits |= firstInstantTime == null || instantTime.compareTo(firstInstantTime) >= 0;
+        cachedInstantTimes.remove();
+      }
+    }
+    if (removedCommits) {
+      LOG.info("Completed commits were rolled back or restored, dropping the cached partition file stats");
+      instantToWriteStats.clear();
+      partitionToVersion.clear();
+      partitionToSmallFiles.clear();
+    }
+
+    for (HoodieInstant instant : instants) {
+      if (!instantToWriteStats.containsKey(instant.getTimestamp())) {
+        InstantWriteStats writeStats = readWriteStats(completedCommitsTimeline, instant);
+        instantToWriteStats.put(instant.getTimestamp(), writeStats);
+        if (writeStats == InstantWriteStats.UNKNOWN) {
+          partitionToSmallFiles.clear();
+        }
+        writeStats.writtenPartitions.forEach(partitionPath -> partitionToVersion.merge(partitionPath, 1L, Long::sum));
+      }
+    }
+
+    List<String> pending = activeTimeline.filterPendingCompactionTimeline().getInstants()
+        .map(HoodieInstant::getTimestamp).collect(Collectors.toList());
+    activeTimeline.filterPendingReplaceTimeline().getInstants().map(HoodieInstant::getTimestamp).forEach(pending::add);
+    if (!pending.equals(pendingTableServices)) {
+      // file groups move in and out of pending compactions and clusterings
+      partitionToSmallFiles.clear();
+      pendingTableServices = pending;
+    }
+  }
+
+  /**
+   * Returns the cached small files of the partition, if they were computed with the given key and the partition was
+   * not written since.
+   */
+  public synchronized Option<List<SmallFile>> getSmallFiles(String partitionPath, String smallFilesKey) {
+    CachedSmallFiles cached = partitionToSmallFiles.get(partitionPath);
+    if (cached != null && cached.version == partitionToVersion.getOrDefault(partitionPath, 0L)
+        && cached.smallFilesKey.equals(smallFilesKey)) {
+      return Option.of(cached.smallFiles);
+    }
+    return Option.empty();
+  }
+
+  public synchronized void putSmallFiles(String partitionPath, String smallFilesKey, List<SmallFile> smallFiles) {
+    partitionToSmallFiles.put(partitionPath,
+        new CachedSmallFiles(partitionToVersion.getOrDefault(partitionPath, 0L), smallFilesKey, smallFiles));
+  }
+
+  /**
+   * Estimates the size of the records of the partition from the most recent commits writing at least the given number
+   * of bytes to it. Falls back to the most recent commit of the table writing at least that many bytes, then to the
+   * given default.
+   */
+  public synchronized long estimateRecordSize(String partitionPath, long fileSizeThreshold, long defaultRecordSize) {
+    long totalBytes = 0;
+    long totalRecords = 0;
+    for (InstantWriteStats writeStats : instantToWriteStats.descendingMap().values()) {
+      long[] bytesAndRecords = writeStats.partitionToBytesAndRecords.get(partitionPath);
+      if (writeStats.isCommit && bytesAndRecords != null) {
+        totalBytes += bytesAndRecords[0];
+        totalRecords += bytesAndRecords[1];
+        if (totalBytes > fileSizeThreshold && totalRecords > 0) {
+          return (long) Math.ceil((1.0 * totalBytes) / totalRecords);
+        }
+      }
+    }
+    for (InstantWriteStats writeStats : instantToWriteStats.descendingMap().values()) {
+      if (writeStats.isCommit && writeStats.totalBytes > fileSizeThreshold && writeStats.totalRecords > 0) {
+        return (long) Math.ceil((1.0 * writeStats.totalBytes) / writeStats.totalRecords);
+      }
+    }
+    return defaultRecordSize;
+  }
+
+  private static InstantWriteStats readWriteStats(HoodieTimeline timeline, HoodieInstant instant) {
+    try {
+      byte[] details = timeline.getInstantDetails(instant).get();
+      Set<String> writtenPartitions = new HashSet<>();
+      HoodieCommitMetadata commitMetadata;
+      if (HoodieTimeline.REPLACE_COMMIT_ACTION.equals(instant.getAction())) {
+        HoodieReplaceCommitMetadata replaceMetadata =
+            HoodieReplaceCommitMetadata.fromBytes(details, HoodieReplaceCommitMetadata.class);
+        writtenPartitions.addAll(replaceMetadata.getPartitionToReplaceFileIds().keySet());
+        commitMetadata = replaceMetadata;
+      } else {
+        commitMetadata = HoodieCommitMetadata.fromBytes(details, HoodieCommitMetadata.class);
+      }
+      Map<String, long[]> partitionToBytesAndRecords = new HashMap<>();
+      for (Map.Entry<String, List<HoodieWriteStat>> entry : commitMetadata.getPartitionToWriteStats().entrySet()) {
+        long bytes = 0;
+        long records = 0;
+        for (HoodieWriteStat writeStat : entry.getValue()) {
+          bytes += writeStat.getTotalWriteBytes();
+          records += writeStat.getNumWrites();
+        }
+        partitionToBytesAndRecords.put(entry.getKey(), new long[] {bytes, records});
+        writtenPartitions.add(entry.getKey());
+      }
+      // delta commits write log files, whose size says little about the size of the records in base files
+      boolean isCommit = !HoodieTimeline.DELTA_COMMIT_ACTION.equals(instant.getAction());
+      return new InstantWriteStats(isCommit, partitionToBytesAndRecords, writtenPartitions);
+    } catch (Throwable t) {
+      // make this fail safe, the small files of any partition may have changed
+      LOG.error("Error trying to read the write stats of " + instant, t);
+      return InstantWriteStats.UNKNOWN;
+    }
+  }
+
+  private static class InstantWriteStats {
+
+    private static final InstantWriteStats UNKNOWN = new InstantWriteStats(false, new HashMap<>(), new HashSet<>());
+
+    private final boolean isCommit;
+    private final Map<String, long[]> partitionToBytesAndRecords;
+    private final Set<String> writtenPartitions;
+    private final long totalBytes;
+    private final long totalRecords;
+
+    InstantWriteStats(boolean isCommit, Map<String, long[]> partitionToBytesAndRecords, Set<String> writtenPartitions) {
+      this.isCommit = isCommit;
+      this.partitionToBytesAndRecords = partitionToBytesAndRecords;
+      this.writtenPartitions = writtenPartitions;
+      this.totalBytes = partitionToBytesAndRecords.values().stream().mapToLong(bytesAndRecords -> bytesAndRecords[0]).sum();
+      this.totalRecords = partitionToBytesAndRecords.values().stream().mapToLong(bytesAndRecords -> bytesAndRecords[1]).sum();
+    }
+  }
+
+  private static class CachedSmallFiles {
+
+    private final long version;
+    private final String smallFilesKey;
+    private final List<SmallFile> smallFiles;
+
+    CachedSmallFiles(long version, String smallFilesKey, List<SmallFile> smallFiles) {
+      this.version = version;
+      this.smallFiles = smallFiles;
+      this.smallFilesKey = smallFilesKey;
+    }
+  }
+}
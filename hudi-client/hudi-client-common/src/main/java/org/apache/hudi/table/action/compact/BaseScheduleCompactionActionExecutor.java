@@ -51,6 +51,18 @@ public abstract class BaseScheduleCompactionActionExecutor<T extends HoodieRecor
 
   protected abstract HoodieCompactionPlan scheduleCompaction();
 
+  /**
+   * Estimates the table-wide read amplification from the log appends of the delta commits since the given instant.
+   *
+   * @param latestInstantTs instant time of the last compaction, or of the first delta commit if there is none
+   * @return average number of log blocks a reader has to merge per file group
+   */
+  protected double getEstimatedReadAmplification(String latestInstantTs) {
+    HoodieTimeline deltaCommits = table.getActiveTimeline().getDeltaCommitTimeline()
+        .findInstantsAfterOrEquals(latestInstantTs, Integer.MAX_VALUE);
+    return DeltaWriteStatsSummary.fromTimeline(deltaCommits).getAverageLogBlocksPerFileGroup();
+  }
+
   @Override
   public Option<HoodieCompactionPlan> execute() {
     // if there are inflight writes, their instantTime must not be less than that of compaction instant time
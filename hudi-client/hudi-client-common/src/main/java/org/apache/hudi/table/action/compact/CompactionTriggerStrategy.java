@@ -26,5 +26,7 @@ public enum CompactionTriggerStrategy {
     // trigger compaction when both NUM_COMMITS and TIME_ELAPSED are satisfied
     NUM_AND_TIME,
     // trigger compaction when NUM_COMMITS or TIME_ELAPSED is satisfied
-    NUM_OR_TIME
+    NUM_OR_TIME,
+    // trigger compaction when the estimated read amplification (average log blocks per file group) >= N
+    READ_AMPLIFICATION
 }
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.table.action.compact;
+
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.common.model.HoodieCommitMetadata;
+import org.apache.hudi.common.model.HoodieFileGroupId;
+import org.apache.hudi.common.model.HoodieWriteStat;
+import org.apache.hudi.common.table.timeline.HoodieTimeline;
+import org.apache.hudi.exception.HoodieIOException;
+
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of the log blocks and log records appended to each file slice, as recorded in the
+ * {@link org.apache.hudi.common.model.HoodieDeltaWriteStat}s of completed delta commits.
+ *
+ * <p>Used to estimate how much merge work a snapshot read of a file slice has to do on top of
+ * scanning its base file, i.e. its read amplification.
+ */
+public class DeltaWriteStatsSummary implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  // file group id -> base instant time of the file slice -> log stats
+  private final Map<HoodieFileGroupId, Map<String, LogStats>> fileGroupToLogStats = new HashMap<>();
+
+  private DeltaWriteStatsSummary() {
+  }
+
+  public static DeltaWriteStatsSummary empty() {
+    return new DeltaWriteStatsSummary();
+  }
+
+  /**
+   * Builds the summary from the commit metadata of all the completed delta commits of the given timeline.
+   */
+  public static DeltaWriteStatsSummary fromTimeline(HoodieTimeline deltaCommitTimeline) {
+    DeltaWriteStatsSummary summary = new DeltaWriteStatsSummary();
+    deltaCommitTimeline.filterCompletedInstants().getInstants().forEach(instant -> {
+      try {
+        HoodieCommitMetadata commitMetadata = HoodieCommitMetadata.fromBytes(
+            deltaCommitTimeline.getInstantDetails(instant).get(), HoodieCommitMetadata.class);
+        for (List<HoodieWriteStat> stats : commitMetadata.getPartitionToWriteStats().values()) {
+          stats.forEach(summary::add);
+        }
+      } catch (IOException e) {
+        throw new HoodieIOException("Failed to read delta commit metadata for " + instant, e);
+      }
+    });
+    return summary;
+  }
+
+  private void add(HoodieWriteStat stat) {
+    // inserts of a delta commit may go to new base files, only the log appends are of interest here
+    if (stat.getPath() == null || !FSUtils.isLogFile(new Path(stat.getPath()))) {
+      return;
+    }
+    LogStats logStats = fileGroupToLogStats
+        .computeIfAbsent(new HoodieFileGroupId(stat.getPartitionPath(), stat.getFileId()), k -> new HashMap<>())
+        .computeIfAbsent(stat.getPrevCommit(), k -> new LogStats());
+    // write stats from older writers do not track log blocks, every append writes at least one block
+    logStats.logBlocks += Math.max(stat.getTotalLogBlocks(), 1L);
+    logStats.logRecords += stat.getNumWrites() + stat.getNumDeletes();
+  }
+
+  /**
+   * Returns the number of log blocks a reader of the given file slice has to merge. Falls back to one block
+   * per log file when the slice has not been written by any delta commit of the summary.
+   */
+  public long getLogBlocks(FileSlice slice) {
+    LogStats logStats = getLogStats(slice);
+    return logStats == null ? slice.getLogFiles().count() : logStats.logBlocks;
+  }
+
+  /**
+   * Returns the number of log records a reader of the given file slice has to merge.
+   */
+  public long getLogRecords(FileSlice slice) {
+    LogStats logStats = getLogStats(slice);
+    return logStats == null ? 0L : logStats.logRecords;
+  }
+
+  /**
+   * Estimated table-wide read amplification: the average number of log blocks a reader has to merge per file group
+   * that received log appends.
+   */
+  public double getAverageLogBlocksPerFileGroup() {
+    long fileGroups = 0;
+    long logBlocks = 0;
+    for (Map<String, LogStats> baseInstantToLogStats : fileGroupToLogStats.values()) {
+      fileGroups++;
+      for (LogStats logStats : baseInstantToLogStats.values()) {
+        logBlocks += logStats.logBlocks;
+      }
+    }
+    return fileGroups == 0 ? 0.0 : (double) logBlocks / fileGroups;
+  }
+
+  private LogStats getLogStats(FileSlice slice) {
+    Map<String, LogStats> baseInstantToLogStats = fileGroupToLogStats.get(slice.getFileGroupId());
+    return baseInstantToLogStats == null ? null : baseInstantToLogStats.get(slice.getBaseInstantTime());
+  }
+
+  private static class LogStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long logBlocks;
+    private long logRecords;
+  }
+}
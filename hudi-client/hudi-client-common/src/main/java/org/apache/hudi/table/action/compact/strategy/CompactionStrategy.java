@@ -24,6 +24,7 @@ import org.apache.hudi.common.model.FileSlice;
 import org.apache.hudi.common.util.CompactionUtils;
 import org.apache.hudi.client.utils.FileSliceMetricUtils;
 import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.table.action.compact.DeltaWriteStatsSummary;
 
 import java.io.Serializable;
 import java.util.Collections;
@@ -60,6 +61,28 @@ public abstract class CompactionStrategy implements Serializable {
     return metrics;
   }
 
+  /**
+   * Callback hook when a HoodieCompactionOperation is created, for strategies that need the log stats recorded
+   * by the delta commits. Only invoked with a populated summary if {@link #requiresDeltaWriteStats()} is true.
+   *
+   * @param writeConfig write configuration.
+   * @param slice fileSlice to capture metrics for.
+   * @param deltaWriteStats log blocks and records appended to the file slices by the delta commits.
+   * @return Map[String, Object] - metrics captured
+   */
+  public Map<String, Double> captureMetrics(HoodieWriteConfig writeConfig, FileSlice slice,
+      DeltaWriteStatsSummary deltaWriteStats) {
+    return captureMetrics(writeConfig, slice);
+  }
+
+  /**
+   * Whether the strategy needs the delta commit metadata to capture its metrics. Reading the delta commits
+   * is skipped for strategies that do not.
+   */
+  public boolean requiresDeltaWriteStats() {
+    return false;
+  }
+
   /**
    * Generate Compaction plan. Allows clients to order and filter the list of compactions to be set. The default
    * implementation takes care of setting compactor Id from configuration allowing subclasses to only worry about
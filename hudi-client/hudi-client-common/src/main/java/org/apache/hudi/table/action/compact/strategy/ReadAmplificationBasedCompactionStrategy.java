@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.table.action.compact.strategy;
+
+import org.apache.hudi.avro.model.HoodieCompactionOperation;
+import org.apache.hudi.avro.model.HoodieCompactionPlan;
+import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.table.action.compact.DeltaWriteStatsSummary;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * ReadAmplificationBasedCompactionStrategy estimates the merge cost of every file slice from the number of log blocks
+ * and log records recorded in the delta commits, and orders the compactions by the merge cost saved per MB of
+ * compaction IO (which accounts for the base file size). The compactions are limited within a configured IO bound.
+ *
+ * @see BoundedIOCompactionStrategy
+ * @see CompactionStrategy
+ */
+public class ReadAmplificationBasedCompactionStrategy extends BoundedIOCompactionStrategy
+    implements Comparator<HoodieCompactionOperation> {
+
+  public static final String TOTAL_LOG_BLOCKS = "TOTAL_LOG_BLOCKS";
+  public static final String TOTAL_LOG_RECORDS = "TOTAL_LOG_RECORDS";
+  public static final String ESTIMATED_MERGE_COST = "ESTIMATED_MERGE_COST";
+
+  // Opening and seeking to a log block costs roughly as much as merging this many log records
+  private static final long LOG_BLOCK_COST_IN_RECORDS = 1000L;
+
+  @Override
+  public boolean requiresDeltaWriteStats() {
+    return true;
+  }
+
+  @Override
+  public Map<String, Double> captureMetrics(HoodieWriteConfig writeConfig, FileSlice slice,
+      DeltaWriteStatsSummary deltaWriteStats) {
+    Map<String, Double> metrics = super.captureMetrics(writeConfig, slice);
+    long logBlocks = deltaWriteStats.getLogBlocks(slice);
+    long logRecords = deltaWriteStats.getLogRecords(slice);
+    metrics.put(TOTAL_LOG_BLOCKS, (double) logBlocks);
+    metrics.put(TOTAL_LOG_RECORDS, (double) logRecords);
+    metrics.put(ESTIMATED_MERGE_COST, (double) (logBlocks * LOG_BLOCK_COST_IN_RECORDS + logRecords));
+    return metrics;
+  }
+
+  @Override
+  public List<HoodieCompactionOperation> orderAndFilter(HoodieWriteConfig writeConfig,
+      List<HoodieCompactionOperation> operations, List<HoodieCompactionPlan> pendingCompactionPlans) {
+    // Order the operations based on the merge cost saved per MB of IO and limit them by the IO
+    return super.orderAndFilter(writeConfig, operations.stream().sorted(this).collect(Collectors.toList()),
+        pendingCompactionPlans);
+  }
+
+  @Override
+  public int compare(HoodieCompactionOperation op1, HoodieCompactionOperation op2) {
+    // Reverse the comparison order - so that the most beneficial compaction is done first
+    return Double.compare(getMergeCostSavedPerMB(op2), getMergeCostSavedPerMB(op1));
+  }
+
+  private static double getMergeCostSavedPerMB(HoodieCompactionOperation op) {
+    Map<String, Double> metrics = op.getMetrics();
+    double mergeCost = metrics.getOrDefault(ESTIMATED_MERGE_COST, metrics.get(TOTAL_LOG_FILES));
+    return mergeCost / Math.max(metrics.get(TOTAL_IO_MB), 1.0);
+  }
+}
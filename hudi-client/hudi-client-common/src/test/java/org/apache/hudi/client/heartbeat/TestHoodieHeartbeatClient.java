@@ -25,9 +25,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -90,4 +93,49 @@ public class TestHoodieHeartbeatClient extends HoodieCommonTestHarness {
     hoodieHeartbeatClient.stop(instantTime1);
     assertFalse(HeartbeatUtils.deleteHeartbeatFile(metaClient.getFs(), basePath, instantTime2));
   }
+
+  @Test
+  public void testBatchedHeartbeat() throws IOException {
+    HoodieHeartbeatClient hoodieHeartbeatClient = new HoodieHeartbeatClient(metaClient.getFs(),
+        metaClient.getBasePath(), heartBeatInterval, numTolerableMisses, true);
+    hoodieHeartbeatClient.start(instantTime1);
+    hoodieHeartbeatClient.start(instantTime2);
+    // both instants share the heartbeat file of the client
+    FileStatus [] fs = metaClient.getFs().listStatus(new Path(hoodieHeartbeatClient.getHeartbeatFolderPath()));
+    assertEquals(1, fs.length);
+    assertTrue(hoodieHeartbeatClient.getAllExistingHeartbeatInstants().isEmpty());
+    assertTrue(HoodieHeartbeatClient.heartbeatExists(metaClient.getFs(), basePath, instantTime1));
+    assertTrue(HoodieHeartbeatClient.heartbeatExists(metaClient.getFs(), basePath, instantTime2));
+    await().atMost(5, SECONDS).until(() -> hoodieHeartbeatClient.getHeartbeat(instantTime2).getNumHeartbeats() > 1);
+
+    hoodieHeartbeatClient.stop(instantTime1);
+    assertFalse(HoodieHeartbeatClient.heartbeatExists(metaClient.getFs(), basePath, instantTime1));
+    assertTrue(HoodieHeartbeatClient.heartbeatExists(metaClient.getFs(), basePath, instantTime2));
+
+    hoodieHeartbeatClient.close();
+    fs = metaClient.getFs().listStatus(new Path(hoodieHeartbeatClient.getHeartbeatFolderPath()));
+    assertEquals(0, fs.length);
+  }
+
+  @Test
+  public void testExpiredBatchedHeartbeat() throws IOException {
+    HoodieHeartbeatClient writerClient = new HoodieHeartbeatClient(metaClient.getFs(),
+        metaClient.getBasePath(), heartBeatInterval, numTolerableMisses, true);
+    HoodieHeartbeatClient otherClient = new HoodieHeartbeatClient(metaClient.getFs(),
+        metaClient.getBasePath(), heartBeatInterval, numTolerableMisses, true);
+    writerClient.start(instantTime1);
+    assertEquals(Collections.singletonList(instantTime2),
+        otherClient.getExpiredHeartbeatInstants(Arrays.asList(instantTime1, instantTime2)));
+
+    // the writer dies, its heartbeat file is not updated anymore
+    writerClient.getHeartbeat(instantTime1).setHeartbeatStopped(true);
+    FileStatus [] fs = metaClient.getFs().listStatus(new Path(writerClient.getHeartbeatFolderPath()));
+    metaClient.getFs().setTimes(fs[0].getPath(), System.currentTimeMillis() - 10 * heartBeatInterval, -1);
+    assertEquals(Arrays.asList(instantTime1, instantTime2),
+        otherClient.getExpiredHeartbeatInstants(Arrays.asList(instantTime1, instantTime2)));
+
+    otherClient.cleanExpiredBatchedHeartbeats();
+    assertEquals(0, metaClient.getFs().listStatus(new Path(writerClient.getHeartbeatFolderPath())).length);
+    writerClient.close();
+  }
 }
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.table.action.commit;
+
+import org.apache.hudi.common.model.HoodieCommitMetadata;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.HoodieTableType;
+import org.apache.hudi.common.model.HoodieWriteStat;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
+import org.apache.hudi.common.table.timeline.HoodieInstant;
+import org.apache.hudi.common.table.timeline.HoodieTimeline;
+import org.apache.hudi.common.testutils.HoodieCommonTestHarness;
+import org.apache.hudi.common.util.Option;
+
+import org.apache.hadoop.fs.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link PartitionFileStatsCache}.
+ */
+public class TestPartitionFileStatsCache extends HoodieCommonTestHarness {
+
+  private static final String PARTITION1 = "2016/03/15";
+  private static final String PARTITION2 = "2016/03/16";
+  private static final String KEY = "key";
+
+  private PartitionFileStatsCache cache;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    initMetaClient();
+    cache = new PartitionFileStatsCache();
+  }
+
+  @Test
+  public void testSmallFilesInvalidatedByWrites() throws IOException {
+    saveCommit(HoodieTimeline.COMMIT_ACTION, "001", PARTITION1, 1000, 10);
+    sync();
+    List<SmallFile> smallFiles = Collections.singletonList(smallFile("file1", 100));
+    cache.putSmallFiles(PARTITION1, KEY, smallFiles);
+    cache.putSmallFiles(PARTITION2, KEY, Collections.emptyList());
+
+    sync();
+    assertEquals(smallFiles, cache.getSmallFiles(PARTITION1, KEY).get());
+    assertFalse(cache.getSmallFiles(PARTITION1, "otherKey").isPresent(), "Small files computed another way");
+
+    // a delta commit writing to the first partition only
+    saveCommit(HoodieTimeline.DELTA_COMMIT_ACTION, "002", PARTITION1, 1000, 10);
+    sync();
+    assertFalse(cache.getSmallFiles(PARTITION1, KEY).isPresent(), "The partition was written");
+    assertTrue(cache.getSmallFiles(PARTITION2, KEY).isPresent(), "The partition was not written");
+
+    // a compaction being scheduled
+    metaClient.getActiveTimeline().saveToCompactionRequested(
+        new HoodieInstant(HoodieInstant.State.REQUESTED, HoodieTimeline.COMPACTION_ACTION, "003"), Option.empty());
+    sync();
+    assertFalse(cache.getSmallFiles(PARTITION2, KEY).isPresent(), "The pending compactions changed");
+  }
+
+  @Test
+  public void testRollbackDropsCache() throws IOException {
+    saveCommit(HoodieTimeline.COMMIT_ACTION, "001", PARTITION1, 1000, 10);
+    saveCommit(HoodieTimeline.COMMIT_ACTION, "002", PARTITION1, 1000, 10);
+    sync();
+    cache.putSmallFiles(PARTITION2, KEY, Collections.emptyList());
+
+    metaClient.getFs().delete(new Path(metaClient.getMetaPath(),
+        new HoodieInstant(HoodieInstant.State.COMPLETED, HoodieTimeline.COMMIT_ACTION, "002").getFileName()), false);
+    sync();
+    assertFalse(cache.getSmallFiles(PARTITION2, KEY).isPresent(), "The rolled back commit may have written anywhere");
+  }
+
+  @Test
+  public void testEstimateRecordSize() throws IOException {
+    sync();
+    assertEquals(1024, cache.estimateRecordSize(PARTITION1, 1000, 1024), "No commits, the default size");
+
+    saveCommit(HoodieTimeline.COMMIT_ACTION, "001", PARTITION1, 10000, 100);
+    saveCommit(HoodieTimeline.COMMIT_ACTION, "002", PARTITION2, 20000, 1000);
+    saveCommit(HoodieTimeline.COMMIT_ACTION, "003", PARTITION1, 600, 3);
+    // delta commits write log files, they do not count
+    saveCommit(HoodieTimeline.DELTA_COMMIT_ACTION, "004", PARTITION1, 100000, 1);
+    sync();
+
+    // the two latest commits writing to the partition add up over the threshold
+    assertEquals((long) Math.ceil(10600.0 / 103), cache.estimateRecordSize(PARTITION1, 1000, 1024));
+    assertEquals(20, cache.estimateRecordSize(PARTITION2, 1000, 1024));
+    // not enough bytes written to the partition, the latest commit of the table writing enough
+    assertEquals(20, cache.estimateRecordSize(PARTITION1, 15000, 1024));
+    assertEquals(1024, cache.estimateRecordSize(PARTITION1, 50000, 1024));
+  }
+
+  @Override
+  protected HoodieTableType getTableType() {
+    return HoodieTableType.MERGE_ON_READ;
+  }
+
+  private void sync() {
+    metaClient = HoodieTableMetaClient.reload(metaClient);
+    cache.sync(metaClient.getCommitsTimeline().filterCompletedInstants(), metaClient.getActiveTimeline());
+  }
+
+  private void saveCommit(String action, String instantTime, String partitionPath, long bytes, long records) throws IOException {
+    HoodieWriteStat writeStat = new HoodieWriteStat();
+    writeStat.setPartitionPath(partitionPath);
+    writeStat.setFileId("file-" + instantTime);
+    writeStat.setTotalWriteBytes(bytes);
+    writeStat.setNumWrites(records);
+    HoodieCommitMetadata metadata = new HoodieCommitMetadata();
+    metadata.addWriteStat(partitionPath, writeStat);
+
+    HoodieActiveTimeline timeline = metaClient.getActiveTimeline();
+    HoodieInstant requested = new HoodieInstant(HoodieInstant.State.REQUESTED, action, instantTime);
+    timeline.createNewInstant(requested);
+    timeline.transitionRequestedToInflight(requested, Option.empty());
+    timeline.saveAsComplete(new HoodieInstant(HoodieInstant.State.INFLIGHT, action, instantTime), Option.of(metadata.toJsonString().getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static SmallFile smallFile(String fileId, long sizeBytes) {
+    SmallFile smallFile = new SmallFile();
+    smallFile.location = new HoodieRecordLocation("001", fileId);
+    smallFile.sizeBytes = sizeBytes;
+    return smallFile;
+  }
+}
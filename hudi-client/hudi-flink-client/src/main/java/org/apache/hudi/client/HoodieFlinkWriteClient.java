@@ -35,6 +35,7 @@ import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
 import org.apache.hudi.common.util.CommitUtils;
+import org.apache.hudi.common.util.HoodieTimer;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.HoodieCommitException;
@@ -65,6 +66,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("checkstyle:LineLength")
@@ -79,6 +85,22 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
    */
   private Map<String, HoodieWriteHandle<?, ?, ?, ?>> bucketToHandles;
 
+  /**
+   * Cached meta client of the timeline queries, the active timeline is reloaded for each query
+   * instead of initializing a new meta client.
+   */
+  private HoodieTableMetaClient metaClient;
+
+  /**
+   * Executor of the post commit actions when they run asynchronously, see {@link #startAsyncPostCommit()}.
+   */
+  private ExecutorService postCommitExecutor;
+
+  /**
+   * The post commit actions of the last commit, null if there is no one running.
+   */
+  private CompletableFuture<Void> postCommitFuture;
+
   public HoodieFlinkWriteClient(HoodieEngineContext context, HoodieWriteConfig clientConfig) {
     this(context, clientConfig, false);
   }
@@ -105,6 +127,8 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
 
   @Override
   public boolean commit(String instantTime, List<WriteStatus> writeStatuses, Option<Map<String, String>> extraMetadata, String commitActionType, Map<String, List<String>> partitionToReplacedFileIds) {
+    // the post commit actions of the last commit should not interleave with this commit
+    waitForPostCommit();
     List<HoodieWriteStat> writeStats = writeStatuses.parallelStream().map(WriteStatus::getStat).collect(Collectors.toList());
     return commitStats(instantTime, writeStats, extraMetadata, commitActionType, partitionToReplacedFileIds);
   }
@@ -114,6 +138,78 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
     return HoodieFlinkTable.create(config, (HoodieFlinkEngineContext) context);
   }
 
+  /**
+   * Runs the post commit actions, i.e. the marker files cleaning, archiving and cleaning, asynchronously
+   * after the instant is completed, so that they overlap with the start of the next instant.
+   *
+   * <p>The actions of a commit are waited for before the next commit or rollback, and when the client closes.
+   */
+  public void startAsyncPostCommit() {
+    if (this.postCommitExecutor == null) {
+      this.postCommitExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "hoodie-post-commit");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+  }
+
+  @Override
+  protected void postCommit(HoodieTable<T, List<HoodieRecord<T>>, List<HoodieKey>, List<WriteStatus>> table,
+                            HoodieCommitMetadata metadata,
+                            String instantTime,
+                            Option<Map<String, String>> extraMetadata) {
+    if (this.postCommitExecutor == null) {
+      super.postCommit(table, metadata, instantTime, extraMetadata);
+      return;
+    }
+    waitForPostCommit();
+    this.postCommitFuture = CompletableFuture.runAsync(() -> {
+      HoodieTimer timer = new HoodieTimer().startTimer();
+      // a table with its own meta client, the committing thread goes on reloading the timeline of the others
+      HoodieFlinkTable<T> postCommitTable = HoodieFlinkTable.create(config, (HoodieFlinkEngineContext) context);
+      super.postCommit(postCommitTable, metadata, instantTime, extraMetadata);
+      metrics.updateStreamingCommitLatency("postCommit", timer.endTimer());
+    }, this.postCommitExecutor);
+  }
+
+  /**
+   * Waits for the asynchronous post commit actions of the last commit if there are any.
+   *
+   * <p>The instant is already completed when its post commit actions run, a failure is logged and left to
+   * the actions of the next commit, i.e. the cleaner and archiver pick up the work again.
+   */
+  public void waitForPostCommit() {
+    if (this.postCommitFuture == null) {
+      return;
+    }
+    try {
+      this.postCommitFuture.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.warn("Interrupted while waiting for the post commit actions of table {}", config.getBasePath());
+    } catch (ExecutionException e) {
+      LOG.error("Post commit actions failed for table {}", config.getBasePath(), e.getCause());
+    } finally {
+      this.postCommitFuture = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    waitForPostCommit();
+    if (this.postCommitExecutor != null) {
+      this.postCommitExecutor.shutdownNow();
+      try {
+        this.postCommitExecutor.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      this.postCommitExecutor = null;
+    }
+    super.close();
+  }
+
   @Override
   public List<HoodieRecord<T>> filterExists(List<HoodieRecord<T>> hoodieRecords) {
     // Create a Hoodie table which encapsulated the commits and files visible
@@ -328,7 +424,7 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
   }
 
   public List<String> getInflightsAndRequestedInstants(String commitType) {
-    HoodieFlinkTable<T> table = HoodieFlinkTable.create(config, (HoodieFlinkEngineContext) context);
+    HoodieFlinkTable<T> table = createTableWithLatestTimeline();
     HoodieTimeline unCompletedTimeline = table.getMetaClient().getCommitsTimeline().filterInflightsAndRequested();
     return unCompletedTimeline.getInstants().filter(x -> x.getAction().equals(commitType)).map(HoodieInstant::getTimestamp)
         .collect(Collectors.toList());
@@ -336,7 +432,7 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
 
   public String getInflightAndRequestedInstant(String tableType) {
     final String commitType = CommitUtils.getCommitActionType(HoodieTableType.valueOf(tableType));
-    HoodieFlinkTable<T> table = HoodieFlinkTable.create(config, (HoodieFlinkEngineContext) context);
+    HoodieFlinkTable<T> table = createTableWithLatestTimeline();
     HoodieTimeline unCompletedTimeline = table.getMetaClient().getCommitsTimeline().filterInflightsAndRequested();
     return unCompletedTimeline.getInstants()
         .filter(x -> x.getAction().equals(commitType))
@@ -348,7 +444,7 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
 
   public String getLastCompletedInstant(String tableType) {
     final String commitType = CommitUtils.getCommitActionType(HoodieTableType.valueOf(tableType));
-    HoodieFlinkTable<T> table = HoodieFlinkTable.create(config, (HoodieFlinkEngineContext) context);
+    HoodieFlinkTable<T> table = createTableWithLatestTimeline();
     HoodieTimeline completedTimeline = table.getMetaClient().getCommitsTimeline().filterCompletedInstants();
     return completedTimeline.getInstants()
         .filter(x -> x.getAction().equals(commitType))
@@ -359,7 +455,7 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
   }
 
   public void deletePendingInstant(String tableType, String instant) {
-    HoodieFlinkTable<T> table = HoodieFlinkTable.create(config, (HoodieFlinkEngineContext) context);
+    HoodieFlinkTable<T> table = createTableWithLatestTimeline();
     String commitType = CommitUtils.getCommitActionType(HoodieTableType.valueOf(tableType));
     HoodieActiveTimeline activeTimeline = table.getMetaClient().getActiveTimeline();
     activeTimeline.deletePending(HoodieInstant.State.INFLIGHT, commitType, instant);
@@ -367,7 +463,7 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
   }
 
   public void transitionRequestedToInflight(String tableType, String inFlightInstant) {
-    HoodieFlinkTable<T> table = HoodieFlinkTable.create(config, (HoodieFlinkEngineContext) context);
+    HoodieFlinkTable<T> table = createTableWithLatestTimeline();
     HoodieActiveTimeline activeTimeline = table.getActiveTimeline();
     String commitType = CommitUtils.getCommitActionType(HoodieTableType.valueOf(tableType));
     HoodieInstant requested = new HoodieInstant(HoodieInstant.State.REQUESTED, commitType, inFlightInstant);
@@ -376,7 +472,7 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
   }
 
   public void rollbackInflightCompaction(HoodieInstant inflightInstant) {
-    HoodieFlinkTable<T> table = HoodieFlinkTable.create(config, (HoodieFlinkEngineContext) context);
+    HoodieFlinkTable<T> table = createTableWithLatestTimeline();
     HoodieTimeline pendingCompactionTimeline = table.getActiveTimeline().filterPendingCompactionTimeline();
     if (pendingCompactionTimeline.containsInstant(inflightInstant)) {
       rollbackInflightCompaction(inflightInstant, table);
@@ -386,4 +482,17 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
   public HoodieFlinkTable<T> getHoodieTable() {
     return HoodieFlinkTable.create(config, (HoodieFlinkEngineContext) context);
   }
+
+  /**
+   * Creates a table with the cached meta client whose active timeline is reloaded, the table config
+   * does not change for a client so the meta client is initialized only once.
+   */
+  private synchronized HoodieFlinkTable<T> createTableWithLatestTimeline() {
+    if (this.metaClient == null) {
+      this.metaClient = createMetaClient(true);
+    } else {
+      this.metaClient.reloadActiveTimeline();
+    }
+    return HoodieFlinkTable.create(config, (HoodieFlinkEngineContext) context, this.metaClient);
+  }
 }
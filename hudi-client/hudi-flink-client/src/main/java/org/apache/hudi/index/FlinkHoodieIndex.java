@@ -31,6 +31,7 @@ import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.HoodieIndexException;
 import org.apache.hudi.index.simple.FlinkHoodieSimpleIndex;
 import org.apache.hudi.index.bloom.FlinkHoodieBloomIndex;
+import org.apache.hudi.index.bucket.FlinkHoodieBucketIndex;
 import org.apache.hudi.index.state.FlinkInMemoryStateIndex;
 import org.apache.hudi.PublicAPIMethod;
 import org.apache.hudi.table.HoodieTable;
@@ -64,6 +65,8 @@ public abstract class FlinkHoodieIndex<T extends HoodieRecordPayload> extends Ho
         return new FlinkHoodieBloomIndex(config);
       case SIMPLE:
         return new FlinkHoodieSimpleIndex<>(config);
+      case BUCKET:
+        return new FlinkHoodieBucketIndex<>(config);
       default:
         throw new HoodieIndexException("Unsupported index type " + config.getIndexType());
     }
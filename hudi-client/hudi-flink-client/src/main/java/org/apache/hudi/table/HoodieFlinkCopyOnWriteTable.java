@@ -245,6 +245,11 @@ public class HoodieFlinkCopyOnWriteTable<T extends HoodieRecordPayload> extends
     throw new HoodieNotSupportedException("Compaction is not supported on a CopyOnWrite table");
   }
 
+  @Override
+  public HoodieWriteMetadata<List<WriteStatus>> logCompact(HoodieEngineContext context, String instantTime) {
+    throw new HoodieNotSupportedException("Log compaction is not supported yet");
+  }
+
   @Override
   public Option<HoodieClusteringPlan> scheduleClustering(final HoodieEngineContext context, final String instantTime, final Option<Map<String, String>> extraMetadata) {
     throw new HoodieNotSupportedException("Clustering is not supported on a Flink CopyOnWrite table");
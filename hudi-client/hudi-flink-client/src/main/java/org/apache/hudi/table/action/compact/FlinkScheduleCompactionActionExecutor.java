@@ -134,6 +134,15 @@ public class FlinkScheduleCompactionActionExecutor<T extends HoodieRecordPayload
               inlineCompactDeltaSecondsMax));
         }
         break;
+      case READ_AMPLIFICATION:
+        double readAmplification = getEstimatedReadAmplification(latestDeltaCommitInfo.getRight());
+        double inlineCompactReadAmplificationMax = config.getInlineCompactReadAmplificationMax();
+        compactable = inlineCompactReadAmplificationMax <= readAmplification;
+        if (compactable) {
+          LOG.info(String.format("The estimated read amplification %s >= %s, trigger compaction scheduler.", readAmplification,
+              inlineCompactReadAmplificationMax));
+        }
+        break;
       default:
         throw new HoodieCompactionException("Unsupported compaction trigger strategy: " + config.getInlineCompactTriggerStrategy());
     }
@@ -96,6 +96,20 @@ public class HoodieFlinkMergeOnReadTableCompactor<T extends HoodieRecordPayload>
                                    HoodieWriteConfig config,
                                    CompactionOperation operation,
                                    String instantTime) throws IOException {
+    // TODO(danny): make it configurable
+    long maxMemoryPerCompaction = IOUtils.getMaxMemoryPerCompaction(new FlinkTaskContextSupplier(null), config.getProps());
+    return compact(hoodieCopyOnWriteTable, metaClient, config, operation, instantTime, maxMemoryPerCompaction);
+  }
+
+  /**
+   * Compacts the file slice of the operation, the log records are spilled to disk beyond {@code maxMemoryPerCompaction}.
+   */
+  public List<WriteStatus> compact(HoodieFlinkCopyOnWriteTable hoodieCopyOnWriteTable,
+                                   HoodieTableMetaClient metaClient,
+                                   HoodieWriteConfig config,
+                                   CompactionOperation operation,
+                                   String instantTime,
+                                   long maxMemoryPerCompaction) throws IOException {
     FileSystem fs = metaClient.getFs();
 
     Schema readerSchema = HoodieAvroUtils.addMetadataFields(new Schema.Parser().parse(config.getSchema()));
@@ -111,8 +125,6 @@ public class HoodieFlinkMergeOnReadTableCompactor<T extends HoodieRecordPayload>
         .getActiveTimeline().getTimelineOfActions(CollectionUtils.createSet(HoodieTimeline.COMMIT_ACTION,
             HoodieTimeline.ROLLBACK_ACTION, HoodieTimeline.DELTA_COMMIT_ACTION))
         .filterCompletedInstants().lastInstant().get().getTimestamp();
-    // TODO(danny): make it configurable
-    long maxMemoryPerCompaction = IOUtils.getMaxMemoryPerCompaction(new FlinkTaskContextSupplier(null), config.getProps());
     LOG.info("MaxMemoryPerCompaction => " + maxMemoryPerCompaction);
 
     List<String> logFiles = operation.getDeltaFileNames().stream().map(
@@ -192,6 +204,11 @@ public class HoodieFlinkMergeOnReadTableCompactor<T extends HoodieRecordPayload>
       return null;
     }
 
+    // log blocks and records appended by the delta commits, only read if the strategy makes use of them
+    DeltaWriteStatsSummary deltaWriteStats = config.getCompactionStrategy().requiresDeltaWriteStats()
+        ? DeltaWriteStatsSummary.fromTimeline(metaClient.getActiveTimeline().getDeltaCommitTimeline())
+        : DeltaWriteStatsSummary.empty();
+
     SliceView fileSystemView = hoodieTable.getSliceView();
     LOG.info("Compaction looking for files to compact in " + partitionPaths + " partitions");
     context.setJobStatus(this.getClass().getSimpleName(), "Looking for files to compact");
@@ -209,7 +226,7 @@ public class HoodieFlinkMergeOnReadTableCompactor<T extends HoodieRecordPayload>
           // into meta files.
           Option<HoodieBaseFile> dataFile = s.getBaseFile();
           return new CompactionOperation(dataFile, partitionPath, logFiles,
-              config.getCompactionStrategy().captureMetrics(config, s));
+              config.getCompactionStrategy().captureMetrics(config, s, deltaWriteStats));
         })
         .filter(c -> !c.getDeltaFileNames().isEmpty()), partitionPaths.size()).stream().map(CompactionUtils::buildHoodieCompactionOperation).collect(toList());
 
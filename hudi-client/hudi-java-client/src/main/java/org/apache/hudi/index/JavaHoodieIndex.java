@@ -29,6 +29,7 @@ import org.apache.hudi.common.util.ReflectionUtils;
 import org.apache.hudi.common.util.StringUtils;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.HoodieIndexException;
+import org.apache.hudi.index.bucket.JavaHoodieBucketIndex;
 import org.apache.hudi.table.HoodieTable;
 
 import java.util.List;
@@ -52,6 +53,8 @@ public abstract class JavaHoodieIndex<T extends HoodieRecordPayload> extends Hoo
     switch (config.getIndexType()) {
       case INMEMORY:
         return new JavaInMemoryHashIndex(config);
+      case BUCKET:
+        return new JavaHoodieBucketIndex<>(config);
       default:
         throw new HoodieIndexException("Unsupported index type " + config.getIndexType());
     }
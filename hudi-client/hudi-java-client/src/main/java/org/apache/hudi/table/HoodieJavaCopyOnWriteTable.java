@@ -153,6 +153,11 @@ public class HoodieJavaCopyOnWriteTable<T extends HoodieRecordPayload> extends H
     throw new HoodieNotSupportedException("Compact is not supported yet");
   }
 
+  @Override
+  public HoodieWriteMetadata<List<WriteStatus>> logCompact(HoodieEngineContext context, String instantTime) {
+    throw new HoodieNotSupportedException("Log compaction is not supported yet");
+  }
+
   @Override
   public Option<HoodieClusteringPlan> scheduleClustering(final HoodieEngineContext context, final String instantTime, final Option<Map<String, String>> extraMetadata) {
     throw new HoodieNotSupportedException("Clustering is not supported yet");
@@ -38,9 +38,14 @@ import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.HoodieCommitException;
 import org.apache.hudi.exception.HoodieUpsertException;
 import org.apache.hudi.execution.JavaLazyInsertIterable;
+import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.index.bucket.PartitionBuckets;
 import org.apache.hudi.io.CreateHandleFactory;
+import org.apache.hudi.io.HoodieBoundedMemoryMergeHandle;
 import org.apache.hudi.io.HoodieMergeHandle;
 import org.apache.hudi.io.HoodieSortedMergeHandle;
+import org.apache.hudi.io.SingleFileHandleCreateFactory;
+import org.apache.hudi.io.WriteHandleFactory;
 import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.table.WorkloadProfile;
 import org.apache.hudi.table.WorkloadStat;
@@ -185,6 +190,13 @@ public abstract class BaseJavaCommitActionExecutor<T extends HoodieRecordPayload
         globalStat.addInserts(count);
       }
     }
+
+    if (config.getIndexType() == HoodieIndex.IndexType.BUCKET) {
+      // profile the buckets the inserts hash to, for file groups to be created only for them
+      PartitionBuckets.getBucketIds(inputRecords.stream().filter(record -> record.getCurrentLocation() == null).iterator(),
+          table, config.getBucketIndexNumBuckets())
+          .forEachRemaining(bucket -> partitionPathStatMap.get(bucket.getLeft()).addInsertBucketId(bucket.getRight()));
+    }
     return Pair.of(partitionPathStatMap, globalStat);
   }
 
@@ -285,6 +297,8 @@ public abstract class BaseJavaCommitActionExecutor<T extends HoodieRecordPayload
   protected HoodieMergeHandle getUpdateHandle(String partitionPath, String fileId, Iterator<HoodieRecord<T>> recordItr) {
     if (table.requireSortedRecords()) {
       return new HoodieSortedMergeHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
+    } else if (config.isMergeBoundedMemoryEnabled()) {
+      return new HoodieBoundedMemoryMergeHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
     } else {
       return new HoodieMergeHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
     }
@@ -305,7 +319,15 @@ public abstract class BaseJavaCommitActionExecutor<T extends HoodieRecordPayload
       return Collections.singletonList((List<WriteStatus>) Collections.EMPTY_LIST).iterator();
     }
     return new JavaLazyInsertIterable<>(recordItr, true, config, instantTime, table, idPfx,
-        taskContextSupplier, new CreateHandleFactory<>());
+        taskContextSupplier, getInsertHandleFactory());
+  }
+
+  /**
+   * With the bucket index, all the inserts of a bucket go to the single file group of the bucket.
+   */
+  protected WriteHandleFactory<T, ?, ?, ?> getInsertHandleFactory() {
+    return config.getIndexType() == HoodieIndex.IndexType.BUCKET
+        ? new SingleFileHandleCreateFactory<>() : new CreateHandleFactory<>();
   }
 
   /**
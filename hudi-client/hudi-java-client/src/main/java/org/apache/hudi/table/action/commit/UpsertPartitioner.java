@@ -32,6 +32,10 @@ import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.collection.ImmutablePair;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieUpsertException;
+import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.index.bucket.BucketIdentifier;
+import org.apache.hudi.index.bucket.PartitionBuckets;
 import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.table.WorkloadProfile;
 import org.apache.hudi.table.WorkloadStat;
@@ -79,6 +83,11 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> implements Part
    * Remembers what type each bucket is for later.
    */
   private HashMap<Integer, BucketInfo> bucketInfoMap;
+  /**
+   * With the bucket index, the buckets of each partition with inserts and the bucket of each of their bucket ids.
+   */
+  private HashMap<String, PartitionBuckets> partitionPathToBuckets;
+  private HashMap<String, Map<Integer, Integer>> partitionPathToBucketIdToBucket;
 
   protected final HoodieTable table;
 
@@ -89,11 +98,17 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> implements Part
     updateLocationToBucket = new HashMap<>();
     partitionPathToInsertBucketInfos = new HashMap<>();
     bucketInfoMap = new HashMap<>();
+    partitionPathToBuckets = new HashMap<>();
+    partitionPathToBucketIdToBucket = new HashMap<>();
     this.profile = profile;
     this.table = table;
     this.config = config;
     assignUpdates(profile);
-    assignInserts(profile, context);
+    if (config.getIndexType() == HoodieIndex.IndexType.BUCKET) {
+      assignBucketInserts(profile, context);
+    } else {
+      assignInserts(profile, context);
+    }
 
     LOG.info("Total Buckets :" + totalBuckets + ", buckets info => " + bucketInfoMap + ", \n"
         + "Partition to insert buckets => " + partitionPathToInsertBucketInfos + ", \n"
@@ -203,6 +218,52 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> implements Part
     }
   }
 
+  /**
+   * With the bucket index, the file group of every record is fixed by its bucket: the inserts of a bucket go to the
+   * existing file group of the bucket, or to a new file group of the bucket, without small file handling. Only the
+   * buckets the inserts hash to, as profiled by the commit action executor, get a file group.
+   */
+  private void assignBucketInserts(WorkloadProfile profile, HoodieEngineContext context) {
+    List<String> partitionPaths = profile.getPartitionPaths().stream()
+        .filter(partitionPath -> profile.getWorkloadStat(partitionPath).getNumInserts() > 0)
+        .collect(Collectors.toList());
+    Map<String, PartitionBuckets> partitionBucketsMap = getBucketsForPartitions(partitionPaths, context);
+    for (String partitionPath : partitionPaths) {
+      PartitionBuckets buckets = partitionBucketsMap.get(partitionPath);
+      Map<Integer, Integer> bucketIdToBucket = new HashMap<>();
+      for (int bucketId : profile.getWorkloadStat(partitionPath).getInsertBucketIds()) {
+        Option<HoodieRecordLocation> location = buckets.getLocation(bucketId);
+        int bucket;
+        if (location.isPresent()) {
+          String fileId = location.get().getFileId();
+          bucket = updateLocationToBucket.containsKey(fileId) ? updateLocationToBucket.get(fileId)
+              : addUpdateBucket(partitionPath, fileId);
+        } else {
+          bucket = totalBuckets;
+          BucketInfo bucketInfo = new BucketInfo(BucketType.INSERT,
+              BucketIdentifier.newBucketFileIdPrefix(bucketId, buckets.getNumBuckets()), partitionPath);
+          bucketInfoMap.put(totalBuckets, bucketInfo);
+          totalBuckets++;
+        }
+        bucketIdToBucket.put(bucketId, bucket);
+      }
+      LOG.info("Buckets for partition path " + partitionPath + " => " + buckets);
+      partitionPathToBuckets.put(partitionPath, buckets);
+      partitionPathToBucketIdToBucket.put(partitionPath, bucketIdToBucket);
+    }
+  }
+
+  private Map<String, PartitionBuckets> getBucketsForPartitions(List<String> partitionPaths, HoodieEngineContext context) {
+    Map<String, PartitionBuckets> partitionBucketsMap = new HashMap<>();
+    if (partitionPaths.size() > 0) {
+      context.setJobStatus(this.getClass().getSimpleName(), "Getting buckets from partitions");
+      final int numBuckets = config.getBucketIndexNumBuckets();
+      partitionBucketsMap = context.mapToPair(partitionPaths,
+          partitionPath -> new ImmutablePair<>(partitionPath, PartitionBuckets.load(table, partitionPath, numBuckets)), 0);
+    }
+    return partitionBucketsMap;
+  }
+
   private Map<String, List<SmallFile>> getSmallFilesForPartitions(List<String> partitionPaths, HoodieEngineContext context) {
     Map<String, List<SmallFile>> partitionSmallFilesMap = new HashMap<>();
     if (partitionPaths != null && partitionPaths.size() > 0) {
@@ -262,6 +323,15 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> implements Part
     if (keyLocation.getRight().isPresent()) {
       HoodieRecordLocation location = keyLocation.getRight().get();
       return updateLocationToBucket.get(location.getFileId());
+    } else if (partitionPathToBucketIdToBucket.containsKey(keyLocation.getLeft().getPartitionPath())) {
+      String partitionPath = keyLocation.getLeft().getPartitionPath();
+      int bucketId = partitionPathToBuckets.get(partitionPath).getBucketId(keyLocation.getLeft().getRecordKey());
+      Integer bucket = partitionPathToBucketIdToBucket.get(partitionPath).get(bucketId);
+      if (bucket == null) {
+        throw new HoodieUpsertException("Bucket " + bucketId + " of partition " + partitionPath
+            + " was not profiled for the insert of key " + keyLocation.getLeft().getRecordKey());
+      }
+      return bucket;
     } else {
       String partitionPath = keyLocation.getLeft().getPartitionPath();
       List<InsertBucketCumulativeWeightPair> targetBuckets = partitionPathToInsertBucketInfos.get(partitionPath);
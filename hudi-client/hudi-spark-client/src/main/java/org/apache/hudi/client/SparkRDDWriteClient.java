@@ -255,6 +255,20 @@ public class SparkRDDWriteClient<T extends HoodieRecordPayload> extends
     return new HoodieWriteResult(postWrite(result, instantTime, table), result.getPartitionToReplaceFileIds());
   }
 
+  /**
+   * Merges the log files of the file slices with many log files into a single log file per slice, without
+   * rewriting the base files.
+   *
+   * @param instantTime Instant time of the log compaction
+   * @return JavaRDD[WriteStatus] - RDD of WriteStatus to inspect errors and counts
+   */
+  public JavaRDD<WriteStatus> logCompact(String instantTime) {
+    HoodieTable<T, JavaRDD<HoodieRecord<T>>, JavaRDD<HoodieKey>, JavaRDD<WriteStatus>> table = getTableAndInitCtx(WriteOperationType.LOG_COMPACT, instantTime);
+    preWrite(instantTime, WriteOperationType.LOG_COMPACT);
+    HoodieWriteMetadata<JavaRDD<WriteStatus>> result = table.logCompact(context, instantTime);
+    return postWrite(result, instantTime, table);
+  }
+
   @Override
   protected JavaRDD<WriteStatus> postWrite(HoodieWriteMetadata<JavaRDD<WriteStatus>> result,
                                            String instantTime,
@@ -390,6 +404,7 @@ public class SparkRDDWriteClient<T extends HoodieRecordPayload> extends
     }
     // Create a Hoodie table which encapsulated the commits and files visible
     HoodieSparkTable<T> table = HoodieSparkTable.create(config, (HoodieSparkEngineContext) context, metaClient);
+    table.setWriteClientResources(partitionFileStatsCache, metrics);
     if (table.getMetaClient().getCommitActionType().equals(HoodieTimeline.COMMIT_ACTION)) {
       writeTimer = metrics.getCommitCtx();
     } else {
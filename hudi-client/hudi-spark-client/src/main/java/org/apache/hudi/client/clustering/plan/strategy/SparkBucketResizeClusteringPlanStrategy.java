@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.client.clustering.plan.strategy;
+
+import org.apache.hudi.avro.model.HoodieClusteringGroup;
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.client.common.HoodieSparkEngineContext;
+import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.index.bucket.BucketIdentifier;
+import org.apache.hudi.table.HoodieSparkCopyOnWriteTable;
+import org.apache.hudi.table.HoodieSparkMergeOnReadTable;
+import org.apache.hudi.table.action.cluster.strategy.PartitionAwareClusteringPlanStrategy;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.api.java.JavaRDD;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Clustering Strategy to lay out partitions into the configured number of buckets of the bucket index.
+ * 1) Picks the partitions whose file groups are not laid out by the bucket index, or with another number of buckets.
+ * 2) Creates one clustering group per partition, with all its file groups, to be rewritten into
+ *    'hoodie.bucket.index.num.buckets' file groups by the {@link org.apache.hudi.client.clustering.run.strategy.SparkBucketResizeExecutionStrategy}.
+ */
+public class SparkBucketResizeClusteringPlanStrategy<T extends HoodieRecordPayload<T>>
+    extends PartitionAwareClusteringPlanStrategy<T, JavaRDD<HoodieRecord<T>>, JavaRDD<HoodieKey>, JavaRDD<WriteStatus>> {
+  private static final Logger LOG = LogManager.getLogger(SparkBucketResizeClusteringPlanStrategy.class);
+
+  public static final String NUM_BUCKETS_PARAM = "num.buckets";
+
+  public SparkBucketResizeClusteringPlanStrategy(HoodieSparkCopyOnWriteTable<T> table,
+                                                 HoodieSparkEngineContext engineContext,
+                                                 HoodieWriteConfig writeConfig) {
+    super(table, engineContext, writeConfig);
+  }
+
+  public SparkBucketResizeClusteringPlanStrategy(HoodieSparkMergeOnReadTable<T> table,
+                                                 HoodieSparkEngineContext engineContext,
+                                                 HoodieWriteConfig writeConfig) {
+    super(table, engineContext, writeConfig);
+  }
+
+  @Override
+  protected Stream<HoodieClusteringGroup> buildClusteringGroupsForPartition(String partitionPath, List<FileSlice> fileSlices) {
+    int numBuckets = getWriteConfig().getBucketIndexNumBuckets();
+    if (fileSlices.isEmpty() || fileSlices.stream().allMatch(slice -> BucketIdentifier.isBucketFileId(slice.getFileId())
+        && BucketIdentifier.numBucketsFromFileId(slice.getFileId()) == numBuckets)) {
+      return Stream.empty();
+    }
+    // the whole partition is rewritten at once, the buckets of a partition must not be mixed
+    long numFileGroups = getHoodieTable().getSliceView().getLatestFileSlices(partitionPath).count();
+    if (fileSlices.size() != numFileGroups) {
+      LOG.warn("Skipping partition " + partitionPath + ", " + (numFileGroups - fileSlices.size())
+          + " of its file groups are in pending compaction or clustering");
+      return Stream.empty();
+    }
+    LOG.info("Adding clustering group of partition " + partitionPath + " num input slices: " + fileSlices.size()
+        + " num buckets: " + numBuckets);
+    return Stream.of(HoodieClusteringGroup.newBuilder()
+        .setSlices(getFileSliceInfo(fileSlices))
+        .setNumOutputFileGroups(numBuckets)
+        .setMetrics(buildMetrics(fileSlices))
+        .build());
+  }
+
+  @Override
+  protected Map<String, String> getStrategyParams() {
+    Map<String, String> params = new HashMap<>();
+    params.put(NUM_BUCKETS_PARAM, String.valueOf(getWriteConfig().getBucketIndexNumBuckets()));
+    return Collections.unmodifiableMap(params);
+  }
+}
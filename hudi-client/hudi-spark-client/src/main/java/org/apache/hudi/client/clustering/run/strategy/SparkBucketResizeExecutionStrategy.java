@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.client.clustering.run.strategy;
+
+import org.apache.avro.Schema;
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.client.clustering.plan.strategy.SparkBucketResizeClusteringPlanStrategy;
+import org.apache.hudi.client.common.HoodieSparkEngineContext;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.execution.SparkLazyInsertIterable;
+import org.apache.hudi.index.bucket.BucketIdentifier;
+import org.apache.hudi.io.SingleFileHandleCreateFactory;
+import org.apache.hudi.table.HoodieSparkCopyOnWriteTable;
+import org.apache.hudi.table.HoodieSparkMergeOnReadTable;
+import org.apache.hudi.table.HoodieTable;
+import org.apache.hudi.table.action.cluster.strategy.ClusteringExecutionStrategy;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.HashPartitioner;
+import org.apache.spark.api.java.JavaRDD;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import scala.Tuple2;
+
+/**
+ * Clustering Strategy based on following.
+ * 1) Spark execution engine.
+ * 2) Rewrites the records of a partition into the file groups of their buckets for the bucket index,
+ *    one file group per bucket.
+ *
+ * @see SparkBucketResizeClusteringPlanStrategy
+ */
+public class SparkBucketResizeExecutionStrategy<T extends HoodieRecordPayload<T>>
+    extends ClusteringExecutionStrategy<T, JavaRDD<HoodieRecord<T>>, JavaRDD<HoodieKey>, JavaRDD<WriteStatus>> {
+  private static final Logger LOG = LogManager.getLogger(SparkBucketResizeExecutionStrategy.class);
+
+  public SparkBucketResizeExecutionStrategy(HoodieSparkCopyOnWriteTable<T> table,
+                                            HoodieSparkEngineContext engineContext,
+                                            HoodieWriteConfig writeConfig) {
+    super(table, engineContext, writeConfig);
+  }
+
+  public SparkBucketResizeExecutionStrategy(HoodieSparkMergeOnReadTable<T> table,
+                                            HoodieSparkEngineContext engineContext,
+                                            HoodieWriteConfig writeConfig) {
+    super(table, engineContext, writeConfig);
+  }
+
+  @Override
+  public JavaRDD<WriteStatus> performClustering(final JavaRDD<HoodieRecord<T>> inputRecords, final int numOutputGroups,
+                                                final String instantTime, final Map<String, String> strategyParams, final Schema schema) {
+    final int numBuckets = strategyParams.containsKey(SparkBucketResizeClusteringPlanStrategy.NUM_BUCKETS_PARAM)
+        ? Integer.parseInt(strategyParams.get(SparkBucketResizeClusteringPlanStrategy.NUM_BUCKETS_PARAM)) : numOutputGroups;
+    LOG.info("Starting bucket clustering for a group, num buckets:" + numBuckets + " commit:" + instantTime);
+    final HoodieWriteConfig config = getWriteConfig();
+    final HoodieTable<T, JavaRDD<HoodieRecord<T>>, JavaRDD<HoodieKey>, JavaRDD<WriteStatus>> table = getHoodieTable();
+    // the spark partition of an integer key of the hash partitioner is the key itself, i.e. the bucket id
+    return inputRecords
+        .mapToPair(record -> new Tuple2<>(BucketIdentifier.getBucketId(record.getRecordKey(), numBuckets), record))
+        .partitionBy(new HashPartitioner(numBuckets))
+        .values()
+        .mapPartitionsWithIndex((bucketId, recordItr) -> {
+          if (!recordItr.hasNext()) {
+            return Collections.<List<WriteStatus>>emptyIterator();
+          }
+          return new SparkLazyInsertIterable<>(recordItr, false, config, instantTime, table,
+              BucketIdentifier.newBucketFileIdPrefix(bucketId, numBuckets), table.getTaskContextSupplier(), true,
+              new SingleFileHandleCreateFactory<>());
+        }, true)
+        .flatMap(List::iterator);
+  }
+}
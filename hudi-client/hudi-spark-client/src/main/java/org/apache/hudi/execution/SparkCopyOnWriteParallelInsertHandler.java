@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.execution;
+
+import org.apache.hudi.common.engine.TaskContextSupplier;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.io.WriteHandleFactory;
+import org.apache.hudi.table.HoodieTable;
+
+import org.apache.spark.TaskContext;
+import org.apache.spark.TaskContext$;
+
+public class SparkCopyOnWriteParallelInsertHandler<T extends HoodieRecordPayload> extends CopyOnWriteParallelInsertHandler<T> {
+
+  // Need to set current spark thread's TaskContext into the writer threads so that they can access
+  // TaskContext properties.
+  final TaskContext sparkThreadTaskContext;
+
+  public SparkCopyOnWriteParallelInsertHandler(HoodieWriteConfig config, String instantTime,
+                                               boolean areRecordsSorted, HoodieTable hoodieTable, String idPrefix,
+                                               TaskContextSupplier taskContextSupplier,
+                                               WriteHandleFactory writeHandleFactory, int numWriters) {
+    super(config, instantTime, areRecordsSorted, hoodieTable, idPrefix, taskContextSupplier, writeHandleFactory, numWriters);
+    this.sparkThreadTaskContext = TaskContext.get();
+  }
+
+  @Override
+  protected void preWrite() {
+    // Passing parent thread's TaskContext to writer thread for it to access original TaskContext properties.
+    TaskContext$.MODULE$.setTaskContext(sparkThreadTaskContext);
+  }
+}
@@ -25,6 +25,7 @@ import org.apache.hudi.common.engine.TaskContextSupplier;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.util.queue.BoundedInMemoryExecutor;
+import org.apache.hudi.common.util.queue.BoundedInMemoryQueueConsumer;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.io.WriteHandleFactory;
@@ -36,6 +37,8 @@ import java.util.List;
 public class SparkLazyInsertIterable<T extends HoodieRecordPayload> extends HoodieLazyInsertIterable<T> {
 
   private boolean useWriterSchema;
+  // Number of writer threads the records are spread across, 1 writes from the queue consumer thread itself
+  private int numWriters = 1;
 
   public SparkLazyInsertIterable(Iterator<HoodieRecord<T>> recordItr,
                                  boolean areRecordsSorted,
@@ -61,6 +64,32 @@ public class SparkLazyInsertIterable<T extends HoodieRecordPayload> extends Hood
     this.useWriterSchema = false;
   }
 
+  public SparkLazyInsertIterable(Iterator<HoodieRecord<T>> recordItr,
+                                 boolean areRecordsSorted,
+                                 HoodieWriteConfig config,
+                                 String instantTime,
+                                 HoodieTable hoodieTable,
+                                 String idPrefix,
+                                 TaskContextSupplier taskContextSupplier,
+                                 boolean useWriterSchema,
+                                 WriteHandleFactory writeHandleFactory) {
+    super(recordItr, areRecordsSorted, config, instantTime, hoodieTable, idPrefix, taskContextSupplier, writeHandleFactory);
+    this.useWriterSchema = useWriterSchema;
+  }
+
+  public SparkLazyInsertIterable(Iterator<HoodieRecord<T>> recordItr,
+                                 boolean areRecordsSorted,
+                                 HoodieWriteConfig config,
+                                 String instantTime,
+                                 HoodieTable hoodieTable,
+                                 String idPrefix,
+                                 TaskContextSupplier taskContextSupplier,
+                                 boolean useWriterSchema,
+                                 int numWriters) {
+    this(recordItr, areRecordsSorted, config, instantTime, hoodieTable, idPrefix, taskContextSupplier, useWriterSchema);
+    this.numWriters = numWriters;
+  }
+
   @Override
   protected List<WriteStatus> computeNext() {
     // Executor service used for launching writer thread.
@@ -71,8 +100,10 @@ public class SparkLazyInsertIterable<T extends HoodieRecordPayload> extends Hood
       if (useWriterSchema) {
         schema = HoodieAvroUtils.addMetadataFields(schema);
       }
+      BoundedInMemoryQueueConsumer<HoodieInsertValueGenResult<HoodieRecord>, List<WriteStatus>> insertHandler =
+          numWriters > 1 ? getParallelInsertHandler() : getInsertHandler();
       bufferedIteratorExecutor =
-          new SparkBoundedInMemoryExecutor<>(hoodieConfig, inputItr, getInsertHandler(), getTransformFunction(schema));
+          new SparkBoundedInMemoryExecutor<>(hoodieConfig, inputItr, insertHandler, getTransformFunction(schema));
       final List<WriteStatus> result = bufferedIteratorExecutor.execute();
       assert result != null && !result.isEmpty() && !bufferedIteratorExecutor.isRemaining();
       return result;
@@ -84,4 +115,9 @@ public class SparkLazyInsertIterable<T extends HoodieRecordPayload> extends Hood
       }
     }
   }
+
+  private CopyOnWriteParallelInsertHandler<T> getParallelInsertHandler() {
+    return new SparkCopyOnWriteParallelInsertHandler<>(hoodieConfig, instantTime, areRecordsSorted, hoodieTable, idPrefix,
+        taskContextSupplier, writeHandleFactory, numWriters);
+  }
 }
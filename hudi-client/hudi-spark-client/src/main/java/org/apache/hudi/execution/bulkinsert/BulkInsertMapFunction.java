@@ -57,6 +57,7 @@ public class BulkInsertMapFunction<T extends HoodieRecordPayload>
   @Override
   public Iterator<List<WriteStatus>> call(Integer partition, Iterator<HoodieRecord<T>> recordItr) {
     return new SparkLazyInsertIterable<>(recordItr, areRecordsSorted, config, instantTime, hoodieTable,
-        fileIDPrefixes.get(partition), hoodieTable.getTaskContextSupplier(), useWriterSchema);
+        fileIDPrefixes.get(partition), hoodieTable.getTaskContextSupplier(), useWriterSchema,
+        config.getBulkInsertParallelWriters());
   }
 }
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bloom;
+
+import org.apache.hudi.client.utils.LazyIterableIterator;
+import org.apache.hudi.common.model.HoodieBaseFile;
+import org.apache.hudi.common.util.collection.Pair;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieException;
+import org.apache.hudi.exception.HoodieIndexException;
+import org.apache.hudi.exception.MetadataNotFoundException;
+import org.apache.hudi.index.HoodieIndexUtils;
+import org.apache.hudi.io.HoodieKeyLookupHandle;
+import org.apache.hudi.io.HoodieKeyLookupHandle.KeyLookupResult;
+import org.apache.hudi.io.HoodieRangeInfoHandle;
+import org.apache.hudi.table.HoodieTable;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.api.java.function.FlatMapFunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Function checking the keys of a RDD partition, sorted by (partitionPath, recordKey), against the files of their
+ * partition paths.
+ * <p>
+ * The files of a partition path are listed by the task itself, and each file has its key range and bloom filter read
+ * once, to check the slice of the sorted keys falling into its key range. Nothing about the files needs to be
+ * computed on the driver or shuffled along with the keys.
+ */
+public class HoodiePartitionLocalBloomCheckFunction
+    implements FlatMapFunction<Iterator<Pair<String, String>>, List<KeyLookupResult>> {
+
+  private static final Logger LOG = LogManager.getLogger(HoodiePartitionLocalBloomCheckFunction.class);
+
+  private final HoodieTable hoodieTable;
+
+  private final HoodieWriteConfig config;
+
+  public HoodiePartitionLocalBloomCheckFunction(HoodieTable hoodieTable, HoodieWriteConfig config) {
+    this.hoodieTable = hoodieTable;
+    this.config = config;
+  }
+
+  @Override
+  public Iterator<List<KeyLookupResult>> call(Iterator<Pair<String, String>> partitionPathRecordKeyPairItr) {
+    return new LazyPartitionCheckIterator(partitionPathRecordKeyPairItr);
+  }
+
+  class LazyPartitionCheckIterator extends LazyIterableIterator<Pair<String, String>, List<KeyLookupResult>> {
+
+    private Pair<String, String> nextPair;
+
+    LazyPartitionCheckIterator(Iterator<Pair<String, String>> partitionPathRecordKeyPairItr) {
+      super(partitionPathRecordKeyPairItr);
+    }
+
+    @Override
+    protected void start() {
+    }
+
+    @Override
+    protected List<KeyLookupResult> computeNext() {
+      try {
+        // process one partition path in each go
+        Pair<String, String> first = nextPair != null ? nextPair : inputItr.next();
+        String partitionPath = first.getLeft();
+        List<String> recordKeys = new ArrayList<>();
+        recordKeys.add(first.getRight());
+        nextPair = null;
+        while (inputItr.hasNext()) {
+          Pair<String, String> pair = inputItr.next();
+          if (!pair.getLeft().equals(partitionPath)) {
+            nextPair = pair;
+            break;
+          }
+          recordKeys.add(pair.getRight());
+        }
+        List<KeyLookupResult> results = checkPartition(partitionPath, recordKeys);
+        // handle case, where the input ran out right after the first key of the next partition path
+        if (nextPair != null && !inputItr.hasNext()) {
+          results.addAll(checkPartition(nextPair.getLeft(), Collections.singletonList(nextPair.getRight())));
+          nextPair = null;
+        }
+        return results;
+      } catch (Throwable e) {
+        if (e instanceof HoodieException) {
+          throw e;
+        }
+        throw new HoodieIndexException("Error checking bloom filter index. ", e);
+      }
+    }
+
+    @Override
+    protected void end() {
+    }
+  }
+
+  /**
+   * Checks the sorted keys against each file of the partition path.
+   */
+  private List<KeyLookupResult> checkPartition(String partitionPath, List<String> recordKeys) {
+    List<HoodieBaseFile> baseFiles = HoodieIndexUtils.getLatestBaseFilesForPartition(partitionPath, hoodieTable);
+    List<KeyLookupResult> results = new ArrayList<>();
+    int checkedFiles = 0;
+    for (HoodieBaseFile baseFile : baseFiles) {
+      Pair<String, String> partitionPathFilePair = Pair.of(partitionPath, baseFile.getFileId());
+      int from = 0;
+      int to = recordKeys.size();
+      if (config.getBloomIndexPruneByRanges()) {
+        try {
+          String[] minMaxKeys = new HoodieRangeInfoHandle(config, hoodieTable, partitionPathFilePair).getMinMaxKeys();
+          from = lowerBound(recordKeys, minMaxKeys[0]);
+          to = upperBound(recordKeys, minMaxKeys[1]);
+        } catch (MetadataNotFoundException me) {
+          LOG.warn("Unable to find range metadata in file :" + partitionPathFilePair);
+        } catch (Exception e) {
+          throw new HoodieIndexException("Error reading key range of " + partitionPathFilePair, e);
+        }
+      }
+      if (from >= to) {
+        continue;
+      }
+      checkedFiles++;
+      HoodieKeyLookupHandle keyLookupHandle = new HoodieKeyLookupHandle(config, hoodieTable, partitionPathFilePair);
+      for (String recordKey : recordKeys.subList(from, to)) {
+        keyLookupHandle.addKey(recordKey);
+      }
+      KeyLookupResult result = keyLookupHandle.getLookupResult();
+      if (!result.getMatchingRecordKeys().isEmpty()) {
+        results.add(result);
+      }
+    }
+    LOG.info(String.format("Checked %d keys of partition %s against %d of its %d files", recordKeys.size(),
+        partitionPath, checkedFiles, baseFiles.size()));
+    return results;
+  }
+
+  private static int lowerBound(List<String> sortedKeys, String key) {
+    int index = Collections.binarySearch(sortedKeys, key);
+    if (index < 0) {
+      return -index - 1;
+    }
+    // step back over the duplicates of the key
+    while (index > 0 && sortedKeys.get(index - 1).equals(key)) {
+      index--;
+    }
+    return index;
+  }
+
+  private static int upperBound(List<String> sortedKeys, String key) {
+    int index = Collections.binarySearch(sortedKeys, key);
+    if (index < 0) {
+      return -index - 1;
+    }
+    while (index < sortedKeys.size() - 1 && sortedKeys.get(index + 1).equals(key)) {
+      index++;
+    }
+    return index + 1;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bloom;
+
+import org.apache.hudi.common.util.collection.Pair;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.Partitioner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partitions the incoming (partitionPath, recordKey) pairs of the partition local bloom index checking, so that each
+ * task checks the keys of whole partition paths (or of key ranges of them) against their files.
+ * <p>
+ * Partition paths with no more incoming keys than the keys per task are packed together into tasks, in the order
+ * of their paths. A hot partition path gets tasks of its own, one per key range between the given split keys, so
+ * that its files are checked in parallel and each task only looks at the files whose key range overlaps its own.
+ */
+public class PartitionLocalBloomCheckPartitioner extends Partitioner {
+
+  private static final Logger LOG = LogManager.getLogger(PartitionLocalBloomCheckPartitioner.class);
+
+  private final int partitions;
+
+  /**
+   * The first task of each partition path.
+   */
+  private final Map<String, Integer> partitionPathToTask;
+
+  /**
+   * The sorted keys splitting a hot partition path into consecutive tasks, each starting the key range of a task.
+   */
+  private final Map<String, String[]> partitionPathToSplitKeys;
+
+  /**
+   * Create a partitioner for the given workload.
+   *
+   * @param recordsPerPartition number of incoming keys per partition path
+   * @param partitionPathToSplitKeys sorted split keys of the partition paths to spread across several tasks
+   * @param keysPerTask maximum number of keys of packed partition paths per task
+   */
+  public PartitionLocalBloomCheckPartitioner(Map<String, Long> recordsPerPartition,
+      Map<String, List<String>> partitionPathToSplitKeys, int keysPerTask) {
+    this.partitionPathToTask = new HashMap<>();
+    this.partitionPathToSplitKeys = new HashMap<>();
+
+    List<String> partitionPaths = new ArrayList<>(recordsPerPartition.keySet());
+    Collections.sort(partitionPaths);
+    int nextTask = 0;
+    long packedKeys = 0;
+    for (String partitionPath : partitionPaths) {
+      List<String> splitKeys = partitionPathToSplitKeys.getOrDefault(partitionPath, Collections.emptyList());
+      long keys = recordsPerPartition.get(partitionPath);
+      if (!splitKeys.isEmpty()) {
+        partitionPathToTask.put(partitionPath, packedKeys > 0 ? ++nextTask : nextTask);
+        this.partitionPathToSplitKeys.put(partitionPath, splitKeys.toArray(new String[0]));
+        nextTask += splitKeys.size() + 1;
+        packedKeys = 0;
+      } else {
+        if (packedKeys > 0 && packedKeys + keys > keysPerTask) {
+          nextTask++;
+          packedKeys = 0;
+        }
+        partitionPathToTask.put(partitionPath, nextTask);
+        packedKeys += keys;
+      }
+    }
+    this.partitions = Math.max(packedKeys > 0 ? nextTask + 1 : nextTask, 1);
+    LOG.info("Partitioned " + partitionPaths.size() + " partition paths into " + partitions + " tasks, "
+        + this.partitionPathToSplitKeys.size() + " of them split by key range");
+  }
+
+  @Override
+  public int numPartitions() {
+    return partitions;
+  }
+
+  @Override
+  public int getPartition(Object key) {
+    final Pair<String, String> partitionPathRecordKeyPair = (Pair<String, String>) key;
+    int task = partitionPathToTask.getOrDefault(partitionPathRecordKeyPair.getLeft(), 0);
+    String[] splitKeys = partitionPathToSplitKeys.get(partitionPathRecordKeyPair.getLeft());
+    if (splitKeys != null) {
+      // each split key starts the key range of the next task
+      int index = Arrays.binarySearch(splitKeys, partitionPathRecordKeyPair.getRight());
+      task += index >= 0 ? index + 1 : -index - 1;
+    }
+    return task;
+  }
+}
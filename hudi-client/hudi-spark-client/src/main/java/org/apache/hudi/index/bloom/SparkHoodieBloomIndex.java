@@ -31,6 +31,7 @@ import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.MetadataNotFoundException;
 import org.apache.hudi.index.HoodieIndexUtils;
 import org.apache.hudi.index.SparkHoodieIndex;
+import org.apache.hudi.io.HoodieKeyLookupHandle.KeyLookupResult;
 import org.apache.hudi.io.HoodieRangeInfoHandle;
 import org.apache.hudi.table.HoodieTable;
 
@@ -42,10 +43,12 @@ import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.storage.StorageLevel;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import scala.Tuple2;
 
@@ -62,6 +65,8 @@ public class SparkHoodieBloomIndex<T extends HoodieRecordPayload> extends SparkH
 
   private static final Logger LOG = LogManager.getLogger(SparkHoodieBloomIndex.class);
 
+  private static final int SAMPLED_KEYS_PER_TASK = 100;
+
   public SparkHoodieBloomIndex(HoodieWriteConfig config) {
     super(config);
   }
@@ -112,6 +117,9 @@ public class SparkHoodieBloomIndex<T extends HoodieRecordPayload> extends SparkH
       final HoodieTable hoodieTable) {
     // Obtain records per partition, in the incoming records
     Map<String, Long> recordsPerPartition = partitionRecordKeyPairRDD.countByKey();
+    if (config.useBloomIndexPartitionLocalChecking() && !isGlobal()) {
+      return lookupIndexPartitionLocal(partitionRecordKeyPairRDD, recordsPerPartition, context, hoodieTable);
+    }
     List<String> affectedPartitionPathList = new ArrayList<>(recordsPerPartition.keySet());
 
     // Step 2: Load all involved files as <Partition, filename> pairs
@@ -134,6 +142,64 @@ public class SparkHoodieBloomIndex<T extends HoodieRecordPayload> extends SparkH
         comparisonsPerFileGroup);
   }
 
+  /**
+   * Lookup the keys of each partition path against its files within the tasks holding them. The keys are only
+   * shuffled once, co-partitioned by partition path and sorted, and neither the files to check nor the comparisons
+   * per file are computed on the driver. Partition paths with more keys than the keys per task are split into
+   * several tasks by key ranges sampled from the input.
+   */
+  private JavaPairRDD<HoodieKey, HoodieRecordLocation> lookupIndexPartitionLocal(
+      JavaPairRDD<String, String> partitionRecordKeyPairRDD, Map<String, Long> recordsPerPartition,
+      final HoodieEngineContext context, final HoodieTable hoodieTable) {
+    int keysPerTask = config.getBloomIndexPartitionLocalKeysPerTask();
+    Map<String, List<String>> partitionPathToSplitKeys =
+        computeSplitKeys(partitionRecordKeyPairRDD, recordsPerPartition, keysPerTask, context);
+    Partitioner partitioner =
+        new PartitionLocalBloomCheckPartitioner(recordsPerPartition, partitionPathToSplitKeys, keysPerTask);
+
+    context.setJobStatus(this.getClass().getSimpleName(), "Check keys against the files of their partitions");
+    JavaRDD<List<KeyLookupResult>> lookupResults = partitionRecordKeyPairRDD
+        .mapToPair(t -> new Tuple2<Pair<String, String>, Void>(Pair.of(t._1, t._2), null))
+        .repartitionAndSortWithinPartitions(partitioner).keys()
+        .mapPartitions(new HoodiePartitionLocalBloomCheckFunction(hoodieTable, config), true);
+    return toRecordKeyLocations(lookupResults);
+  }
+
+  /**
+   * Compute the keys splitting the partition paths with more keys than the keys per task into key ranges of
+   * about the keys per task, from a sample of their keys.
+   */
+  private Map<String, List<String>> computeSplitKeys(JavaPairRDD<String, String> partitionRecordKeyPairRDD,
+                                                    Map<String, Long> recordsPerPartition, int keysPerTask,
+                                                    HoodieEngineContext context) {
+    Map<String, Integer> tasksPerPartition = new HashMap<>();
+    Map<String, Double> fractions = new HashMap<>();
+    recordsPerPartition.forEach((partitionPath, keys) -> {
+      if (keys > keysPerTask) {
+        int tasks = (int) Math.ceil((double) keys / keysPerTask);
+        tasksPerPartition.put(partitionPath, tasks);
+        fractions.put(partitionPath, Math.min(1.0, (double) SAMPLED_KEYS_PER_TASK * tasks / keys));
+      }
+    });
+    if (fractions.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    context.setJobStatus(this.getClass().getSimpleName(), "Sample keys of " + fractions.size() + " hot partitions");
+    Map<String, List<String>> sampledKeys = partitionRecordKeyPairRDD.filter(t -> fractions.containsKey(t._1))
+        .sampleByKey(false, fractions).collect().stream()
+        .collect(groupingBy(Tuple2::_1, mapping(Tuple2::_2, toList())));
+    Map<String, List<String>> partitionPathToSplitKeys = new HashMap<>();
+    sampledKeys.forEach((partitionPath, keys) -> {
+      Collections.sort(keys);
+      int tasks = tasksPerPartition.get(partitionPath);
+      List<String> splitKeys = IntStream.range(1, tasks).mapToObj(i -> keys.get(i * keys.size() / tasks))
+          .distinct().collect(toList());
+      partitionPathToSplitKeys.put(partitionPath, splitKeys);
+    });
+    return partitionPathToSplitKeys;
+  }
+
   /**
    * Compute the estimated number of bloom filter comparisons to be performed on each file group.
    */
@@ -269,8 +335,12 @@ public class SparkHoodieBloomIndex<T extends HoodieRecordPayload> extends SparkH
       fileComparisonsRDD = fileComparisonsRDD.sortBy(Tuple2::_1, true, shuffleParallelism);
     }
 
-    return fileComparisonsRDD.mapPartitionsWithIndex(new HoodieBloomIndexCheckFunction(hoodieTable, config), true)
-        .flatMap(List::iterator).filter(lr -> lr.getMatchingRecordKeys().size() > 0)
+    return toRecordKeyLocations(
+        fileComparisonsRDD.mapPartitionsWithIndex(new HoodieBloomIndexCheckFunction(hoodieTable, config), true));
+  }
+
+  private JavaPairRDD<HoodieKey, HoodieRecordLocation> toRecordKeyLocations(JavaRDD<List<KeyLookupResult>> lookupResults) {
+    return lookupResults.flatMap(List::iterator).filter(lr -> lr.getMatchingRecordKeys().size() > 0)
         .flatMapToPair(lookupResult -> lookupResult.getMatchingRecordKeys().stream()
             .map(recordKey -> new Tuple2<>(new HoodieKey(recordKey, lookupResult.getPartitionPath()),
                 new HoodieRecordLocation(lookupResult.getBaseInstantTime(), lookupResult.getFileId())))
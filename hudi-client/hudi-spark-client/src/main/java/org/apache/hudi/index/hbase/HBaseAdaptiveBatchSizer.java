@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.hbase;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+/**
+ * Sizes the batches of HBase operations of a task after the latency observed for the completed ones.
+ * <p>
+ * Each completed batch gives an estimate of the per operation latency, from which the batch size meeting the target
+ * batch latency is derived. The next batch size moves half way towards it, within a tenth and ten times the initial
+ * batch size. When not adaptive, the initial batch size is always used.
+ */
+public class HBaseAdaptiveBatchSizer {
+
+  private static final Logger LOG = LogManager.getLogger(HBaseAdaptiveBatchSizer.class);
+
+  private static final int MAX_SCALE_FACTOR = 10;
+
+  private final boolean adaptive;
+  private final long targetLatencyMs;
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private volatile int batchSize;
+
+  public HBaseAdaptiveBatchSizer(int initialBatchSize, boolean adaptive, long targetLatencyMs) {
+    this.adaptive = adaptive;
+    this.targetLatencyMs = targetLatencyMs;
+    this.batchSize = Math.max(1, initialBatchSize);
+    this.minBatchSize = Math.max(1, batchSize / MAX_SCALE_FACTOR);
+    this.maxBatchSize = batchSize * MAX_SCALE_FACTOR;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Records the latency of a completed batch of the given number of operations.
+   */
+  public synchronized void onBatchCompleted(int numOperations, long latencyMs) {
+    if (!adaptive || numOperations <= 0) {
+      return;
+    }
+    long targetBatchSize = targetLatencyMs * numOperations / Math.max(1L, latencyMs);
+    int newBatchSize = (int) Math.max(minBatchSize, Math.min(maxBatchSize, (batchSize + targetBatchSize) / 2));
+    if (newBatchSize != batchSize && LOG.isDebugEnabled()) {
+      LOG.debug("Batch of " + numOperations + " operations took " + latencyMs + " ms, batch size "
+          + batchSize + " -> " + newBatchSize);
+    }
+    batchSize = newBatchSize;
+  }
+}
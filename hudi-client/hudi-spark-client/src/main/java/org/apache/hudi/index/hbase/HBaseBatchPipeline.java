@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.hbase;
+
+import org.apache.hudi.common.util.HoodieTimer;
+import org.apache.hudi.common.util.collection.Pair;
+import org.apache.hudi.exception.HoodieIndexException;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Table;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Pipelines the batches of HBase operations of a task: up to a maximum number of batches are outstanding against
+ * HBase at once, each running on its own {@link Table} of the shared connection, while the task prepares the next
+ * ones. Batches are completed in submission order, by handing their results to the completion handler on the
+ * task thread.
+ * <p>
+ * With a single outstanding batch, batches run synchronously on the task thread.
+ *
+ * @param <C> type of the context of a batch, e.g. the records looked up
+ * @param <R> type of the result of a batch
+ */
+public class HBaseBatchPipeline<C, R> implements AutoCloseable {
+
+  /**
+   * An operation on a HBase table.
+   */
+  public interface BatchOperation<R> {
+    R call(Table table) throws IOException, InterruptedException;
+  }
+
+  /**
+   * Handles the result of a batch, on the task thread.
+   */
+  public interface BatchCompletion<C, R> {
+    void complete(C context, R result) throws IOException;
+  }
+
+  private final Connection connection;
+  private final TableName tableName;
+  private final int maxOutstandingBatches;
+  private final HBaseAdaptiveBatchSizer batchSizer;
+  private final BatchCompletion<C, R> completion;
+  private final Deque<Pair<C, Future<R>>> outstandingBatches = new ArrayDeque<>();
+  private final ExecutorService executor;
+
+  public HBaseBatchPipeline(Connection connection, TableName tableName, int maxOutstandingBatches,
+                            HBaseAdaptiveBatchSizer batchSizer, BatchCompletion<C, R> completion) {
+    this.connection = connection;
+    this.tableName = tableName;
+    this.maxOutstandingBatches = Math.max(1, maxOutstandingBatches);
+    this.batchSizer = batchSizer;
+    this.completion = completion;
+    this.executor = this.maxOutstandingBatches > 1 ? Executors.newFixedThreadPool(this.maxOutstandingBatches, r -> {
+      Thread thread = new Thread(r, "hbase-index-batch");
+      thread.setDaemon(true);
+      return thread;
+    }) : null;
+  }
+
+  public int getBatchSize() {
+    return batchSizer.getBatchSize();
+  }
+
+  /**
+   * Submits a batch of the given number of operations, first completing the oldest batches if the maximum number of
+   * batches is outstanding.
+   */
+  public void submit(C context, int numOperations, BatchOperation<R> operation) throws IOException {
+    while (outstandingBatches.size() >= maxOutstandingBatches) {
+      completeOldest();
+    }
+    if (executor == null) {
+      CompletableFuture<R> future = new CompletableFuture<>();
+      try {
+        future.complete(run(numOperations, operation));
+      } catch (Exception e) {
+        future.completeExceptionally(e);
+      }
+      outstandingBatches.add(Pair.of(context, future));
+    } else {
+      outstandingBatches.add(Pair.of(context, executor.submit(() -> run(numOperations, operation))));
+    }
+  }
+
+  /**
+   * Completes all the outstanding batches. All of them are waited for even if some fail, the first failure is
+   * thrown.
+   */
+  public void drain() throws IOException {
+    IOException failure = null;
+    while (!outstandingBatches.isEmpty()) {
+      try {
+        completeOldest();
+      } catch (IOException | RuntimeException e) {
+        if (failure == null) {
+          failure = e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private R run(int numOperations, BatchOperation<R> operation) throws IOException, InterruptedException {
+    HoodieTimer timer = new HoodieTimer().startTimer();
+    try (Table table = connection.getTable(tableName)) {
+      R result = operation.call(table);
+      batchSizer.onBatchCompleted(numOperations, timer.endTimer());
+      return result;
+    }
+  }
+
+  private void completeOldest() throws IOException {
+    Pair<C, Future<R>> batch = outstandingBatches.poll();
+    R result;
+    try {
+      result = batch.getRight().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HoodieIndexException("Interrupted while waiting for HBase batch", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new HoodieIndexException("HBase batch failed", e.getCause());
+    }
+    completion.complete(batch.getLeft(), result);
+  }
+
+  @Override
+  public void close() {
+    outstandingBatches.clear();
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+}
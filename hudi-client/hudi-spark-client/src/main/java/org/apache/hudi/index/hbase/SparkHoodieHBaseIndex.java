@@ -73,7 +73,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -199,6 +198,10 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
 
   /**
    * Function that tags each HoodieRecord with an existing location, if known.
+   * <p>
+   * The gets are sent in batches, up to {@link HoodieWriteConfig#getHbaseIndexMaxOutstandingBatches()} of them
+   * outstanding at once, so that the task is bound by the HBase throughput rather than by the round trip time
+   * of each batch.
    */
   private Function2<Integer, Iterator<HoodieRecord<T>>, Iterator<HoodieRecord<T>>> locationTagFunction(
       HoodieTableMetaClient metaClient) {
@@ -218,63 +221,30 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
         }
       }
       List<HoodieRecord<T>> taggedRecords = new ArrayList<>();
-      try (HTable hTable = (HTable) hbaseConnection.getTable(TableName.valueOf(tableName))) {
+      HBaseAdaptiveBatchSizer batchSizer = new HBaseAdaptiveBatchSizer(multiGetBatchSize,
+          config.getHbaseIndexAdaptiveBatchSize(), config.getHbaseIndexTargetBatchLatencyMs());
+      try (HBaseBatchPipeline<List<HoodieRecord<T>>, Result[]> pipeline = new HBaseBatchPipeline<>(hbaseConnection,
+          TableName.valueOf(tableName), config.getHbaseIndexMaxOutstandingBatches(), batchSizer,
+          (records, results) -> tagRecords(records, results, metaClient, updatePartitionPath, taggedRecords))) {
         List<Get> statements = new ArrayList<>();
-        List<HoodieRecord> currentBatchOfRecords = new LinkedList<>();
+        List<HoodieRecord<T>> currentBatchOfRecords = new ArrayList<>();
         // Do the tagging.
         while (hoodieRecordIterator.hasNext()) {
-          HoodieRecord rec = hoodieRecordIterator.next();
+          HoodieRecord<T> rec = hoodieRecordIterator.next();
           statements.add(generateStatement(rec.getRecordKey()));
           currentBatchOfRecords.add(rec);
           // iterator till we reach batch size
-          if (hoodieRecordIterator.hasNext() && statements.size() < multiGetBatchSize) {
+          if (hoodieRecordIterator.hasNext() && statements.size() < pipeline.getBatchSize()) {
             continue;
           }
-          // get results for batch from Hbase
-          Result[] results = doGet(hTable, statements, limiter);
-          // clear statements to be GC'd
-          statements.clear();
-          for (Result result : results) {
-            // first, attempt to grab location from HBase
-            HoodieRecord currentRecord = currentBatchOfRecords.remove(0);
-            if (result.getRow() == null) {
-              taggedRecords.add(currentRecord);
-              continue;
-            }
-            String keyFromResult = Bytes.toString(result.getRow());
-            String commitTs = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, COMMIT_TS_COLUMN));
-            String fileId = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, FILE_NAME_COLUMN));
-            String partitionPath = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, PARTITION_PATH_COLUMN));
-            if (!checkIfValidCommit(metaClient, commitTs)) {
-              // if commit is invalid, treat this as a new taggedRecord
-              taggedRecords.add(currentRecord);
-              continue;
-            }
-            // check whether to do partition change processing
-            if (updatePartitionPath && !partitionPath.equals(currentRecord.getPartitionPath())) {
-              // delete partition old data record
-              HoodieRecord emptyRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), partitionPath),
-                  new EmptyHoodieRecordPayload());
-              emptyRecord.unseal();
-              emptyRecord.setCurrentLocation(new HoodieRecordLocation(commitTs, fileId));
-              emptyRecord.seal();
-              // insert partition new data record
-              currentRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), currentRecord.getPartitionPath()),
-                  currentRecord.getData());
-              taggedRecords.add(emptyRecord);
-              taggedRecords.add(currentRecord);
-            } else {
-              currentRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), partitionPath),
-                  currentRecord.getData());
-              currentRecord.unseal();
-              currentRecord.setCurrentLocation(new HoodieRecordLocation(commitTs, fileId));
-              currentRecord.seal();
-              taggedRecords.add(currentRecord);
-              // the key from Result and the key being processed should be same
-              assert (currentRecord.getRecordKey().contentEquals(keyFromResult));
-            }
-          }
+          // send the batch to Hbase, its results are handled once it completes
+          final List<Get> batch = statements;
+          limiter.tryAcquire(batch.size());
+          pipeline.submit(currentBatchOfRecords, batch.size(), table -> table.get(batch));
+          statements = new ArrayList<>();
+          currentBatchOfRecords = new ArrayList<>();
         }
+        pipeline.drain();
       } catch (IOException e) {
         throw new HoodieIndexException("Failed to Tag indexed locations because of exception with HBase Client", e);
       }
@@ -282,12 +252,52 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
     };
   }
 
-  private Result[] doGet(HTable hTable, List<Get> keys, RateLimiter limiter) throws IOException {
-    if (keys.size() > 0) {
-      limiter.tryAcquire(keys.size());
-      return hTable.get(keys);
+  /**
+   * Tags the records of a batch with the locations of the results of its gets.
+   */
+  private void tagRecords(List<HoodieRecord<T>> records, Result[] results, HoodieTableMetaClient metaClient,
+                          boolean updatePartitionPath, List<HoodieRecord<T>> taggedRecords) {
+    for (int i = 0; i < results.length; i++) {
+      Result result = results[i];
+      // first, attempt to grab location from HBase
+      HoodieRecord currentRecord = records.get(i);
+      if (result.getRow() == null) {
+        taggedRecords.add(currentRecord);
+        continue;
+      }
+      String keyFromResult = Bytes.toString(result.getRow());
+      String commitTs = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, COMMIT_TS_COLUMN));
+      String fileId = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, FILE_NAME_COLUMN));
+      String partitionPath = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, PARTITION_PATH_COLUMN));
+      if (!checkIfValidCommit(metaClient, commitTs)) {
+        // if commit is invalid, treat this as a new taggedRecord
+        taggedRecords.add(currentRecord);
+        continue;
+      }
+      // check whether to do partition change processing
+      if (updatePartitionPath && !partitionPath.equals(currentRecord.getPartitionPath())) {
+        // delete partition old data record
+        HoodieRecord emptyRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), partitionPath),
+            new EmptyHoodieRecordPayload());
+        emptyRecord.unseal();
+        emptyRecord.setCurrentLocation(new HoodieRecordLocation(commitTs, fileId));
+        emptyRecord.seal();
+        // insert partition new data record
+        currentRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), currentRecord.getPartitionPath()),
+            currentRecord.getData());
+        taggedRecords.add(emptyRecord);
+        taggedRecords.add(currentRecord);
+      } else {
+        currentRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), partitionPath),
+            currentRecord.getData());
+        currentRecord.unseal();
+        currentRecord.setCurrentLocation(new HoodieRecordLocation(commitTs, fileId));
+        currentRecord.seal();
+        taggedRecords.add(currentRecord);
+        // the key from Result and the key being processed should be same
+        assert (currentRecord.getRecordKey().contentEquals(keyFromResult));
+      }
     }
-    return new Result[keys.size()];
   }
 
   @Override
@@ -311,7 +321,10 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
       final long startTimeForPutsTask = DateTime.now().getMillis();
       LOG.info("startTimeForPutsTask for this task: " + startTimeForPutsTask);
 
-      try (BufferedMutator mutator = hbaseConnection.getBufferedMutator(TableName.valueOf(tableName))) {
+      HBaseAdaptiveBatchSizer batchSizer = new HBaseAdaptiveBatchSizer(multiPutBatchSize,
+          config.getHbaseIndexAdaptiveBatchSize(), config.getHbaseIndexTargetBatchLatencyMs());
+      try (HBaseBatchPipeline<Integer, Object[]> pipeline = new HBaseBatchPipeline<>(hbaseConnection,
+          TableName.valueOf(tableName), config.getHbaseIndexMaxOutstandingBatches(), batchSizer, (size, results) -> { })) {
         final RateLimiter limiter = RateLimiter.create(multiPutBatchSize, TimeUnit.SECONDS);
         while (statusIterator.hasNext()) {
           WriteStatus writeStatus = statusIterator.next();
@@ -342,29 +355,57 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
                   mutations.add(delete);
                 }
               }
-              if (mutations.size() < multiPutBatchSize) {
+              if (mutations.size() < pipeline.getBatchSize()) {
                 continue;
               }
-              doMutations(mutator, mutations, limiter);
+              doMutations(pipeline, mutations, limiter);
             }
             // process remaining puts and deletes, if any
-            doMutations(mutator, mutations, limiter);
+            doMutations(pipeline, mutations, limiter);
+            // wait for the batches of this write status, so that their failures are reported against it. A record
+            // key is only written once by a commit, so the order of the outstanding batches does not matter.
+            pipeline.drain();
           } catch (Exception e) {
             Exception we = new Exception("Error updating index for " + writeStatus, e);
             LOG.error(we);
             writeStatus.setGlobalError(we);
+            drainQuietly(pipeline);
           }
           writeStatusList.add(writeStatus);
         }
         final long endPutsTime = DateTime.now().getMillis();
         LOG.info("hbase puts task time for this task: " + (endPutsTime - startTimeForPutsTask));
-      } catch (IOException e) {
-        throw new HoodieIndexException("Failed to Update Index locations because of exception with HBase Client", e);
       }
       return writeStatusList.iterator();
     };
   }
 
+  /**
+   * Helper method to send a batch of mutations (including puts and deletes) to Hbase, through the pipeline.
+   */
+  private void doMutations(HBaseBatchPipeline<Integer, Object[]> pipeline, List<Mutation> mutations,
+                           RateLimiter limiter) throws IOException {
+    if (mutations.isEmpty()) {
+      return;
+    }
+    final List<Mutation> batch = new ArrayList<>(mutations);
+    mutations.clear();
+    limiter.tryAcquire(batch.size());
+    pipeline.submit(batch.size(), batch.size(), table -> {
+      Object[] results = new Object[batch.size()];
+      table.batch(batch, results);
+      return results;
+    });
+  }
+
+  private static void drainQuietly(HBaseBatchPipeline<?, ?> pipeline) {
+    try {
+      pipeline.drain();
+    } catch (Exception e) {
+      // already reported against the write status
+    }
+  }
+
   /**
    * Helper method to facilitate performing mutations (including puts and deletes) in Hbase.
    */
@@ -40,6 +40,7 @@ import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 
 import java.util.List;
+import java.util.stream.StreamSupport;
 
 import scala.Tuple2;
 
@@ -147,7 +148,12 @@ public class SparkHoodieSimpleIndex<T extends HoodieRecordPayload> extends Spark
     JavaSparkContext jsc = HoodieSparkEngineContext.getSparkContext(context);
     int fetchParallelism = Math.max(1, Math.max(baseFiles.size(), parallelism));
     return jsc.parallelize(baseFiles, fetchParallelism)
-        .flatMapToPair(partitionPathBaseFile -> new HoodieKeyLocationFetchHandle(config, hoodieTable, partitionPathBaseFile)
-                .locations().map(x -> Tuple2.apply(((Pair)x).getLeft(), ((Pair)x).getRight())).iterator());
+        .flatMapToPair(partitionPathBaseFile -> {
+          Pair<HoodieRecordLocation, Iterable<HoodieKey>> keysAtLocation =
+              new HoodieKeyLocationFetchHandle<>(config, hoodieTable, partitionPathBaseFile).keysAtLocation();
+          HoodieRecordLocation location = keysAtLocation.getLeft();
+          return StreamSupport.stream(keysAtLocation.getRight().spliterator(), false)
+              .map(key -> new Tuple2<>(key, location)).iterator();
+        });
   }
 }
@@ -55,23 +55,30 @@ public class HoodieRowCreateHandle implements Serializable {
   private static final Logger LOG = LogManager.getLogger(HoodieRowCreateHandle.class);
   private static final AtomicLong SEQGEN = new AtomicLong(1);
 
-  private final String instantTime;
+  protected final String instantTime;
   private final int taskPartitionId;
   private final long taskId;
   private final long taskEpochId;
   private final HoodieTable table;
-  private final HoodieWriteConfig writeConfig;
-  private final HoodieInternalRowFileWriter fileWriter;
-  private final String partitionPath;
-  private final Path path;
-  private final String fileId;
+  protected final HoodieWriteConfig writeConfig;
+  protected final HoodieInternalRowFileWriter fileWriter;
+  protected final String partitionPath;
+  protected final Path path;
+  protected final String fileId;
   private final FileSystem fs;
-  private final HoodieInternalWriteStatus writeStatus;
+  protected final HoodieInternalWriteStatus writeStatus;
   private final HoodieTimer currTimer;
 
   public HoodieRowCreateHandle(HoodieTable table, HoodieWriteConfig writeConfig, String partitionPath, String fileId,
       String instantTime, int taskPartitionId, long taskId, long taskEpochId,
       StructType structType) {
+    this(table, writeConfig, partitionPath, fileId, instantTime, taskPartitionId, taskId, taskEpochId, structType,
+        IOType.CREATE);
+  }
+
+  protected HoodieRowCreateHandle(HoodieTable table, HoodieWriteConfig writeConfig, String partitionPath, String fileId,
+      String instantTime, int taskPartitionId, long taskId, long taskEpochId,
+      StructType structType, IOType ioType) {
     this.partitionPath = partitionPath;
     this.table = table;
     this.writeConfig = writeConfig;
@@ -96,7 +103,8 @@ public class HoodieRowCreateHandle implements Serializable {
               new Path(writeConfig.getBasePath()),
               FSUtils.getPartitionPath(writeConfig.getBasePath(), partitionPath));
       partitionMetadata.trySave(taskPartitionId);
-      createMarkerFile(partitionPath, FSUtils.makeDataFileName(this.instantTime, getWriteToken(), this.fileId, table.getBaseFileExtension()));
+      createMarkerFile(partitionPath, FSUtils.makeDataFileName(this.instantTime, getWriteToken(), this.fileId, table.getBaseFileExtension()),
+          ioType);
       this.fileWriter = createNewFileWriter(path, table, writeConfig, structType);
     } catch (IOException e) {
       throw new HoodieInsertException("Failed to initialize file writer for path " + path, e);
@@ -188,9 +196,9 @@ public class HoodieRowCreateHandle implements Serializable {
    *
    * @param partitionPath Partition path
    */
-  private void createMarkerFile(String partitionPath, String dataFileName) {
+  private void createMarkerFile(String partitionPath, String dataFileName, IOType ioType) {
     MarkerFiles markerFiles = new MarkerFiles(table, instantTime);
-    markerFiles.create(partitionPath, dataFileName, IOType.CREATE);
+    markerFiles.create(partitionPath, dataFileName, ioType);
   }
 
   private String getWriteToken() {
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.io;
+
+import org.apache.hudi.client.HoodieInternalWriteStatus;
+import org.apache.hudi.client.model.HoodieInternalRow;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieWriteStat;
+import org.apache.hudi.common.model.IOType;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.table.HoodieTable;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.StructType;
+
+import java.io.IOException;
+
+/**
+ * Merge handle with InternalRow for datasource implementation of upsert. Writes the next version of an existing file
+ * group from rows that were already merged against the current base file: updated rows through {@link #write(InternalRow)},
+ * and unchanged rows of the current base file through {@link #copy(InternalRow)}, which keeps their commit metadata.
+ */
+public class HoodieRowMergeHandle extends HoodieRowCreateHandle {
+
+  private static final long serialVersionUID = 1L;
+  private static final Logger LOG = LogManager.getLogger(HoodieRowMergeHandle.class);
+
+  private final String prevCommit;
+  private long updatedRecordsWritten = 0;
+  private long copiedRecordsWritten = 0;
+
+  public HoodieRowMergeHandle(HoodieTable table, HoodieWriteConfig writeConfig, String partitionPath, String fileId,
+      String prevCommit, String instantTime, int taskPartitionId, long taskId, long taskEpochId,
+      StructType structType) {
+    super(table, writeConfig, partitionPath, fileId, instantTime, taskPartitionId, taskId, taskEpochId, structType,
+        IOType.MERGE);
+    this.prevCommit = prevCommit;
+    LOG.info("Merging new data into file group " + fileId + " of base commit " + prevCommit);
+  }
+
+  /**
+   * Writes an updated {@link InternalRow}, stamping it with the meta columns of this commit.
+   */
+  @Override
+  public void write(InternalRow record) throws IOException {
+    super.write(record);
+    updatedRecordsWritten++;
+  }
+
+  /**
+   * Writes a row of the current base file that has no update. Its commit time and sequence number are kept, only
+   * the file name is pointed to the new file.
+   * @param oldRecord row read from the current base file.
+   * @throws IOException
+   */
+  public void copy(InternalRow oldRecord) throws IOException {
+    String recordKey = oldRecord.getUTF8String(HoodieRecord.HOODIE_META_COLUMNS_NAME_TO_POS.get(
+        HoodieRecord.RECORD_KEY_METADATA_FIELD)).toString();
+    HoodieInternalRow internalRow = new HoodieInternalRow(
+        oldRecord.getUTF8String(HoodieRecord.HOODIE_META_COLUMNS_NAME_TO_POS.get(HoodieRecord.COMMIT_TIME_METADATA_FIELD)).toString(),
+        oldRecord.getUTF8String(HoodieRecord.HOODIE_META_COLUMNS_NAME_TO_POS.get(HoodieRecord.COMMIT_SEQNO_METADATA_FIELD)).toString(),
+        recordKey, partitionPath, path.getName(), oldRecord);
+    try {
+      fileWriter.writeRow(recordKey, internalRow);
+      copiedRecordsWritten++;
+    } catch (Throwable t) {
+      writeStatus.setGlobalError(t);
+      throw t;
+    }
+  }
+
+  @Override
+  public HoodieInternalWriteStatus close() throws IOException {
+    HoodieInternalWriteStatus status = super.close();
+    HoodieWriteStat stat = status.getStat();
+    stat.setPrevCommit(prevCommit);
+    stat.setNumWrites(updatedRecordsWritten + copiedRecordsWritten);
+    stat.setNumUpdateWrites(updatedRecordsWritten);
+    stat.setNumInserts(0);
+    LOG.info(String.format("MergeHandle for partitionPath %s fileID %s wrote %d updated and %d copied records",
+        partitionPath, fileId, updatedRecordsWritten, copiedRecordsWritten));
+    return status;
+  }
+}
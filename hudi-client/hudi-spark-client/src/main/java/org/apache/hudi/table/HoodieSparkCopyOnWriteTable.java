@@ -153,6 +153,11 @@ public class HoodieSparkCopyOnWriteTable<T extends HoodieRecordPayload> extends
     throw new HoodieNotSupportedException("Compaction is not supported on a CopyOnWrite table");
   }
 
+  @Override
+  public HoodieWriteMetadata<JavaRDD<WriteStatus>> logCompact(HoodieEngineContext context, String instantTime) {
+    throw new HoodieNotSupportedException("Log compaction is not supported on a CopyOnWrite table");
+  }
+
   @Override
   public Option<HoodieClusteringPlan> scheduleClustering(HoodieEngineContext context,
                                                          String instantTime,
@@ -45,6 +45,7 @@ import org.apache.hudi.table.action.deltacommit.SparkBulkInsertPreppedDeltaCommi
 import org.apache.hudi.table.action.deltacommit.SparkDeleteDeltaCommitActionExecutor;
 import org.apache.hudi.table.action.deltacommit.SparkInsertDeltaCommitActionExecutor;
 import org.apache.hudi.table.action.deltacommit.SparkInsertPreppedDeltaCommitActionExecutor;
+import org.apache.hudi.table.action.deltacommit.SparkLogCompactionDeltaCommitActionExecutor;
 import org.apache.hudi.table.action.deltacommit.SparkUpsertDeltaCommitActionExecutor;
 import org.apache.hudi.table.action.deltacommit.SparkUpsertPreppedDeltaCommitActionExecutor;
 import org.apache.hudi.table.action.compact.BaseScheduleCompactionActionExecutor;
@@ -131,6 +132,11 @@ public class HoodieSparkMergeOnReadTable<T extends HoodieRecordPayload> extends
     return compactionExecutor.execute();
   }
 
+  @Override
+  public HoodieWriteMetadata<JavaRDD<WriteStatus>> logCompact(HoodieEngineContext context, String instantTime) {
+    return new SparkLogCompactionDeltaCommitActionExecutor<>((HoodieSparkEngineContext) context, config, this, instantTime).execute();
+  }
+
   @Override
   public HoodieBootstrapWriteMetadata<JavaRDD<WriteStatus>> bootstrap(HoodieEngineContext context, Option<Map<String, String>> extraMetadata) {
     return new SparkBootstrapDeltaCommitActionExecutor((HoodieSparkEngineContext) context, config, this, extraMetadata).execute();
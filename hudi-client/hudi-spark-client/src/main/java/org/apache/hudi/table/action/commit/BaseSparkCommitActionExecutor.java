@@ -40,9 +40,14 @@ import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.HoodieCommitException;
 import org.apache.hudi.exception.HoodieUpsertException;
 import org.apache.hudi.execution.SparkLazyInsertIterable;
+import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.index.bucket.PartitionBuckets;
 import org.apache.hudi.io.CreateHandleFactory;
+import org.apache.hudi.io.HoodieBoundedMemoryMergeHandle;
 import org.apache.hudi.io.HoodieMergeHandle;
 import org.apache.hudi.io.HoodieSortedMergeHandle;
+import org.apache.hudi.io.SingleFileHandleCreateFactory;
+import org.apache.hudi.io.WriteHandleFactory;
 import org.apache.hudi.io.storage.HoodieConcatHandle;
 import org.apache.hudi.table.HoodieSparkTable;
 import org.apache.hudi.table.HoodieTable;
@@ -174,6 +179,17 @@ public abstract class BaseSparkCommitActionExecutor<T extends HoodieRecordPayloa
         globalStat.addInserts(count);
       }
     }
+
+    if (config.getIndexType() == HoodieIndex.IndexType.BUCKET) {
+      // profile the buckets the inserts hash to, for file groups to be created only for them
+      final HoodieTable hoodieTable = table;
+      final int numBuckets = config.getBucketIndexNumBuckets();
+      inputRecordsRDD.filter(record -> record.getCurrentLocation() == null)
+          .mapPartitions(records -> PartitionBuckets.getBucketIds(records, hoodieTable, numBuckets))
+          .distinct()
+          .collect()
+          .forEach(bucket -> partitionPathStatMap.get(bucket.getLeft()).addInsertBucketId(bucket.getRight()));
+    }
     return Pair.of(partitionPathStatMap, globalStat);
   }
 
@@ -328,6 +344,8 @@ public abstract class BaseSparkCommitActionExecutor<T extends HoodieRecordPayloa
       return new HoodieSortedMergeHandle<>(config, instantTime, (HoodieSparkTable) table, recordItr, partitionPath, fileId, taskContextSupplier);
     } else if (!WriteOperationType.isChangingRecords(operationType) && config.allowDuplicateInserts()) {
       return new HoodieConcatHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
+    } else if (config.isMergeBoundedMemoryEnabled()) {
+      return new HoodieBoundedMemoryMergeHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
     } else {
       return new HoodieMergeHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
     }
@@ -349,7 +367,15 @@ public abstract class BaseSparkCommitActionExecutor<T extends HoodieRecordPayloa
       return Collections.singletonList((List<WriteStatus>) Collections.EMPTY_LIST).iterator();
     }
     return new SparkLazyInsertIterable(recordItr, true, config, instantTime, table, idPfx,
-        taskContextSupplier, new CreateHandleFactory<>());
+        taskContextSupplier, getInsertHandleFactory());
+  }
+
+  /**
+   * With the bucket index, all the inserts of a bucket go to the single file group of the bucket.
+   */
+  protected WriteHandleFactory<T, ?, ?, ?> getInsertHandleFactory() {
+    return config.getIndexType() == HoodieIndex.IndexType.BUCKET
+        ? new SingleFileHandleCreateFactory<>() : new CreateHandleFactory<>();
   }
 
   public Partitioner getUpsertPartitioner(WorkloadProfile profile) {
@@ -28,10 +28,15 @@ import org.apache.hudi.common.model.HoodieRecordLocation;
 import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
+import org.apache.hudi.common.util.HoodieTimer;
 import org.apache.hudi.common.util.NumericUtils;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieUpsertException;
+import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.index.bucket.BucketIdentifier;
+import org.apache.hudi.index.bucket.PartitionBuckets;
 import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.table.WorkloadProfile;
 import org.apache.hudi.table.WorkloadStat;
@@ -44,6 +49,7 @@ import org.apache.spark.api.java.function.PairFunction;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -85,6 +91,11 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> extends Partiti
    * Remembers what type each bucket is for later.
    */
   private HashMap<Integer, BucketInfo> bucketInfoMap;
+  /**
+   * With the bucket index, the buckets of each partition with inserts and the bucket of each of their bucket ids.
+   */
+  private HashMap<String, PartitionBuckets> partitionPathToBuckets;
+  private HashMap<String, Map<Integer, Integer>> partitionPathToBucketIdToBucket;
 
   protected final HoodieTable table;
 
@@ -95,11 +106,17 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> extends Partiti
     updateLocationToBucket = new HashMap<>();
     partitionPathToInsertBucketInfos = new HashMap<>();
     bucketInfoMap = new HashMap<>();
+    partitionPathToBuckets = new HashMap<>();
+    partitionPathToBucketIdToBucket = new HashMap<>();
     this.profile = profile;
     this.table = table;
     this.config = config;
     assignUpdates(profile);
-    assignInserts(profile, context);
+    if (config.getIndexType() == HoodieIndex.IndexType.BUCKET) {
+      assignBucketInserts(profile, context);
+    } else {
+      assignInserts(profile, context);
+    }
 
     LOG.info("Total Buckets :" + totalBuckets + ", buckets info => " + bucketInfoMap + ", \n"
         + "Partition to insert buckets => " + partitionPathToInsertBucketInfos + ", \n"
@@ -155,93 +172,254 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> extends Partiti
   }
 
   private void assignInserts(WorkloadProfile profile, HoodieEngineContext context) {
+    HoodieTimer timer = new HoodieTimer().startTimer();
     // for new inserts, compute buckets depending on how many records we have for each partition
     Set<String> partitionPaths = profile.getPartitionPaths();
-    long averageRecordSize =
-        averageBytesPerRecord(table.getMetaClient().getActiveTimeline().getCommitTimeline().filterCompletedInstants(),
-            config);
-    LOG.info("AvgRecordSize => " + averageRecordSize);
+    List<String> insertPartitionPaths = partitionPaths.stream()
+        .filter(partitionPath -> profile.getWorkloadStat(partitionPath).getNumInserts() > 0)
+        .collect(Collectors.toList());
+
+    timer.startTimer();
+    PartitionFileStatsCache statsCache = null;
+    long averageRecordSize = config.getCopyOnWriteRecordSizeEstimate();
+    if (config.isAdaptiveInsertPlanningEnabled()) {
+      // a table not created by a write client plans without the stats of the previous plans
+      statsCache = table.getPartitionFileStatsCache().orElse(new PartitionFileStatsCache());
+      statsCache.sync(table.getMetaClient().getCommitsTimeline().filterCompletedInstants(),
+          table.getMetaClient().getActiveTimeline());
+    } else {
+      averageRecordSize =
+          averageBytesPerRecord(table.getMetaClient().getActiveTimeline().getCommitTimeline().filterCompletedInstants(),
+              config);
+      LOG.info("AvgRecordSize => " + averageRecordSize);
+    }
+    long recordSizeEstimationDuration = timer.endTimer();
 
-    Map<String, List<SmallFile>> partitionSmallFilesMap =
-        getSmallFilesForPartitions(new ArrayList<String>(partitionPaths), context);
+    timer.startTimer();
+    Map<String, List<SmallFile>> partitionSmallFilesMap = new HashMap<>();
+    List<String> partitionPathsToList = insertPartitionPaths;
+    if (statsCache != null) {
+      partitionPathsToList = new ArrayList<>();
+      for (String partitionPath : insertPartitionPaths) {
+        Option<List<SmallFile>> cachedSmallFiles = statsCache.getSmallFiles(partitionPath, getSmallFilesKey());
+        if (cachedSmallFiles.isPresent()) {
+          partitionSmallFilesMap.put(partitionPath, cachedSmallFiles.get());
+        } else {
+          partitionPathsToList.add(partitionPath);
+        }
+      }
+    }
+    Map<String, List<SmallFile>> listedSmallFilesMap = getSmallFilesForPartitions(partitionPathsToList, context);
+    partitionSmallFilesMap.putAll(listedSmallFilesMap);
+    if (statsCache != null) {
+      for (Map.Entry<String, List<SmallFile>> entry : listedSmallFilesMap.entrySet()) {
+        statsCache.putSmallFiles(entry.getKey(), getSmallFilesKey(), entry.getValue());
+      }
+    }
+    long smallFilesLookupDuration = timer.endTimer();
 
     Map<String, Set<String>> partitionPathToPendingClusteringFileGroupsId = getPartitionPathToPendingClusteringFileGroupsId();
 
-    for (String partitionPath : partitionPaths) {
+    long numSmallFilesPacked = 0;
+    long numNewFileGroups = 0;
+    for (String partitionPath : insertPartitionPaths) {
       WorkloadStat pStat = profile.getWorkloadStat(partitionPath);
-      if (pStat.getNumInserts() > 0) {
-
-        List<SmallFile> smallFiles =
-            filterSmallFilesInClustering(partitionPathToPendingClusteringFileGroupsId.getOrDefault(partitionPath, Collections.emptySet()),
-                partitionSmallFilesMap.get(partitionPath));
-
-        this.smallFiles.addAll(smallFiles);
-
-        LOG.info("For partitionPath : " + partitionPath + " Small Files => " + smallFiles);
-
-        long totalUnassignedInserts = pStat.getNumInserts();
-        List<Integer> bucketNumbers = new ArrayList<>();
-        List<Long> recordsPerBucket = new ArrayList<>();
-
-        // first try packing this into one of the smallFiles
-        for (SmallFile smallFile : smallFiles) {
-          long recordsToAppend = Math.min((config.getParquetMaxFileSize() - smallFile.sizeBytes) / averageRecordSize,
-              totalUnassignedInserts);
-          if (recordsToAppend > 0 && totalUnassignedInserts > 0) {
-            // create a new bucket or re-use an existing bucket
-            int bucket;
-            if (updateLocationToBucket.containsKey(smallFile.location.getFileId())) {
-              bucket = updateLocationToBucket.get(smallFile.location.getFileId());
-              LOG.info("Assigning " + recordsToAppend + " inserts to existing update bucket " + bucket);
-            } else {
-              bucket = addUpdateBucket(partitionPath, smallFile.location.getFileId());
-              LOG.info("Assigning " + recordsToAppend + " inserts to new update bucket " + bucket);
-            }
-            bucketNumbers.add(bucket);
-            recordsPerBucket.add(recordsToAppend);
-            totalUnassignedInserts -= recordsToAppend;
-          }
+      long recordSize = averageRecordSize;
+      if (statsCache != null) {
+        long fileSizeThreshold = (long) (config.getRecordSizeEstimationThreshold() * config.getParquetSmallFileLimit());
+        recordSize = statsCache.estimateRecordSize(partitionPath, fileSizeThreshold, config.getCopyOnWriteRecordSizeEstimate());
+        LOG.info("AvgRecordSize for partitionPath : " + partitionPath + " => " + recordSize);
+      }
+
+      List<SmallFile> smallFiles =
+          filterSmallFilesInClustering(partitionPathToPendingClusteringFileGroupsId.getOrDefault(partitionPath, Collections.emptySet()),
+              partitionSmallFilesMap.get(partitionPath));
+
+      this.smallFiles.addAll(smallFiles);
+
+      LOG.info("For partitionPath : " + partitionPath + " Small Files => " + smallFiles);
+
+      long totalUnassignedInserts = pStat.getNumInserts();
+      List<Integer> bucketNumbers = new ArrayList<>();
+      List<Long> recordsPerBucket = new ArrayList<>();
+
+      // first try packing this into one of the smallFiles
+      List<Pair<SmallFile, Long>> smallFileAssignments = statsCache != null
+          ? packIntoSmallFiles(smallFiles, totalUnassignedInserts, config.getParquetMaxFileSize(), recordSize)
+          : fillSmallFiles(smallFiles, totalUnassignedInserts, config.getParquetMaxFileSize(), recordSize);
+      for (Pair<SmallFile, Long> assignment : smallFileAssignments) {
+        SmallFile smallFile = assignment.getLeft();
+        long recordsToAppend = assignment.getRight();
+        // create a new bucket or re-use an existing bucket
+        int bucket;
+        if (updateLocationToBucket.containsKey(smallFile.location.getFileId())) {
+          bucket = updateLocationToBucket.get(smallFile.location.getFileId());
+          LOG.info("Assigning " + recordsToAppend + " inserts to existing update bucket " + bucket);
+        } else {
+          bucket = addUpdateBucket(partitionPath, smallFile.location.getFileId());
+          LOG.info("Assigning " + recordsToAppend + " inserts to new update bucket " + bucket);
         }
+        bucketNumbers.add(bucket);
+        recordsPerBucket.add(recordsToAppend);
+        totalUnassignedInserts -= recordsToAppend;
+      }
+      numSmallFilesPacked += smallFileAssignments.size();
 
-        // if we have anything more, create new insert buckets, like normal
-        if (totalUnassignedInserts > 0) {
-          long insertRecordsPerBucket = config.getCopyOnWriteInsertSplitSize();
-          if (config.shouldAutoTuneInsertSplits()) {
-            insertRecordsPerBucket = config.getParquetMaxFileSize() / averageRecordSize;
-          }
+      // if we have anything more, create new insert buckets, like normal
+      if (totalUnassignedInserts > 0) {
+        long insertRecordsPerBucket = config.getCopyOnWriteInsertSplitSize();
+        if (config.shouldAutoTuneInsertSplits()) {
+          insertRecordsPerBucket = config.getParquetMaxFileSize() / recordSize;
+        }
 
-          int insertBuckets = (int) Math.ceil((1.0 * totalUnassignedInserts) / insertRecordsPerBucket);
-          LOG.info("After small file assignment: unassignedInserts => " + totalUnassignedInserts
-              + ", totalInsertBuckets => " + insertBuckets + ", recordsPerBucket => " + insertRecordsPerBucket);
-          for (int b = 0; b < insertBuckets; b++) {
-            bucketNumbers.add(totalBuckets);
-            if (b < insertBuckets - 1) {
-              recordsPerBucket.add(insertRecordsPerBucket);
-            } else {
-              recordsPerBucket.add(totalUnassignedInserts - (insertBuckets - 1) * insertRecordsPerBucket);
-            }
-            BucketInfo bucketInfo = new BucketInfo(BucketType.INSERT, FSUtils.createNewFileIdPfx(), partitionPath);
-            bucketInfoMap.put(totalBuckets, bucketInfo);
-            totalBuckets++;
+        int insertBuckets = (int) Math.ceil((1.0 * totalUnassignedInserts) / insertRecordsPerBucket);
+        LOG.info("After small file assignment: unassignedInserts => " + totalUnassignedInserts
+            + ", totalInsertBuckets => " + insertBuckets + ", recordsPerBucket => " + insertRecordsPerBucket);
+        for (int b = 0; b < insertBuckets; b++) {
+          bucketNumbers.add(totalBuckets);
+          if (statsCache != null) {
+            // split evenly instead of leaving a small file with the remainder
+            recordsPerBucket.add(totalUnassignedInserts / insertBuckets + (b < totalUnassignedInserts % insertBuckets ? 1 : 0));
+          } else if (b < insertBuckets - 1) {
+            recordsPerBucket.add(insertRecordsPerBucket);
+          } else {
+            recordsPerBucket.add(totalUnassignedInserts - (insertBuckets - 1) * insertRecordsPerBucket);
           }
+          BucketInfo bucketInfo = new BucketInfo(BucketType.INSERT, FSUtils.createNewFileIdPfx(), partitionPath);
+          bucketInfoMap.put(totalBuckets, bucketInfo);
+          totalBuckets++;
         }
+        numNewFileGroups += insertBuckets;
+      }
+
+      // Go over all such buckets, and assign weights as per amount of incoming inserts.
+      List<InsertBucketCumulativeWeightPair> insertBuckets = new ArrayList<>();
+      double curentCumulativeWeight = 0;
+      for (int i = 0; i < bucketNumbers.size(); i++) {
+        InsertBucket bkt = new InsertBucket();
+        bkt.bucketNumber = bucketNumbers.get(i);
+        bkt.weight = (1.0 * recordsPerBucket.get(i)) / pStat.getNumInserts();
+        curentCumulativeWeight += bkt.weight;
+        insertBuckets.add(new InsertBucketCumulativeWeightPair(bkt, curentCumulativeWeight));
+      }
+      LOG.info("Total insert buckets for partition path " + partitionPath + " => " + insertBuckets);
+      partitionPathToInsertBucketInfos.put(partitionPath, insertBuckets);
+    }
+    long duration = timer.endTimer();
+    LOG.info("Planned the inserts of " + insertPartitionPaths.size() + " partitions in " + duration + " ms, listing "
+        + partitionPathsToList.size() + " partitions in " + smallFilesLookupDuration + " ms");
+    if (table.getMetrics().isPresent()) {
+      table.getMetrics().get().updateInsertPlanningMetrics(duration, recordSizeEstimationDuration,
+          smallFilesLookupDuration, partitionPathsToList.size(), numSmallFilesPacked, numNewFileGroups);
+    }
+  }
+
+  /**
+   * Fills the small files in their listing order, each up to the max file size.
+   */
+  static List<Pair<SmallFile, Long>> fillSmallFiles(List<SmallFile> smallFiles, long numInserts, long maxFileSize,
+      long recordSize) {
+    List<Pair<SmallFile, Long>> assignments = new ArrayList<>();
+    long unassignedInserts = numInserts;
+    for (SmallFile smallFile : smallFiles) {
+      long recordsToAppend = Math.min((maxFileSize - smallFile.sizeBytes) / recordSize, unassignedInserts);
+      if (recordsToAppend > 0 && unassignedInserts > 0) {
+        assignments.add(Pair.of(smallFile, recordsToAppend));
+        unassignedInserts -= recordsToAppend;
+      }
+    }
+    return assignments;
+  }
+
+  /**
+   * Packs the inserts into the small files with the most room first, which rewrites the fewest and smallest files,
+   * and the last inserts into the small file they fill the best, which keeps the roomier files for the next commits.
+   */
+  static List<Pair<SmallFile, Long>> packIntoSmallFiles(List<SmallFile> smallFiles, long numInserts, long maxFileSize,
+      long recordSize) {
+    List<Pair<SmallFile, Long>> candidates = smallFiles.stream()
+        .map(smallFile -> Pair.of(smallFile, (maxFileSize - smallFile.sizeBytes) / recordSize))
+        .filter(candidate -> candidate.getRight() > 0)
+        .sorted(Comparator.comparing(Pair<SmallFile, Long>::getRight).reversed())
+        .collect(Collectors.toList());
+    List<Pair<SmallFile, Long>> assignments = new ArrayList<>();
+    long unassignedInserts = numInserts;
+    int next = 0;
+    while (unassignedInserts > 0 && next < candidates.size()) {
+      // the candidates are sorted by decreasing room, the best fit is the last one with enough room
+      int bestFit = -1;
+      for (int i = next; i < candidates.size() && candidates.get(i).getRight() >= unassignedInserts; i++) {
+        bestFit = i;
+      }
+      if (bestFit >= 0) {
+        assignments.add(Pair.of(candidates.get(bestFit).getLeft(), unassignedInserts));
+        unassignedInserts = 0;
+      } else {
+        Pair<SmallFile, Long> candidate = candidates.get(next++);
+        assignments.add(candidate);
+        unassignedInserts -= candidate.getRight();
+      }
+    }
+    return assignments;
+  }
+
+  /**
+   * Identifies how {@link #getSmallFiles(String)} computes the small files, for the cached small files to be reused
+   * only by the same kind of plans.
+   */
+  private String getSmallFilesKey() {
+    return getClass().getName() + "," + config.getParquetSmallFileLimit() + "," + config.getParquetMaxFileSize()
+        + "," + config.getLogFileToParquetCompressionRatio() + "," + table.getIndex().canIndexLogFiles();
+  }
 
-        // Go over all such buckets, and assign weights as per amount of incoming inserts.
-        List<InsertBucketCumulativeWeightPair> insertBuckets = new ArrayList<>();
-        double curentCumulativeWeight = 0;
-        for (int i = 0; i < bucketNumbers.size(); i++) {
-          InsertBucket bkt = new InsertBucket();
-          bkt.bucketNumber = bucketNumbers.get(i);
-          bkt.weight = (1.0 * recordsPerBucket.get(i)) / pStat.getNumInserts();
-          curentCumulativeWeight += bkt.weight;
-          insertBuckets.add(new InsertBucketCumulativeWeightPair(bkt, curentCumulativeWeight));
+  /**
+   * With the bucket index, the file group of every record is fixed by its bucket: the inserts of a bucket go to the
+   * existing file group of the bucket, or to a new file group of the bucket, without small file handling. Only the
+   * buckets the inserts hash to, as profiled by the commit action executor, get a file group.
+   */
+  private void assignBucketInserts(WorkloadProfile profile, HoodieEngineContext context) {
+    List<String> partitionPaths = profile.getPartitionPaths().stream()
+        .filter(partitionPath -> profile.getWorkloadStat(partitionPath).getNumInserts() > 0)
+        .collect(Collectors.toList());
+    Map<String, PartitionBuckets> partitionBucketsMap = getBucketsForPartitions(partitionPaths, context);
+    for (String partitionPath : partitionPaths) {
+      PartitionBuckets buckets = partitionBucketsMap.get(partitionPath);
+      Map<Integer, Integer> bucketIdToBucket = new HashMap<>();
+      for (int bucketId : profile.getWorkloadStat(partitionPath).getInsertBucketIds()) {
+        Option<HoodieRecordLocation> location = buckets.getLocation(bucketId);
+        int bucket;
+        if (location.isPresent()) {
+          String fileId = location.get().getFileId();
+          bucket = updateLocationToBucket.containsKey(fileId) ? updateLocationToBucket.get(fileId)
+              : addUpdateBucket(partitionPath, fileId);
+        } else {
+          bucket = totalBuckets;
+          BucketInfo bucketInfo = new BucketInfo(BucketType.INSERT,
+              BucketIdentifier.newBucketFileIdPrefix(bucketId, buckets.getNumBuckets()), partitionPath);
+          bucketInfoMap.put(totalBuckets, bucketInfo);
+          totalBuckets++;
         }
-        LOG.info("Total insert buckets for partition path " + partitionPath + " => " + insertBuckets);
-        partitionPathToInsertBucketInfos.put(partitionPath, insertBuckets);
+        bucketIdToBucket.put(bucketId, bucket);
       }
+      LOG.info("Buckets for partition path " + partitionPath + " => " + buckets);
+      partitionPathToBuckets.put(partitionPath, buckets);
+      partitionPathToBucketIdToBucket.put(partitionPath, bucketIdToBucket);
     }
   }
 
+  private Map<String, PartitionBuckets> getBucketsForPartitions(List<String> partitionPaths, HoodieEngineContext context) {
+    JavaSparkContext jsc = HoodieSparkEngineContext.getSparkContext(context);
+    Map<String, PartitionBuckets> partitionBucketsMap = new HashMap<>();
+    if (partitionPaths.size() > 0) {
+      context.setJobStatus(this.getClass().getSimpleName(), "Getting buckets from partitions");
+      final int numBuckets = config.getBucketIndexNumBuckets();
+      JavaRDD<String> partitionPathRdds = jsc.parallelize(partitionPaths, partitionPaths.size());
+      partitionBucketsMap = partitionPathRdds.mapToPair((PairFunction<String, String, PartitionBuckets>)
+          partitionPath -> new Tuple2<>(partitionPath, PartitionBuckets.load(table, partitionPath, numBuckets))).collectAsMap();
+    }
+    return partitionBucketsMap;
+  }
+
   private Map<String, List<SmallFile>> getSmallFilesForPartitions(List<String> partitionPaths, HoodieEngineContext context) {
     JavaSparkContext jsc = HoodieSparkEngineContext.getSparkContext(context);
     Map<String, List<SmallFile>> partitionSmallFilesMap = new HashMap<>();
@@ -304,6 +482,15 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> extends Partiti
     if (keyLocation._2().isPresent()) {
       HoodieRecordLocation location = keyLocation._2().get();
       return updateLocationToBucket.get(location.getFileId());
+    } else if (partitionPathToBucketIdToBucket.containsKey(keyLocation._1().getPartitionPath())) {
+      String partitionPath = keyLocation._1().getPartitionPath();
+      int bucketId = partitionPathToBuckets.get(partitionPath).getBucketId(keyLocation._1().getRecordKey());
+      Integer bucket = partitionPathToBucketIdToBucket.get(partitionPath).get(bucketId);
+      if (bucket == null) {
+        throw new HoodieUpsertException("Bucket " + bucketId + " of partition " + partitionPath
+            + " was not profiled for the insert of key " + keyLocation._1().getRecordKey());
+      }
+      return bucket;
     } else {
       String partitionPath = keyLocation._1().getPartitionPath();
       List<InsertBucketCumulativeWeightPair> targetBuckets = partitionPathToInsertBucketInfos.get(partitionPath);
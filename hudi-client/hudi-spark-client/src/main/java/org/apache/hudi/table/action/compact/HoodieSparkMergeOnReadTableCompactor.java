@@ -205,6 +205,11 @@ public class HoodieSparkMergeOnReadTableCompactor<T extends HoodieRecordPayload>
       return null;
     }
 
+    // log blocks and records appended by the delta commits, only read if the strategy makes use of them
+    DeltaWriteStatsSummary deltaWriteStats = config.getCompactionStrategy().requiresDeltaWriteStats()
+        ? DeltaWriteStatsSummary.fromTimeline(metaClient.getActiveTimeline().getDeltaCommitTimeline())
+        : DeltaWriteStatsSummary.empty();
+
     SliceView fileSystemView = hoodieTable.getSliceView();
     LOG.info("Compaction looking for files to compact in " + partitionPaths + " partitions");
     context.setJobStatus(this.getClass().getSimpleName(), "Looking for files to compact");
@@ -223,7 +228,7 @@ public class HoodieSparkMergeOnReadTableCompactor<T extends HoodieRecordPayload>
             // into meta files.
             Option<HoodieBaseFile> dataFile = s.getBaseFile();
             return new CompactionOperation(dataFile, partitionPath, logFiles,
-                config.getCompactionStrategy().captureMetrics(config, s));
+                config.getCompactionStrategy().captureMetrics(config, s, deltaWriteStats));
           })
           .filter(c -> !c.getDeltaFileNames().isEmpty());
     }, partitionPaths.size()).stream().map(CompactionUtils::buildHoodieCompactionOperation).collect(toList());
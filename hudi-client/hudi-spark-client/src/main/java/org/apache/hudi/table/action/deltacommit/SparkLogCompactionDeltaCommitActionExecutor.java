@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.table.action.deltacommit;
+
+import org.apache.hudi.avro.HoodieAvroUtils;
+import org.apache.hudi.client.SparkTaskContextSupplier;
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.client.common.HoodieSparkEngineContext;
+import org.apache.hudi.client.utils.SparkMemoryUtils;
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.CompactionOperation;
+import org.apache.hudi.common.model.HoodieCommitMetadata;
+import org.apache.hudi.common.model.HoodieFileGroupId;
+import org.apache.hudi.common.model.HoodieLogFile;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieTableType;
+import org.apache.hudi.common.model.WriteOperationType;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.table.log.HoodieMergedLogRecordScanner;
+import org.apache.hudi.common.table.timeline.HoodieInstant;
+import org.apache.hudi.common.table.timeline.HoodieTimeline;
+import org.apache.hudi.common.table.view.SyncableFileSystemView;
+import org.apache.hudi.common.util.CollectionUtils;
+import org.apache.hudi.common.util.CompactionUtils;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.StringUtils;
+import org.apache.hudi.common.util.ValidationUtils;
+import org.apache.hudi.common.util.collection.Pair;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieCompactionException;
+import org.apache.hudi.exception.HoodieIOException;
+import org.apache.hudi.io.HoodieLogCompactionHandle;
+import org.apache.hudi.io.IOUtils;
+import org.apache.hudi.table.HoodieTable;
+import org.apache.hudi.table.WorkloadProfile;
+import org.apache.hudi.table.WorkloadStat;
+import org.apache.hudi.table.action.HoodieWriteMetadata;
+import org.apache.hudi.table.action.commit.BaseSparkCommitActionExecutor;
+
+import org.apache.avro.Schema;
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Log compaction merges the log files of the latest file slices that have accumulated at least
+ * {@code hoodie.log.compaction.min.log.files} log files into a single new log file per slice, with the deletes and
+ * rollbacks applied. Unlike compaction, the base file is not rewritten.
+ * <p>
+ * The merged records are written as compacted log blocks (see {@link HoodieLogCompactionHandle}) by a delta commit
+ * of operation type {@link WriteOperationType#LOG_COMPACT}, so failed attempts are rolled back like any other delta
+ * commit. The replaced log files are recorded in the write stats and left in place; the cleaner deletes them once
+ * the log compaction falls out of the retained commits.
+ * <p>
+ * WARNING - Log compaction rewrites the log files of the file groups it selects, no other delta commits may be
+ * pending while it runs.
+ */
+public class SparkLogCompactionDeltaCommitActionExecutor<T extends HoodieRecordPayload<T>>
+    extends BaseSparkCommitActionExecutor<T> {
+
+  private static final Logger LOG = LogManager.getLogger(SparkLogCompactionDeltaCommitActionExecutor.class);
+
+  public SparkLogCompactionDeltaCommitActionExecutor(HoodieSparkEngineContext context, HoodieWriteConfig config,
+                                                     HoodieTable table, String instantTime) {
+    super(context, config, table, instantTime, WriteOperationType.LOG_COMPACT);
+  }
+
+  @Override
+  public HoodieWriteMetadata<JavaRDD<WriteStatus>> execute() {
+    HoodieTableMetaClient metaClient = table.getMetaClient();
+    ValidationUtils.checkArgument(metaClient.getTableType() == HoodieTableType.MERGE_ON_READ,
+        "Can only log compact table of type " + HoodieTableType.MERGE_ON_READ + " and not "
+            + metaClient.getTableType().name());
+    // pending log compactions only hold the file groups they merge, other pending writes may touch any file group
+    Set<HoodieFileGroupId> fgIdsInPendingLogCompaction = new HashSet<>();
+    List<String> pendingWrites = new ArrayList<>();
+    HoodieTimeline pendingDeltaCommits = table.getActiveTimeline().getDeltaCommitTimeline().filterInflightsAndRequested();
+    pendingDeltaCommits.getInstants().filter(instant -> !instant.getTimestamp().equals(instantTime)).forEach(instant -> {
+      Option<HoodieCommitMetadata> inflightMetadata = getInflightMetadata(pendingDeltaCommits, instant);
+      if (inflightMetadata.isPresent() && inflightMetadata.get().getOperationType() == WriteOperationType.LOG_COMPACT) {
+        inflightMetadata.get().getPartitionToWriteStats().forEach((partitionPath, writeStats) -> writeStats.stream()
+            .filter(writeStat -> !StringUtils.isNullOrEmpty(writeStat.getFileId()))
+            .forEach(writeStat -> fgIdsInPendingLogCompaction.add(new HoodieFileGroupId(partitionPath, writeStat.getFileId()))));
+      } else {
+        pendingWrites.add(instant.getTimestamp());
+      }
+    });
+    if (!pendingWrites.isEmpty()) {
+      throw new HoodieCompactionException("Cannot log compact " + config.getBasePath() + " at " + instantTime
+          + " with pending writes " + pendingWrites);
+    }
+
+    List<CompactionOperation> operations = getOperations(fgIdsInPendingLogCompaction);
+    LOG.info("Log compacting " + operations.size() + " file slices at instant " + instantTime);
+
+    // list the file groups in the inflight instant, so that concurrent log compactions skip them
+    HashMap<String, WorkloadStat> partitionPathStatMap = new HashMap<>();
+    operations.forEach(operation -> partitionPathStatMap.computeIfAbsent(operation.getPartitionPath(), p -> new WorkloadStat())
+        .addUpdates(new HoodieRecordLocation(operation.getBaseInstantTime(), operation.getFileId()), 0));
+    saveWorkloadProfileMetadataToInflight(new WorkloadProfile(Pair.of(partitionPathStatMap, new WorkloadStat())), instantTime);
+
+    HoodieWriteMetadata<JavaRDD<WriteStatus>> result = new HoodieWriteMetadata<>();
+    if (operations.isEmpty()) {
+      result.setWriteStatuses(HoodieSparkEngineContext.getSparkContext(context).emptyRDD());
+    } else {
+      String maxInstantTime = metaClient.getActiveTimeline().getTimelineOfActions(CollectionUtils.createSet(
+          HoodieTimeline.COMMIT_ACTION, HoodieTimeline.ROLLBACK_ACTION, HoodieTimeline.DELTA_COMMIT_ACTION))
+          .filterCompletedInstants().lastInstant().get().getTimestamp();
+      JavaSparkContext jsc = HoodieSparkEngineContext.getSparkContext(context);
+      context.setJobStatus(this.getClass().getSimpleName(), "Log compacting file slices");
+      JavaRDD<WriteStatus> writeStatuses = jsc.parallelize(operations, operations.size())
+          .map(operation -> logCompact(operation, maxInstantTime)).flatMap(List::iterator);
+      // the records keep their file groups, the index is left as is
+      result.setWriteStatuses(writeStatuses.persist(SparkMemoryUtils.getWriteStatusStorageLevel(config.getProps())));
+    }
+    commitOnAutoCommit(result);
+    return result;
+  }
+
+  private Option<HoodieCommitMetadata> getInflightMetadata(HoodieTimeline timeline, HoodieInstant instant) {
+    if (!instant.isInflight()) {
+      return Option.empty();
+    }
+    Option<byte[]> details = timeline.getInstantDetails(instant);
+    if (!details.isPresent() || details.get().length == 0) {
+      return Option.empty();
+    }
+    try {
+      return Option.of(HoodieCommitMetadata.fromBytes(details.get(), HoodieCommitMetadata.class));
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to read the inflight metadata of " + instant, e);
+    }
+  }
+
+  private List<CompactionOperation> getOperations(Set<HoodieFileGroupId> fgIdsInPendingLogCompaction) {
+    SyncableFileSystemView fileSystemView = (SyncableFileSystemView) table.getSliceView();
+    Set<HoodieFileGroupId> fgIdsInPendingTableServices = fileSystemView.getPendingCompactionOperations()
+        .map(instantTimeOpPair -> instantTimeOpPair.getValue().getFileGroupId())
+        .collect(Collectors.toSet());
+    fgIdsInPendingTableServices.addAll(
+        fileSystemView.getFileGroupsInPendingClustering().map(Pair::getLeft).collect(Collectors.toSet()));
+    fgIdsInPendingTableServices.addAll(fgIdsInPendingLogCompaction);
+    // log files replaced by earlier log compactions are around until the cleaner deletes them, they are already
+    // merged into the log files that replaced them
+    Map<HoodieFileGroupId, Set<String>> fgIdToReplacedLogFiles =
+        CompactionUtils.getLogFilesReplacedByLogCompaction(table.getActiveTimeline().getDeltaCommitTimeline());
+
+    List<String> partitionPaths = FSUtils.getAllPartitionPaths(context, config.getMetadataConfig(), config.getBasePath());
+    if (partitionPaths.isEmpty()) {
+      return Collections.emptyList();
+    }
+    int minLogFiles = config.getLogCompactionMinLogFiles();
+    context.setJobStatus(this.getClass().getSimpleName(), "Looking for log files to compact");
+    return context.flatMap(partitionPaths, partitionPath -> table.getSliceView()
+        .getLatestFileSlices(partitionPath)
+        .filter(slice -> !fgIdsInPendingTableServices.contains(slice.getFileGroupId()))
+        .map(slice -> {
+          Set<String> replacedLogFiles = fgIdToReplacedLogFiles.getOrDefault(slice.getFileGroupId(), Collections.emptySet());
+          List<HoodieLogFile> logFiles = slice.getLogFiles()
+              .filter(logFile -> !replacedLogFiles.contains(logFile.getFileName()))
+              .sorted(HoodieLogFile.getLogFileComparator()).collect(Collectors.toList());
+          return new CompactionOperation(slice.getBaseFile(), partitionPath, logFiles, Collections.emptyMap());
+        })
+        .filter(operation -> operation.getDeltaFileNames().size() >= minLogFiles), partitionPaths.size());
+  }
+
+  private List<WriteStatus> logCompact(CompactionOperation operation, String maxInstantTime) {
+    HoodieTableMetaClient metaClient = table.getMetaClient();
+    Schema readerSchema = HoodieAvroUtils.addMetadataFields(new Schema.Parser().parse(config.getSchema()));
+    List<String> logFiles = operation.getDeltaFileNames().stream().map(
+        p -> new Path(FSUtils.getPartitionPath(metaClient.getBasePath(), operation.getPartitionPath()), p).toString())
+        .collect(Collectors.toList());
+    HoodieMergedLogRecordScanner scanner = HoodieMergedLogRecordScanner.newBuilder()
+        .withFileSystem(metaClient.getFs())
+        .withBasePath(metaClient.getBasePath())
+        .withLogFilePaths(logFiles)
+        .withReaderSchema(readerSchema)
+        .withLatestInstantTime(maxInstantTime)
+        .withMaxMemorySizeInBytes(IOUtils.getMaxMemoryPerCompaction(new SparkTaskContextSupplier(), config.getProps()))
+        .withReadBlocksLazily(config.getCompactionLazyBlockReadEnabled())
+        .withReverseReader(config.getCompactionReverseLogReadEnabled())
+        .withBufferSize(config.getMaxDFSStreamBufferSize())
+        .withSpillableMapBasePath(config.getSpillableMapBasePath())
+        .build();
+    if (!scanner.iterator().hasNext()) {
+      // every log block has been rolled back, there is nothing to merge
+      return new ArrayList<>();
+    }
+
+    Iterator<HoodieRecord<T>> recordItr = (Iterator) scanner.iterator();
+    HoodieLogCompactionHandle<T, ?, ?, ?> handle = new HoodieLogCompactionHandle<>(config, instantTime, table,
+        operation.getPartitionPath(), operation.getFileId(), recordItr, scanner.getScannedInstants(),
+        taskContextSupplier);
+    handle.doAppend();
+    List<WriteStatus> statuses = handle.close();
+    statuses.forEach(status -> {
+      status.getStat().setTotalLogFilesCompacted(scanner.getTotalLogFiles());
+      status.getStat().setTotalLogRecords(scanner.getTotalLogRecords());
+      status.getStat().setTotalUpdatedRecordsCompacted(scanner.getNumMergedRecordsInLog());
+      status.getStat().setTotalRollbackBlocks(scanner.getTotalRollbacks());
+      status.getStat().setTotalCorruptLogBlock(scanner.getTotalCorruptBlocks());
+      status.getStat().setReplacedLogFiles(operation.getDeltaFileNames());
+    });
+    return statuses;
+  }
+}
@@ -1433,6 +1433,36 @@ public class TestHoodieClientOnCopyOnWriteStorage extends HoodieClientTestBase {
     }, "Should have thrown Exception");
   }
 
+  /**
+   * Test bulk insert spreading the records of a task across several writer threads.
+   */
+  @Test
+  public void testBulkInsertWithParallelWriters() throws Exception {
+    HoodieWriteConfig cfg = getConfigBuilder().withBulkInsertParallelism(1).withBulkInsertParallelWriters(4).build();
+    try (SparkRDDWriteClient client = getHoodieWriteClient(cfg);) {
+      String instantTime = "001";
+      client.startCommitWithTime(instantTime);
+
+      List<HoodieRecord> records = dataGen.generateInserts(instantTime, 200);
+      JavaRDD<HoodieRecord> writeRecords = jsc.parallelize(records, 1);
+      List<WriteStatus> statuses = client.bulkInsert(writeRecords, instantTime).collect();
+      assertNoWriteErrors(statuses);
+
+      // The records of a partition path fit in one batch, they are written by a single writer into a single file,
+      // as without parallel writers
+      assertEquals(dataGen.getPartitionPaths().length, statuses.size());
+      assertEquals(statuses.size(), statuses.stream().map(WriteStatus::getFileId).distinct().count());
+      assertEquals(200, statuses.stream().mapToLong(status -> status.getStat().getNumInserts()).sum());
+
+      String[] fullPartitionPaths = new String[dataGen.getPartitionPaths().length];
+      for (int i = 0; i < fullPartitionPaths.length; i++) {
+        fullPartitionPaths[i] = String.format("%s/%s/*", basePath, dataGen.getPartitionPaths()[i]);
+      }
+      assertEquals(200, HoodieClientTestUtils.read(jsc, basePath, sqlContext, fs, fullPartitionPaths).count(),
+          "Must contain " + 200 + " records");
+    }
+  }
+
   /**
    * Test to ensure commit metadata points to valid files.
    */
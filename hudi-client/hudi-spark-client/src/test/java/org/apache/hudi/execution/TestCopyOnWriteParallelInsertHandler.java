@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.execution;
+
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.engine.TaskContextSupplier;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
+import org.apache.hudi.common.testutils.HoodieTestDataGenerator;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.io.HoodieWriteHandle;
+import org.apache.hudi.io.WriteHandleFactory;
+import org.apache.hudi.table.HoodieTable;
+import org.apache.hudi.testutils.HoodieClientTestHarness;
+
+import org.apache.avro.generic.IndexedRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import scala.Tuple2;
+
+import static org.apache.hudi.execution.HoodieLazyInsertIterable.getTransformFunction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestCopyOnWriteParallelInsertHandler extends HoodieClientTestHarness {
+
+  private final String instantTime = HoodieActiveTimeline.createNewInstantTime();
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    initTestDataGenerator();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    cleanupResources();
+  }
+
+  @Test
+  public void testWritersEncodeAtTheSameTime() {
+    final List<HoodieRecord> hoodieRecords = dataGen.generateInserts(instantTime, 1000);
+
+    HoodieWriteConfig hoodieWriteConfig = mock(HoodieWriteConfig.class);
+    when(hoodieWriteConfig.getWriteBufferLimitBytes()).thenReturn(1024 * 1024);
+    when(hoodieWriteConfig.getCopyOnWriteRecordSizeEstimate()).thenReturn(1024);
+
+    // The first record written by a writer waits until another writer writes its first record as well. A writer that
+    // only starts once the previous one got all its records makes the wait time out.
+    final CountDownLatch twoWritersStarted = new CountDownLatch(2);
+    final AtomicBoolean writersOverlapped = new AtomicBoolean(false);
+    final Set<Thread> writerThreads = ConcurrentHashMap.newKeySet();
+    final AtomicInteger numWritten = new AtomicInteger();
+    WriteHandleFactory writeHandleFactory = new WriteHandleFactory() {
+      @Override
+      public HoodieWriteHandle create(HoodieWriteConfig config, String commitTime, HoodieTable hoodieTable,
+                                      String partitionPath, String fileIdPrefix, TaskContextSupplier taskContextSupplier) {
+        HoodieWriteHandle handle = mock(HoodieWriteHandle.class);
+        when(handle.canWrite(any())).thenReturn(true);
+        when(handle.close()).thenReturn(Collections.singletonList(new WriteStatus(false, 0.0)));
+        doAnswer(invocation -> {
+          if (writerThreads.add(Thread.currentThread())) {
+            twoWritersStarted.countDown();
+            if (twoWritersStarted.await(30, TimeUnit.SECONDS)) {
+              writersOverlapped.set(true);
+            }
+          }
+          numWritten.incrementAndGet();
+          return null;
+        }).when(handle).write(any(), any(), any());
+        return handle;
+      }
+    };
+
+    CopyOnWriteParallelInsertHandler<?> consumer = new CopyOnWriteParallelInsertHandler<>(hoodieWriteConfig, instantTime,
+        false, null, "test", null, writeHandleFactory, 2);
+    SparkBoundedInMemoryExecutor<HoodieRecord, Tuple2<HoodieRecord, Option<IndexedRecord>>, List<WriteStatus>> executor = null;
+    try {
+      executor = new SparkBoundedInMemoryExecutor(hoodieWriteConfig, hoodieRecords.iterator(), consumer,
+          getTransformFunction(HoodieTestDataGenerator.AVRO_SCHEMA));
+      executor.execute();
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+
+    assertEquals(2, writerThreads.size());
+    assertTrue(writersOverlapped.get(), "Both writers must be writing records at the same time");
+    assertEquals(1000, numWritten.get());
+  }
+}
@@ -35,6 +35,7 @@ import org.apache.hudi.config.HoodieIndexConfig;
 import org.apache.hudi.config.HoodieStorageConfig;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.index.HoodieIndex.IndexType;
+import org.apache.hudi.index.bucket.BucketIdentifier;
 import org.apache.hudi.table.HoodieSparkTable;
 import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.testutils.Assertions;
@@ -79,7 +80,7 @@ public class TestHoodieIndex extends HoodieClientTestHarness {
     this.indexType = indexType;
     initResources();
     config = getConfigBuilder()
-        .withIndexConfig(HoodieIndexConfig.newBuilder().withIndexType(indexType)
+        .withIndexConfig(HoodieIndexConfig.newBuilder().withIndexType(indexType).withBucketNum(4)
             .build()).withAutoCommit(false).build();
     writeClient = getHoodieWriteClient(config);
     this.index = writeClient.getIndex();
@@ -91,7 +92,7 @@ public class TestHoodieIndex extends HoodieClientTestHarness {
   }
 
   @ParameterizedTest
-  @EnumSource(value = IndexType.class, names = {"BLOOM", "GLOBAL_BLOOM", "SIMPLE", "GLOBAL_SIMPLE"})
+  @EnumSource(value = IndexType.class, names = {"BLOOM", "GLOBAL_BLOOM", "SIMPLE", "GLOBAL_SIMPLE", "BUCKET"})
   public void testSimpleTagLocationAndUpdate(IndexType indexType) throws Exception {
     setUp(indexType);
     String newCommitTime = "001";
@@ -191,7 +192,7 @@ public class TestHoodieIndex extends HoodieClientTestHarness {
   }
 
   @ParameterizedTest
-  @EnumSource(value = IndexType.class, names = {"BLOOM", "GLOBAL_BLOOM", "SIMPLE", "GLOBAL_SIMPLE"})
+  @EnumSource(value = IndexType.class, names = {"BLOOM", "GLOBAL_BLOOM", "SIMPLE", "GLOBAL_SIMPLE", "BUCKET"})
   public void testSimpleTagLocationAndUpdateWithRollback(IndexType indexType) throws Exception {
     setUp(indexType);
     String newCommitTime = writeClient.startCommit();
@@ -242,6 +243,46 @@ public class TestHoodieIndex extends HoodieClientTestHarness {
     assert (javaRDD.filter(record -> record.getCurrentLocation() != null).collect().size() == 0);
   }
 
+  @ParameterizedTest
+  @EnumSource(value = IndexType.class, names = {"BUCKET"})
+  public void testBucketIndexKeepsFileGroupsOfBuckets(IndexType indexType) throws Exception {
+    setUp(indexType);
+    String newCommitTime = writeClient.startCommit();
+    List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, 100);
+    JavaRDD<HoodieRecord> writeRecords = jsc.parallelize(records, 2);
+    JavaRDD<WriteStatus> writeStatues = writeClient.upsert(writeRecords, newCommitTime);
+    Assertions.assertNoWriteErrors(writeStatues.collect());
+    writeClient.commit(newCommitTime, writeStatues);
+
+    // every file group holds the records of a single bucket, at most one file group per bucket
+    List<WriteStatus> statuses = writeStatues.collect();
+    Map<String, String> bucketToFileId = new HashMap<>();
+    for (WriteStatus status : statuses) {
+      String fileId = status.getFileId();
+      assertTrue(BucketIdentifier.isBucketFileId(fileId), "Not a bucket file id " + fileId);
+      assertEquals(4, BucketIdentifier.numBucketsFromFileId(fileId));
+      assertTrue(bucketToFileId.put(status.getPartitionPath() + "/" + BucketIdentifier.bucketIdFromFileId(fileId), fileId) == null);
+    }
+
+    // updates go to the file groups of the buckets of their keys
+    String updateTime = writeClient.startCommit();
+    JavaRDD<HoodieRecord> updateRecords = jsc.parallelize(dataGen.generateUpdates(updateTime, records), 2);
+    writeStatues = writeClient.upsert(updateRecords, updateTime);
+    Assertions.assertNoWriteErrors(writeStatues.collect());
+    writeClient.commit(updateTime, writeStatues);
+
+    metaClient = HoodieTableMetaClient.reload(metaClient);
+    HoodieTable hoodieTable = HoodieSparkTable.create(config, context, metaClient);
+    List<HoodieRecord> taggedRecords = ((JavaRDD<HoodieRecord>) index.tagLocation(writeRecords, context, hoodieTable)).collect();
+    assertEquals(records.size(), taggedRecords.size());
+    for (HoodieRecord record : taggedRecords) {
+      assertTrue(record.isCurrentLocationKnown());
+      assertEquals(updateTime, record.getCurrentLocation().getInstantTime());
+      int bucketId = BucketIdentifier.getBucketId(record.getRecordKey(), 4);
+      assertEquals(bucketToFileId.get(record.getPartitionPath() + "/" + bucketId), record.getCurrentLocation().getFileId());
+    }
+  }
+
   @ParameterizedTest
   @EnumSource(value = IndexType.class, names = {"BLOOM", "SIMPLE",})
   public void testTagLocationAndFetchRecordLocations(IndexType indexType) throws Exception {
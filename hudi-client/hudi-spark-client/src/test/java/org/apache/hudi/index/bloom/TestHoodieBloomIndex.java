@@ -45,8 +45,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -333,6 +335,58 @@ public class TestHoodieBloomIndex extends HoodieClientTestHarness {
     }
   }
 
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testTagLocationWithPartitionLocalChecking(boolean rangePruning) throws Exception {
+    HoodieWriteConfig config = HoodieWriteConfig.newBuilder().withPath(basePath)
+        .withIndexConfig(HoodieIndexConfig.newBuilder().bloomIndexPruneByRanges(rangePruning)
+            .bloomIndexPartitionLocalChecking(true).bloomIndexPartitionLocalKeysPerTask(2).build())
+        .build();
+    HoodieSparkTable hoodieTable = HoodieSparkTable.create(config, context, metaClient);
+    HoodieSparkWriteableTestTable testTable = HoodieSparkWriteableTestTable.of(hoodieTable, SCHEMA);
+
+    // keys of 2016/01/31 spread across several tasks, a single key in 2015/01/31 which is packed in a task
+    List<HoodieRecord> records = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      String recordStr = "{\"_row_key\":\"" + UUID.randomUUID().toString() + "\",\"time\":\"2016-01-31T03:16:41.415Z\",\"number\":" + i + "}";
+      RawTripTestPayload rowChange = new RawTripTestPayload(recordStr);
+      records.add(new HoodieRecord(new HoodieKey(rowChange.getRowKey(), rowChange.getPartitionPath()), rowChange));
+    }
+    String recordStr = "{\"_row_key\":\"" + records.get(0).getRecordKey() + "\",\"time\":\"2015-01-31T03:16:41.415Z\",\"number\":32}";
+    RawTripTestPayload rowChange = new RawTripTestPayload(recordStr);
+    HoodieRecord otherPartitionRecord = new HoodieRecord(new HoodieKey(rowChange.getRowKey(), rowChange.getPartitionPath()), rowChange);
+    records.add(otherPartitionRecord);
+    JavaRDD<HoodieRecord> recordRDD = jsc.parallelize(records, 3);
+
+    // the first three records in one file, the next three in another, the rest are new
+    String fileId1 = testTable.addCommit("001").getFileIdWithInserts("2016/01/31", records.get(0), records.get(1), records.get(2));
+    String fileId2 = testTable.addCommit("002").getFileIdWithInserts("2016/01/31", records.get(3), records.get(4), records.get(5));
+    String fileId3 = testTable.addCommit("003").getFileIdWithInserts("2015/01/31", otherPartitionRecord);
+
+    SparkHoodieBloomIndex bloomIndex = new SparkHoodieBloomIndex(config);
+    List<HoodieRecord> taggedRecords =
+        bloomIndex.tagLocation(recordRDD, context, HoodieSparkTable.create(config, context, metaClient)).collect();
+    assertEquals(records.size(), taggedRecords.size());
+    Map<String, Integer> keyToIndex = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      keyToIndex.put(records.get(i).getRecordKey(), i);
+    }
+    for (HoodieRecord record : taggedRecords) {
+      if (record.getPartitionPath().equals("2015/01/31")) {
+        assertEquals(fileId3, record.getCurrentLocation().getFileId());
+        continue;
+      }
+      int index = keyToIndex.get(record.getRecordKey());
+      if (index < 3) {
+        assertEquals(fileId1, record.getCurrentLocation().getFileId());
+      } else if (index < 6) {
+        assertEquals(fileId2, record.getCurrentLocation().getFileId());
+      } else {
+        assertFalse(record.isCurrentLocationKnown());
+      }
+    }
+  }
+
   @ParameterizedTest(name = TEST_NAME_WITH_PARAMS)
   @MethodSource("configParams")
   public void testCheckExists(boolean rangePruning, boolean treeFiltering, boolean bucketizedChecking) throws Exception {
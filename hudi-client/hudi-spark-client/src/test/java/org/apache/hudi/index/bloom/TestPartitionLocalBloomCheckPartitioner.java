@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bloom;
+
+import org.apache.hudi.common.util.collection.Pair;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestPartitionLocalBloomCheckPartitioner {
+
+  @Test
+  public void testPackingAndSplitting() {
+    Map<String, Long> recordsPerPartition = new HashMap<String, Long>() {
+      {
+        put("p1", 4L);
+        put("p2", 5L);
+        put("p3", 3L);
+        put("p4", 100L);
+        put("p5", 1L);
+      }
+    };
+    Map<String, List<String>> splitKeys = Collections.singletonMap("p4", Arrays.asList("k3", "k6"));
+    PartitionLocalBloomCheckPartitioner p = new PartitionLocalBloomCheckPartitioner(recordsPerPartition, splitKeys, 10);
+
+    // p1 and p2 are packed together, p3 starts a new task, p4 takes 3 tasks of its own, p5 starts a new task after them
+    assertEquals(6, p.numPartitions());
+    assertEquals(0, p.getPartition(Pair.of("p1", "k1")));
+    assertEquals(0, p.getPartition(Pair.of("p2", "k1")));
+    assertEquals(1, p.getPartition(Pair.of("p3", "k1")));
+    assertEquals(2, p.getPartition(Pair.of("p4", "k1")));
+    assertEquals(3, p.getPartition(Pair.of("p4", "k3")));
+    assertEquals(3, p.getPartition(Pair.of("p4", "k5")));
+    assertEquals(4, p.getPartition(Pair.of("p4", "k7")));
+    assertEquals(5, p.getPartition(Pair.of("p5", "k1")));
+  }
+
+  @Test
+  public void testNumPartitions() {
+    assertEquals(1, new PartitionLocalBloomCheckPartitioner(Collections.emptyMap(), Collections.emptyMap(), 10).numPartitions());
+    Map<String, Long> recordsPerPartition = Collections.singletonMap("p1", 100L);
+    Map<String, List<String>> splitKeys = Collections.singletonMap("p1", Arrays.asList("k3", "k6"));
+    PartitionLocalBloomCheckPartitioner p = new PartitionLocalBloomCheckPartitioner(recordsPerPartition, splitKeys, 10);
+    assertEquals(3, p.numPartitions());
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.hbase;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestHBaseAdaptiveBatchSizer {
+
+  @Test
+  public void testBatchSizeFollowsLatency() {
+    HBaseAdaptiveBatchSizer batchSizer = new HBaseAdaptiveBatchSizer(100, true, 100);
+    assertEquals(100, batchSizer.getBatchSize());
+
+    // 100 gets in 50ms, 200 meet the target: move half way
+    batchSizer.onBatchCompleted(100, 50);
+    assertEquals(150, batchSizer.getBatchSize());
+
+    // 150 gets in 300ms, 50 meet the target
+    batchSizer.onBatchCompleted(150, 300);
+    assertEquals(100, batchSizer.getBatchSize());
+
+    // on target, stays
+    batchSizer.onBatchCompleted(100, 100);
+    assertEquals(100, batchSizer.getBatchSize());
+  }
+
+  @Test
+  public void testBatchSizeBounds() {
+    HBaseAdaptiveBatchSizer batchSizer = new HBaseAdaptiveBatchSizer(100, true, 100);
+    for (int i = 0; i < 20; i++) {
+      batchSizer.onBatchCompleted(batchSizer.getBatchSize(), 0);
+    }
+    assertEquals(1000, batchSizer.getBatchSize());
+    for (int i = 0; i < 20; i++) {
+      batchSizer.onBatchCompleted(batchSizer.getBatchSize(), 100000);
+    }
+    assertEquals(10, batchSizer.getBatchSize());
+  }
+
+  @Test
+  public void testNotAdaptive() {
+    HBaseAdaptiveBatchSizer batchSizer = new HBaseAdaptiveBatchSizer(100, false, 100);
+    batchSizer.onBatchCompleted(100, 1);
+    assertEquals(100, batchSizer.getBatchSize());
+  }
+}
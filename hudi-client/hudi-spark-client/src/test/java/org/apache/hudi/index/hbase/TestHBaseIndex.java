@@ -718,6 +718,47 @@ public class TestHBaseIndex extends FunctionalTestHarness {
     }
   }
 
+  @Test
+  public void testPipelinedTagLocationAndUpdate() throws Exception {
+    final String newCommitTime = "001";
+    final int numRecords = 100;
+    List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, numRecords);
+    JavaRDD<HoodieRecord> writeRecords = jsc().parallelize(records, 1);
+
+    // small adaptive batches, several of them outstanding at once
+    HoodieWriteConfig config = getConfigBuilder(3, false, false)
+        .withIndexConfig(HoodieIndexConfig.newBuilder().withIndexType(HoodieIndex.IndexType.HBASE)
+            .withHBaseIndexConfig(getHBaseIndexConfigBuilder(3, false, false)
+                .hbaseIndexMaxOutstandingBatches(4).hbaseIndexAdaptiveBatchSize(true)
+                .hbaseIndexTargetBatchLatencyMs(10).build())
+            .build())
+        .build();
+    SparkHoodieHBaseIndex index = new SparkHoodieHBaseIndex(config);
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config);) {
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      HoodieTable hoodieTable = HoodieSparkTable.create(config, context, metaClient);
+
+      JavaRDD<HoodieRecord> records1 = index.tagLocation(writeRecords, context(), hoodieTable);
+      assertEquals(numRecords, records1.count());
+      assertEquals(0, records1.filter(record -> record.isCurrentLocationKnown()).count());
+
+      writeClient.startCommitWithTime(newCommitTime);
+      JavaRDD<WriteStatus> writeStatues = writeClient.upsert(writeRecords, newCommitTime);
+      assertNoWriteErrors(writeStatues.collect());
+      writeClient.commit(newCommitTime, writeStatues);
+
+      // every record is tagged with its own location, in the order of the input
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      hoodieTable = HoodieSparkTable.create(config, context, metaClient);
+      List<HoodieRecord> records2 = index.tagLocation(writeRecords, context(), hoodieTable).collect();
+      assertEquals(numRecords, records2.stream().filter(record -> record.isCurrentLocationKnown()
+          && record.getCurrentLocation().getInstantTime().equals(newCommitTime)).count());
+      for (int i = 0; i < numRecords; i++) {
+        assertEquals(records.get(i).getRecordKey(), records2.get(i).getRecordKey());
+      }
+    }
+  }
+
   @Test
   public void testDelete() throws Exception {
     final String newCommitTime = "001";
@@ -803,14 +844,18 @@ public class TestHBaseIndex extends FunctionalTestHarness {
             .hfileMaxFileSize(1024 * 1024).parquetMaxFileSize(1024 * 1024).build())
         .forTable("test-trip-table")
         .withIndexConfig(HoodieIndexConfig.newBuilder().withIndexType(HoodieIndex.IndexType.HBASE)
-            .withHBaseIndexConfig(new HoodieHBaseIndexConfig.Builder()
-                .hbaseZkPort(Integer.parseInt(hbaseConfig.get("hbase.zookeeper.property.clientPort")))
-                .hbaseIndexPutBatchSizeAutoCompute(true)
-                .hbaseZkZnodeParent(hbaseConfig.get("zookeeper.znode.parent", ""))
-                .hbaseZkQuorum(hbaseConfig.get("hbase.zookeeper.quorum")).hbaseTableName(TABLE_NAME)
-                .hbaseIndexUpdatePartitionPath(updatePartitionPath)
-                .hbaseIndexRollbackSync(rollbackSync)
-                .hbaseIndexGetBatchSize(hbaseIndexBatchSize).build())
+            .withHBaseIndexConfig(getHBaseIndexConfigBuilder(hbaseIndexBatchSize, updatePartitionPath, rollbackSync).build())
             .build());
   }
+
+  private HoodieHBaseIndexConfig.Builder getHBaseIndexConfigBuilder(int hbaseIndexBatchSize, boolean updatePartitionPath, boolean rollbackSync) {
+    return new HoodieHBaseIndexConfig.Builder()
+        .hbaseZkPort(Integer.parseInt(hbaseConfig.get("hbase.zookeeper.property.clientPort")))
+        .hbaseIndexPutBatchSizeAutoCompute(true)
+        .hbaseZkZnodeParent(hbaseConfig.get("zookeeper.znode.parent", ""))
+        .hbaseZkQuorum(hbaseConfig.get("hbase.zookeeper.quorum")).hbaseTableName(TABLE_NAME)
+        .hbaseIndexUpdatePartitionPath(updatePartitionPath)
+        .hbaseIndexRollbackSync(rollbackSync)
+        .hbaseIndexGetBatchSize(hbaseIndexBatchSize);
+  }
 }
\ No newline at end of file
@@ -40,12 +40,12 @@ import org.apache.hudi.testutils.MetadataMergeWriteStatus;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -63,8 +63,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
  */
 public class TestHoodieKeyLocationFetchHandle extends HoodieClientTestHarness {
 
-  private HoodieWriteConfig config;
-
   @BeforeEach
   public void setUp() throws Exception {
     initSparkContexts("TestRecordFetcher");
@@ -72,9 +70,6 @@ public class TestHoodieKeyLocationFetchHandle extends HoodieClientTestHarness {
     initTestDataGenerator();
     initFileSystem();
     initMetaClient();
-    config = getConfigBuilder()
-        .withIndexConfig(HoodieIndexConfig.newBuilder()
-            .build()).build();
   }
 
   @AfterEach
@@ -82,8 +77,13 @@ public class TestHoodieKeyLocationFetchHandle extends HoodieClientTestHarness {
     cleanupResources();
   }
 
-  @Test
-  public void testFetchHandle() throws Exception {
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testFetchHandle(boolean readKeysOnly) throws Exception {
+    HoodieWriteConfig config = getConfigBuilder()
+        .withIndexConfig(HoodieIndexConfig.newBuilder()
+            .simpleIndexReadKeysOnly(readKeysOnly)
+            .build()).build();
     List<HoodieRecord> records = dataGen.generateInserts(makeNewCommitTime(), 100);
     Map<String, List<HoodieRecord>> partitionRecordsMap = recordsToPartitionRecordsMap(records);
     HoodieTable hoodieTable = HoodieSparkTable.create(config, context, metaClient);
@@ -95,9 +95,9 @@ public class TestHoodieKeyLocationFetchHandle extends HoodieClientTestHarness {
 
     for (Tuple2<String, HoodieBaseFile> entry : partitionPathFileIdPairs) {
       HoodieKeyLocationFetchHandle fetcherHandle = new HoodieKeyLocationFetchHandle(config, hoodieTable, Pair.of(entry._1, entry._2));
-      Iterator<Pair<HoodieKey, HoodieRecordLocation>> result = fetcherHandle.locations().iterator();
+      Pair<HoodieRecordLocation, Iterable<HoodieKey>> result = fetcherHandle.keysAtLocation();
       List<Tuple2<HoodieKey, HoodieRecordLocation>> actualList = new ArrayList<>();
-      result.forEachRemaining(x -> actualList.add(new Tuple2<>(x.getLeft(), x.getRight())));
+      result.getRight().forEach(key -> actualList.add(new Tuple2<>(key, result.getLeft())));
       assertEquals(expectedList.get(new Tuple2<>(entry._1, entry._2.getFileId())), actualList);
     }
   }
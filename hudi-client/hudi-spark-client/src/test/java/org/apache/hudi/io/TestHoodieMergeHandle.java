@@ -27,21 +27,27 @@ import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
 import org.apache.hudi.common.testutils.HoodieTestDataGenerator;
+import org.apache.hudi.common.util.ParquetUtils;
 import org.apache.hudi.config.HoodieCompactionConfig;
 import org.apache.hudi.config.HoodieIndexConfig;
+import org.apache.hudi.config.HoodieMemoryConfig;
 import org.apache.hudi.config.HoodieStorageConfig;
 import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.execution.bulkinsert.BulkInsertSortMode;
 import org.apache.hudi.index.HoodieIndex;
 import org.apache.hudi.testutils.HoodieClientTestHarness;
 import org.apache.hudi.testutils.HoodieClientTestUtils;
 
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -296,6 +302,54 @@ public class TestHoodieMergeHandle extends HoodieClientTestHarness {
     }
   }
 
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testBoundedMemoryMerge(boolean sortedBaseFile) throws Exception {
+    String partitionPath = HoodieTestDataGenerator.DEFAULT_PARTITION_PATHS[0];
+    dataGen = new HoodieTestDataGenerator(new String[] {partitionPath});
+    // a merge memory far below the size of the incoming records, so that they are spilled
+    HoodieWriteConfig config = getConfigBuilder()
+        .withBulkInsertParallelism(1)
+        .withBulkInsertSortMode(BulkInsertSortMode.GLOBAL_SORT.name())
+        .withMergeBoundedMemoryEnabled(true)
+        .withMemoryConfig(HoodieMemoryConfig.newBuilder().withMaxMemoryMaxSize(1024L, 1024L).build())
+        .build();
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config);) {
+      String newCommitTime = "100";
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, 100);
+      JavaRDD<HoodieRecord> recordsRDD = jsc.parallelize(records, 1);
+      List<WriteStatus> statuses = sortedBaseFile
+          ? writeClient.bulkInsert(recordsRDD, newCommitTime).collect()
+          : writeClient.insert(recordsRDD, newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      Path baseFilePath = new Path(basePath, statuses.get(0).getStat().getPath());
+      assertEquals(sortedBaseFile, ParquetUtils.isSortedByRecordKey(hadoopConf, baseFilePath));
+
+      // update 60 records, along with 40 inserts packed into the same small file
+      newCommitTime = "101";
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieRecord> newRecords = dataGen.generateUpdates(newCommitTime, records.subList(0, 60));
+      newRecords.addAll(dataGen.generateInserts(newCommitTime, 40));
+      statuses = writeClient.upsert(jsc.parallelize(newRecords, 1), newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      HoodieWriteStat stat = statuses.get(0).getStat();
+      assertEquals(140, stat.getNumWrites());
+      assertEquals(60, stat.getNumUpdateWrites());
+      assertEquals(40, stat.getNumInserts());
+      statuses.get(0).getWrittenRecords().forEach(r -> assertTrue(r.getNewLocation().isPresent()));
+
+      Path mergedFilePath = new Path(basePath, stat.getPath());
+      assertEquals(sortedBaseFile, ParquetUtils.isSortedByRecordKey(hadoopConf, mergedFilePath));
+      Dataset<Row> dataSet = getRecords();
+      assertEquals(140, dataSet.count());
+      assertEquals(100, dataSet.filter("_hoodie_commit_time = \"101\"").count());
+      assertEquals(40, dataSet.filter("_hoodie_commit_time = \"100\"").count());
+    }
+  }
+
   private Dataset<Row> getRecords() {
     // Check the entire dataset has 8 records still
     String[] fullPartitionPaths = new String[dataGen.getPartitionPaths().length];
@@ -32,6 +32,7 @@ import org.apache.hudi.common.model.WriteOperationType;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
 import org.apache.hudi.common.table.timeline.HoodieArchivedTimeline;
+import org.apache.hudi.common.table.timeline.HoodieArchivedTimelineIndex;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieInstant.State;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
@@ -467,6 +468,104 @@ public class TestHoodieTimelineArchiveLog extends HoodieClientTestHarness {
     assertFalse(wrapperFs.exists(markerPath));
   }
 
+  @Test
+  public void testArchiveCommitTimelineInParallel() throws IOException {
+    HoodieWriteConfig cfg =
+        HoodieWriteConfig.newBuilder().withPath(basePath).withSchema(HoodieTestDataGenerator.TRIP_EXAMPLE_SCHEMA)
+            .withParallelism(2, 2).forTable("test-trip-table")
+            .withCompactionConfig(HoodieCompactionConfig.newBuilder().retainCommits(1).archiveCommitsWith(2, 3)
+                .withCommitsArchivalBatchSize(2).withCommitsArchivalParallelism(3).build())
+            .build();
+    metaClient = HoodieTableMetaClient.reload(metaClient);
+
+    for (int i = 1; i <= 10; i++) {
+      HoodieTestDataGenerator.createCommitFile(basePath, String.valueOf(100 + i), wrapperFs.getConf());
+    }
+    Path markerPath = new Path(metaClient.getMarkerFolderPath("102"));
+    wrapperFs.mkdirs(markerPath);
+
+    HoodieTable table = HoodieSparkTable.create(cfg, context, metaClient);
+    HoodieTimelineArchiveLog archiveLog = new HoodieTimelineArchiveLog(cfg, table);
+    assertTrue(archiveLog.archiveIfRequired(context));
+    assertFalse(wrapperFs.exists(markerPath));
+
+    // all but the 2 latest commits are archived and removed from the active timeline
+    HoodieTimeline timeline = metaClient.getActiveTimeline().reload().getCommitsTimeline().filterCompletedInstants();
+    assertEquals(Arrays.asList("109", "110"),
+        timeline.getInstants().map(HoodieInstant::getTimestamp).collect(Collectors.toList()));
+    HoodieArchivedTimeline archivedTimeline = metaClient.getArchivedTimeline();
+    assertEquals(Arrays.asList("101", "102", "103", "104", "105", "106", "107", "108"),
+        archivedTimeline.getInstants().map(HoodieInstant::getTimestamp).distinct().collect(Collectors.toList()));
+    assertEquals(24, archivedTimeline.countInstants(), "Requested, inflight and completed instants are all archived");
+
+    // the 24 archived records are written in blocks of 2, each carrying its instant time range
+    FileStatus[] archiveFiles = HoodieArchivedTimelineIndex.listArchiveFiles(metaClient);
+    List<HoodieArchivedTimelineIndex.BlockEntry> blocks = archiveFiles.length == 1
+        ? HoodieArchivedTimelineIndex.indexFile(wrapperFs, archiveFiles[0]).getBlocks() : Collections.emptyList();
+    assertEquals(12, blocks.size());
+    assertEquals("101", blocks.get(0).getMinInstantTime());
+    assertEquals("102", blocks.get(1).getMaxInstantTime());
+
+    // only the blocks overlapping the time range are read
+    archivedTimeline.loadInstantDetailsInMemory("103", "105");
+    assertFalse(archivedTimeline.getInstantDetails(new HoodieInstant(false, HoodieTimeline.COMMIT_ACTION, "102")).isPresent());
+    assertTrue(archivedTimeline.getInstantDetails(new HoodieInstant(false, HoodieTimeline.COMMIT_ACTION, "104")).isPresent());
+    assertTrue(archivedTimeline.getInstantDetails(new HoodieInstant(false, HoodieTimeline.COMMIT_ACTION, "105")).isPresent());
+    assertFalse(archivedTimeline.getInstantDetails(new HoodieInstant(false, HoodieTimeline.COMMIT_ACTION, "107")).isPresent());
+  }
+
+  @Test
+  public void testArchiveFilesMergeAndIndex() throws IOException {
+    HoodieWriteConfig cfg =
+        HoodieWriteConfig.newBuilder().withPath(basePath).withSchema(HoodieTestDataGenerator.TRIP_EXAMPLE_SCHEMA)
+            .withParallelism(2, 2).forTable("test-trip-table")
+            .withCompactionConfig(HoodieCompactionConfig.newBuilder().retainCommits(1).archiveCommitsWith(2, 3)
+                .withCommitsArchivalBatchSize(2).withCommitsArchivalMergeMinFiles(3).build())
+            .build();
+    // every archiving of 2 instants writes a new archive file, as the local file system does not support appends
+    for (int i = 1; i <= 12; i++) {
+      HoodieTestDataGenerator.createCommitFile(basePath, String.valueOf(100 + i), wrapperFs.getConf());
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      HoodieTable table = HoodieSparkTable.create(cfg, context, metaClient);
+      assertTrue(new HoodieTimelineArchiveLog(cfg, table).archiveIfRequired(context));
+    }
+
+    // the 3 oldest of the 5 archive files are merged, and all the archive files are indexed
+    FileStatus[] archiveFiles = HoodieArchivedTimelineIndex.listArchiveFiles(metaClient);
+    assertEquals(3, archiveFiles.length);
+    Option<HoodieArchivedTimelineIndex> index = HoodieArchivedTimelineIndex.load(metaClient, archiveFiles);
+    assertTrue(index.isPresent());
+    for (FileStatus archiveFile : archiveFiles) {
+      assertTrue(index.get().getBlocks(archiveFile).isPresent());
+    }
+
+    HoodieArchivedTimeline archivedTimeline = new HoodieArchivedTimeline(metaClient);
+    assertEquals(30, archivedTimeline.countInstants(), "Archived instants should not be duplicated by the merge");
+    assertEquals(Arrays.asList("101", "102", "103", "104", "105", "106", "107", "108", "109", "110"),
+        archivedTimeline.getInstants().map(HoodieInstant::getTimestamp).distinct().sorted().collect(Collectors.toList()));
+
+    // a time range is loaded from the blocks of the range, and the details are read on demand
+    HoodieArchivedTimeline archivedTimelineInRange = new HoodieArchivedTimeline(metaClient, "103", "106");
+    assertEquals(Arrays.asList("104", "105", "106"),
+        archivedTimelineInRange.getInstants().map(HoodieInstant::getTimestamp).distinct().sorted().collect(Collectors.toList()));
+    HoodieInstant instant = new HoodieInstant(false, HoodieTimeline.COMMIT_ACTION, "108");
+    assertTrue(archivedTimelineInRange.getInstantDetails(instant).isPresent());
+    HoodieInstant missingInstant = new HoodieInstant(false, HoodieTimeline.COMMIT_ACTION, "111");
+    assertFalse(archivedTimelineInRange.getInstantDetails(missingInstant).isPresent());
+    assertFalse(archivedTimelineInRange.getInstantDetails(missingInstant).isPresent());
+
+    // the timeline of all the instants only holds the details loaded in memory
+    assertFalse(archivedTimeline.getInstantDetails(instant).isPresent());
+    archivedTimeline.loadInstantDetailsInMemory("107", "108");
+    assertTrue(archivedTimeline.getInstantDetails(instant).isPresent());
+
+    // without the index, e.g. archived by an older version, the details are read by scanning the archive files
+    metaClient.getFs().delete(HoodieArchivedTimelineIndex.getIndexPath(metaClient.getArchivePath()), false);
+    HoodieArchivedTimeline unindexedTimelineInRange = new HoodieArchivedTimeline(metaClient, "103", "106");
+    assertTrue(unindexedTimelineInRange.getInstantDetails(instant).isPresent());
+    assertFalse(unindexedTimelineInRange.getInstantDetails(missingInstant).isPresent());
+  }
+
   private void verifyInflightInstants(HoodieTableMetaClient metaClient, int expectedTotalInstants) {
     HoodieTimeline timeline = metaClient.getActiveTimeline().reload()
         .getTimelineOfActions(Collections.singleton(HoodieTimeline.CLEAN_ACTION)).filterInflights();
@@ -24,6 +24,7 @@ import org.apache.hudi.client.WriteStatus;
 import org.apache.hudi.client.common.HoodieSparkEngineContext;
 import org.apache.hudi.common.fs.FSUtils;
 import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.common.model.HoodieCleaningPolicy;
 import org.apache.hudi.common.model.HoodieBaseFile;
 import org.apache.hudi.common.model.HoodieCommitMetadata;
 import org.apache.hudi.common.model.HoodieFileFormat;
@@ -33,6 +34,7 @@ import org.apache.hudi.common.model.HoodieLogFile;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieTableType;
 import org.apache.hudi.common.model.HoodieWriteStat;
+import org.apache.hudi.common.model.WriteOperationType;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
@@ -1046,6 +1048,94 @@ public class TestHoodieMergeOnReadTable extends HoodieClientTestHarness {
     }
   }
 
+  @Test
+  public void testLogCompaction() throws Exception {
+    HoodieWriteConfig config = getConfigBuilder(true)
+        .withCompactionConfig(HoodieCompactionConfig.newBuilder().compactionSmallFileSize(0L)
+            .withInlineCompaction(false).withLogCompactionMinLogFiles(1).withAutoClean(false)
+            .withCleanerPolicy(HoodieCleaningPolicy.KEEP_LATEST_FILE_VERSIONS).retainFileVersions(1).build())
+        .build();
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config)) {
+      // insert 100 records into base files
+      String newCommitTime = "100";
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, 100);
+      assertNoWriteErrors(writeClient.insert(jsc.parallelize(records, 1), newCommitTime).collect());
+
+      // update all the records twice and delete some of them, into log files
+      for (String updateTime : Arrays.asList("101", "102")) {
+        writeClient.startCommitWithTime(updateTime);
+        List<HoodieRecord> updates = dataGen.generateUpdates(updateTime, records);
+        assertNoWriteErrors(writeClient.upsert(jsc.parallelize(updates, 1), updateTime).collect());
+      }
+      newCommitTime = "103";
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieKey> keysToDelete = records.subList(0, 10).stream().map(HoodieRecord::getKey).collect(Collectors.toList());
+      assertNoWriteErrors(writeClient.delete(jsc.parallelize(keysToDelete, 1), newCommitTime).collect());
+
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      HoodieTable table = HoodieSparkTable.create(config, context, metaClient);
+      List<String> dataFiles = new ArrayList<>();
+      Map<String, Long> fileIdToNumLogFiles = new HashMap<>();
+      for (String partitionPath : dataGen.getPartitionPaths()) {
+        table.getSliceView().getLatestFileSlices(partitionPath).forEach(slice -> {
+          dataFiles.add(slice.getBaseFile().get().getPath());
+          fileIdToNumLogFiles.put(slice.getFileId(), slice.getLogFiles().count());
+        });
+      }
+      assertTrue(fileIdToNumLogFiles.values().stream().mapToLong(Long::longValue).sum() > 0,
+          "Updates and deletes should be written to log files");
+      Map<String, String> recordsBefore = readRecordCommitTimes(dataFiles);
+      assertEquals(90, recordsBefore.size(), "Must contain 90 records");
+
+      // merge the log files of every file slice into a single log file
+      String logCompactionInstantTime = "104";
+      writeClient.startCommitWithTime(logCompactionInstantTime);
+      List<WriteStatus> statuses = writeClient.logCompact(logCompactionInstantTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(90, statuses.stream().mapToLong(status -> status.getStat().getNumWrites()).sum());
+      assertEquals(10, statuses.stream().mapToLong(status -> status.getStat().getNumDeletes()).sum());
+
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      HoodieInstant logCompactionInstant = metaClient.getActiveTimeline().getDeltaCommitTimeline()
+          .filterCompletedInstants().lastInstant().get();
+      assertEquals(logCompactionInstantTime, logCompactionInstant.getTimestamp());
+      HoodieCommitMetadata commitMetadata = HoodieCommitMetadata.fromBytes(
+          metaClient.getActiveTimeline().getInstantDetails(logCompactionInstant).get(), HoodieCommitMetadata.class);
+      assertEquals(WriteOperationType.LOG_COMPACT, commitMetadata.getOperationType());
+
+      assertTrue(statuses.stream().allMatch(status -> status.getStat().getReplacedLogFiles().size()
+          == fileIdToNumLogFiles.get(status.getFileId())), "The replaced log files should be recorded");
+
+      // the replaced log files are left for the cleaner
+      table = HoodieSparkTable.create(config, context, metaClient);
+      for (String partitionPath : dataGen.getPartitionPaths()) {
+        table.getSliceView().getLatestFileSlices(partitionPath).forEach(slice -> {
+          assertEquals(fileIdToNumLogFiles.get(slice.getFileId()) + 1, slice.getLogFiles().count(),
+              "The replaced log files should be kept until they are cleaned");
+          assertTrue(slice.getBaseFile().get().getCommitTime().equals("100"), "The base file should not be rewritten");
+        });
+      }
+      // the same records are read, with the commit times of the writes that produced them
+      assertEquals(recordsBefore, readRecordCommitTimes(dataFiles));
+
+      writeClient.clean();
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      table = HoodieSparkTable.create(config, context, metaClient);
+      for (String partitionPath : dataGen.getPartitionPaths()) {
+        table.getSliceView().getLatestFileSlices(partitionPath).forEach(slice ->
+            assertEquals(1, slice.getLogFiles().count(), "The cleaner should delete the replaced log files"));
+      }
+      assertEquals(recordsBefore, readRecordCommitTimes(dataFiles));
+    }
+  }
+
+  private Map<String, String> readRecordCommitTimes(List<String> dataFiles) {
+    return HoodieMergeOnReadTestUtils.getRecordsUsingInputFormat(hadoopConf, dataFiles, basePath)
+        .stream().collect(Collectors.toMap(record -> record.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString(),
+            record -> record.get(HoodieRecord.COMMIT_TIME_METADATA_FIELD).toString()));
+  }
+
   @Test
   public void testSimpleInsertsGeneratedIntoLogFiles() throws Exception {
     // insert 100 records
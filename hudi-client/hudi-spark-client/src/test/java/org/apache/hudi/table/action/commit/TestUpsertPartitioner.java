@@ -28,6 +28,7 @@ import org.apache.hudi.common.table.timeline.HoodieTimeline;
 import org.apache.hudi.common.testutils.FileCreateUtils;
 import org.apache.hudi.common.testutils.HoodieTestDataGenerator;
 import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieCompactionConfig;
 import org.apache.hudi.config.HoodieStorageConfig;
 import org.apache.hudi.config.HoodieWriteConfig;
@@ -44,6 +45,7 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -66,11 +68,19 @@ public class TestUpsertPartitioner extends HoodieClientTestBase {
   private static final Logger LOG = LogManager.getLogger(TestUpsertPartitioner.class);
   private static final Schema SCHEMA = getSchemaFromResource(TestUpsertPartitioner.class, "/exampleSchema.avsc");
 
+  // shared by the plans of a test, as by the plans of a write client
+  private final PartitionFileStatsCache statsCache = new PartitionFileStatsCache();
+
   private UpsertPartitioner getUpsertPartitioner(int smallFileSize, int numInserts, int numUpdates, int fileSize,
       String testPartitionPath, boolean autoSplitInserts) throws Exception {
+    return getUpsertPartitioner(smallFileSize, numInserts, numUpdates, fileSize, testPartitionPath, autoSplitInserts, false);
+  }
+
+  private UpsertPartitioner getUpsertPartitioner(int smallFileSize, int numInserts, int numUpdates, int fileSize,
+      String testPartitionPath, boolean autoSplitInserts, boolean adaptivePlanning) throws Exception {
     HoodieWriteConfig config = makeHoodieClientConfigBuilder()
         .withCompactionConfig(HoodieCompactionConfig.newBuilder().compactionSmallFileSize(smallFileSize)
-            .insertSplitSize(100).autoTuneInsertSplits(autoSplitInserts).build())
+            .insertSplitSize(100).autoTuneInsertSplits(autoSplitInserts).withAdaptiveInsertPlanning(adaptivePlanning).build())
         .withStorageConfig(HoodieStorageConfig.newBuilder().hfileMaxFileSize(1000 * 1024).parquetMaxFileSize(1000 * 1024).build())
         .build();
 
@@ -78,6 +88,7 @@ public class TestUpsertPartitioner extends HoodieClientTestBase {
     FileCreateUtils.createBaseFile(basePath, testPartitionPath, "001", "file1", fileSize);
     metaClient = HoodieTableMetaClient.reload(metaClient);
     HoodieSparkCopyOnWriteTable table = (HoodieSparkCopyOnWriteTable) HoodieSparkTable.create(config, context, metaClient);
+    table.setWriteClientResources(statsCache, null);
 
     HoodieTestDataGenerator dataGenerator = new HoodieTestDataGenerator(new String[] {testPartitionPath});
     List<HoodieRecord> insertRecords = dataGenerator.generateInserts("001", numInserts);
@@ -306,6 +317,51 @@ public class TestUpsertPartitioner extends HoodieClientTestBase {
     assertInsertBuckets(weights, cumulativeWeights, insertBuckets);
   }
 
+  @Test
+  public void testUpsertPartitionerWithAdaptiveInsertPlanning() throws Exception {
+    final String testPartitionPath = "2016/09/26";
+    // the small file takes 200 records of the default 1024 bytes, the rest is split evenly into 3 new files
+    for (int i = 0; i < 2; i++) {
+      // the second plan reuses the cached small files
+      UpsertPartitioner partitioner = getUpsertPartitioner(1000 * 1024, 2400, 100, 800 * 1024, testPartitionPath, true, true);
+      List<InsertBucketCumulativeWeightPair> insertBuckets = partitioner.getInsertBuckets(testPartitionPath);
+
+      assertEquals(4, partitioner.numPartitions(), "Should have 4 partitions");
+      assertEquals(BucketType.UPDATE, partitioner.getBucketInfo(0).bucketType, "Bucket 0 is UPDATE");
+      assertEquals(4, insertBuckets.size(), "Total of 4 insert buckets");
+
+      Double[] weights = {200.0 / 2400, 734.0 / 2400, 733.0 / 2400, 733.0 / 2400};
+      Double[] cumulativeWeights = {200.0 / 2400, 934.0 / 2400, 1667.0 / 2400, 1.0};
+      assertInsertBuckets(weights, cumulativeWeights, insertBuckets);
+    }
+  }
+
+  @Test
+  public void testPackIntoSmallFiles() {
+    SmallFile file1 = smallFile("file1", 900);
+    SmallFile file2 = smallFile("file2", 500);
+    SmallFile file3 = smallFile("file3", 700);
+    List<SmallFile> smallFiles = Arrays.asList(file1, file2, file3);
+
+    // the roomiest file first, then the file the remaining inserts fit best
+    assertEquals(Arrays.asList(Pair.of(file2, 50L), Pair.of(file3, 20L)),
+        UpsertPartitioner.packIntoSmallFiles(smallFiles, 70, 1000, 10));
+    assertEquals(Collections.singletonList(Pair.of(file3, 25L)),
+        UpsertPartitioner.packIntoSmallFiles(smallFiles, 25, 1000, 10));
+    assertEquals(Arrays.asList(Pair.of(file2, 50L), Pair.of(file3, 30L), Pair.of(file1, 10L)),
+        UpsertPartitioner.packIntoSmallFiles(smallFiles, 200, 1000, 10));
+    // the files filled in their listing order
+    assertEquals(Arrays.asList(Pair.of(file1, 10L), Pair.of(file2, 50L), Pair.of(file3, 10L)),
+        UpsertPartitioner.fillSmallFiles(smallFiles, 70, 1000, 10));
+  }
+
+  private static SmallFile smallFile(String fileId, long sizeBytes) {
+    SmallFile smallFile = new SmallFile();
+    smallFile.location = new HoodieRecordLocation("001", fileId);
+    smallFile.sizeBytes = sizeBytes;
+    return smallFile;
+  }
+
   private HoodieWriteConfig.Builder makeHoodieClientConfigBuilder() {
     // Prepare the AvroParquetIO
     return HoodieWriteConfig.newBuilder().withPath(basePath).withSchema(SCHEMA.toString());
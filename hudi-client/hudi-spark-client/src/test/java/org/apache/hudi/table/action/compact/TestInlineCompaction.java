@@ -87,6 +87,35 @@ public class TestInlineCompaction extends CompactionTestBase {
     }
   }
 
+  @Test
+  public void testSuccessfulCompactionBasedOnReadAmplification() throws Exception {
+    // Given: make an insert and an update, which leaves a single log block per file group
+    HoodieWriteConfig cfg = getConfigBuilder(false)
+        .withCompactionConfig(HoodieCompactionConfig.newBuilder()
+            .withInlineCompaction(true)
+            .withMaxReadAmplificationBeforeCompaction(2)
+            .withInlineCompactionTriggerStrategy(CompactionTriggerStrategy.READ_AMPLIFICATION).build())
+        .build();
+    List<String> instants = IntStream.range(0, 2).mapToObj(i -> HoodieActiveTimeline.createNewInstantTime()).collect(Collectors.toList());
+
+    try (SparkRDDWriteClient<?> writeClient = getHoodieWriteClient(cfg)) {
+      List<HoodieRecord> records = dataGen.generateInserts(instants.get(0), 100);
+      HoodieReadClient readClient = getHoodieReadClient(cfg.getBasePath());
+      runNextDeltaCommits(writeClient, readClient, instants, records, cfg, true, new ArrayList<>());
+      HoodieTableMetaClient metaClient = HoodieTableMetaClient.builder().setConf(hadoopConf).setBasePath(cfg.getBasePath()).build();
+      assertEquals(2, metaClient.getActiveTimeline().getWriteTimeline().countInstants());
+
+      // second update, that appends a second log block to every file group and triggers compaction
+      String finalInstant = HoodieActiveTimeline.createNewInstantTime();
+      createNextDeltaCommit(finalInstant, dataGen.generateUpdates(finalInstant, 100), writeClient, metaClient, cfg, false);
+
+      // Then: ensure the file slices are compacted as per policy
+      metaClient = HoodieTableMetaClient.builder().setConf(hadoopConf).setBasePath(cfg.getBasePath()).build();
+      assertEquals(4, metaClient.getActiveTimeline().getWriteTimeline().countInstants());
+      assertEquals(HoodieTimeline.COMMIT_ACTION, metaClient.getActiveTimeline().lastInstant().get().getAction());
+    }
+  }
+
   @Test
   public void testSuccessfulCompactionBasedOnTime() throws Exception {
     // Given: make one commit
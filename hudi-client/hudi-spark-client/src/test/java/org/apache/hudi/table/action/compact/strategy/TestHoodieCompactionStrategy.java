@@ -27,6 +27,7 @@ import org.apache.hudi.common.model.HoodieLogFile;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieCompactionConfig;
 import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.table.action.compact.DeltaWriteStatsSummary;
 import org.junit.jupiter.api.Test;
 
 import java.text.SimpleDateFormat;
@@ -112,6 +113,32 @@ public class TestHoodieCompactionStrategy {
         "Should chose the first 2 compactions which should result in a total IO of 690 MB");
   }
 
+  @Test
+  public void testReadAmplificationCompactionSimple() {
+    Map<Long, List<Long>> sizesMap = new HashMap<>();
+    sizesMap.put(120 * MB, Arrays.asList(60 * MB, 10 * MB, 80 * MB));
+    sizesMap.put(110 * MB, new ArrayList<>());
+    sizesMap.put(100 * MB, Collections.singletonList(MB));
+    sizesMap.put(90 * MB, Collections.singletonList(1024 * MB));
+    ReadAmplificationBasedCompactionStrategy strategy = new ReadAmplificationBasedCompactionStrategy();
+    HoodieWriteConfig writeConfig = HoodieWriteConfig.newBuilder().withPath("/tmp").withCompactionConfig(
+        HoodieCompactionConfig.newBuilder().withCompactionStrategy(strategy).withTargetIOPerCompactionInMB(400).build())
+        .build();
+    List<HoodieCompactionOperation> operations = createCompactionOperations(writeConfig, sizesMap);
+    List<HoodieCompactionOperation> returned = strategy.orderAndFilter(writeConfig, operations, new ArrayList<>());
+
+    assertTrue(returned.size() < operations.size(),
+        "ReadAmplificationBasedCompactionStrategy should have resulted in fewer compactions");
+    assertEquals(2, returned.size(), "ReadAmplificationBasedCompactionStrategy should have resulted in 2 compactions");
+    // Without delta write stats every log file is accounted as a single log block
+    assertEquals(3, returned.get(0).getMetrics().get(ReadAmplificationBasedCompactionStrategy.TOTAL_LOG_BLOCKS).longValue(),
+        "Should chose the compaction saving the most log blocks per MB of IO first");
+    Long returnedSize = returned.stream().map(s -> s.getMetrics().get(BoundedIOCompactionStrategy.TOTAL_IO_MB))
+        .map(Double::longValue).reduce(Long::sum).orElse(0L);
+    assertEquals(591, (long) returnedSize,
+        "Should chose the first 2 compactions which should result in a total IO of 591 MB");
+  }
+
   @Test
   public void testDayBasedCompactionSimple() {
     Map<Long, List<Long>> sizesMap = new HashMap<>();
@@ -262,7 +289,7 @@ public class TestHoodieCompactionStrategy {
       operations.add(new HoodieCompactionOperation(df.getCommitTime(),
           logFiles.stream().map(s -> s.getPath().toString()).collect(Collectors.toList()), df.getPath(), df.getFileId(),
           partitionPath,
-          config.getCompactionStrategy().captureMetrics(config, slice),
+          config.getCompactionStrategy().captureMetrics(config, slice, DeltaWriteStatsSummary.empty()),
           df.getBootstrapBaseFile().map(BaseFile::getPath).orElse(null))
       );
     });
@@ -58,6 +58,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -73,6 +74,20 @@ public class HoodieAvroUtils {
 
   private static ThreadLocal<BinaryDecoder> reuseDecoder = ThreadLocal.withInitial(() -> null);
 
+  // Datum readers and writers resolve the schema on first use, cache them per thread and schema
+  private static final int MAX_CACHED_SCHEMAS = 16;
+  private static final int MAX_REUSED_BUFFER_SIZE = 1024 * 1024;
+
+  private static ThreadLocal<Map<Schema, Map<Schema, GenericDatumReader<GenericRecord>>>> reuseDatumReaders =
+      ThreadLocal.withInitial(HashMap::new);
+
+  private static ThreadLocal<Map<Schema, GenericDatumWriter<IndexedRecord>>> reuseDatumWriters =
+      ThreadLocal.withInitial(HashMap::new);
+
+  private static ThreadLocal<Map<Schema, GenericRecord>> reuseRecords = ThreadLocal.withInitial(HashMap::new);
+
+  private static ThreadLocal<ByteArrayOutputStream> reuseOutputStream = ThreadLocal.withInitial(ByteArrayOutputStream::new);
+
   // As per https://avro.apache.org/docs/current/spec.html#names
   private static String INVALID_AVRO_CHARS_IN_NAMES = "[^A-Za-z0-9_]";
   private static String INVALID_AVRO_FIRST_CHAR_IN_NAMES = "[^A-Za-z_]";
@@ -92,8 +107,10 @@ public class HoodieAvroUtils {
   }
 
   public static <T extends IndexedRecord> byte[] indexedRecordToBytes(T record) {
-    GenericDatumWriter<T> writer = new GenericDatumWriter<>(record.getSchema());
-    try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    GenericDatumWriter<IndexedRecord> writer = getDatumWriter(record.getSchema());
+    ByteArrayOutputStream out = reuseOutputStream.get();
+    out.reset();
+    try {
       BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, reuseEncoder.get());
       reuseEncoder.set(encoder);
       writer.write(record, encoder);
@@ -101,6 +118,11 @@ public class HoodieAvroUtils {
       return out.toByteArray();
     } catch (IOException e) {
       throw new HoodieIOException("Cannot convert GenericRecord to bytes", e);
+    } finally {
+      if (out.size() > MAX_REUSED_BUFFER_SIZE) {
+        // do not hold on to the buffer of an unusually large record
+        reuseOutputStream.remove();
+      }
     }
   }
 
@@ -130,10 +152,64 @@ public class HoodieAvroUtils {
    * Convert serialized bytes back into avro record.
    */
   public static GenericRecord bytesToAvro(byte[] bytes, Schema writerSchema, Schema readerSchema) throws IOException {
+    return bytesToAvro(bytes, writerSchema, readerSchema, false);
+  }
+
+  /**
+   * Convert serialized bytes back into avro record.
+   *
+   * @param reuseRecord Whether to decode into a record that is reused by the next call of this thread with the same
+   *                    reader schema. Only set it when the returned record is not retained past that call.
+   */
+  public static GenericRecord bytesToAvro(byte[] bytes, Schema writerSchema, Schema readerSchema, boolean reuseRecord)
+      throws IOException {
     BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(bytes, reuseDecoder.get());
     reuseDecoder.set(decoder);
-    GenericDatumReader<GenericRecord> reader = new GenericDatumReader<>(writerSchema, readerSchema);
-    return reader.read(null, decoder);
+    GenericDatumReader<GenericRecord> reader = getDatumReader(writerSchema, readerSchema);
+    if (!reuseRecord) {
+      return reader.read(null, decoder);
+    }
+    Map<Schema, GenericRecord> records = reuseRecords.get();
+    GenericRecord record = reader.read(records.get(readerSchema), decoder);
+    if (records.size() >= MAX_CACHED_SCHEMAS && !records.containsKey(readerSchema)) {
+      records.clear();
+    }
+    records.put(readerSchema, record);
+    return record;
+  }
+
+  private static GenericDatumReader<GenericRecord> getDatumReader(Schema writerSchema, Schema readerSchema) {
+    Map<Schema, Map<Schema, GenericDatumReader<GenericRecord>>> readers = reuseDatumReaders.get();
+    Map<Schema, GenericDatumReader<GenericRecord>> readersOfWriterSchema = readers.get(writerSchema);
+    if (readersOfWriterSchema == null) {
+      if (readers.size() >= MAX_CACHED_SCHEMAS) {
+        readers.clear();
+      }
+      readersOfWriterSchema = new HashMap<>();
+      readers.put(writerSchema, readersOfWriterSchema);
+    }
+    GenericDatumReader<GenericRecord> reader = readersOfWriterSchema.get(readerSchema);
+    if (reader == null) {
+      if (readersOfWriterSchema.size() >= MAX_CACHED_SCHEMAS) {
+        readersOfWriterSchema.clear();
+      }
+      reader = new GenericDatumReader<>(writerSchema, readerSchema);
+      readersOfWriterSchema.put(readerSchema, reader);
+    }
+    return reader;
+  }
+
+  private static GenericDatumWriter<IndexedRecord> getDatumWriter(Schema schema) {
+    Map<Schema, GenericDatumWriter<IndexedRecord>> writers = reuseDatumWriters.get();
+    GenericDatumWriter<IndexedRecord> writer = writers.get(schema);
+    if (writer == null) {
+      if (writers.size() >= MAX_CACHED_SCHEMAS) {
+        writers.clear();
+      }
+      writer = new GenericDatumWriter<>(schema);
+      writers.put(schema, writer);
+    }
+    return writer;
   }
 
   /**
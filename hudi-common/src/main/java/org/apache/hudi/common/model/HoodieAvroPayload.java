@@ -26,6 +26,7 @@ import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.IndexedRecord;
 
 import java.io.IOException;
+import java.util.Properties;
 
 /**
  * This is a payload to wrap a existing Hoodie Avro Record. Useful to create a HoodieRecord over existing GenericRecords
@@ -63,6 +64,33 @@ public class HoodieAvroPayload implements HoodieRecordPayload<HoodieAvroPayload>
     return Option.of(HoodieAvroUtils.bytesToAvro(recordBytes, schema));
   }
 
+  @Override
+  public Option<IndexedRecord> combineAndGetUpdateValue(IndexedRecord currentValue, Schema schema, Properties properties,
+                                                        boolean reuseRecord) throws IOException {
+    if (!canReuseRecord(reuseRecord)) {
+      return combineAndGetUpdateValue(currentValue, schema, properties);
+    }
+    return getInsertValue(schema, properties, true);
+  }
+
+  @Override
+  public Option<IndexedRecord> getInsertValue(Schema schema, Properties properties, boolean reuseRecord) throws IOException {
+    if (!canReuseRecord(reuseRecord)) {
+      return getInsertValue(schema, properties);
+    }
+    if (recordBytes.length == 0) {
+      return Option.empty();
+    }
+    return Option.of(HoodieAvroUtils.bytesToAvro(recordBytes, schema, schema, true));
+  }
+
+  /**
+   * Subclasses customize the merge through the variants without record reuse, which must not be bypassed.
+   */
+  private boolean canReuseRecord(boolean reuseRecord) {
+    return reuseRecord && getClass() == HoodieAvroPayload.class;
+  }
+
   // for examples
   public byte[] getRecordBytes() {
     return recordBytes;
@@ -81,6 +81,22 @@ public interface HoodieRecordPayload<T extends HoodieRecordPayload> extends Seri
     return combineAndGetUpdateValue(currentValue, schema);
   }
 
+  /**
+   * Same as {@link #combineAndGetUpdateValue(IndexedRecord, Schema, Properties)}, except that the payload may return a
+   * record that is reused by the next call of the same thread when {@code reuseRecord} is set. Callers set it when
+   * they are done with the returned record before asking for the next one, e.g. when writing it out right away.
+   * @param currentValue Current value in storage, to merge/combine this payload with
+   * @param schema Schema used for record
+   * @param properties Payload related properties. For example pass the ordering field(s) name to extract from value in storage.
+   * @param reuseRecord Whether the returned record may be reused across calls.
+   * @return new combined/merged value to be written back to storage. EMPTY to skip writing this record.
+   */
+  @PublicAPIMethod(maturity = ApiMaturityLevel.EVOLVING)
+  default Option<IndexedRecord> combineAndGetUpdateValue(IndexedRecord currentValue, Schema schema, Properties properties,
+                                                         boolean reuseRecord) throws IOException {
+    return combineAndGetUpdateValue(currentValue, schema, properties);
+  }
+
   /**
    * This method is deprecated. Refer to {@link #getInsertValue(Schema, Properties)} for java docs.
    * @param schema Schema used for record
@@ -103,6 +119,20 @@ public interface HoodieRecordPayload<T extends HoodieRecordPayload> extends Seri
     return getInsertValue(schema);
   }
 
+  /**
+   * Same as {@link #getInsertValue(Schema, Properties)}, except that the payload may return a record that is reused by
+   * the next call of the same thread when {@code reuseRecord} is set. Callers set it when they are done with the
+   * returned record before asking for the next one.
+   * @param schema Schema used for record
+   * @param properties Payload related properties. For example pass the ordering field(s) name to extract from value in storage.
+   * @param reuseRecord Whether the returned record may be reused across calls.
+   * @return the {@link IndexedRecord} to be inserted.
+   */
+  @PublicAPIMethod(maturity = ApiMaturityLevel.EVOLVING)
+  default Option<IndexedRecord> getInsertValue(Schema schema, Properties properties, boolean reuseRecord) throws IOException {
+    return getInsertValue(schema, properties);
+  }
+
   /**
    * This method can be used to extract some metadata from HoodieRecordPayload. The metadata is passed to {@code WriteStatus.markSuccess()} and
    * {@code WriteStatus.markFailure()} in order to compute some aggregate metrics using the metadata in the context of a write success or failure.
@@ -25,6 +25,7 @@ import org.apache.hadoop.fs.Path;
 import javax.annotation.Nullable;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Statistics about a single Hoodie write operation.
@@ -138,6 +139,12 @@ public class HoodieWriteStat implements Serializable {
   @Nullable
   private long totalRollbackBlocks;
 
+  /**
+   * Names of the log files of the file slice replaced by a log compaction operation.
+   */
+  @Nullable
+  private List<String> replacedLogFiles;
+
   /**
    * File Size as of close.
    */
@@ -307,6 +314,15 @@ public class HoodieWriteStat implements Serializable {
     this.totalRollbackBlocks = totalRollbackBlocks;
   }
 
+  @Nullable
+  public List<String> getReplacedLogFiles() {
+    return replacedLogFiles;
+  }
+
+  public void setReplacedLogFiles(@Nullable List<String> replacedLogFiles) {
+    this.replacedLogFiles = replacedLogFiles;
+  }
+
   public long getFileSizeInBytes() {
     return fileSizeInBytes;
   }
@@ -26,6 +26,7 @@ import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.IndexedRecord;
 
 import java.io.IOException;
+import java.util.Properties;
 
 /**
  * Default payload used for delta streamer.
@@ -61,12 +62,33 @@ public class OverwriteWithLatestAvroPayload extends BaseAvroPayload
     return getInsertValue(schema);
   }
 
+  @Override
+  public Option<IndexedRecord> combineAndGetUpdateValue(IndexedRecord currentValue, Schema schema, Properties properties,
+                                                        boolean reuseRecord) throws IOException {
+    if (!canReuseRecord(reuseRecord)) {
+      return combineAndGetUpdateValue(currentValue, schema, properties);
+    }
+    return decodeInsertValue(schema, true);
+  }
+
   @Override
   public Option<IndexedRecord> getInsertValue(Schema schema) throws IOException {
+    return decodeInsertValue(schema, false);
+  }
+
+  @Override
+  public Option<IndexedRecord> getInsertValue(Schema schema, Properties properties, boolean reuseRecord) throws IOException {
+    if (!canReuseRecord(reuseRecord)) {
+      return getInsertValue(schema, properties);
+    }
+    return decodeInsertValue(schema, true);
+  }
+
+  private Option<IndexedRecord> decodeInsertValue(Schema schema, boolean reuseRecord) throws IOException {
     if (recordBytes.length == 0) {
       return Option.empty();
     }
-    IndexedRecord indexedRecord = HoodieAvroUtils.bytesToAvro(recordBytes, schema);
+    IndexedRecord indexedRecord = HoodieAvroUtils.bytesToAvro(recordBytes, schema, schema, reuseRecord);
     if (isDeleteRecord((GenericRecord) indexedRecord)) {
       return Option.empty();
     } else {
@@ -74,6 +96,13 @@ public class OverwriteWithLatestAvroPayload extends BaseAvroPayload
     }
   }
 
+  /**
+   * Subclasses customize the merge through the variants without record reuse, which must not be bypassed.
+   */
+  private boolean canReuseRecord(boolean reuseRecord) {
+    return reuseRecord && getClass() == OverwriteWithLatestAvroPayload.class;
+  }
+
   /**
    * @param genericRecord instance of {@link GenericRecord} of interest.
    * @returns {@code true} if record represents a delete record. {@code false} otherwise.
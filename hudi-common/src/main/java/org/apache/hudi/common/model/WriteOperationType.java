@@ -46,6 +46,8 @@ public enum WriteOperationType {
   DELETE_PARTITION("delete_partition"),
   // insert overwrite with dynamic partitioning
   INSERT_OVERWRITE_TABLE("insert_overwrite_table"),
+  // merge the log files of file slices, leaving the base files untouched
+  LOG_COMPACT("log_compact"),
   // used for old version
   UNKNOWN("unknown");
 
@@ -82,6 +84,8 @@ public enum WriteOperationType {
         return INSERT_OVERWRITE_TABLE;
       case "cluster":
         return CLUSTER;
+      case "log_compact":
+        return LOG_COMPACT;
       default:
         throw new HoodieException("Invalid value of Type.");
     }
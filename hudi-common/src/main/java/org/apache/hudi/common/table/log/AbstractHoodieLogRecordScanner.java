@@ -51,6 +51,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+import static org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType.COMPACTED_BLOCK_TIMES;
 import static org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType.INSTANT_TIME;
 import static org.apache.hudi.common.table.log.block.HoodieLogBlock.HoodieLogBlockType.COMMAND_BLOCK;
 import static org.apache.hudi.common.table.log.block.HoodieLogBlock.HoodieLogBlockType.CORRUPT_BLOCK;
@@ -102,6 +103,8 @@ public abstract class AbstractHoodieLogRecordScanner {
   private AtomicLong totalCorruptBlocks = new AtomicLong(0);
   // Store the last instant log blocks (needed to implement rollback)
   private Deque<HoodieLogBlock> currentInstantLogBlocks = new ArrayDeque<>();
+  // Instants of the data and delete blocks read so far (needed to apply compacted blocks)
+  private Set<String> scannedInstants = new HashSet<>();
   // Progress
   private float progress = 0.0f;
 
@@ -155,6 +158,11 @@ public abstract class AbstractHoodieLogRecordScanner {
             // hit an uncommitted block possibly from a failed write, move to the next one and skip processing this one
             continue;
           }
+          if (r.getLogBlockHeader().containsKey(COMPACTED_BLOCK_TIMES) && !applyCompactedBlock(r)) {
+            // the original blocks of this compacted block have been read already, skip the duplicate
+            continue;
+          }
+          scannedInstants.add(instantTime);
         }
         switch (r.getBlockType()) {
           case HFILE_DATA_BLOCK:
@@ -271,6 +279,32 @@ public abstract class AbstractHoodieLogRecordScanner {
     }
   }
 
+  /**
+   * A compacted block (written by log compaction) holds the merged contents of all the blocks of the instants
+   * in its {@code COMPACTED_BLOCK_TIMES} header, which precede it in the log files. If every block read so far
+   * is covered, whatever has been read is discarded in favor of the compacted block. Otherwise the original
+   * blocks are kept and the compacted block is skipped.
+   *
+   * @return true if the compacted block should be processed
+   */
+  private boolean applyCompactedBlock(HoodieLogBlock compactedBlock) {
+    String instantTime = compactedBlock.getLogBlockHeader().get(INSTANT_TIME);
+    Set<String> compactedInstants = new HashSet<>(
+        Arrays.asList(compactedBlock.getLogBlockHeader().get(COMPACTED_BLOCK_TIMES).split(",")));
+    compactedInstants.add(instantTime);
+    if (scannedInstants.stream().allMatch(instantTime::equals)) {
+      // the original blocks are gone (or were never read), nothing to discard
+      return true;
+    }
+    if (!compactedInstants.containsAll(scannedInstants) || !discardScannedRecords()) {
+      return false;
+    }
+    LOG.info("Discarded the log blocks of instants " + scannedInstants + " compacted at instant " + instantTime);
+    currentInstantLogBlocks.clear();
+    scannedInstants.clear();
+    return true;
+  }
+
   /**
    * Checks if the current logblock belongs to a later instant.
    */
@@ -311,6 +345,17 @@ public abstract class AbstractHoodieLogRecordScanner {
    */
   protected abstract void processNextDeletedKey(HoodieKey key);
 
+  /**
+   * Discards the records handed to {@link #processNextRecord} and {@link #processNextDeletedKey} so far,
+   * when they are superseded by a compacted block. A scanner that already handed the records out can not
+   * take them back, it returns false and the compacted block is skipped in favor of the original blocks.
+   *
+   * @return true if the records were discarded
+   */
+  protected boolean discardScannedRecords() {
+    return false;
+  }
+
   /**
    * Process the set of log blocks belonging to the last instant which is read fully.
    */
@@ -363,6 +408,13 @@ public abstract class AbstractHoodieLogRecordScanner {
     return payloadClassFQN;
   }
 
+  /**
+   * Returns the instants of the committed data and delete blocks read by the scan.
+   */
+  public Set<String> getScannedInstants() {
+    return scannedInstants;
+  }
+
   public long getTotalRollbacks() {
     return totalRollbacks.get();
   }
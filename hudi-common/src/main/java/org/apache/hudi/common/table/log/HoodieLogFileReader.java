@@ -112,6 +112,14 @@ public class HoodieLogFileReader implements HoodieLogFormat.Reader {
     return logFile;
   }
 
+  /**
+   * Moves the reader to the given position of the log file, which should be the start of a log block, e.g. the offset
+   * a block was appended at. The next call to {@link #hasNext()} reads the block at this position.
+   */
+  public void seek(long position) throws IOException {
+    inputStream.seek(position);
+  }
+
   /**
    * Close the inputstream if not closed when the JVM exits.
    */
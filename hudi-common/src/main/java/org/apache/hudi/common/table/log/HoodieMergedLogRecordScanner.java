@@ -149,6 +149,12 @@ public class HoodieMergedLogRecordScanner extends AbstractHoodieLogRecordScanner
         hoodieKey.getPartitionPath(), getPayloadClassFQN()));
   }
 
+  @Override
+  protected boolean discardScannedRecords() {
+    records.clear();
+    return true;
+  }
+
   public long getTotalTimeTakenToReadAndMergeBlocks() {
     return totalTimeTakenToReadAndMergeBlocks;
   }
@@ -22,8 +22,11 @@ import org.apache.hudi.avro.model.HoodieArchivedMetaEntry;
 import org.apache.hudi.common.model.HoodieLogFile;
 import org.apache.hudi.common.model.HoodiePartitionMetadata;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
-import org.apache.hudi.common.table.log.HoodieLogFormat;
+import org.apache.hudi.common.table.log.HoodieLogFileReader;
 import org.apache.hudi.common.table.log.block.HoodieAvroDataBlock;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType;
+import org.apache.hudi.common.table.timeline.HoodieArchivedTimelineIndex.BlockEntry;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.exception.HoodieIOException;
 
@@ -38,7 +41,6 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -58,23 +60,37 @@ import java.util.stream.Stream;
  * reload()
  * <p>
  * </p>
+ * When the archived timeline index is present, only the archive blocks overlapping the loaded time range are read, and
+ * a timeline loaded for a time range reads the details of an instant not in memory on demand by seeking to the blocks
+ * of the instant. Archive files without the index, e.g. written by older versions, are scanned instead.
+ * A timeline of all the instants only holds the details loaded with loadInstantDetailsInMemory().
+ * See {@link HoodieArchivedTimelineIndex}.
+ * <p>
+ * </p>
  * This class can be serialized and de-serialized and on de-serialization the FileSystem is re-initialized.
  */
 public class HoodieArchivedTimeline extends HoodieDefaultTimeline {
   private static final Pattern ARCHIVE_FILE_PATTERN =
-          Pattern.compile("^\\.commits_\\.archive\\.([0-9]*)$");
+          Pattern.compile("^\\.commits_\\.archive\\.([0-9]*)(_.*)?$");
 
   private static final String HOODIE_COMMIT_ARCHIVE_LOG_FILE_PREFIX = "commits";
   private static final String ACTION_TYPE_KEY = "actionType";
   private HoodieTableMetaClient metaClient;
   private Map<String, byte[]> readCommits = new HashMap<>();
+  // time range of the loaded instants, null if all the instants are loaded
+  private String startTs;
+  private String endTs;
+  // archive files and their index, listed once for the on demand reads of instant details
+  private transient FileStatus[] archiveFiles;
+  private transient Option<HoodieArchivedTimelineIndex> archiveIndex;
+
+  // marks the instants read on demand without details, so that they are not looked up again
+  private static final byte[] NO_DETAILS = new byte[0];
 
   private static final Logger LOG = LogManager.getLogger(HoodieArchivedTimeline.class);
 
   /**
-   * Loads instants between (startTs, endTs].
-   * Note that there is no lazy loading, so this may not work if really long time range (endTs-startTs) is specified.
-   * TBD: Should we enforce maximum time range?
+   * Loads all the archived instants, without their details.
    */
   public HoodieArchivedTimeline(HoodieTableMetaClient metaClient) {
     this.metaClient = metaClient;
@@ -84,6 +100,17 @@ public class HoodieArchivedTimeline extends HoodieDefaultTimeline {
     this.details = (Function<HoodieInstant, Option<byte[]>> & Serializable) this::getInstantDetails;
   }
 
+  /**
+   * Loads the archived instants between (startTs, endTs], without their details.
+   */
+  public HoodieArchivedTimeline(HoodieTableMetaClient metaClient, String startTs, String endTs) {
+    this.metaClient = metaClient;
+    this.startTs = startTs;
+    this.endTs = endTs;
+    setInstants(this.loadInstants(new TimeRangeFilter(startTs, endTs), false));
+    this.details = (Function<HoodieInstant, Option<byte[]>> & Serializable) this::getInstantDetails;
+  }
+
   /**
    * For serialization and de-serialization only.
    *
@@ -115,11 +142,15 @@ public class HoodieArchivedTimeline extends HoodieDefaultTimeline {
 
   @Override
   public Option<byte[]> getInstantDetails(HoodieInstant instant) {
-    return Option.ofNullable(readCommits.get(instant.getTimestamp()));
+    if (startTs != null && !readCommits.containsKey(instant.getTimestamp())) {
+      loadInstantDetails(instant.getTimestamp());
+    }
+    byte[] details = readCommits.get(instant.getTimestamp());
+    return details == NO_DETAILS ? Option.empty() : Option.ofNullable(details);
   }
 
   public HoodieArchivedTimeline reload() {
-    return new HoodieArchivedTimeline(metaClient);
+    return startTs == null ? new HoodieArchivedTimeline(metaClient) : new HoodieArchivedTimeline(metaClient, startTs, endTs);
   }
 
   private HoodieInstant readCommit(GenericRecord record, boolean loadDetails) {
@@ -158,6 +189,24 @@ public class HoodieArchivedTimeline extends HoodieDefaultTimeline {
     return loadInstants(new TimeRangeFilter(startTs, endTs), true);
   }
 
+  /**
+   * Reads the details of the instant from the blocks holding it, which is a seek per block with the archived timeline
+   * index, and a scan of the archive files not covered by the index otherwise. The instant is only marked as without
+   * details once all the archive files have been looked up.
+   */
+  private void loadInstantDetails(String instantTime) {
+    try {
+      if (archiveFiles == null) {
+        archiveFiles = HoodieArchivedTimelineIndex.listArchiveFiles(metaClient);
+        archiveIndex = HoodieArchivedTimelineIndex.load(metaClient, archiveFiles);
+      }
+      loadInstants(archiveFiles, archiveIndex, new InstantTimeFilter(instantTime), true);
+      readCommits.putIfAbsent(instantTime, NO_DETAILS);
+    } catch (IOException e) {
+      throw new HoodieIOException("Could not load archived instant " + instantTime + " from path " + metaClient.getArchivePath(), e);
+    }
+  }
+
   /**
    * This is method to read selected instants. Do NOT use this directly use one of the helper methods above
    * If loadInstantDetails is set to true, this would also update 'readCommits' map with commit details
@@ -165,60 +214,85 @@ public class HoodieArchivedTimeline extends HoodieDefaultTimeline {
    */
   private List<HoodieInstant> loadInstants(TimeRangeFilter filter, boolean loadInstantDetails) {
     try {
-      // list all files
-      FileStatus[] fsStatuses = metaClient.getFs().globStatus(
-              new Path(metaClient.getArchivePath() + "/.commits_.archive*"));
-
-      // sort files by version suffix in reverse (implies reverse chronological order)
-      Arrays.sort(fsStatuses, new ArchiveFileVersionComparator());
-
-      List<HoodieInstant> instantsInRange = new ArrayList<>();
-      for (FileStatus fs : fsStatuses) {
-        //read the archived file
-        HoodieLogFormat.Reader reader = HoodieLogFormat.newReader(metaClient.getFs(),
-                new HoodieLogFile(fs.getPath()), HoodieArchivedMetaEntry.getClassSchema());
-        try {
-          int instantsInPreviousFile = instantsInRange.size();
-          //read the avro blocks
-          while (reader.hasNext()) {
-            HoodieAvroDataBlock blk = (HoodieAvroDataBlock) reader.next();
-            // TODO If we can store additional metadata in datablock, we can skip parsing records
-            // (such as startTime, endTime of records in the block)
-            List<IndexedRecord> records = blk.getRecords();
-            // filter blocks in desired time window
-            Stream<HoodieInstant> instantsInBlkStream = records.stream()
-                    .map(r -> readCommit((GenericRecord) r, loadInstantDetails));
-
-            if (filter != null) {
-              instantsInBlkStream = instantsInBlkStream.filter(filter::isInRange);
+      // list all files, sorted by version suffix in reverse (implies reverse chronological order)
+      FileStatus[] fsStatuses = HoodieArchivedTimelineIndex.listArchiveFiles(metaClient);
+      return loadInstants(fsStatuses, HoodieArchivedTimelineIndex.load(metaClient, fsStatuses), filter, loadInstantDetails);
+    } catch (IOException e) {
+      throw new HoodieIOException(
+              "Could not load archived commit timeline from path " + metaClient.getArchivePath(), e);
+    }
+  }
+
+  private List<HoodieInstant> loadInstants(FileStatus[] fsStatuses, Option<HoodieArchivedTimelineIndex> index,
+                                           TimeRangeFilter filter, boolean loadInstantDetails) throws IOException {
+    List<HoodieInstant> instantsInRange = new ArrayList<>();
+    for (FileStatus fs : fsStatuses) {
+      if (index.isPresent() && index.get().isReplaced(fs)) {
+        // merged into another archive file
+        continue;
+      }
+      Option<List<BlockEntry>> indexedBlocks = filter != null && index.isPresent()
+          ? index.get().getBlocks(fs) : Option.empty();
+      //read the archived file, lazily if only the blocks in the time range are needed
+      try (HoodieLogFileReader reader = new HoodieLogFileReader(metaClient.getFs(), new HoodieLogFile(fs.getPath()),
+              HoodieArchivedMetaEntry.getClassSchema(), filter != null, false)) {
+        if (indexedBlocks.isPresent()) {
+          // seek to the blocks in the desired time window
+          for (BlockEntry blockEntry : indexedBlocks.get()) {
+            if (filter.overlaps(blockEntry.getMinInstantTime(), blockEntry.getMaxInstantTime())) {
+              reader.seek(blockEntry.getOffset());
+              if (reader.hasNext()) {
+                instantsInRange.addAll(readBlock((HoodieAvroDataBlock) reader.next(), filter, loadInstantDetails));
+              }
             }
+          }
+          continue;
+        }
 
-            instantsInRange.addAll(instantsInBlkStream.collect(Collectors.toList()));
+        int instantsInPreviousFile = instantsInRange.size();
+        //read the avro blocks
+        while (reader.hasNext()) {
+          HoodieLogBlock blk = reader.next();
+          if (!(blk instanceof HoodieAvroDataBlock)) {
+            // e.g. a corrupted block left by a failed archiving
+            continue;
+          }
+          if (filter != null && !filter.overlaps(blk)) {
+            // skip parsing the records of blocks outside the desired time window
+            continue;
           }
+          instantsInRange.addAll(readBlock((HoodieAvroDataBlock) blk, filter, loadInstantDetails));
+        }
 
-          if (filter != null) {
-            int instantsInCurrentFile = instantsInRange.size() - instantsInPreviousFile;
-            if (instantsInPreviousFile > 0 && instantsInCurrentFile == 0) {
-              // Note that this is an optimization to skip reading unnecessary archived files
-              // This signals we crossed lower bound of desired time window.
-              break;
-            }
+        if (filter != null) {
+          int instantsInCurrentFile = instantsInRange.size() - instantsInPreviousFile;
+          if (instantsInPreviousFile > 0 && instantsInCurrentFile == 0) {
+            // Note that this is an optimization to skip reading unnecessary archived files
+            // This signals we crossed lower bound of desired time window.
+            break;
           }
-        } finally {
-          reader.close();
         }
       }
+    }
 
-      return instantsInRange;
-    } catch (IOException e) {
-      throw new HoodieIOException(
-              "Could not load archived commit timeline from path " + metaClient.getArchivePath(), e);
+    return instantsInRange;
+  }
+
+  private List<HoodieInstant> readBlock(HoodieAvroDataBlock blk, TimeRangeFilter filter, boolean loadInstantDetails) {
+    List<IndexedRecord> records = blk.getRecords();
+    // filter blocks in desired time window
+    Stream<HoodieInstant> instantsInBlkStream = records.stream()
+            .map(r -> readCommit((GenericRecord) r, loadInstantDetails));
+
+    if (filter != null) {
+      instantsInBlkStream = instantsInBlkStream.filter(filter::isInRange);
     }
+    return instantsInBlkStream.collect(Collectors.toList());
   }
 
   private static class TimeRangeFilter {
-    private final String startTs;
-    private final String endTs;
+    protected final String startTs;
+    protected final String endTs;
 
     public TimeRangeFilter(String startTs, String endTs) {
       this.startTs = startTs;
@@ -228,6 +302,45 @@ public class HoodieArchivedTimeline extends HoodieDefaultTimeline {
     public boolean isInRange(HoodieInstant instant) {
       return HoodieTimeline.isInRange(instant.getTimestamp(), this.startTs, this.endTs);
     }
+
+    /**
+     * Whether the block may hold instants in range. Blocks without the instant time range in their header
+     * (written by older versions) always may.
+     */
+    public boolean overlaps(HoodieLogBlock block) {
+      String minInstantTime = block.getLogBlockHeader().get(HeaderMetadataType.MIN_INSTANT_TIME);
+      String maxInstantTime = block.getLogBlockHeader().get(HeaderMetadataType.MAX_INSTANT_TIME);
+      if (minInstantTime == null || maxInstantTime == null) {
+        return true;
+      }
+      return overlaps(minInstantTime, maxInstantTime);
+    }
+
+    public boolean overlaps(String minInstantTime, String maxInstantTime) {
+      return HoodieTimeline.compareTimestamps(maxInstantTime, HoodieTimeline.GREATER_THAN, this.startTs)
+          && HoodieTimeline.compareTimestamps(minInstantTime, HoodieTimeline.LESSER_THAN_OR_EQUALS, this.endTs);
+    }
+  }
+
+  /**
+   * Filter of the archived records of a single instant time.
+   */
+  private static class InstantTimeFilter extends TimeRangeFilter {
+
+    public InstantTimeFilter(String instantTime) {
+      super(instantTime, instantTime);
+    }
+
+    @Override
+    public boolean isInRange(HoodieInstant instant) {
+      return instant.getTimestamp().equals(this.startTs);
+    }
+
+    @Override
+    public boolean overlaps(String minInstantTime, String maxInstantTime) {
+      return HoodieTimeline.compareTimestamps(minInstantTime, HoodieTimeline.LESSER_THAN_OR_EQUALS, this.startTs)
+          && HoodieTimeline.compareTimestamps(maxInstantTime, HoodieTimeline.GREATER_THAN_OR_EQUALS, this.startTs);
+    }
   }
 
   /**
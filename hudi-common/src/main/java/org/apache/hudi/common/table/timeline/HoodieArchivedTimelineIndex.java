@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.table.timeline;
+
+import org.apache.hudi.avro.model.HoodieArchivedMetaEntry;
+import org.apache.hudi.common.model.HoodieLogFile;
+import org.apache.hudi.common.model.HoodiePartitionMetadata;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.table.log.HoodieLogFileReader;
+import org.apache.hudi.common.table.log.block.HoodieAvroDataBlock;
+import org.apache.hudi.common.table.log.block.HoodieCorruptBlock;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock.HoodieLogBlockContentLocation;
+import org.apache.hudi.common.util.FileIOUtils;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.exception.HoodieIOException;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the archived timeline, kept next to the archive log files by the archiver. For every archive log file it
+ * records the offset and the instant time range of each block, so that readers can seek to the blocks of a time range
+ * or of an instant instead of scanning all the archive log files.
+ * <p>
+ * The index of an archive log file is only used while the file has the indexed length, files appended to after the
+ * index was written are scanned as before. The archive log files replaced by a merge of archive log files are listed
+ * until they are deleted, so that readers skip them.
+ */
+public class HoodieArchivedTimelineIndex implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private static final Logger LOG = LogManager.getLogger(HoodieArchivedTimelineIndex.class);
+
+  public static final String ARCHIVE_FILE_GLOB_PATTERN = ".commits_.archive*";
+  private static final String INDEX_FILE_NAME = ".commits_.index";
+
+  // archive log file name -> indexed blocks of the file
+  private Map<String, ArchiveFileEntry> files = new HashMap<>();
+  private Set<String> replacedFiles = new HashSet<>();
+
+  public static Path getIndexPath(String archiveFolder) {
+    return new Path(archiveFolder, INDEX_FILE_NAME);
+  }
+
+  /**
+   * Lists the archive log files of the table, sorted from the latest to the oldest.
+   */
+  public static FileStatus[] listArchiveFiles(HoodieTableMetaClient metaClient) throws IOException {
+    FileStatus[] fsStatuses = metaClient.getFs().globStatus(
+        new Path(metaClient.getArchivePath(), ARCHIVE_FILE_GLOB_PATTERN));
+    if (fsStatuses == null) {
+      return new FileStatus[0];
+    }
+    Arrays.sort(fsStatuses, new HoodieArchivedTimeline.ArchiveFileVersionComparator());
+    return fsStatuses;
+  }
+
+  /**
+   * Loads the index of the archived timeline. Returns empty if there is no index, or if the index is not usable for the
+   * given archive log files, i.e. it can not be read or some indexed file does not exist any more.
+   */
+  public static Option<HoodieArchivedTimelineIndex> load(HoodieTableMetaClient metaClient, FileStatus[] archiveFiles) {
+    Option<HoodieArchivedTimelineIndex> index = read(metaClient);
+    Set<String> fileNames = Arrays.stream(archiveFiles).map(f -> f.getPath().getName()).collect(Collectors.toSet());
+    if (index.isPresent() && !fileNames.containsAll(index.get().files.keySet())) {
+      LOG.warn("Archived timeline index of " + metaClient.getArchivePath() + " refers to missing archive files, ignoring it");
+      return Option.empty();
+    }
+    return index;
+  }
+
+  private static Option<HoodieArchivedTimelineIndex> read(HoodieTableMetaClient metaClient) {
+    Path indexPath = getIndexPath(metaClient.getArchivePath());
+    try (FSDataInputStream is = metaClient.getFs().open(indexPath)) {
+      return Option.of(getObjectMapper().readValue(FileIOUtils.readAsUTFString(is), HoodieArchivedTimelineIndex.class));
+    } catch (FileNotFoundException e) {
+      return Option.empty();
+    } catch (IOException e) {
+      // the index is rewritten by the next archiving, read the archive log files without it till then
+      LOG.warn("Failed to read the archived timeline index " + indexPath + ", ignoring it", e);
+      return Option.empty();
+    }
+  }
+
+  /**
+   * Brings the index up to date with the archive log files of the table and saves it: indexes the blocks appended
+   * since the index was written, drops the files which do not exist any more and deletes the leftovers of the
+   * replaced files. Only the archiver should call this.
+   */
+  public static HoodieArchivedTimelineIndex sync(HoodieTableMetaClient metaClient) throws IOException {
+    FileSystem fs = metaClient.getFs();
+    HoodieArchivedTimelineIndex index = read(metaClient).orElse(new HoodieArchivedTimelineIndex());
+
+    FileStatus[] archiveFiles = listArchiveFiles(metaClient);
+    Set<String> fileNames = Arrays.stream(archiveFiles).map(f -> f.getPath().getName()).collect(Collectors.toSet());
+    // the replaced files are only deleted once the file they were merged into is in place,
+    // otherwise the merge did not complete and they are still the live archive files
+    if (fileNames.containsAll(index.files.keySet())) {
+      for (String replacedFile : index.replacedFiles) {
+        Path replacedPath = new Path(metaClient.getArchivePath(), replacedFile);
+        if (fs.exists(replacedPath) && !fs.delete(replacedPath, false)) {
+          throw new HoodieIOException("Failed to delete replaced archive file " + replacedPath);
+        }
+      }
+      archiveFiles = Arrays.stream(archiveFiles).filter(f -> !index.isReplaced(f)).toArray(FileStatus[]::new);
+    }
+    index.replacedFiles.clear();
+
+    Map<String, ArchiveFileEntry> indexedFiles = new HashMap<>();
+    for (FileStatus archiveFile : archiveFiles) {
+      ArchiveFileEntry entry = index.files.get(archiveFile.getPath().getName());
+      if (entry == null || entry.length > archiveFile.getLen()) {
+        entry = new ArchiveFileEntry();
+      }
+      if (entry.length < archiveFile.getLen()) {
+        indexBlocks(fs, archiveFile, entry);
+      }
+      indexedFiles.put(archiveFile.getPath().getName(), entry);
+    }
+    index.files = indexedFiles;
+    index.save(metaClient);
+    return index;
+  }
+
+  /**
+   * Indexes all the blocks of a new archive log file.
+   */
+  public static ArchiveFileEntry indexFile(FileSystem fs, FileStatus archiveFile) throws IOException {
+    ArchiveFileEntry entry = new ArchiveFileEntry();
+    indexBlocks(fs, archiveFile, entry);
+    return entry;
+  }
+
+  private static void indexBlocks(FileSystem fs, FileStatus archiveFile, ArchiveFileEntry entry) throws IOException {
+    try (HoodieLogFileReader reader = new HoodieLogFileReader(fs, new HoodieLogFile(archiveFile.getPath()),
+        HoodieArchivedMetaEntry.getClassSchema(), true, false)) {
+      long position = entry.length;
+      reader.seek(position);
+      while (reader.hasNext()) {
+        HoodieLogBlock block = reader.next();
+        if (block instanceof HoodieAvroDataBlock) {
+          String minInstantTime = block.getLogBlockHeader().get(HeaderMetadataType.MIN_INSTANT_TIME);
+          String maxInstantTime = block.getLogBlockHeader().get(HeaderMetadataType.MAX_INSTANT_TIME);
+          if (minInstantTime == null || maxInstantTime == null) {
+            // blocks written by older versions do not carry their time range
+            List<String> instantTimes = ((HoodieAvroDataBlock) block).getRecords().stream()
+                .map(r -> ((GenericRecord) r).get(HoodiePartitionMetadata.COMMIT_TIME_KEY).toString())
+                .sorted().collect(Collectors.toList());
+            if (!instantTimes.isEmpty()) {
+              minInstantTime = instantTimes.get(0);
+              maxInstantTime = instantTimes.get(instantTimes.size() - 1);
+            }
+          }
+          if (minInstantTime != null) {
+            entry.blocks.add(new BlockEntry(position, minInstantTime, maxInstantTime));
+          }
+        }
+        HoodieLogBlockContentLocation location = block.getBlockContentLocation().get();
+        // corrupted blocks end with their content
+        position = block instanceof HoodieCorruptBlock
+            ? location.getContentPositionInLogFile() + location.getBlockSize() : location.getBlockEndPos();
+      }
+    }
+    entry.length = archiveFile.getLen();
+  }
+
+  /**
+   * Returns the indexed blocks of the archive log file, if the whole file is indexed.
+   */
+  public Option<List<BlockEntry>> getBlocks(FileStatus archiveFile) {
+    ArchiveFileEntry entry = files.get(archiveFile.getPath().getName());
+    return entry != null && entry.length == archiveFile.getLen() ? Option.of(entry.blocks) : Option.empty();
+  }
+
+  public boolean isReplaced(FileStatus archiveFile) {
+    return replacedFiles.contains(archiveFile.getPath().getName());
+  }
+
+  /**
+   * Replaces the given archive log files with the file they were merged into. The replaced files are skipped by the
+   * readers from now on, so the merged file should be in place before the replaced files are deleted.
+   */
+  public void replaceFiles(List<String> fileNames, String mergedFileName, ArchiveFileEntry mergedFileEntry) {
+    fileNames.forEach(files::remove);
+    replacedFiles.addAll(fileNames);
+    files.put(mergedFileName, mergedFileEntry);
+  }
+
+  public void save(HoodieTableMetaClient metaClient) throws IOException {
+    Path indexPath = getIndexPath(metaClient.getArchivePath());
+    try (FSDataOutputStream os = metaClient.getFs().create(indexPath, true)) {
+      os.write(getObjectMapper().writeValueAsString(this).getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static ObjectMapper getObjectMapper() {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+    return mapper;
+  }
+
+  /**
+   * Indexed blocks of an archive log file, up to the indexed length of the file.
+   */
+  public static class ArchiveFileEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long length;
+    private List<BlockEntry> blocks = new ArrayList<>();
+
+    public List<BlockEntry> getBlocks() {
+      return blocks;
+    }
+  }
+
+  /**
+   * Offset and instant time range of an archive block.
+   */
+  public static class BlockEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long offset;
+    private String minInstantTime;
+    private String maxInstantTime;
+
+    // for deserialization
+    private BlockEntry() {
+    }
+
+    BlockEntry(long offset, String minInstantTime, String maxInstantTime) {
+      this.offset = offset;
+      this.minInstantTime = minInstantTime;
+      this.maxInstantTime = maxInstantTime;
+    }
+
+    public long getOffset() {
+      return offset;
+    }
+
+    public String getMinInstantTime() {
+      return minInstantTime;
+    }
+
+    public String getMaxInstantTime() {
+      return maxInstantTime;
+    }
+  }
+}
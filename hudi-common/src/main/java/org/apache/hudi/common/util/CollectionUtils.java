@@ -20,6 +20,7 @@ package org.apache.hudi.common.util;
 
 import org.apache.hudi.common.util.collection.Pair;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -94,6 +95,19 @@ public class CollectionUtils {
     return Collections.unmodifiableList(list);
   }
 
+  /**
+   * Splits the list into consecutive sub lists of {@code batchSize} elements, the last one possibly smaller.
+   * The sub lists are views of the given list.
+   */
+  public static <T> List<List<T>> batches(final List<T> list, int batchSize) {
+    ValidationUtils.checkArgument(batchSize > 0, "Batch size should be positive");
+    List<List<T>> batches = new ArrayList<>();
+    for (int start = 0; start < list.size(); start += batchSize) {
+      batches.add(list.subList(start, Math.min(start + batchSize, list.size())));
+    }
+    return batches;
+  }
+
   private static Object[] checkElementsNotNull(Object... array) {
     return checkElementsNotNull(array, array.length);
   }
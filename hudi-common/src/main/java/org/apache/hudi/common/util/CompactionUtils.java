@@ -23,7 +23,9 @@ import org.apache.hudi.avro.model.HoodieCompactionPlan;
 import org.apache.hudi.common.model.BaseFile;
 import org.apache.hudi.common.model.CompactionOperation;
 import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.common.model.HoodieCommitMetadata;
 import org.apache.hudi.common.model.HoodieFileGroupId;
+import org.apache.hudi.common.model.WriteOperationType;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
@@ -33,14 +35,17 @@ import org.apache.hudi.common.table.timeline.versioning.compaction.CompactionV1M
 import org.apache.hudi.common.table.timeline.versioning.compaction.CompactionV2MigrationHandler;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.exception.HoodieException;
+import org.apache.hudi.exception.HoodieIOException;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -201,4 +206,34 @@ public class CompactionUtils {
   public static List<HoodieInstant> getPendingCompactionInstantTimes(HoodieTableMetaClient metaClient) {
     return metaClient.getActiveTimeline().filterPendingCompactionTimeline().getInstants().collect(Collectors.toList());
   }
+
+  /**
+   * Returns the names of the log files replaced by the log compactions among the completed delta commits of the
+   * given timeline, per file group. The replaced log files are left in place for the cleaner.
+   *
+   * @param timeline Timeline holding the delta commits to look at
+   */
+  public static Map<HoodieFileGroupId, Set<String>> getLogFilesReplacedByLogCompaction(HoodieTimeline timeline) {
+    Map<HoodieFileGroupId, Set<String>> fgIdToReplacedLogFiles = new HashMap<>();
+    timeline.filterCompletedInstants().getInstants()
+        .filter(instant -> HoodieTimeline.DELTA_COMMIT_ACTION.equals(instant.getAction()))
+        .forEach(instant -> {
+          HoodieCommitMetadata commitMetadata;
+          try {
+            commitMetadata = HoodieCommitMetadata.fromBytes(timeline.getInstantDetails(instant).get(),
+                HoodieCommitMetadata.class);
+          } catch (IOException e) {
+            throw new HoodieIOException("Failed to read the commit metadata of " + instant, e);
+          }
+          if (commitMetadata.getOperationType() != WriteOperationType.LOG_COMPACT) {
+            return;
+          }
+          commitMetadata.getPartitionToWriteStats().forEach((partitionPath, writeStats) -> writeStats.stream()
+              .filter(writeStat -> writeStat.getReplacedLogFiles() != null)
+              .forEach(writeStat -> fgIdToReplacedLogFiles
+                  .computeIfAbsent(new HoodieFileGroupId(partitionPath, writeStat.getFileId()), fgId -> new HashSet<>())
+                  .addAll(writeStat.getReplacedLogFiles())));
+        });
+    return fgIdToReplacedLogFiles;
+  }
 }
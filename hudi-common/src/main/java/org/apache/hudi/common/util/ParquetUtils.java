@@ -26,6 +26,7 @@ import org.apache.hudi.common.bloom.BloomFilterTypeCode;
 import org.apache.hudi.common.fs.FSUtils;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.util.collection.CompactStringArray;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.exception.HoodieIOException;
 import org.apache.hudi.exception.MetadataNotFoundException;
@@ -37,20 +38,37 @@ import org.apache.hadoop.fs.Path;
 import org.apache.parquet.avro.AvroParquetReader;
 import org.apache.parquet.avro.AvroReadSupport;
 import org.apache.parquet.avro.AvroSchemaConverter;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.Statistics;
+import org.apache.parquet.filter2.predicate.UserDefinedPredicate;
 import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.PrimitiveComparator;
 import org.apache.parquet.schema.MessageType;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Utility functions involving with parquet.
@@ -84,6 +102,11 @@ public class ParquetUtils {
   /**
    * Read the rowKey list matching the given filter, from the given parquet file. If the filter is empty, then this will
    * return all the rowkeys.
+   * <p>
+   * A non-empty filter is pushed down to the reader: row groups whose min/max record key statistics do not cover
+   * any of the candidate keys are skipped without being read, and the remaining keys are matched by a merge-join
+   * against the sorted candidates. Files written sorted by record key therefore only read the row groups that
+   * may contain candidates.
    *
    * @param filePath      The parquet file path.
    * @param configuration configuration to build fs object
@@ -101,8 +124,13 @@ public class ParquetUtils {
     conf.addResource(FSUtils.getFs(filePath.toString(), conf).getConf());
     AvroReadSupport.setAvroReadSchema(conf, readSchema);
     AvroReadSupport.setRequestedProjection(conf, readSchema);
+    ParquetReader.Builder<Object> builder = AvroParquetReader.builder(filePath).withConf(conf);
+    if (filterFunction.isPresent()) {
+      builder.withFilter(FilterCompat.get(FilterApi.userDefined(
+          FilterApi.binaryColumn(HoodieRecord.RECORD_KEY_METADATA_FIELD), new RecordKeysCandidatePredicate(filter))));
+    }
     Set<String> rowKeys = new HashSet<>();
-    try (ParquetReader reader = AvroParquetReader.builder(filePath).withConf(conf).build()) {
+    try (ParquetReader reader = builder.build()) {
       Object obj = reader.read();
       while (obj != null) {
         if (obj instanceof GenericRecord) {
@@ -121,6 +149,99 @@ public class ParquetUtils {
     return rowKeys;
   }
 
+  /**
+   * Read the record keys of the given parquet file, decoding the record key column on its own, a row group at a time,
+   * without assembling records. This avoids the cost of the record readers when only the keys are needed.
+   *
+   * @param configuration configuration to build fs object
+   * @param filePath      The parquet file path.
+   * @return the record keys, in the order of the file
+   */
+  public static CompactStringArray readRecordKeyColumn(Configuration configuration, Path filePath) {
+    CompactStringArray recordKeys = new CompactStringArray();
+    scanRecordKeyColumn(configuration, filePath, recordKey -> {
+      byte[] key = recordKey.getBytesUnsafe();
+      recordKeys.add(key, 0, key.length);
+      return true;
+    });
+    return recordKeys;
+  }
+
+  /**
+   * Checks whether the records of the given parquet file are sorted by record key, reading the record key column only.
+   *
+   * @param configuration configuration to build fs object
+   * @param filePath      The parquet file path.
+   * @return true if every record key is greater than or equal to the previous one
+   */
+  public static boolean isSortedByRecordKey(Configuration configuration, Path filePath) {
+    String[] previousKey = new String[1];
+    return scanRecordKeyColumn(configuration, filePath, recordKey -> {
+      String key = recordKey.toStringUsingUTF8();
+      if (previousKey[0] != null && previousKey[0].compareTo(key) > 0) {
+        return false;
+      }
+      previousKey[0] = key;
+      return true;
+    });
+  }
+
+  /**
+   * Decodes the record key column of the parquet file a row group at a time, passing each key to the visitor until it
+   * returns false.
+   *
+   * @return false if the visitor stopped the scan
+   */
+  private static boolean scanRecordKeyColumn(Configuration configuration, Path filePath, Predicate<Binary> visitor) {
+    Configuration conf = new Configuration(configuration);
+    conf.addResource(FSUtils.getFs(filePath.toString(), conf).getConf());
+    try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(filePath, conf))) {
+      MessageType fileSchema = reader.getFooter().getFileMetaData().getSchema();
+      MessageType keySchema = new MessageType(fileSchema.getName(), fileSchema.getType(HoodieRecord.RECORD_KEY_METADATA_FIELD));
+      ColumnDescriptor keyColumn = keySchema.getColumnDescription(new String[] {HoodieRecord.RECORD_KEY_METADATA_FIELD});
+      reader.setRequestedSchema(keySchema);
+
+      String createdBy = reader.getFooter().getFileMetaData().getCreatedBy();
+      PageReadStore rowGroup;
+      while ((rowGroup = reader.readNextRowGroup()) != null) {
+        ColumnReader keyReader = new ColumnReadStoreImpl(rowGroup, new KeyColumnConverter(), keySchema, createdBy)
+            .getColumnReader(keyColumn);
+        int maxDefinitionLevel = keyColumn.getMaxDefinitionLevel();
+        for (long i = 0, n = keyReader.getTotalValueCount(); i < n; i++) {
+          if (keyReader.getCurrentDefinitionLevel() == maxDefinitionLevel && !visitor.test(keyReader.getBinary())) {
+            return false;
+          }
+          keyReader.consume();
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to read record keys from Parquet " + filePath, e);
+    }
+  }
+
+  /**
+   * Converter required to read the record key column directly, values are read from the column reader.
+   */
+  private static class KeyColumnConverter extends GroupConverter {
+
+    private final PrimitiveConverter keyConverter = new PrimitiveConverter() {
+    };
+
+    @Override
+    public Converter getConverter(int fieldIndex) {
+      return keyConverter;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void end() {
+    }
+  }
+
   /**
    * Fetch {@link HoodieKey}s from the given parquet file.
    *
@@ -278,6 +399,75 @@ public class ParquetUtils {
     return rowCount;
   }
 
+  /**
+   * Pushes a set of candidate record keys down to the parquet reader.
+   * <p>
+   * Row groups are dropped by a binary search of their key range among the sorted candidates. Keys are matched
+   * with a galloping cursor over the candidates, so a file sorted by record key is merge-joined against them in a
+   * single pass; when the keys of the file go backwards the cursor falls back to a binary search.
+   */
+  static class RecordKeysCandidatePredicate extends UserDefinedPredicate<Binary> implements Serializable {
+
+    private static final Comparator<Binary> COMPARATOR = PrimitiveComparator.UNSIGNED_LEXICOGRAPHICAL_BINARY_COMPARATOR;
+
+    private final Binary[] candidateKeys;
+    // all the candidates before the cursor are smaller than the last matched key
+    private int cursor = 0;
+
+    RecordKeysCandidatePredicate(Set<String> candidateKeys) {
+      this.candidateKeys = candidateKeys.stream().map(Binary::fromString).sorted(COMPARATOR).toArray(Binary[]::new);
+    }
+
+    @Override
+    public boolean keep(Binary recordKey) {
+      if (recordKey == null) {
+        return false;
+      }
+      int from = cursor;
+      if (from > 0 && COMPARATOR.compare(candidateKeys[from - 1], recordKey) >= 0) {
+        // the keys are not sorted, restart from the first candidate
+        from = 0;
+      }
+      // gallop to the range holding the first candidate not smaller than the key, then binary search it
+      int step = 1;
+      while (from + step - 1 < candidateKeys.length && COMPARATOR.compare(candidateKeys[from + step - 1], recordKey) < 0) {
+        from += step;
+        step <<= 1;
+      }
+      cursor = lowerBound(recordKey, from, Math.min(from + step, candidateKeys.length));
+      return cursor < candidateKeys.length && COMPARATOR.compare(candidateKeys[cursor], recordKey) == 0;
+    }
+
+    @Override
+    public boolean canDrop(Statistics<Binary> statistics) {
+      int first = lowerBound(statistics.getMin(), 0, candidateKeys.length);
+      return first == candidateKeys.length || COMPARATOR.compare(candidateKeys[first], statistics.getMax()) > 0;
+    }
+
+    @Override
+    public boolean inverseCanDrop(Statistics<Binary> statistics) {
+      // a row group can only be dropped for the negation if all of its keys are candidates
+      return false;
+    }
+
+    /**
+     * Returns the index of the first candidate in [from, to) not smaller than the key, or {@code to}.
+     */
+    private int lowerBound(Binary key, int from, int to) {
+      int low = from;
+      int high = to;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (COMPARATOR.compare(candidateKeys[mid], key) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
   static class RecordKeysFilterFunction implements Function<String, Boolean> {
 
     private final Set<String> candidateKeys;
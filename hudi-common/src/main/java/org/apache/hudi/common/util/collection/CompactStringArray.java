@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An append only array of strings, stored as their UTF-8 bytes in a single buffer with an offset per string.
+ * <p>
+ * Holds many short strings, e.g. the record keys of a file, in two arrays instead of a {@link String} object with
+ * its own char array each. The strings are decoded on access.
+ */
+public class CompactStringArray implements Iterable<String>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private byte[] bytes;
+  // offsets[i] is the start of the i-th string, offsets[size] the end of the last one
+  private int[] offsets;
+  private int size;
+
+  public CompactStringArray() {
+    this(16, 16 * 32);
+  }
+
+  public CompactStringArray(int expectedSize, int expectedBytes) {
+    this.bytes = new byte[Math.max(expectedBytes, 16)];
+    this.offsets = new int[Math.max(expectedSize, 1) + 1];
+    this.size = 0;
+  }
+
+  /**
+   * Appends the UTF-8 encoded string held in the given range of the buffer.
+   */
+  public void add(byte[] buffer, int offset, int length) {
+    int end = offsets[size];
+    if (end + length > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, end + length));
+    }
+    if (size + 2 > offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    }
+    System.arraycopy(buffer, offset, bytes, end, length);
+    offsets[++size] = end + length;
+  }
+
+  public void add(String value) {
+    byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+    add(encoded, 0, encoded.length);
+  }
+
+  public String get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    return new String(bytes, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return get(next++);
+      }
+    };
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.common.util.SizeEstimator;
+import org.apache.hudi.exception.HoodieIOException;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts more values than fit in memory: the values are buffered in memory up to the given size, and every full buffer
+ * is sorted and spilled to disk as a {@link SequentialSpillFile}. The sorted values are then read back merging the
+ * spilled runs with the last buffer.
+ * <p>
+ * The sort is stable, equal values are returned in the order they were added.
+ */
+public class ExternalSorter<T> implements Closeable {
+
+  private static final Logger LOG = LogManager.getLogger(ExternalSorter.class);
+
+  // Re-estimate the size of the values every so many values added
+  private static final int NUMBER_OF_VALUES_TO_ESTIMATE_SIZE = 100;
+
+  private final long maxInMemorySizeInBytes;
+  private final String spillBasePath;
+  private final Comparator<T> comparator;
+  private final SizeEstimator<T> sizeEstimator;
+  private final List<T> buffer = new ArrayList<>();
+  private final List<SequentialSpillFile<T>> spilledRuns = new ArrayList<>();
+  private long estimatedValueSize = 0;
+  private long numValues = 0;
+
+  public ExternalSorter(long maxInMemorySizeInBytes, String spillBasePath, Comparator<T> comparator,
+                        SizeEstimator<T> sizeEstimator) {
+    this.maxInMemorySizeInBytes = maxInMemorySizeInBytes;
+    this.spillBasePath = spillBasePath;
+    this.comparator = comparator;
+    this.sizeEstimator = sizeEstimator;
+  }
+
+  public void add(T value) {
+    if (numValues % NUMBER_OF_VALUES_TO_ESTIMATE_SIZE == 0) {
+      long valueSize = sizeEstimator.sizeEstimate(value);
+      estimatedValueSize = numValues == 0 ? valueSize : (long) (0.9 * estimatedValueSize + 0.1 * valueSize);
+    }
+    numValues++;
+    buffer.add(value);
+    if (buffer.size() * estimatedValueSize >= maxInMemorySizeInBytes) {
+      spill();
+    }
+  }
+
+  private void spill() {
+    buffer.sort(comparator);
+    try {
+      SequentialSpillFile<T> run = new SequentialSpillFile<>(spillBasePath);
+      spilledRuns.add(run);
+      buffer.forEach(run::append);
+      LOG.info("Spilled sorted run " + spilledRuns.size() + " of " + buffer.size() + " values, "
+          + run.getSizeInBytes() + " bytes");
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to spill sorted values to " + spillBasePath, e);
+    }
+    buffer.clear();
+  }
+
+  public long size() {
+    return numValues;
+  }
+
+  public int getNumSpilledRuns() {
+    return spilledRuns.size();
+  }
+
+  /**
+   * Returns all the values added, sorted. No more values may be added afterwards.
+   */
+  public Iterator<T> sortedIterator() {
+    buffer.sort(comparator);
+    if (spilledRuns.isEmpty()) {
+      return buffer.iterator();
+    }
+    List<Iterator<T>> runs = new ArrayList<>();
+    spilledRuns.forEach(run -> runs.add(run.iterator()));
+    // the values in memory were added last
+    runs.add(buffer.iterator());
+    return new MergingIterator<>(runs, comparator);
+  }
+
+  @Override
+  public void close() {
+    spilledRuns.forEach(SequentialSpillFile::close);
+    spilledRuns.clear();
+    buffer.clear();
+  }
+
+  /**
+   * Merges sorted iterators, taking equal values from the earlier iterators first.
+   */
+  private static class MergingIterator<T> implements Iterator<T> {
+
+    private final List<Iterator<T>> runs;
+    private final PriorityQueue<Pair<T, Integer>> heads;
+
+    MergingIterator(List<Iterator<T>> runs, Comparator<T> comparator) {
+      this.runs = runs;
+      Comparator<Pair<T, Integer>> byValue = (left, right) -> comparator.compare(left.getLeft(), right.getLeft());
+      this.heads = new PriorityQueue<>(Math.max(runs.size(), 1), byValue.thenComparing(Pair::getRight));
+      for (int i = 0; i < runs.size(); i++) {
+        advance(i);
+      }
+    }
+
+    private void advance(int run) {
+      if (runs.get(run).hasNext()) {
+        heads.add(Pair.of(runs.get(run).next(), run));
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+      if (heads.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      Pair<T, Integer> head = heads.poll();
+      advance(head.getRight());
+      return head.getLeft();
+    }
+  }
+}
@@ -223,6 +223,9 @@ public class ExternalSpillableMap<T extends Serializable, R extends Serializable
     inMemoryMap.clear();
     getDiskBasedMap().clear();
     currentInMemoryMapSize = 0L;
+    // the map may be refilled with different payloads, estimate their size afresh
+    estimatedPayloadSize = 0;
+    shouldEstimatePayloadSize = true;
   }
 
   public void close() {
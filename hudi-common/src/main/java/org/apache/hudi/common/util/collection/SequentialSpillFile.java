@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.common.util.SerializationUtils;
+import org.apache.hudi.exception.HoodieIOException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * An append only file of serialized objects on local disk, read back sequentially in the order they were appended.
+ * <p>
+ * Unlike the {@link DiskBasedMap}, the spilled objects are never looked up at random, so reading them back only costs
+ * sequential reads. The file is deleted when closed.
+ */
+public final class SequentialSpillFile<T> implements Iterable<T>, Closeable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final File file;
+  private DataOutputStream output;
+  private DataInputStream input;
+  private long numEntries;
+  private long sizeInBytes;
+
+  public SequentialSpillFile(String baseFilePath) throws IOException {
+    File baseDir = new File(baseFilePath);
+    if (!baseDir.exists() && !baseDir.mkdirs() && !baseDir.exists()) {
+      throw new IOException("Failed to create spill directory " + baseFilePath);
+    }
+    this.file = new File(baseDir, "spill-" + UUID.randomUUID());
+    this.file.deleteOnExit();
+    this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+  }
+
+  /**
+   * Appends the object to the file, it is no longer possible once the file is being read.
+   */
+  public void append(T value) {
+    if (output == null) {
+      throw new IllegalStateException("Spill file " + file + " is already being read");
+    }
+    try {
+      byte[] bytes = SerializationUtils.serialize(value);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+      numEntries++;
+      sizeInBytes += Integer.BYTES + bytes.length;
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to append to spill file " + file, e);
+    }
+  }
+
+  public long size() {
+    return numEntries;
+  }
+
+  public long getSizeInBytes() {
+    return sizeInBytes;
+  }
+
+  /**
+   * Reads the appended objects back in order. The file can only be read once.
+   */
+  @Override
+  public Iterator<T> iterator() {
+    try {
+      if (input != null) {
+        throw new IllegalStateException("Spill file " + file + " is already being read");
+      }
+      closeOutput();
+      input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to open spill file " + file, e);
+    }
+    return new Iterator<T>() {
+      private long numRead = 0;
+
+      @Override
+      public boolean hasNext() {
+        return numRead < numEntries;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        try {
+          byte[] bytes = new byte[input.readInt()];
+          input.readFully(bytes);
+          numRead++;
+          return SerializationUtils.deserialize(bytes);
+        } catch (IOException e) {
+          throw new HoodieIOException("Failed to read from spill file " + file, e);
+        }
+      }
+    };
+  }
+
+  private void closeOutput() throws IOException {
+    if (output != null) {
+      output.close();
+      output = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      closeOutput();
+      if (input != null) {
+        input.close();
+      }
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to close spill file " + file, e);
+    } finally {
+      file.delete();
+    }
+  }
+}
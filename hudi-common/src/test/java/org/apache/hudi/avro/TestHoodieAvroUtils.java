@@ -24,17 +24,23 @@ import org.apache.hudi.exception.SchemaCompatibilityException;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
 import org.codehaus.jackson.node.NullNode;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -237,4 +243,74 @@ public class TestHoodieAvroUtils {
     }
   }
 
+  @Test
+  public void testBytesToAvroWithRecordReuse() throws IOException {
+    Schema schema = new Schema.Parser().parse(EXAMPLE_SCHEMA);
+    Schema keySchema = new Schema.Parser().parse("{\"type\": \"record\",\"name\": \"testrec\",\"fields\": [ "
+        + "{\"name\": \"_row_key\", \"type\": \"string\"}]}");
+    GenericRecord rec1 = new GenericData.Record(schema);
+    rec1.put("timestamp", 1.0);
+    rec1.put("_row_key", "key1");
+    rec1.put("non_pii_col", "val1");
+    rec1.put("pii_col", "val2");
+    GenericRecord rec2 = new GenericData.Record(schema);
+    rec2.put("timestamp", 2.0);
+    rec2.put("_row_key", "key2");
+    rec2.put("non_pii_col", "val3");
+    rec2.put("pii_col", "val4");
+    byte[] bytes1 = HoodieAvroUtils.avroToBytes(rec1);
+    byte[] bytes2 = HoodieAvroUtils.avroToBytes(rec2);
+
+    // without reuse every call materializes its own record
+    GenericRecord decoded1 = HoodieAvroUtils.bytesToAvro(bytes1, schema);
+    GenericRecord decoded2 = HoodieAvroUtils.bytesToAvro(bytes2, schema);
+    assertNotSame(decoded1, decoded2);
+    assertEquals("key1", decoded1.get("_row_key").toString());
+    assertEquals("key2", decoded2.get("_row_key").toString());
+
+    // with reuse the record of the previous call is decoded into
+    GenericRecord reused1 = HoodieAvroUtils.bytesToAvro(bytes1, schema, schema, true);
+    assertEquals("key1", reused1.get("_row_key").toString());
+    GenericRecord reused2 = HoodieAvroUtils.bytesToAvro(bytes2, schema, schema, true);
+    assertSame(reused1, reused2);
+    assertEquals("key2", reused2.get("_row_key").toString());
+    assertEquals(2.0, reused2.get("timestamp"));
+
+    // records are reused per reader schema
+    GenericRecord projected = HoodieAvroUtils.bytesToAvro(bytes1, schema, keySchema, true);
+    assertNotSame(reused2, projected);
+    assertEquals("key1", projected.get("_row_key").toString());
+    assertEquals("key2", reused2.get("_row_key").toString());
+  }
+
+  @Test
+  public void testCachedDatumReaderDecodesLikeNewReader() throws IOException {
+    Schema schema = new Schema.Parser().parse(EXAMPLE_SCHEMA);
+    List<byte[]> serialized = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      GenericRecord rec = new GenericData.Record(schema);
+      rec.put("timestamp", (double) i);
+      rec.put("_row_key", "key" + i);
+      rec.put("non_pii_col", "val" + i);
+      rec.put("pii_col", i % 2 == 0 ? "" : "pii" + i);
+      serialized.add(HoodieAvroUtils.avroToBytes(rec));
+    }
+
+    // the per thread cached reader, with or without a reused record, decodes like a reader created for every record
+    GenericRecord reused = null;
+    for (byte[] bytes : serialized) {
+      GenericRecord expected = new GenericDatumReader<GenericRecord>(schema, schema)
+          .read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+      assertEquals(expected, HoodieAvroUtils.bytesToAvro(bytes, schema));
+      GenericRecord decoded = HoodieAvroUtils.bytesToAvro(bytes, schema, schema, true);
+      assertEquals(expected, decoded);
+      if (reused != null) {
+        assertSame(reused, decoded);
+      }
+      reused = decoded;
+      // the reused output buffer of the writer encodes the record back to the same bytes
+      assertArrayEquals(bytes, HoodieAvroUtils.avroToBytes(decoded));
+    }
+  }
+
 }
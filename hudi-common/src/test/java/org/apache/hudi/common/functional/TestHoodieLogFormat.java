@@ -65,6 +65,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -725,6 +726,93 @@ public class TestHoodieLogFormat extends HoodieCommonTestHarness {
     assertEquals(originalKeys, readKeys, "CompositeAvroLogReader should return 200 records from 2 versions");
   }
 
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testAvroLogRecordReaderWithCompactedBlock(boolean readBlocksLazily)
+      throws IOException, URISyntaxException, InterruptedException {
+    Schema schema = HoodieAvroUtils.addMetadataFields(getSimpleSchema());
+    Writer writer =
+        HoodieLogFormat.newWriterBuilder().onParentPath(partitionPath).withFileExtension(HoodieLogFile.DELTA_EXTENSION)
+            .withFileId("test-fileid1").overBaseCommit("100").withFs(fs).build();
+
+    // Write 1
+    List<IndexedRecord> records1 = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    List<IndexedRecord> copyOfRecords1 = records1.stream()
+        .map(record -> HoodieAvroUtils.rewriteRecord((GenericRecord) record, schema)).collect(Collectors.toList());
+    Map<HoodieLogBlock.HeaderMetadataType, String> header = new HashMap<>();
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "100");
+    header.put(HoodieLogBlock.HeaderMetadataType.SCHEMA, schema.toString());
+    writer.appendBlock(getDataBlock(records1, header));
+
+    // Write 2
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "101");
+    writer.appendBlock(getDataBlock(SchemaTestUtil.generateHoodieTestRecords(0, 100), header));
+    writer.close();
+
+    // Compacted block for writes 1 and 2 in a new log file, holding only half of the records of write 1
+    writer = HoodieLogFormat.newWriterBuilder().onParentPath(partitionPath).withFileExtension(HoodieLogFile.DELTA_EXTENSION)
+        .withFileId("test-fileid1").overBaseCommit("100").withLogVersion(writer.getLogFile().getLogVersion() + 1)
+        .withFs(fs).build();
+    List<IndexedRecord> compactedRecords = new ArrayList<>(copyOfRecords1.subList(0, 50));
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "102");
+    header.put(HoodieLogBlock.HeaderMetadataType.COMPACTED_BLOCK_TIMES, "100,101");
+    writer.appendBlock(getDataBlock(new ArrayList<>(compactedRecords), header));
+
+    // Write 3
+    header.remove(HoodieLogBlock.HeaderMetadataType.COMPACTED_BLOCK_TIMES);
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "103");
+    List<IndexedRecord> records3 = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    List<IndexedRecord> copyOfRecords3 = records3.stream()
+        .map(record -> HoodieAvroUtils.rewriteRecord((GenericRecord) record, schema)).collect(Collectors.toList());
+    writer.appendBlock(getDataBlock(records3, header));
+    writer.close();
+
+    List<String> allLogFiles =
+        FSUtils.getAllLogFiles(fs, partitionPath, "test-fileid1", HoodieLogFile.DELTA_EXTENSION, "100")
+            .map(s -> s.getPath().toString()).collect(Collectors.toList());
+    assertEquals(2, allLogFiles.size());
+
+    FileCreateUtils.createDeltaCommit(basePath, "100", fs);
+    FileCreateUtils.createDeltaCommit(basePath, "101", fs);
+    FileCreateUtils.createDeltaCommit(basePath, "102", fs);
+    FileCreateUtils.createDeltaCommit(basePath, "103", fs);
+    HoodieMergedLogRecordScanner scanner = HoodieMergedLogRecordScanner.newBuilder()
+        .withFileSystem(fs)
+        .withBasePath(basePath)
+        .withLogFilePaths(allLogFiles)
+        .withReaderSchema(schema)
+        .withLatestInstantTime("103")
+        .withMaxMemorySizeInBytes(10240L)
+        .withReadBlocksLazily(readBlocksLazily)
+        .withReverseReader(false)
+        .withBufferSize(bufferSize)
+        .withSpillableMapBasePath(BASE_OUTPUT_PATH)
+        .build();
+    Set<String> readKeys = new HashSet<>(150);
+    scanner.forEach(s -> readKeys.add(s.getKey().getRecordKey()));
+    compactedRecords.addAll(copyOfRecords3);
+    Set<String> expectedKeys =
+        compactedRecords.stream().map(s -> ((GenericRecord) s).get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString())
+            .collect(Collectors.toSet());
+    assertEquals(expectedKeys, readKeys, "The blocks of writes 1 and 2 should be replaced by the compacted block");
+    assertEquals(new HashSet<>(Arrays.asList("102", "103")), scanner.getScannedInstants());
+
+    // A scan that stops before the compacted block still reads the original blocks
+    scanner = HoodieMergedLogRecordScanner.newBuilder()
+        .withFileSystem(fs)
+        .withBasePath(basePath)
+        .withLogFilePaths(allLogFiles)
+        .withReaderSchema(schema)
+        .withLatestInstantTime("101")
+        .withMaxMemorySizeInBytes(10240L)
+        .withReadBlocksLazily(readBlocksLazily)
+        .withReverseReader(false)
+        .withBufferSize(bufferSize)
+        .withSpillableMapBasePath(BASE_OUTPUT_PATH)
+        .build();
+    assertEquals(200, scanner.getRecords().size(), "Should read all the records of writes 1 and 2");
+  }
+
   @Test
   public void testAvroLogRecordReaderWithFailedPartialBlock()
       throws IOException, URISyntaxException, InterruptedException {
@@ -27,14 +27,17 @@ import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.testutils.HoodieCommonTestHarness;
 import org.apache.hudi.common.testutils.HoodieTestUtils;
+import org.apache.hudi.common.util.collection.CompactStringArray;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.hadoop.fs.Path;
 import org.apache.parquet.avro.AvroSchemaConverter;
+import org.apache.parquet.filter2.predicate.Statistics;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -49,8 +52,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -122,6 +127,59 @@ public class TestParquetUtils extends HoodieCommonTestHarness {
     }
   }
 
+  @Test
+  public void testFilterSortedParquetRowKeysAcrossRowGroups() throws Exception {
+    List<String> rowKeys = new ArrayList<>();
+    Set<String> filter = new HashSet<>();
+    for (int i = 0; i < 10000; i++) {
+      String rowKey = String.format("key%08d", i);
+      rowKeys.add(rowKey);
+      if (i % 1000 == 7 || i > 9990) {
+        filter.add(rowKey);
+      }
+    }
+    // keys absent from the file, before, inside and after its key range
+    filter.add("a");
+    filter.add("key00000007x");
+    filter.add("z");
+
+    String filePath = Paths.get(basePath, "test.parquet").toString();
+    writeParquetFile(BloomFilterTypeCode.SIMPLE.name(), filePath, rowKeys, HoodieAvroUtils.getRecordKeySchema(),
+        false, "", 4 * 1024);
+    assertTrue(ParquetUtils.readMetadata(HoodieTestUtils.getDefaultHadoopConf(), new Path(filePath)).getBlocks().size() > 1,
+        "The file should have several row groups");
+
+    Set<String> filtered =
+        ParquetUtils.filterParquetRowKeys(HoodieTestUtils.getDefaultHadoopConf(), new Path(filePath), filter);
+    Set<String> expected = new HashSet<>(filter);
+    expected.removeAll(Arrays.asList("a", "key00000007x", "z"));
+    assertEquals(expected, filtered);
+  }
+
+  @Test
+  public void testRecordKeysCandidatePredicate() {
+    ParquetUtils.RecordKeysCandidatePredicate predicate =
+        new ParquetUtils.RecordKeysCandidatePredicate(new HashSet<>(Arrays.asList("b", "d", "f", "h")));
+
+    // row group pruning by key range
+    assertTrue(predicate.canDrop(new Statistics<>(Binary.fromString("a"), Binary.fromString("a"))));
+    assertTrue(predicate.canDrop(new Statistics<>(Binary.fromString("b1"), Binary.fromString("c"))));
+    assertTrue(predicate.canDrop(new Statistics<>(Binary.fromString("i"), Binary.fromString("z"))));
+    assertFalse(predicate.canDrop(new Statistics<>(Binary.fromString("c"), Binary.fromString("d"))));
+    assertFalse(predicate.canDrop(new Statistics<>(Binary.fromString("a"), Binary.fromString("z"))));
+
+    // sorted keys are merge-joined, unsorted keys still match
+    List<String> keys = Arrays.asList("a", "b", "c", "d", "e", "h", "i", "b", "f", "a", "h", "d");
+    List<String> kept = new ArrayList<>();
+    for (String key : keys) {
+      if (predicate.keep(Binary.fromString(key))) {
+        kept.add(key);
+      }
+    }
+    assertEquals(Arrays.asList("b", "d", "h", "b", "f", "h", "d"), kept);
+    assertFalse(predicate.keep(null));
+  }
+
   @ParameterizedTest
   @MethodSource("bloomFilterTypeCodes")
   public void testFetchRecordKeyPartitionPathFromParquet(String typeCode) throws Exception {
@@ -148,6 +206,49 @@ public class TestParquetUtils extends HoodieCommonTestHarness {
     }
   }
 
+  @Test
+  public void testReadRecordKeyColumn() throws Exception {
+    List<String> rowKeys = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      rowKeys.add(UUID.randomUUID().toString());
+    }
+
+    String filePath = Paths.get(basePath, "test.parquet").toString();
+    writeParquetFile(BloomFilterTypeCode.SIMPLE.name(), filePath, rowKeys, HoodieAvroUtils.getRecordKeyPartitionPathSchema(),
+        true, "path1", 16 * 1024);
+    assertTrue(ParquetUtils.readMetadata(HoodieTestUtils.getDefaultHadoopConf(), new Path(filePath)).getBlocks().size() > 1,
+        "The file should have several row groups");
+
+    CompactStringArray recordKeys = ParquetUtils.readRecordKeyColumn(HoodieTestUtils.getDefaultHadoopConf(), new Path(filePath));
+    assertEquals(rowKeys.size(), recordKeys.size(), "Total count does not match");
+    List<String> readKeys = new ArrayList<>();
+    recordKeys.forEach(readKeys::add);
+    assertEquals(rowKeys, readKeys);
+    // the key column reads the same keys as the avro record reader
+    List<String> avroReadKeys = ParquetUtils.fetchRecordKeyPartitionPathFromParquet(HoodieTestUtils.getDefaultHadoopConf(),
+        new Path(filePath)).stream().map(HoodieKey::getRecordKey).collect(Collectors.toList());
+    assertEquals(avroReadKeys, readKeys);
+  }
+
+  @Test
+  public void testIsSortedByRecordKey() throws Exception {
+    List<String> rowKeys = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      rowKeys.add(String.format("key%08d", i));
+    }
+    String sortedFilePath = Paths.get(basePath, "sorted.parquet").toString();
+    writeParquetFile(BloomFilterTypeCode.SIMPLE.name(), sortedFilePath, rowKeys, HoodieAvroUtils.getRecordKeySchema(),
+        false, "", 16 * 1024);
+    assertTrue(ParquetUtils.isSortedByRecordKey(HoodieTestUtils.getDefaultHadoopConf(), new Path(sortedFilePath)));
+
+    // out of order in the last row group
+    Collections.swap(rowKeys, 4990, 4991);
+    String unsortedFilePath = Paths.get(basePath, "unsorted.parquet").toString();
+    writeParquetFile(BloomFilterTypeCode.SIMPLE.name(), unsortedFilePath, rowKeys, HoodieAvroUtils.getRecordKeySchema(),
+        false, "", 16 * 1024);
+    assertFalse(ParquetUtils.isSortedByRecordKey(HoodieTestUtils.getDefaultHadoopConf(), new Path(unsortedFilePath)));
+  }
+
   @Test
   public void testReadCounts() throws Exception {
     String filePath = basePath + "/test.parquet";
@@ -165,13 +266,18 @@ public class TestParquetUtils extends HoodieCommonTestHarness {
   }
 
   private void writeParquetFile(String typeCode, String filePath, List<String> rowKeys, Schema schema, boolean addPartitionPathField, String partitionPath) throws Exception {
+    writeParquetFile(typeCode, filePath, rowKeys, schema, addPartitionPathField, partitionPath, 120 * 1024 * 1024);
+  }
+
+  private void writeParquetFile(String typeCode, String filePath, List<String> rowKeys, Schema schema, boolean addPartitionPathField, String partitionPath,
+                                int blockSize) throws Exception {
     // Write out a parquet file
     BloomFilter filter = BloomFilterFactory
         .createBloomFilter(1000, 0.0001, 10000, typeCode);
     HoodieAvroWriteSupport writeSupport =
         new HoodieAvroWriteSupport(new AvroSchemaConverter().convert(schema), schema, filter);
     ParquetWriter writer = new ParquetWriter(new Path(filePath), writeSupport, CompressionCodecName.GZIP,
-        120 * 1024 * 1024, ParquetWriter.DEFAULT_PAGE_SIZE);
+        blockSize, ParquetWriter.DEFAULT_PAGE_SIZE);
     for (String rowKey : rowKeys) {
       GenericRecord rec = new GenericData.Record(schema);
       rec.put(HoodieRecord.RECORD_KEY_METADATA_FIELD, rowKey);
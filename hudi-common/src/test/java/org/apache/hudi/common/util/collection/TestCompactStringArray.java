@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests {@link CompactStringArray}.
+ */
+public class TestCompactStringArray {
+
+  @Test
+  public void testAddAndGet() {
+    CompactStringArray array = new CompactStringArray(1, 1);
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add("key-" + i);
+    }
+    values.add("");
+    // multi-byte UTF-8 characters
+    values.add("caf" + (char) 0xe9 + "-" + (char) 0x4e2d);
+    values.forEach(array::add);
+
+    assertEquals(values.size(), array.size());
+    for (int i = 0; i < values.size(); i++) {
+      assertEquals(values.get(i), array.get(i));
+    }
+    assertThrows(IndexOutOfBoundsException.class, () -> array.get(values.size()));
+    assertThrows(IndexOutOfBoundsException.class, () -> array.get(-1));
+  }
+
+  @Test
+  public void testAddFromBuffer() {
+    CompactStringArray array = new CompactStringArray();
+    byte[] buffer = "xxabcdyy".getBytes();
+    array.add(buffer, 2, 4);
+    array.add(buffer, 0, 0);
+
+    List<String> values = new ArrayList<>();
+    array.forEach(values::add);
+    assertEquals(Arrays.asList("abcd", ""), values);
+  }
+
+  @Test
+  public void testIterator() {
+    CompactStringArray array = new CompactStringArray();
+    Iterator<String> iterator = array.iterator();
+    assertFalse(iterator.hasNext());
+    assertThrows(NoSuchElementException.class, iterator::next);
+  }
+}
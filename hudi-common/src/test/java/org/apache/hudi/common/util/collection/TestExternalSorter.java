@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.common.testutils.HoodieCommonTestHarness;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link ExternalSorter} and {@link SequentialSpillFile}.
+ */
+public class TestExternalSorter extends HoodieCommonTestHarness {
+
+  @BeforeEach
+  public void setUp() {
+    initPath();
+  }
+
+  @Test
+  public void testSpillFile() throws Exception {
+    SequentialSpillFile<String> spillFile = new SequentialSpillFile<>(basePath);
+    for (int i = 0; i < 1000; i++) {
+      spillFile.append("value" + i);
+    }
+    assertEquals(1000, spillFile.size());
+    assertTrue(spillFile.getSizeInBytes() > 0);
+
+    Iterator<String> values = spillFile.iterator();
+    for (int i = 0; i < 1000; i++) {
+      assertEquals("value" + i, values.next());
+    }
+    assertFalse(values.hasNext());
+    assertThrows(IllegalStateException.class, () -> spillFile.append("value"), "No appends once read");
+
+    spillFile.close();
+    File[] files = new File(basePath).listFiles((dir, name) -> name.startsWith("spill-"));
+    assertEquals(0, files.length, "The spill file should be deleted on close");
+  }
+
+  @Test
+  public void testSortWithSpills() {
+    // pairs of value and order of insertion, compared by value only, to check the sort is stable
+    Comparator<Pair<Integer, Integer>> byValue = Comparator.comparing(Pair::getLeft);
+    // each pair accounts for 100 bytes, 1000 bytes make runs of 10 pairs
+    ExternalSorter<Pair<Integer, Integer>> sorter = new ExternalSorter<>(1000, basePath, byValue, pair -> 100L);
+    List<Pair<Integer, Integer>> expected = new ArrayList<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 1005; i++) {
+      Pair<Integer, Integer> pair = Pair.of(random.nextInt(100), i);
+      sorter.add(pair);
+      expected.add(pair);
+    }
+    assertEquals(100, sorter.getNumSpilledRuns());
+    assertEquals(1005, sorter.size());
+
+    Collections.sort(expected, byValue);
+    List<Pair<Integer, Integer>> sorted = new ArrayList<>();
+    sorter.sortedIterator().forEachRemaining(sorted::add);
+    assertEquals(expected, sorted);
+    sorter.close();
+  }
+
+  @Test
+  public void testSortInMemory() {
+    ExternalSorter<String> sorter = new ExternalSorter<>(1024 * 1024, basePath, Comparator.<String>naturalOrder(), value -> 10L);
+    sorter.add("c");
+    sorter.add("a");
+    sorter.add("b");
+    List<String> sorted = new ArrayList<>();
+    sorter.sortedIterator().forEachRemaining(sorted::add);
+    assertEquals(0, sorter.getNumSpilledRuns());
+    assertEquals(3, sorted.size());
+    assertEquals("a", sorted.get(0));
+    assertEquals("c", sorted.get(2));
+    sorter.close();
+  }
+}
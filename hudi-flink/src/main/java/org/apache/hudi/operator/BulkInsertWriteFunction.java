@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.operator;
+
+import org.apache.hudi.client.FlinkTaskContextSupplier;
+import org.apache.hudi.client.HoodieFlinkWriteClient;
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.client.common.HoodieFlinkEngineContext;
+import org.apache.hudi.common.config.SerializableConfiguration;
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.util.HoodieRecordSizeEstimator;
+import org.apache.hudi.common.util.collection.ExternalSorter;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieInsertException;
+import org.apache.hudi.io.FlinkCreateHandle;
+import org.apache.hudi.operator.event.BatchWriteSuccessEvent;
+import org.apache.hudi.table.HoodieFlinkTable;
+import org.apache.hudi.util.StreamerUtil;
+
+import org.apache.avro.Schema;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.operators.coordination.OperatorEventGateway;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
+import org.apache.flink.streaming.api.functions.KeyedProcessFunction;
+import org.apache.flink.streaming.api.operators.StreamingRuntimeContext;
+import org.apache.flink.util.Collector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Sink function to bulk insert the data to the underneath filesystem, for {@link FlinkOptions#OPERATION} 'bulk_insert'.
+ *
+ * <p>The records are neither tagged with the index nor assigned to the small files, they always go into new files.
+ * The function sorts the records of a checkpoint by partition path and record key with an {@link ExternalSorter},
+ * which takes at most {@link FlinkOptions#WRITE_BULK_INSERT_SORT_MEMORY} of memory and spills the sorted runs
+ * to the local disk. When a Flink checkpoint starts, the sorted records are written through one
+ * {@link FlinkCreateHandle} at a time, a new file is rolled over when the partition path changes or the file reaches
+ * the configured max parquet file size. The function then notifies its operator coordinator
+ * {@link StreamWriteOperatorCoordinator} with the write statuses to commit the instant.
+ *
+ * <p>The records of a checkpoint are written sorted by the record key in each file, with
+ * {@link FlinkOptions#INSERT_DROP_DUPS} the records of the same key are combined on the way.
+ *
+ * <p>Note: The files of a partition are only written by one task when the input stream is shuffled by the
+ * partition path.
+ *
+ * @param <I> Type of the input record
+ * @see StreamWriteFunction for the semantics and fault tolerance
+ */
+public class BulkInsertWriteFunction<K, I, O>
+    extends KeyedProcessFunction<K, I, O>
+    implements CheckpointedFunction, CoordinatedWriteFunction {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Logger LOG = LoggerFactory.getLogger(BulkInsertWriteFunction.class);
+
+  @SuppressWarnings("rawtypes")
+  private static final Comparator<HoodieRecord> PARTITION_AND_KEY_ORDER =
+      Comparator.comparing(HoodieRecord::getPartitionPath).thenComparing(HoodieRecord::getRecordKey);
+
+  /**
+   * Config options.
+   */
+  private final Configuration config;
+
+  /**
+   * Id of current subtask.
+   */
+  private int taskID;
+
+  /**
+   * Write Client.
+   */
+  private transient HoodieFlinkWriteClient writeClient;
+
+  /**
+   * Sorter of the records of a checkpoint.
+   */
+  private transient ExternalSorter<HoodieRecord> sorter;
+
+  /**
+   * Local directory to spill the sorted runs into.
+   */
+  private transient String spillPath;
+
+  /**
+   * Schema of the inserted records, without the metadata fields.
+   */
+  private transient Schema schema;
+
+  /**
+   * Gateway to send operator events to the operator coordinator.
+   */
+  private transient OperatorEventGateway eventGateway;
+
+  public BulkInsertWriteFunction(Configuration config) {
+    this.config = config;
+  }
+
+  @Override
+  public void open(Configuration parameters) throws IOException {
+    this.taskID = getRuntimeContext().getIndexOfThisSubtask();
+    initWriteClient();
+    this.schema = new Schema.Parser().parse(this.writeClient.getConfig().getSchema());
+    String[] tmpDirs = ((StreamingRuntimeContext) getRuntimeContext()).getTaskManagerRuntimeInfo().getTmpDirectories();
+    this.spillPath = new File(tmpDirs[taskID % tmpDirs.length], "hudi-bulk-insert-" + UUID.randomUUID()).getPath();
+    this.sorter = createSorter();
+  }
+
+  @Override
+  public void initializeState(FunctionInitializationContext context) {
+    // no operation
+  }
+
+  @Override
+  public void snapshotState(FunctionSnapshotContext functionSnapshotContext) {
+    flush();
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public void processElement(I value, KeyedProcessFunction<K, I, O>.Context ctx, Collector<O> out) {
+    this.sorter.add((HoodieRecord) value);
+  }
+
+  @Override
+  public void close() {
+    if (this.sorter != null) {
+      this.sorter.close();
+    }
+    if (this.writeClient != null) {
+      this.writeClient.close();
+    }
+  }
+
+  @Override
+  public void endInput() {
+    flush();
+  }
+
+  @Override
+  public void setOperatorEventGateway(OperatorEventGateway operatorEventGateway) {
+    this.eventGateway = operatorEventGateway;
+  }
+
+  // -------------------------------------------------------------------------
+  //  Utilities
+  // -------------------------------------------------------------------------
+
+  private void initWriteClient() {
+    HoodieFlinkEngineContext context =
+        new HoodieFlinkEngineContext(
+            new SerializableConfiguration(StreamerUtil.getHadoopConf()),
+            new FlinkTaskContextSupplier(getRuntimeContext()));
+
+    writeClient = new HoodieFlinkWriteClient<>(context, StreamerUtil.getHoodieClientConfig(this.config));
+  }
+
+  @SuppressWarnings("unchecked, rawtypes")
+  private ExternalSorter<HoodieRecord> createSorter() {
+    return new ExternalSorter<>(
+        (long) (this.config.getDouble(FlinkOptions.WRITE_BULK_INSERT_SORT_MEMORY) * 1024 * 1024),
+        this.spillPath,
+        PARTITION_AND_KEY_ORDER,
+        new HoodieRecordSizeEstimator(this.schema));
+  }
+
+  private void flush() {
+    final String instant = this.writeClient.getInflightAndRequestedInstant(this.config.get(FlinkOptions.TABLE_TYPE));
+    if (instant == null) {
+      // in case there are empty checkpoints that has no input data
+      LOG.info("No inflight instant when flushing data, cancel.");
+      return;
+    }
+    final List<WriteStatus> writeStatus = writeSorted(instant);
+    this.eventGateway.sendEventToCoordinator(new BatchWriteSuccessEvent(this.taskID, instant, writeStatus, true));
+  }
+
+  /**
+   * Writes the sorted records into rolling new files under the instant and resets the sorter.
+   */
+  @SuppressWarnings("unchecked, rawtypes")
+  private List<WriteStatus> writeSorted(String instant) {
+    if (this.sorter.size() == 0) {
+      LOG.info("No data to write in subtask [{}] for instant [{}]", taskID, instant);
+      return Collections.emptyList();
+    }
+    LOG.info("Subtask [{}] bulk inserts {} records sorted in {} spilled runs for instant [{}]",
+        taskID, this.sorter.size(), this.sorter.getNumSpilledRuns(), instant);
+    final HoodieWriteConfig writeConfig = this.writeClient.getConfig();
+    final HoodieFlinkTable table = this.writeClient.getHoodieTable();
+    final Properties props = writeConfig.getPayloadConfig().getProps();
+    final boolean dropDuplicates = this.config.getBoolean(FlinkOptions.INSERT_DROP_DUPS);
+    final List<WriteStatus> writeStatuses = new ArrayList<>();
+    FlinkCreateHandle handle = null;
+    try {
+      Iterator<HoodieRecord> records = this.sorter.sortedIterator();
+      HoodieRecord pending = records.hasNext() ? records.next() : null;
+      while (pending != null) {
+        HoodieRecord record = pending;
+        pending = records.hasNext() ? records.next() : null;
+        while (dropDuplicates && pending != null && pending.getKey().equals(record.getKey())) {
+          record = combine(record, pending);
+          pending = records.hasNext() ? records.next() : null;
+        }
+        if (handle != null && !handle.canWrite(record)) {
+          writeStatuses.addAll(closeHandle(handle));
+          handle = null;
+        }
+        if (handle == null) {
+          handle = new FlinkCreateHandle(writeConfig, instant, table, record.getPartitionPath(),
+              FSUtils.createNewFileIdPfx(), table.getTaskContextSupplier());
+        }
+        handle.write(record, record.getData().getInsertValue(this.schema, props));
+      }
+      if (handle != null) {
+        writeStatuses.addAll(closeHandle(handle));
+      }
+    } catch (IOException e) {
+      throw new HoodieInsertException("Failed to bulk insert the records of instant " + instant, e);
+    } finally {
+      this.sorter.close();
+      this.sorter = createSorter();
+    }
+    return writeStatuses;
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static List<WriteStatus> closeHandle(FlinkCreateHandle handle) {
+    // close the file first so that the write status reports the final file size
+    handle.finishWrite();
+    return handle.close();
+  }
+
+  /**
+   * Combines the records of the same key, see {@code FlinkWriteHelper#deduplicateRecords}.
+   */
+  @SuppressWarnings("unchecked, rawtypes")
+  private static HoodieRecord combine(HoodieRecord rec1, HoodieRecord rec2) {
+    HoodieRecordPayload reducedData = rec1.getData().preCombine(rec2.getData());
+    HoodieKey reducedKey = rec1.getData().equals(reducedData) ? rec1.getKey() : rec2.getKey();
+    return new HoodieRecord<>(reducedKey, reducedData);
+  }
+}
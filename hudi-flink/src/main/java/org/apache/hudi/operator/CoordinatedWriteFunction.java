@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.operator;
+
+import org.apache.flink.runtime.operators.coordination.OperatorEventGateway;
+
+/**
+ * A write function of {@link StreamWriteOperator}, it reports the written data of each checkpoint
+ * to the {@link StreamWriteOperatorCoordinator} which commits the instant.
+ *
+ * @see StreamWriteFunction
+ * @see BulkInsertWriteFunction
+ */
+public interface CoordinatedWriteFunction {
+
+  /**
+   * Sets up the gateway to send the {@link org.apache.hudi.operator.event.BatchWriteSuccessEvent}s through.
+   */
+  void setOperatorEventGateway(OperatorEventGateway operatorEventGateway);
+
+  /**
+   * End input action for batch source.
+   */
+  void endInput();
+}
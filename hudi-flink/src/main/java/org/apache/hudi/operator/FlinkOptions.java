@@ -138,6 +138,14 @@ public class FlinkOptions {
       .withDescription("Start commit instant for streaming read, the commit time format should be 'yyyyMMddHHmmss', "
           + "by default reading from the latest instant");
 
+  public static final ConfigOption<Integer> READ_STREAMING_MAX_INSTANTS_PER_CHECK = ConfigOptions
+      .key("read.streaming.max-instants-per-check")
+      .intType()
+      .defaultValue(-1)// default no limit
+      .withDescription("Max number of instants to issue splits for in one check of the streaming read, "
+          + "the remaining instants are issued in the following checks without waiting for the check interval, "
+          + "default -1 for no limit");
+
   // ------------------------------------------------------------------------
   //  Write Options
   // ------------------------------------------------------------------------
@@ -159,7 +167,10 @@ public class FlinkOptions {
       .key("write.operation")
       .stringType()
       .defaultValue("upsert")
-      .withDescription("The write operation, that this write should do");
+      .withDescription("The write operation, that this write should do, options are 'upsert', 'insert' and 'bulk_insert'.\n"
+          + "'bulk_insert' skips the index lookup and the small file handling: each write task sorts its records "
+          + "by partition path and record key and writes them into new parquet files, rolling over to a new file "
+          + "when 'hoodie.parquet.max.file.size' is reached, use it to load a table with data that is not in it yet");
 
   public static final ConfigOption<String> PRECOMBINE_FIELD = ConfigOptions
       .key("write.precombine.field")
@@ -241,6 +252,62 @@ public class FlinkOptions {
       .defaultValue(128D) // 128MB
       .withDescription("Batch buffer size in MB to flush data into the underneath filesystem");
 
+  public static final ConfigOption<Boolean> WRITE_BINARY_BUFFER_ENABLED = ConfigOptions
+      .key("write.binary.buffer.enabled")
+      .booleanType()
+      .defaultValue(false)
+      .withDescription("Whether to buffer the records between checkpoints as serialized bytes in heap memory pages "
+          + "instead of as one object per record. The buffer takes at most 'write.batch.size.MB' of memory, "
+          + "sorted runs are spilled to the local disk when it is full, instead of flushing a mini-batch. Default false");
+
+  public static final ConfigOption<Boolean> WRITE_ASYNC_FLUSH_ENABLED = ConfigOptions
+      .key("write.async.flush.enabled")
+      .booleanType()
+      .defaultValue(false)
+      .withDescription("Whether to write the buffer of a checkpoint in a separate thread. The checkpoint hands the buffer "
+          + "over and returns at once, the task goes on buffering into a fresh buffer, and the instant is committed "
+          + "once all the tasks finish writing it. This keeps the file writing out of the checkpoint alignment, "
+          + "at the cost of holding up to two buffers in memory. Default false");
+
+  public static final ConfigOption<Boolean> WRITE_ASYNC_POST_COMMIT_ENABLED = ConfigOptions
+      .key("write.post_commit.async.enabled")
+      .booleanType()
+      .defaultValue(false)
+      .withDescription("Whether the coordinator runs the post commit actions of an instant, i.e. the marker files cleaning, "
+          + "archiving and cleaning, in a separate thread. The instant is still completed on the timeline before a new "
+          + "instant starts, the post commit actions overlap with the start of the new instant and are waited for "
+          + "before the next commit, a failure of them is logged. Default false");
+
+  public static final ConfigOption<Double> WRITE_BULK_INSERT_SORT_MEMORY = ConfigOptions
+      .key("write.bulk_insert.sort.memory.MB")
+      .doubleType()
+      .defaultValue(128D) // 128MB
+      .withDescription("Memory in MB of a bulk insert write task to sort the records of a checkpoint in, "
+          + "sorted runs are spilled to the local disk when it is full and merged when the records are written. "
+          + "Default 128MB");
+
+  public static final String KEY_BY_PARTITION_PATH = "partition_path";
+  public static final String KEY_BY_RECORD_KEY = "record_key";
+  public static final ConfigOption<String> BUCKET_ASSIGN_KEY_BY = ConfigOptions
+      .key("write.bucket_assign.key_by")
+      .stringType()
+      .defaultValue(KEY_BY_PARTITION_PATH)
+      .withDescription("Key to shuffle the records to the bucket assign tasks by, options are "
+          + "'partition_path': one task assigns all the records of a partition;\n"
+          + "'record_key': the records of a partition spread across all the tasks, which share the small files "
+          + "of the partition, use it when the writes concentrate on few partitions.\n"
+          + "Can not be changed when restoring from a checkpoint. Default is 'partition_path'");
+
+  public static final ConfigOption<Boolean> INDEX_STATE_COMPACT_ENABLED = ConfigOptions
+      .key("write.index_state.compact.enabled")
+      .booleanType()
+      .defaultValue(false)
+      .withDescription("Whether to keep the index state of the bucket assign tasks as a 64 bits hash of the record key "
+          + "and a dictionary encoded file group ID, instead of the serialized key and location objects. "
+          + "The record key and file ID lengths no longer count, while the state backend still stores the "
+          + "partition path with every entry, e.g. as the key prefix in RocksDB. Requires the records keyed by "
+          + "partition path, can not be changed when restoring from a checkpoint. Default false");
+
   // ------------------------------------------------------------------------
   //  Compaction Options
   // ------------------------------------------------------------------------
@@ -277,6 +344,21 @@ public class FlinkOptions {
       .defaultValue(3600) // default 1 hour
       .withDescription("Max delta seconds time needed to trigger compaction, default 1 hour");
 
+  public static final ConfigOption<Integer> COMPACTION_CONCURRENCY = ConfigOptions
+      .key("compaction.concurrency")
+      .intType()
+      .defaultValue(1)
+      .withDescription("Max number of compaction operations executed at the same time by a compact task, "
+          + "the operations run asynchronously to the checkpoints, the largest first, default 1");
+
+  public static final ConfigOption<Integer> COMPACTION_MAX_MEMORY = ConfigOptions
+      .key("compaction.max_memory")
+      .intType()
+      .defaultValue(1024) // default 1 GB
+      .withDescription("Max memory in MB shared by the compaction operations running in a compact task, "
+          + "each operation reserves a budget sized with its log files, "
+          + "the log records beyond the budget spill to disk, default 1024 MB");
+
   // -------------------------------------------------------------------------
   //  Utilities
   // -------------------------------------------------------------------------
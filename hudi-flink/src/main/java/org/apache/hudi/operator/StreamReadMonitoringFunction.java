@@ -18,9 +18,9 @@
 
 package org.apache.hudi.operator;
 
-import org.apache.hudi.common.fs.FSUtils;
 import org.apache.hudi.common.model.HoodieCommitMetadata;
 import org.apache.hudi.common.model.HoodieLogFile;
+import org.apache.hudi.common.model.HoodieWriteStat;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
@@ -30,7 +30,6 @@ import org.apache.hudi.common.util.ValidationUtils;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.source.format.mor.InstantRange;
 import org.apache.hudi.source.format.mor.MergeOnReadInputSplit;
-import org.apache.hudi.util.StreamerUtil;
 
 import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.api.common.state.ListState;
@@ -44,15 +43,17 @@ import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
 import org.apache.flink.streaming.api.functions.source.RichSourceFunction;
 import org.apache.flink.streaming.api.functions.source.SourceFunction;
 import org.apache.hadoop.fs.FileStatus;
-import org.apache.hadoop.fs.FileSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -74,6 +75,12 @@ import static org.apache.hudi.common.table.timeline.HoodieTimeline.GREATER_THAN_
  * <p>The splits to be read are forwarded to the downstream {@link StreamReadOperator}
  * which can have parallelism greater than one.
  *
+ * <p>The splits are built from the write stats of the commit metadata, the files are not listed nor stat-ed
+ * on the filesystem, and the parsed commit metadata is cached until its instant is issued. When
+ * {@link FlinkOptions#READ_STREAMING_MAX_INSTANTS_PER_CHECK} is set, a backlog of instants is issued in
+ * several rounds that follow each other without waiting for the check interval, the checkpoint lock is released
+ * between the rounds.
+ *
  * <p><b>IMPORTANT NOTE: </b> Splits are forwarded downstream for reading in ascending instant commits time order,
  * in each downstream task, the splits are also read in receiving sequence. We do not ensure split consuming sequence
  * among the downstream tasks.
@@ -104,12 +111,25 @@ public class StreamReadMonitoringFunction
 
   private final Configuration conf;
 
-  private transient org.apache.hadoop.conf.Configuration hadoopConf;
-
   private final HoodieTableMetaClient metaClient;
 
   private final long maxCompactionMemoryInBytes;
 
+  /**
+   * The max number of instants to issue in one round, a non-positive value means no limit.
+   */
+  private final int maxInstantsPerCheck;
+
+  /**
+   * Instant time -> parsed commit metadata of the instants that are not issued yet.
+   */
+  private transient TreeMap<String, HoodieCommitMetadata> metadataCache;
+
+  /**
+   * Whether there are completed instants left to issue after the last round.
+   */
+  private transient boolean hasPendingInstants;
+
   public StreamReadMonitoringFunction(
       Configuration conf,
       Path path,
@@ -120,6 +140,7 @@ public class StreamReadMonitoringFunction
     this.metaClient = metaClient;
     this.interval = conf.getInteger(FlinkOptions.READ_STREAMING_CHECK_INTERVAL);
     this.maxCompactionMemoryInBytes = maxCompactionMemoryInBytes;
+    this.maxInstantsPerCheck = conf.getInteger(FlinkOptions.READ_STREAMING_MAX_INSTANTS_PER_CHECK);
   }
 
   @Override
@@ -164,12 +185,6 @@ public class StreamReadMonitoringFunction
     }
   }
 
-  @Override
-  public void open(Configuration parameters) throws Exception {
-    super.open(parameters);
-    this.hadoopConf = StreamerUtil.getHadoopConf();
-  }
-
   @Override
   public void run(SourceFunction.SourceContext<MergeOnReadInputSplit> context) throws Exception {
     checkpointLock = context.getCheckpointLock();
@@ -177,12 +192,15 @@ public class StreamReadMonitoringFunction
       synchronized (checkpointLock) {
         monitorDirAndForwardSplits(context);
       }
-      TimeUnit.SECONDS.sleep(interval);
+      if (!hasPendingInstants) {
+        TimeUnit.SECONDS.sleep(interval);
+      }
     }
   }
 
   @VisibleForTesting
   public void monitorDirAndForwardSplits(SourceContext<MergeOnReadInputSplit> context) {
+    hasPendingInstants = false;
     metaClient.reloadActiveTimeline();
     HoodieTimeline commitTimeline = metaClient.getCommitsAndCompactionTimeline().filterCompletedInstants();
     if (commitTimeline.empty()) {
@@ -190,6 +208,12 @@ public class StreamReadMonitoringFunction
       return;
     }
     List<HoodieInstant> instants = getUncompactedInstants(commitTimeline, this.issuedInstant);
+    if (maxInstantsPerCheck > 0 && instants.size() > maxInstantsPerCheck && (this.issuedInstant != null
+        || this.conf.getOptional(FlinkOptions.READ_STREAMING_START_COMMIT).isPresent())) {
+      // issue the backlog in several rounds, the snapshot read without instant range can not be split
+      instants = instants.subList(0, maxInstantsPerCheck);
+      hasPendingInstants = true;
+    }
     // get the latest instant that satisfies condition
     final HoodieInstant instantToIssue = instants.size() == 0 ? null : instants.get(instants.size() - 1);
     final InstantRange instantRange;
@@ -215,13 +239,13 @@ public class StreamReadMonitoringFunction
     // generate input split:
     // 1. first fetch all the commit metadata for the incremental instants;
     // 2. filter the relative partition paths
-    // 3. filter the full file paths
-    // 4. use the file paths from #step 3 as the back-up of the filesystem view
+    // 3. build the file statuses from the write stats
+    // 4. use the file statuses from #step 3 as the back-up of the filesystem view
 
     List<HoodieCommitMetadata> metadataList = instants.stream()
         .map(instant -> getCommitMetadata(instant, commitTimeline)).collect(Collectors.toList());
     Set<String> writePartitions = getWritePartitionPaths(metadataList);
-    FileStatus[] fileStatuses = getWritePathsOfInstants(metadataList);
+    FileStatus[] fileStatuses = getWriteStatusesOfInstants(metadataList);
     if (fileStatuses.length == 0) {
       throw new HoodieException("No files found for reading in user provided path.");
     }
@@ -249,6 +273,8 @@ public class StreamReadMonitoringFunction
     }
     // update the issues instant time
     this.issuedInstant = commitToIssue;
+    // the metadata of the issued instants is not needed anymore
+    this.metadataCache.headMap(commitToIssue, true).clear();
   }
 
   @Override
@@ -335,31 +361,41 @@ public class StreamReadMonitoringFunction
   }
 
   /**
-   * Returns all the incremental write file path statuses with the given commits metadata.
+   * Returns all the incremental write file statuses with the given commits metadata.
+   *
+   * <p>The statuses are built from the write stats, a file written by several instants is
+   * returned once with the size of the latest write.
    *
    * @param metadataList The commits metadata
    * @return the file statuses array
    */
-  private FileStatus[] getWritePathsOfInstants(List<HoodieCommitMetadata> metadataList) {
-    FileSystem fs = FSUtils.getFs(path.getPath(), hadoopConf);
-    return metadataList.stream().map(metadata -> getWritePathsOfInstant(metadata, fs))
-        .flatMap(Collection::stream).toArray(FileStatus[]::new);
+  private FileStatus[] getWriteStatusesOfInstants(List<HoodieCommitMetadata> metadataList) {
+    Map<String, FileStatus> fileStatuses = new LinkedHashMap<>();
+    for (HoodieCommitMetadata metadata : metadataList) {
+      for (List<HoodieWriteStat> stats : metadata.getPartitionToWriteStats().values()) {
+        for (HoodieWriteStat stat : stats) {
+          if (stat.getPath() != null) {
+            fileStatuses.put(stat.getPath(), toFileStatus(stat));
+          }
+        }
+      }
+    }
+    return fileStatuses.values().toArray(new FileStatus[0]);
   }
 
-  private List<FileStatus> getWritePathsOfInstant(HoodieCommitMetadata metadata, FileSystem fs) {
-    return metadata.getFileIdAndFullPaths(path.getPath()).values().stream()
-        .map(path -> {
-          try {
-            return fs.getFileStatus(new org.apache.hadoop.fs.Path(path));
-          } catch (IOException e) {
-            LOG.error("Get write status of path: {} error", path);
-            throw new HoodieException(e);
-          }
-        })
-        .collect(Collectors.toList());
+  private FileStatus toFileStatus(HoodieWriteStat stat) {
+    org.apache.hadoop.fs.Path fullPath = new org.apache.hadoop.fs.Path(metaClient.getBasePath(), stat.getPath());
+    return new FileStatus(stat.getFileSizeInBytes(), false, 0, 0, 0, fullPath);
   }
 
   private HoodieCommitMetadata getCommitMetadata(HoodieInstant instant, HoodieTimeline timeline) {
+    if (this.metadataCache == null) {
+      this.metadataCache = new TreeMap<>();
+    }
+    return this.metadataCache.computeIfAbsent(instant.getTimestamp(), k -> readCommitMetadata(instant, timeline));
+  }
+
+  private HoodieCommitMetadata readCommitMetadata(HoodieInstant instant, HoodieTimeline timeline) {
     byte[] data = timeline.getInstantDetails(instant).get();
     try {
       return HoodieCommitMetadata.fromBytes(data, HoodieCommitMetadata.class);
@@ -26,19 +26,32 @@ import org.apache.hudi.common.config.SerializableConfiguration;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.WriteOperationType;
 import org.apache.hudi.common.util.ObjectSizeCalculator;
+import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.operator.buffer.BinaryRecordBuffer;
 import org.apache.hudi.operator.event.BatchWriteSuccessEvent;
 import org.apache.hudi.table.action.commit.FlinkWriteHelper;
 import org.apache.hudi.util.StreamerUtil;
 
 import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.array.BytePrimitiveArraySerializer;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.runtime.memory.MemoryManager;
 import org.apache.flink.runtime.operators.coordination.OperatorEventGateway;
 import org.apache.flink.runtime.state.CheckpointListener;
 import org.apache.flink.runtime.state.FunctionInitializationContext;
 import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
 import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
 import org.apache.flink.streaming.api.functions.KeyedProcessFunction;
+import org.apache.flink.streaming.api.operators.MailboxExecutor;
+import org.apache.flink.streaming.api.operators.StreamingRuntimeContext;
 import org.apache.flink.util.Collector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,10 +59,16 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiFunction;
@@ -64,6 +83,27 @@ import java.util.function.BiFunction;
  * or a Flink checkpoint starts. After a batch has been written successfully,
  * the function notifies its operator coordinator {@link StreamWriteOperatorCoordinator} to mark a successful write.
  *
+ * <p>With {@link FlinkOptions#WRITE_BINARY_BUFFER_ENABLED}, the records are buffered as serialized bytes in a
+ * {@link BinaryRecordBuffer} instead, which spills to the local disk when the configured size is exceeded,
+ * and the buffer is only flushed when a Flink checkpoint starts.
+ *
+ * <p>With {@link FlinkOptions#WRITE_ASYNC_FLUSH_ENABLED}, the buffer is handed over to a single writer thread
+ * instead of being written by the task thread, and the task goes on buffering into a fresh buffer.
+ * The checkpoint returns right after the hand over, so the file writing is not part of the checkpoint alignment.
+ * At most one buffer is in writing, the task only blocks on a hand over when the last one is not written yet.
+ * The writer thread never writes into an instant it already reported the last batch for, it waits
+ * for the coordinator to commit it and start a new one instead, and it closes the write handles
+ * of the instant before reporting the last batch. The write events are sent from the task thread,
+ * through the mailbox of the task.
+ *
+ * <p>As the checkpoint does not wait for the handed over buffer to be written, the records of the buffer
+ * are kept in the operator state of the subtask as serialized bytes, in chunks of the records of one bucket,
+ * together with the latest instant that does not contain them. The records are copied as they are serialized
+ * in the buffer, no record object is created for the state. On restore, the subtask buffers them again unless
+ * an instant after that one has completed, i.e. the records were committed before the failover. The buckets
+ * of the records are owned by the subtask that kept them, so a checkpoint with handed over records can not be
+ * restored with another parallelism.
+ *
  * <p><h2>The Semantics</h2>
  *
  * <p>The task implements exactly-once semantics by buffering the data between checkpoints. The operator coordinator
@@ -92,17 +132,71 @@ import java.util.function.BiFunction;
  */
 public class StreamWriteFunction<K, I, O>
     extends KeyedProcessFunction<K, I, O>
-    implements CheckpointedFunction, CheckpointListener {
+    implements CheckpointedFunction, CheckpointListener, CoordinatedWriteFunction {
 
   private static final long serialVersionUID = 1L;
 
   private static final Logger LOG = LoggerFactory.getLogger(StreamWriteFunction.class);
 
+  /**
+   * Serialized size of the records of a bucket materialized at a time from the binary buffer.
+   */
+  private static final long BINARY_BUFFER_WRITE_BATCH_BYTES = 4 * 1024 * 1024L;
+
+  /**
+   * Maximum serialized size of the records of a chunk of the handed over buffer kept in the state.
+   */
+  private static final int FLUSHING_RECORDS_CHUNK_BYTES = 1024 * 1024;
+
   /**
    * Write buffer for a checkpoint.
    */
   private transient Map<String, List<HoodieRecord>> buffer;
 
+  /**
+   * Binary write buffer for a checkpoint, replaces {@code buffer} when
+   * {@link FlinkOptions#WRITE_BINARY_BUFFER_ENABLED} is set.
+   */
+  private transient BinaryRecordBuffer binaryBuffer;
+
+  /**
+   * The binary buffer to swap in on the next async flush, it holds the buffer in writing meanwhile.
+   */
+  private transient BinaryRecordBuffer standbyBinaryBuffer;
+
+  /**
+   * Single thread executor that writes the handed over buffers, only set with
+   * {@link FlinkOptions#WRITE_ASYNC_FLUSH_ENABLED}.
+   */
+  private transient ExecutorService flushExecutor;
+
+  /**
+   * Completion of the writing of the last handed over buffer, with the event to send to the coordinator.
+   */
+  private transient CompletableFuture<BatchWriteSuccessEvent> flushFuture;
+
+  /**
+   * The instant the async flush reported the last batch for, written by the writer thread and
+   * read by the task thread once the flush completes.
+   */
+  private transient volatile String lastReportedInstant;
+
+  /**
+   * The records handed over to the writer thread on the checkpoint, as chunks of serialized records of a bucket,
+   * see {@link #snapshotFlushingRecords()}.
+   */
+  private transient ListState<byte[]> flushingRecordsState;
+
+  /**
+   * Serializer of the records kept in the state, used by the task thread only.
+   */
+  private transient TypeSerializer<HoodieRecord> recordSerializer;
+
+  /**
+   * Mailbox executor of the task, the write events of the writer thread are sent through it.
+   */
+  private transient MailboxExecutor mailboxExecutor;
+
   /**
    * The buffer lock to control data buffering/flushing.
    */
@@ -160,21 +254,34 @@ public class StreamWriteFunction<K, I, O>
   }
 
   @Override
-  public void open(Configuration parameters) throws IOException {
+  public void open(Configuration parameters) throws Exception {
     this.taskID = getRuntimeContext().getIndexOfThisSubtask();
     this.detector = new BufferSizeDetector(this.config.getDouble(FlinkOptions.WRITE_BATCH_SIZE));
     initBuffer();
     initWriteClient();
     initWriteFunction();
+    restoreFlushingRecords();
   }
 
   @Override
-  public void initializeState(FunctionInitializationContext context) {
-    // no operation
+  public void initializeState(FunctionInitializationContext context) throws Exception {
+    // registered whatever the flush mode, so that the records handed over before a restart
+    // with the async flush turned off are still written
+    this.flushingRecordsState = context.getOperatorStateStore().getListState(
+        new ListStateDescriptor<>("write-flushing-buffer", BytePrimitiveArraySerializer.INSTANCE));
   }
 
   @Override
-  public void snapshotState(FunctionSnapshotContext functionSnapshotContext) {
+  public void snapshotState(FunctionSnapshotContext functionSnapshotContext) throws Exception {
+    if (this.flushExecutor != null) {
+      // the last handed over buffer is written once the wait returns
+      waitForAsyncFlush();
+      // keep the records in the state until they are written,
+      // then hand the buffer over to the writer thread and go on buffering right away
+      snapshotFlushingRecords();
+      flushBufferAsync(true);
+      return;
+    }
     bufferLock.lock();
     try {
       // Based on the fact that the coordinator starts the checkpoint first,
@@ -182,6 +289,8 @@ public class StreamWriteFunction<K, I, O>
       this.onCheckpointing = true;
       // wait for the buffer data flush out and request a new instant
       flushBuffer(true);
+      // the restored records are written with the buffer
+      this.flushingRecordsState.clear();
       // signal the task thread to start buffering
       addToBufferCondition.signal();
     } finally {
@@ -197,6 +306,10 @@ public class StreamWriteFunction<K, I, O>
       if (onCheckpointing) {
         addToBufferCondition.await();
       }
+      if (this.flushFuture != null && this.flushFuture.isDone()) {
+        // send the event or fail fast instead of waiting for the next hand over
+        waitForAsyncFlush();
+      }
       flushBufferOnCondition(value);
       putDataIntoBuffer(value);
     } finally {
@@ -206,6 +319,22 @@ public class StreamWriteFunction<K, I, O>
 
   @Override
   public void close() {
+    if (this.flushExecutor != null) {
+      this.flushExecutor.shutdownNow();
+      try {
+        if (!this.flushExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+          LOG.warn("The async flush thread of subtask [{}] did not terminate in time", taskID);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (this.binaryBuffer != null) {
+      this.binaryBuffer.close();
+    }
+    if (this.standbyBinaryBuffer != null) {
+      this.standbyBinaryBuffer.close();
+    }
     if (this.writeClient != null) {
       this.writeClient.close();
     }
@@ -213,13 +342,19 @@ public class StreamWriteFunction<K, I, O>
 
   @Override
   public void notifyCheckpointComplete(long checkpointId) {
-    this.writeClient.cleanHandles();
+    if (this.flushExecutor == null) {
+      // the async flush closes the handles itself when it finishes an instant
+      this.writeClient.cleanHandles();
+    }
   }
 
-  /**
-   * End input action for batch source.
-   */
+  @Override
   public void endInput() {
+    if (this.flushExecutor != null) {
+      flushBufferAsync(true);
+      waitForAsyncFlush();
+      return;
+    }
     flushBuffer(true);
     this.writeClient.cleanHandles();
   }
@@ -228,10 +363,21 @@ public class StreamWriteFunction<K, I, O>
   //  Getter/Setter
   // -------------------------------------------------------------------------
 
-  @VisibleForTesting
   @SuppressWarnings("rawtypes")
   public Map<String, List<HoodieRecord>> getBuffer() {
-    return buffer;
+    if (binaryBuffer == null) {
+      return buffer;
+    }
+    Map<String, List<HoodieRecord>> records = new LinkedHashMap<>();
+    for (String bucketID : binaryBuffer.getBucketIDs()) {
+      records.put(bucketID, binaryBuffer.getRecords(bucketID, Long.MAX_VALUE).next());
+    }
+    return records;
+  }
+
+  @VisibleForTesting
+  public int getNumSpilledRuns() {
+    return binaryBuffer == null ? 0 : binaryBuffer.getNumSpilledRuns();
   }
 
   @VisibleForTesting
@@ -240,20 +386,55 @@ public class StreamWriteFunction<K, I, O>
     return writeClient;
   }
 
+  @Override
   public void setOperatorEventGateway(OperatorEventGateway operatorEventGateway) {
     this.eventGateway = operatorEventGateway;
   }
 
+  public void setMailboxExecutor(MailboxExecutor mailboxExecutor) {
+    this.mailboxExecutor = mailboxExecutor;
+  }
+
   // -------------------------------------------------------------------------
   //  Utilities
   // -------------------------------------------------------------------------
 
+  @SuppressWarnings("unchecked, rawtypes")
   private void initBuffer() {
     this.buffer = new LinkedHashMap<>();
+    this.recordSerializer = createRecordSerializer();
+    final boolean asyncFlush = this.config.getBoolean(FlinkOptions.WRITE_ASYNC_FLUSH_ENABLED);
+    if (this.config.getBoolean(FlinkOptions.WRITE_BINARY_BUFFER_ENABLED)) {
+      this.binaryBuffer = createBinaryBuffer();
+      if (asyncFlush) {
+        this.standbyBinaryBuffer = createBinaryBuffer();
+      }
+    }
+    if (asyncFlush) {
+      this.flushExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "hoodie-write-flush-" + taskID);
+        t.setDaemon(true);
+        return t;
+      });
+    }
     this.bufferLock = new ReentrantLock();
     this.addToBufferCondition = this.bufferLock.newCondition();
   }
 
+  @SuppressWarnings("unchecked, rawtypes")
+  private TypeSerializer<HoodieRecord> createRecordSerializer() {
+    return TypeInformation.of(HoodieRecord.class).createSerializer(getRuntimeContext().getExecutionConfig());
+  }
+
+  private BinaryRecordBuffer createBinaryBuffer() {
+    // every buffer has its own serializer, the buffer in writing is used by the writer thread
+    return new BinaryRecordBuffer(
+        createRecordSerializer(),
+        (long) (this.config.getDouble(FlinkOptions.WRITE_BATCH_SIZE) * 1024 * 1024),
+        MemoryManager.DEFAULT_PAGE_SIZE,
+        ((StreamingRuntimeContext) getRuntimeContext()).getTaskManagerRuntimeInfo().getTmpDirectories());
+  }
+
   private void initWriteClient() {
     HoodieFlinkEngineContext context =
         new HoodieFlinkEngineContext(
@@ -313,10 +494,14 @@ public class StreamWriteFunction<K, I, O>
     }
   }
 
-  private void putDataIntoBuffer(I value) {
+  private void putDataIntoBuffer(I value) throws IOException {
     HoodieRecord<?> record = (HoodieRecord<?>) value;
     final String fileId = record.getCurrentLocation().getFileId();
     final String key = StreamerUtil.generateBucketKey(record.getPartitionPath(), fileId);
+    if (this.binaryBuffer != null) {
+      this.binaryBuffer.add(key, record);
+      return;
+    }
     if (!this.buffer.containsKey(key)) {
       this.buffer.put(key, new ArrayList<>());
     }
@@ -330,14 +515,21 @@ public class StreamWriteFunction<K, I, O>
    * @param value HoodieRecord
    */
   private void flushBufferOnCondition(I value) {
+    if (this.binaryBuffer != null) {
+      // the binary buffer spills instead of flushing
+      return;
+    }
     boolean needFlush = this.detector.detect(value);
     if (needFlush) {
-      flushBuffer(false);
+      if (this.flushExecutor != null) {
+        flushBufferAsync(false);
+      } else {
+        flushBuffer(false);
+      }
       this.detector.reset();
     }
   }
 
-  @SuppressWarnings("unchecked, rawtypes")
   private void flushBuffer(boolean isFinalBatch) {
     this.currentInstant = this.writeClient.getInflightAndRequestedInstant(this.config.get(FlinkOptions.TABLE_TYPE));
     if (this.currentInstant == null) {
@@ -345,27 +537,289 @@ public class StreamWriteFunction<K, I, O>
       LOG.info("No inflight instant when flushing data, cancel.");
       return;
     }
+    final List<WriteStatus> writeStatus = writeBuffer(this.buffer, this.binaryBuffer, this.currentInstant);
+    this.eventGateway.sendEventToCoordinator(
+        new BatchWriteSuccessEvent(this.taskID, currentInstant, writeStatus, isFinalBatch));
+    this.currentInstant = "";
+  }
+
+  /**
+   * Hands the buffer over to the writer thread and swaps in a fresh one, blocks only if the
+   * last handed over buffer is not written yet.
+   */
+  @SuppressWarnings("rawtypes")
+  private void flushBufferAsync(boolean isFinalBatch) {
+    waitForAsyncFlush();
+    final Map<String, List<HoodieRecord>> flushingBuffer = this.buffer;
+    final BinaryRecordBuffer flushingBinaryBuffer = this.binaryBuffer;
+    this.buffer = new LinkedHashMap<>();
+    this.binaryBuffer = this.standbyBinaryBuffer;
+    this.standbyBinaryBuffer = flushingBinaryBuffer;
+    this.flushFuture = CompletableFuture.supplyAsync(
+        () -> writeBufferAsync(flushingBuffer, flushingBinaryBuffer, isFinalBatch), this.flushExecutor);
+    if (this.mailboxExecutor != null) {
+      // send the event from the task thread as soon as the buffer is written
+      this.flushFuture.whenComplete((event, throwable) -> this.mailboxExecutor.execute(() -> {
+        if (this.flushFuture != null && this.flushFuture.isDone()) {
+          waitForAsyncFlush();
+        }
+      }, "send the async flush event of subtask %s", taskID));
+    }
+  }
+
+  /**
+   * Waits for the writing of the last handed over buffer, sends its event to the coordinator
+   * and rethrows its failure. Always called by the task thread.
+   */
+  @VisibleForTesting
+  public void waitForAsyncFlush() {
+    if (this.flushFuture == null) {
+      return;
+    }
+    final BatchWriteSuccessEvent event;
+    try {
+      event = this.flushFuture.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HoodieException("Interrupted while waiting for the async flush of subtask " + taskID, e);
+    } catch (ExecutionException e) {
+      throw new HoodieException("Async flush of subtask " + taskID + " failed", e.getCause());
+    }
+    this.flushFuture = null;
+    if (event != null) {
+      this.eventGateway.sendEventToCoordinator(event);
+    }
+  }
+
+  /**
+   * Keeps the records of the buffer to hand over in the state, with the latest instant that does not contain them:
+   * the instant the writer thread reported the last batch for if it is still pending, the last completed instant
+   * otherwise. The writer thread writes the records into the first instant after that one.
+   *
+   * <p>The records of the binary buffer are copied as they are serialized, including the spilled ones.
+   */
+  @SuppressWarnings("rawtypes")
+  private void snapshotFlushingRecords() throws Exception {
+    this.flushingRecordsState.clear();
+    if (isEmpty(this.buffer, this.binaryBuffer)) {
+      return;
+    }
+    final String tableType = this.config.get(FlinkOptions.TABLE_TYPE);
+    final String pendingInstant = this.writeClient.getInflightAndRequestedInstant(tableType);
+    String lastInstant = pendingInstant != null && pendingInstant.equals(this.lastReportedInstant)
+        ? pendingInstant
+        : this.writeClient.getLastCompletedInstant(tableType);
+    final FlushingRecordsChunks chunks =
+        new FlushingRecordsChunks(this.flushingRecordsState, lastInstant == null ? "" : lastInstant);
+    if (this.binaryBuffer == null) {
+      final DataOutputSerializer serializeBuffer = new DataOutputSerializer(1024);
+      for (Map.Entry<String, List<HoodieRecord>> bucket : this.buffer.entrySet()) {
+        chunks.startBucket(bucket.getKey());
+        for (HoodieRecord record : bucket.getValue()) {
+          serializeBuffer.clear();
+          this.recordSerializer.serialize(record, serializeBuffer);
+          chunks.add(serializeBuffer.getSharedBuffer(), 0, serializeBuffer.length());
+        }
+      }
+    } else {
+      for (String bucketID : this.binaryBuffer.getBucketIDs()) {
+        chunks.startBucket(bucketID);
+        this.binaryBuffer.forEachSerialized(bucketID, chunks::add);
+      }
+    }
+    chunks.finish();
+  }
+
+  /**
+   * Buffers the restored records that were not committed before the failover.
+   */
+  @SuppressWarnings("unchecked, rawtypes")
+  private void restoreFlushingRecords() throws Exception {
+    final String lastCompletedInstant =
+        this.writeClient.getLastCompletedInstant(this.config.get(FlinkOptions.TABLE_TYPE));
+    final DataInputDeserializer chunkInput = new DataInputDeserializer();
+    final DataInputDeserializer recordInput = new DataInputDeserializer();
+    int numRestored = 0;
+    for (byte[] chunk : this.flushingRecordsState.get()) {
+      chunkInput.setBuffer(chunk);
+      final String excludedInstant = chunkInput.readUTF();
+      final String bucketID = chunkInput.readUTF();
+      if (lastCompletedInstant != null && lastCompletedInstant.compareTo(excludedInstant) > 0) {
+        // the instant after the excluded one completed with the records
+        continue;
+      }
+      boolean ownerChecked = false;
+      while (chunkInput.available() > 0) {
+        final int length = chunkInput.readInt();
+        final int offset = chunkInput.getPosition();
+        chunkInput.skipBytesToRead(length);
+        if (this.binaryBuffer != null && ownerChecked) {
+          this.binaryBuffer.addSerialized(bucketID, chunk, offset, length);
+        } else {
+          recordInput.setBuffer(chunk, offset, length);
+          final HoodieRecord record = this.recordSerializer.deserialize(recordInput);
+          if (!ownerChecked) {
+            checkBucketOwner(bucketID, record);
+            ownerChecked = true;
+          }
+          putDataIntoBuffer((I) record);
+        }
+        numRestored++;
+      }
+    }
+    LOG.info("Subtask [{}] restored {} records handed over to the async flush before the failover", taskID, numRestored);
+  }
+
+  /**
+   * Checks that the bucket of a restored record is still owned by this subtask, which is not the case
+   * when the parallelism changed since the checkpoint.
+   */
+  @SuppressWarnings("rawtypes")
+  private void checkBucketOwner(String bucketID, HoodieRecord record) {
+    final String fileId = record.getCurrentLocation().getFileId();
+    final int owner = KeyGroupRangeAssignment.assignKeyToParallelOperator(
+        fileId, getRuntimeContext().getMaxNumberOfParallelSubtasks(), getRuntimeContext().getNumberOfParallelSubtasks());
+    if (owner != taskID) {
+      throw new HoodieException(String.format("Subtask [%s] restored the handed over records of bucket [%s], which "
+          + "belongs to subtask [%s]: the write parallelism changed since the checkpoint. Restore with the parallelism "
+          + "of the checkpoint and with %s disabled, then change the parallelism after the next checkpoint",
+          taskID, bucketID, owner, FlinkOptions.WRITE_ASYNC_FLUSH_ENABLED.key()));
+    }
+  }
+
+  /**
+   * Writes a handed over buffer, in the writer thread.
+   *
+   * @return the event to send to the coordinator or null if there is no instant to write
+   */
+  @SuppressWarnings("rawtypes")
+  private BatchWriteSuccessEvent writeBufferAsync(
+      Map<String, List<HoodieRecord>> buffer,
+      BinaryRecordBuffer binaryBuffer,
+      boolean isFinalBatch) {
+    final String tableType = this.config.get(FlinkOptions.TABLE_TYPE);
+    String instant = this.writeClient.getInflightAndRequestedInstant(tableType);
+    if (instant == null && isEmpty(buffer, binaryBuffer)) {
+      // in case there are empty checkpoints that has no input data
+      LOG.info("No inflight instant when flushing data, cancel.");
+      return null;
+    }
+    while (instant == null || instant.equals(this.lastReportedInstant)) {
+      // the coordinator commits the instant of the last checkpoint once it completes,
+      // then it starts a new instant
+      LOG.info("Subtask [{}] waits for a new instant after [{}] to flush data", taskID, this.lastReportedInstant);
+      try {
+        TimeUnit.MILLISECONDS.sleep(this.config.getLong(FlinkOptions.RETRY_INTERVAL_MS));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HoodieException("Interrupted while waiting for a new instant", e);
+      }
+      instant = this.writeClient.getInflightAndRequestedInstant(tableType);
+    }
+    final List<WriteStatus> writeStatus = writeBuffer(buffer, binaryBuffer, instant);
+    if (isFinalBatch) {
+      // close the files before the coordinator commits the instant
+      this.writeClient.cleanHandles();
+      this.lastReportedInstant = instant;
+    }
+    return new BatchWriteSuccessEvent(this.taskID, instant, writeStatus, isFinalBatch);
+  }
+
+  /**
+   * Writes the records of the given buffers under the instant and clears the buffers.
+   */
+  @SuppressWarnings("unchecked, rawtypes")
+  private List<WriteStatus> writeBuffer(
+      Map<String, List<HoodieRecord>> buffer,
+      BinaryRecordBuffer binaryBuffer,
+      String instant) {
     final List<WriteStatus> writeStatus;
-    if (buffer.size() > 0) {
+    if (binaryBuffer != null && !binaryBuffer.isEmpty()) {
       writeStatus = new ArrayList<>();
-      this.buffer.values()
+      // stream the records of each bucket in bounded batches, the write handle of the bucket is reused across them;
+      // the records of a bucket are deduplicated as a whole, so they are materialized at once then
+      final long maxBatchBytes = config.getBoolean(FlinkOptions.INSERT_DROP_DUPS)
+          ? Long.MAX_VALUE
+          : BINARY_BUFFER_WRITE_BATCH_BYTES;
+      for (String bucketID : binaryBuffer.getBucketIDs()) {
+        Iterator<List<HoodieRecord>> batches = binaryBuffer.getRecords(bucketID, maxBatchBytes);
+        while (batches.hasNext()) {
+          writeBucket(batches.next(), instant, writeStatus);
+        }
+      }
+    } else if (buffer.size() > 0) {
+      writeStatus = new ArrayList<>();
+      buffer.values()
           // The records are partitioned by the bucket ID and each batch sent to
           // the writer belongs to one bucket.
-          .forEach(records -> {
-            if (records.size() > 0) {
-              if (config.getBoolean(FlinkOptions.INSERT_DROP_DUPS)) {
-                records = FlinkWriteHelper.newInstance().deduplicateRecords(records, (HoodieIndex) null, -1);
-              }
-              writeStatus.addAll(writeFunction.apply(records, currentInstant));
-            }
-          });
+          .forEach(records -> writeBucket(records, instant, writeStatus));
     } else {
-      LOG.info("No data to write in subtask [{}] for instant [{}]", taskID, currentInstant);
+      LOG.info("No data to write in subtask [{}] for instant [{}]", taskID, instant);
       writeStatus = Collections.emptyList();
     }
-    this.eventGateway.sendEventToCoordinator(
-        new BatchWriteSuccessEvent(this.taskID, currentInstant, writeStatus, isFinalBatch));
-    this.buffer.clear();
-    this.currentInstant = "";
+    buffer.clear();
+    if (binaryBuffer != null) {
+      binaryBuffer.reset();
+    }
+    return writeStatus;
+  }
+
+  @SuppressWarnings("unchecked, rawtypes")
+  private void writeBucket(List<HoodieRecord> records, String instant, List<WriteStatus> writeStatus) {
+    if (records.size() > 0) {
+      if (config.getBoolean(FlinkOptions.INSERT_DROP_DUPS)) {
+        records = FlinkWriteHelper.newInstance().deduplicateRecords(records, (HoodieIndex) null, -1);
+      }
+      writeStatus.addAll(writeFunction.apply(records, instant));
+    }
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static boolean isEmpty(Map<String, List<HoodieRecord>> buffer, BinaryRecordBuffer binaryBuffer) {
+    return buffer.isEmpty() && (binaryBuffer == null || binaryBuffer.isEmpty());
+  }
+
+  /**
+   * Adds the serialized records of the handed over buffer to the state, in chunks of at most
+   * {@link #FLUSHING_RECORDS_CHUNK_BYTES} of records of one bucket. A chunk starts with the instant that does not
+   * contain its records and their bucket ID, followed by the length prefixed records.
+   */
+  private static class FlushingRecordsChunks {
+    private final ListState<byte[]> state;
+    private final String excludedInstant;
+    private final DataOutputSerializer chunk = new DataOutputSerializer(64 * 1024);
+    private String bucketID;
+    private int numRecords = 0;
+
+    FlushingRecordsChunks(ListState<byte[]> state, String excludedInstant) {
+      this.state = state;
+      this.excludedInstant = excludedInstant;
+    }
+
+    void startBucket(String bucketID) throws Exception {
+      finish();
+      this.bucketID = bucketID;
+    }
+
+    void add(byte[] bytes, int offset, int length) throws Exception {
+      if (numRecords > 0 && chunk.length() + Integer.BYTES + length > FLUSHING_RECORDS_CHUNK_BYTES) {
+        finish();
+      }
+      if (numRecords == 0) {
+        chunk.writeUTF(excludedInstant);
+        chunk.writeUTF(bucketID);
+      }
+      chunk.writeInt(length);
+      chunk.write(bytes, offset, length);
+      numRecords++;
+    }
+
+    void finish() throws Exception {
+      if (numRecords > 0) {
+        state.add(chunk.getCopyOfBuffer());
+        chunk.clear();
+        numRecords = 0;
+      }
+    }
   }
 }
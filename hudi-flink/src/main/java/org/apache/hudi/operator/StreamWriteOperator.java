@@ -18,27 +18,41 @@
 
 package org.apache.hudi.operator;
 
+import org.apache.hudi.util.StreamerUtil;
+
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.runtime.operators.coordination.OperatorEvent;
 import org.apache.flink.runtime.operators.coordination.OperatorEventGateway;
 import org.apache.flink.runtime.operators.coordination.OperatorEventHandler;
+import org.apache.flink.streaming.api.functions.KeyedProcessFunction;
 import org.apache.flink.streaming.api.operators.BoundedOneInput;
 import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
+import org.apache.flink.streaming.api.operators.MailboxExecutor;
 import org.apache.flink.streaming.api.operators.StreamSink;
 
 /**
  * Operator for {@link StreamSink}.
  *
+ * <p>The records are written by a {@link BulkInsertWriteFunction} for {@link FlinkOptions#OPERATION} 'bulk_insert',
+ * or by a {@link StreamWriteFunction} otherwise.
+ *
  * @param <I> The input type
  */
 public class StreamWriteOperator<I>
     extends KeyedProcessOperator<Object, I, Object>
     implements OperatorEventHandler, BoundedOneInput {
-  private final StreamWriteFunction<Object, I, Object> sinkFunction;
+  private final CoordinatedWriteFunction sinkFunction;
 
   public StreamWriteOperator(Configuration conf) {
-    super(new StreamWriteFunction<>(conf));
-    this.sinkFunction = (StreamWriteFunction<Object, I, Object>) getUserFunction();
+    super(createWriteFunction(conf));
+    this.sinkFunction = (CoordinatedWriteFunction) getUserFunction();
+  }
+
+  private static <I> KeyedProcessFunction<Object, I, Object> createWriteFunction(Configuration conf) {
+    if (StreamerUtil.isBulkInsert(conf)) {
+      return new BulkInsertWriteFunction<>(conf);
+    }
+    return new StreamWriteFunction<>(conf);
   }
 
   @Override
@@ -50,6 +64,13 @@ public class StreamWriteOperator<I>
     sinkFunction.setOperatorEventGateway(operatorEventGateway);
   }
 
+  void setMailboxExecutor(MailboxExecutor mailboxExecutor) {
+    if (sinkFunction instanceof StreamWriteFunction) {
+      // the async flush sends its events from the task thread
+      ((StreamWriteFunction<?, ?, ?>) sinkFunction).setMailboxExecutor(mailboxExecutor);
+    }
+  }
+
   @Override
   public void endInput() throws Exception {
     sinkFunction.endInput();
@@ -22,6 +22,9 @@ import org.apache.hudi.client.FlinkTaskContextSupplier;
 import org.apache.hudi.client.HoodieFlinkWriteClient;
 import org.apache.hudi.client.WriteStatus;
 import org.apache.hudi.client.common.HoodieFlinkEngineContext;
+import org.apache.hudi.common.model.HoodieTableType;
+import org.apache.hudi.common.util.CommitUtils;
+import org.apache.hudi.common.util.HoodieTimer;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.operator.event.BatchWriteSuccessEvent;
@@ -46,6 +49,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
@@ -64,6 +68,16 @@ import static org.apache.hudi.util.StreamerUtil.initTableIfNotExists;
  *
  * <p>If there is no data for a round of checkpointing, it rolls back the metadata.
  *
+ * <p>With {@link FlinkOptions#WRITE_ASYNC_FLUSH_ENABLED}, the tasks may still write the buffer of a checkpoint
+ * when the checkpoint completes. The coordinator then defers the commit, it commits the instant
+ * and starts a new one once all the tasks report the last batch.
+ *
+ * <p>The write client of the coordinator caches the table meta client and only reloads its active timeline
+ * to start and commit the instants. With {@link FlinkOptions#WRITE_ASYNC_POST_COMMIT_ENABLED}, the post commit
+ * actions of an instant, i.e. the marker files cleaning, archiving and cleaning, run asynchronously and overlap
+ * with the start of the next instant. The latencies of the commit and the instant start are reported as histograms
+ * of the write client metrics.
+ *
  * @see StreamWriteFunction for the work flow and semantics
  */
 public class StreamWriteOperatorCoordinator
@@ -111,6 +125,22 @@ public class StreamWriteOperatorCoordinator
    */
   private final boolean needsScheduleCompaction;
 
+  /**
+   * Whether the write tasks flush the buffer asynchronously.
+   */
+  private final boolean asyncFlush;
+
+  /**
+   * Whether a checkpoint completed while the tasks were still writing the instant,
+   * the instant is committed once all the tasks report the last batch.
+   */
+  private boolean commitPending = false;
+
+  /**
+   * The commit action of the table type.
+   */
+  private final String commitActionType;
+
   /**
    * Constructs a StreamingSinkOperatorCoordinator.
    *
@@ -126,6 +156,9 @@ public class StreamWriteOperatorCoordinator
     this.parallelism = parallelism;
     this.needsScheduleCompaction = StreamerUtil.needsScheduleCompaction(conf);
     this.isBounded = isBounded;
+    this.asyncFlush = conf.getBoolean(FlinkOptions.WRITE_ASYNC_FLUSH_ENABLED);
+    this.commitActionType = CommitUtils.getCommitActionType(
+        HoodieTableType.valueOf(conf.getString(FlinkOptions.TABLE_TYPE)));
   }
 
   @Override
@@ -170,6 +203,16 @@ public class StreamWriteOperatorCoordinator
 
   @Override
   public void checkpointComplete(long checkpointId) {
+    if (asyncFlush && !checkReady()) {
+      // the tasks are still writing the buffer of the checkpoint
+      LOG.info("Checkpoint {} completed, commit instant [{}] once all the tasks finish writing", checkpointId, this.instant);
+      this.commitPending = true;
+      return;
+    }
+    commitAndStartInstant();
+  }
+
+  private void commitAndStartInstant() {
     // start to commit the instant.
     checkAndCommitWithRetry();
     // if async compaction is on, schedule the compaction
@@ -181,8 +224,10 @@ public class StreamWriteOperatorCoordinator
   }
 
   private void startInstant() {
+    HoodieTimer timer = new HoodieTimer().startTimer();
     this.instant = this.writeClient.startCommit();
     this.writeClient.transitionRequestedToInflight(conf.getString(FlinkOptions.TABLE_TYPE), this.instant);
+    this.writeClient.getMetrics().updateStreamingCommitLatency("startInstant", timer.endTimer());
     LOG.info("Create instant [{}] for table [{}] with type [{}]", this.instant,
             this.conf.getString(FlinkOptions.TABLE_NAME), conf.getString(FlinkOptions.TABLE_TYPE));
   }
@@ -190,6 +235,11 @@ public class StreamWriteOperatorCoordinator
   public void notifyCheckpointAborted(long checkpointId) {
     Preconditions.checkState(inFlightCheckpoint == checkpointId,
         "The aborted checkpoint should always be the last checkpoint");
+    if (commitPending) {
+      // the instant belongs to an earlier completed checkpoint, it is committed when the tasks finish writing it
+      LOG.warn("Checkpoint {} was aborted while instant [{}] is pending to commit", checkpointId, this.instant);
+      return;
+    }
     checkAndForceCommit("The last checkpoint was aborted, roll back the last write and throw");
   }
 
@@ -215,6 +265,10 @@ public class StreamWriteOperatorCoordinator
     } else {
       this.eventBuffer[event.getTaskID()] = event;
     }
+    if (this.commitPending && checkReady()) {
+      this.commitPending = false;
+      commitAndStartInstant();
+    }
   }
 
   @Override
@@ -232,6 +286,9 @@ public class StreamWriteOperatorCoordinator
         new HoodieFlinkEngineContext(new FlinkTaskContextSupplier(null)),
         StreamerUtil.getHoodieClientConfig(this.conf),
         true);
+    if (this.conf.getBoolean(FlinkOptions.WRITE_ASYNC_POST_COMMIT_ENABLED)) {
+      writeClient.startAsyncPostCommit();
+    }
   }
 
   static byte[] readBytes(DataInputStream in, int size) throws IOException {
@@ -290,6 +347,7 @@ public class StreamWriteOperatorCoordinator
       String inflightInstant = writeClient.getInflightAndRequestedInstant(this.conf.getString(FlinkOptions.TABLE_TYPE));
       if (inflightInstant != null) {
         assert inflightInstant.equals(this.instant);
+        writeClient.waitForPostCommit();
         writeClient.rollback(this.instant);
         throw new HoodieException(errMsg);
       }
@@ -378,7 +436,11 @@ public class StreamWriteOperatorCoordinator
             + totalErrorRecords + "/" + totalRecords);
       }
 
-      boolean success = writeClient.commit(this.instant, writeResults, Option.of(checkpointCommitMetadata));
+      HoodieTimer timer = new HoodieTimer().startTimer();
+      // pass the commit action in to save the reloading of the table meta client
+      boolean success = writeClient.commit(this.instant, writeResults, Option.of(checkpointCommitMetadata),
+          this.commitActionType, Collections.emptyMap());
+      writeClient.getMetrics().updateStreamingCommitLatency("commit", timer.endTimer());
       if (success) {
         reset();
         LOG.info("Commit instant [{}] success!", this.instant);
@@ -396,6 +458,7 @@ public class StreamWriteOperatorCoordinator
         }
       });
       // Rolls back instant
+      writeClient.waitForPostCommit();
       writeClient.rollback(this.instant);
       throw new HoodieException(String.format("Commit instant [%s] failed and rolled back !", this.instant));
     }
@@ -23,10 +23,12 @@ import org.apache.flink.runtime.jobgraph.OperatorID;
 import org.apache.flink.runtime.operators.coordination.OperatorCoordinator;
 import org.apache.flink.runtime.operators.coordination.OperatorEventDispatcher;
 import org.apache.flink.streaming.api.operators.CoordinatedOperatorFactory;
+import org.apache.flink.streaming.api.operators.MailboxExecutor;
 import org.apache.flink.streaming.api.operators.OneInputStreamOperatorFactory;
 import org.apache.flink.streaming.api.operators.SimpleUdfStreamOperatorFactory;
 import org.apache.flink.streaming.api.operators.StreamOperator;
 import org.apache.flink.streaming.api.operators.StreamOperatorParameters;
+import org.apache.flink.streaming.api.operators.YieldingOperatorFactory;
 import org.apache.flink.streaming.runtime.tasks.ProcessingTimeService;
 
 /**
@@ -34,13 +36,15 @@ import org.apache.flink.streaming.runtime.tasks.ProcessingTimeService;
  */
 public class StreamWriteOperatorFactory<I>
     extends SimpleUdfStreamOperatorFactory<Object>
-    implements CoordinatedOperatorFactory<Object>, OneInputStreamOperatorFactory<I, Object> {
+    implements CoordinatedOperatorFactory<Object>, OneInputStreamOperatorFactory<I, Object>, YieldingOperatorFactory<Object> {
   private static final long serialVersionUID = 1L;
 
   private final StreamWriteOperator<I> operator;
   private final Configuration conf;
   private final boolean isBounded;
 
+  private transient MailboxExecutor mailboxExecutor;
+
   public StreamWriteOperatorFactory(
       Configuration conf) {
     this(conf, false);
@@ -62,12 +66,18 @@ public class StreamWriteOperatorFactory<I>
     final OperatorEventDispatcher eventDispatcher = parameters.getOperatorEventDispatcher();
 
     this.operator.setOperatorEventGateway(eventDispatcher.getOperatorEventGateway(operatorID));
+    this.operator.setMailboxExecutor(this.mailboxExecutor);
     this.operator.setup(parameters.getContainingTask(), parameters.getStreamConfig(), parameters.getOutput());
     this.operator.setProcessingTimeService(this.processingTimeService);
     eventDispatcher.registerEventHandler(operatorID, operator);
     return (T) operator;
   }
 
+  @Override
+  public void setMailboxExecutor(MailboxExecutor mailboxExecutor) {
+    this.mailboxExecutor = mailboxExecutor;
+  }
+
   @Override
   public OperatorCoordinator.Provider getCoordinatorProvider(String s, OperatorID operatorID) {
     return new StreamWriteOperatorCoordinator.Provider(operatorID, this.conf, isBounded);
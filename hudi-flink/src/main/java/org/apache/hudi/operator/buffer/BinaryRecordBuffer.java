@@ -0,0 +1,439 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.operator.buffer;
+
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.exception.HoodieException;
+import org.apache.hudi.exception.HoodieIOException;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Write buffer that keeps the records as serialized bytes in memory pages, grouped by bucket
+ * (partition path and file ID).
+ *
+ * <p>The records of a bucket are only pointed to by their offset and length into the pages, so the buffer
+ * costs no objects per record. The pages are heap segments, so the memory budget counts against the task heap
+ * like the records of the object buffer do. When the memory budget is used up, the buffered records are spilled
+ * to a local file as one run sorted by bucket, and the pages are reused for the next records.
+ *
+ * <p>The records are streamed one bucket at a time in bounded batches when the buffer is written out, first
+ * from the spilled runs in spilling order, then from the memory pages, which keeps the arrival order of the
+ * records of a bucket.
+ *
+ * <p>The buffer is not thread safe.
+ */
+@SuppressWarnings("rawtypes")
+public class BinaryRecordBuffer implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BinaryRecordBuffer.class);
+
+  private static final int SPILL_IO_BUFFER_SIZE = 64 * 1024;
+
+  private final TypeSerializer<HoodieRecord> serializer;
+
+  private final int pageSize;
+
+  private final int maxPages;
+
+  private final File[] spillDirs;
+
+  /**
+   * Memory pages allocated so far, they are kept across checkpoints.
+   */
+  private final List<MemorySegment> pages = new ArrayList<>();
+
+  /**
+   * Position in the pages to write the next record at.
+   */
+  private long writePosition = 0L;
+
+  /**
+   * Bucket ID -> pointers of the records of the bucket in the memory pages.
+   */
+  private final Map<String, RecordPointers> buckets = new TreeMap<>();
+
+  private final List<SpilledRun> spilledRuns = new ArrayList<>();
+
+  private final DataOutputSerializer serializeBuffer = new DataOutputSerializer(1024);
+
+  private final DataInputDeserializer deserializeBuffer = new DataInputDeserializer();
+
+  private byte[] copyBuffer = new byte[1024];
+
+  /**
+   * The spilled file being read, if any.
+   */
+  private DataInputStream spillInput;
+
+  private long numRecords = 0L;
+
+  public BinaryRecordBuffer(TypeSerializer<HoodieRecord> serializer, long memoryBudget, int pageSize, String[] spillDirs) {
+    this.serializer = serializer;
+    this.pageSize = pageSize;
+    this.maxPages = (int) Math.max(1, memoryBudget / pageSize);
+    this.spillDirs = Arrays.stream(spillDirs).map(File::new).toArray(File[]::new);
+  }
+
+  /**
+   * Adds a record to the buffer, spills the buffered records first if the record does not fit into the memory budget.
+   */
+  public void add(String bucketID, HoodieRecord record) throws IOException {
+    serializeBuffer.clear();
+    serializer.serialize(record, serializeBuffer);
+    addSerialized(bucketID, serializeBuffer.getSharedBuffer(), 0, serializeBuffer.length());
+  }
+
+  /**
+   * Adds a record serialized by the serializer of the buffer, e.g. one passed out by
+   * {@link #forEachSerialized(String, SerializedRecordConsumer)}.
+   */
+  public void addSerialized(String bucketID, byte[] bytes, int offset, int length) throws IOException {
+    final long capacity = (long) maxPages * pageSize;
+    if (length > capacity) {
+      throw new HoodieException("Record of " + length + " bytes does not fit into the write buffer of " + capacity + " bytes");
+    }
+    if (writePosition + length > capacity) {
+      spill();
+    }
+    writeBytes(bytes, offset, length);
+    buckets.computeIfAbsent(bucketID, k -> new RecordPointers()).add(writePosition, length);
+    writePosition += length;
+    numRecords++;
+  }
+
+  /**
+   * Returns the IDs of all the buckets in the buffer, sorted.
+   */
+  public Set<String> getBucketIDs() {
+    Set<String> bucketIDs = new TreeSet<>(buckets.keySet());
+    spilledRuns.forEach(run -> bucketIDs.addAll(run.buckets.keySet()));
+    return bucketIDs;
+  }
+
+  /**
+   * Streams the records of a bucket in arrival order, as batches of at most the given serialized size (with at
+   * least one record each), so that only one batch of the bucket is materialized at a time.
+   */
+  public Iterator<List<HoodieRecord>> getRecords(String bucketID, long maxBatchBytes) {
+    final BucketReader reader = new BucketReader(bucketID);
+    return new Iterator<List<HoodieRecord>>() {
+      @Override
+      public boolean hasNext() {
+        return reader.hasNext();
+      }
+
+      @Override
+      public List<HoodieRecord> next() {
+        List<HoodieRecord> batch = new ArrayList<>();
+        long batchBytes = 0L;
+        do {
+          batch.add(reader.next());
+          batchBytes += reader.lastLength;
+        } while (batchBytes < maxBatchBytes && reader.hasNext());
+        return batch;
+      }
+    };
+  }
+
+  /**
+   * Passes the serialized records of a bucket to the consumer in arrival order, without deserializing them.
+   * The bytes are only valid during the call.
+   */
+  public void forEachSerialized(String bucketID, SerializedRecordConsumer consumer) throws Exception {
+    final BucketReader reader = new BucketReader(bucketID);
+    while (reader.hasNext()) {
+      byte[] bytes = reader.nextSerialized();
+      consumer.accept(bytes, 0, reader.lastLength);
+    }
+  }
+
+  public long getNumRecords() {
+    return numRecords;
+  }
+
+  public boolean isEmpty() {
+    return numRecords == 0;
+  }
+
+  @VisibleForTesting
+  public int getNumSpilledRuns() {
+    return spilledRuns.size();
+  }
+
+  /**
+   * Drops all the buffered records and deletes the spilled files, the memory pages are kept for reuse.
+   */
+  public void reset() {
+    closeSpillInput();
+    buckets.clear();
+    writePosition = 0L;
+    numRecords = 0L;
+    for (SpilledRun run : spilledRuns) {
+      if (!run.file.delete()) {
+        LOG.warn("Failed to delete spilled write buffer file {}", run.file);
+      }
+    }
+    spilledRuns.clear();
+  }
+
+  /**
+   * Drops all the buffered records and releases the memory pages.
+   */
+  @Override
+  public void close() {
+    reset();
+    pages.forEach(MemorySegment::free);
+    pages.clear();
+  }
+
+  // -------------------------------------------------------------------------
+  //  Utilities
+  // -------------------------------------------------------------------------
+
+  /**
+   * Writes the records of the memory pages to a new local file, grouped by bucket in bucket ID order.
+   */
+  private void spill() throws IOException {
+    File dir = spillDirs[spilledRuns.size() % spillDirs.length];
+    SpilledRun run = new SpilledRun(new File(dir, "hudi-write-buffer-" + UUID.randomUUID() + ".spill"));
+    // register the run before writing it so that reset() cleans the file up on failures
+    spilledRuns.add(run);
+    long position = 0L;
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(run.file), SPILL_IO_BUFFER_SIZE))) {
+      for (Map.Entry<String, RecordPointers> entry : buckets.entrySet()) {
+        RecordPointers pointers = entry.getValue();
+        run.buckets.put(entry.getKey(), new SpilledBucket(position, pointers.size));
+        for (int i = 0; i < pointers.size; i++) {
+          int length = pointers.lengths[i];
+          out.writeInt(length);
+          out.write(readBytes(pointers.offsets[i], length), 0, length);
+          position += Integer.BYTES + length;
+        }
+      }
+    }
+    LOG.info("Spilled {} bytes of {} buckets of the write buffer to {}", writePosition, buckets.size(), run.file);
+    buckets.clear();
+    writePosition = 0L;
+  }
+
+  private void writeBytes(byte[] bytes, int offset, int length) {
+    long position = writePosition;
+    int written = 0;
+    while (written < length) {
+      int pageIndex = (int) (position / pageSize);
+      int offsetInPage = (int) (position % pageSize);
+      if (pageIndex == pages.size()) {
+        pages.add(MemorySegmentFactory.allocateUnpooledSegment(pageSize));
+      }
+      int toWrite = Math.min(length - written, pageSize - offsetInPage);
+      pages.get(pageIndex).put(offsetInPage, bytes, offset + written, toWrite);
+      written += toWrite;
+      position += toWrite;
+    }
+  }
+
+  private byte[] readBytes(long offset, int length) {
+    byte[] bytes = getCopyBuffer(length);
+    long position = offset;
+    int read = 0;
+    while (read < length) {
+      int pageIndex = (int) (position / pageSize);
+      int offsetInPage = (int) (position % pageSize);
+      int toRead = Math.min(length - read, pageSize - offsetInPage);
+      pages.get(pageIndex).get(offsetInPage, bytes, read, toRead);
+      read += toRead;
+      position += toRead;
+    }
+    return bytes;
+  }
+
+  private byte[] getCopyBuffer(int length) {
+    if (copyBuffer.length < length) {
+      copyBuffer = new byte[Math.max(length, copyBuffer.length * 2)];
+    }
+    return copyBuffer;
+  }
+
+  private HoodieRecord deserialize(byte[] bytes, int length) throws IOException {
+    deserializeBuffer.setBuffer(bytes, 0, length);
+    return serializer.deserialize(deserializeBuffer);
+  }
+
+  private void closeSpillInput() {
+    if (spillInput != null) {
+      try {
+        spillInput.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close spilled write buffer file", e);
+      }
+      spillInput = null;
+    }
+  }
+
+  /**
+   * Reads the records of a bucket one by one, first from the spilled runs in spilling order, then from the memory
+   * pages. Only one spilled file is open at a time.
+   */
+  private class BucketReader {
+    private final String bucketID;
+    private final RecordPointers pointers;
+    private int nextRun = 0;
+    private int spilledRemaining = 0;
+    private int nextPointer = 0;
+    private int lastLength;
+
+    BucketReader(String bucketID) {
+      this.bucketID = bucketID;
+      this.pointers = buckets.get(bucketID);
+    }
+
+    boolean hasNext() {
+      try {
+        while (spilledRemaining == 0 && nextRun < spilledRuns.size()) {
+          closeSpillInput();
+          SpilledRun run = spilledRuns.get(nextRun++);
+          SpilledBucket spilledBucket = run.buckets.get(bucketID);
+          if (spilledBucket != null) {
+            FileInputStream fileIn = new FileInputStream(run.file);
+            fileIn.getChannel().position(spilledBucket.position);
+            spillInput = new DataInputStream(new BufferedInputStream(fileIn, SPILL_IO_BUFFER_SIZE));
+            spilledRemaining = spilledBucket.numRecords;
+          }
+        }
+      } catch (IOException e) {
+        throw new HoodieIOException("Failed to open the spilled write buffer of bucket " + bucketID, e);
+      }
+      return spilledRemaining > 0 || (pointers != null && nextPointer < pointers.size);
+    }
+
+    HoodieRecord next() {
+      byte[] bytes = nextSerialized();
+      try {
+        return deserialize(bytes, lastLength);
+      } catch (IOException e) {
+        throw new HoodieIOException("Failed to read the write buffer of bucket " + bucketID, e);
+      }
+    }
+
+    /**
+     * Returns the copy buffer holding the next serialized record in its first {@code lastLength} bytes.
+     */
+    byte[] nextSerialized() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("No more records of bucket " + bucketID);
+      }
+      try {
+        if (spilledRemaining > 0) {
+          lastLength = spillInput.readInt();
+          byte[] bytes = getCopyBuffer(lastLength);
+          spillInput.readFully(bytes, 0, lastLength);
+          if (--spilledRemaining == 0) {
+            closeSpillInput();
+          }
+          return bytes;
+        }
+        lastLength = pointers.lengths[nextPointer];
+        byte[] bytes = readBytes(pointers.offsets[nextPointer], lastLength);
+        nextPointer++;
+        return bytes;
+      } catch (IOException e) {
+        throw new HoodieIOException("Failed to read the write buffer of bucket " + bucketID, e);
+      }
+    }
+  }
+
+  /**
+   * Consumer of the serialized records of a bucket.
+   */
+  @FunctionalInterface
+  public interface SerializedRecordConsumer {
+    void accept(byte[] bytes, int offset, int length) throws Exception;
+  }
+
+  /**
+   * Offsets and lengths of the records of a bucket in the memory pages, in arrival order.
+   */
+  private static class RecordPointers {
+    long[] offsets = new long[16];
+    int[] lengths = new int[16];
+    int size = 0;
+
+    void add(long offset, int length) {
+      if (size == offsets.length) {
+        offsets = Arrays.copyOf(offsets, size * 2);
+        lengths = Arrays.copyOf(lengths, size * 2);
+      }
+      offsets[size] = offset;
+      lengths[size] = length;
+      size++;
+    }
+  }
+
+  /**
+   * A spilled file, with the records of each bucket stored contiguously as length prefixed bytes.
+   */
+  private static class SpilledRun {
+    final File file;
+    final Map<String, SpilledBucket> buckets = new HashMap<>();
+
+    SpilledRun(File file) {
+      this.file = file;
+    }
+  }
+
+  private static class SpilledBucket {
+    final long position;
+    final int numRecords;
+
+    SpilledBucket(long position, int numRecords) {
+      this.position = position;
+      this.numRecords = numRecords;
+    }
+  }
+}
@@ -24,21 +24,41 @@ import org.apache.hudi.client.WriteStatus;
 import org.apache.hudi.client.common.HoodieFlinkEngineContext;
 import org.apache.hudi.common.config.SerializableConfiguration;
 import org.apache.hudi.common.model.CompactionOperation;
+import org.apache.hudi.config.HoodieMemoryConfig;
+import org.apache.hudi.operator.FlinkOptions;
 import org.apache.hudi.table.HoodieFlinkCopyOnWriteTable;
 import org.apache.hudi.table.action.compact.HoodieFlinkMergeOnReadTableCompactor;
+import org.apache.hudi.table.action.compact.strategy.CompactionStrategy;
 import org.apache.hudi.util.StreamerUtil;
 
 import org.apache.flink.configuration.Configuration;
-import org.apache.flink.streaming.api.functions.KeyedProcessFunction;
-import org.apache.flink.util.Collector;
+import org.apache.flink.streaming.api.functions.async.ResultFuture;
+import org.apache.flink.streaming.api.functions.async.RichAsyncFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Function to execute the actual compaction task assigned by the compaction plan task.
  * In order to execute scalable, the input should shuffle by the compact event {@link CompactionPlanEvent}.
+ *
+ * <p>The compaction operations run on an executor of the function, so a slow compaction does not block
+ * the checkpoints of the task, see {@code AsyncWaitOperator}. At most {@link FlinkOptions#COMPACTION_CONCURRENCY}
+ * operations run at the same time, the pending operations are taken by the size of their log files, largest first.
+ * Each operation reserves a memory budget sized with its log files out of {@link FlinkOptions#COMPACTION_MAX_MEMORY}
+ * before it starts, the budget bounds the in-memory log records of its merged log scanner.
+ * The write client and its meta client are not thread safe, each operation gets its own table
+ * with a fresh meta client, created by the task thread when the operation arrives.
  */
-public class CompactFunction extends KeyedProcessFunction<Long, CompactionPlanEvent, CompactionCommitEvent> {
+public class CompactFunction extends RichAsyncFunction<CompactionPlanEvent, CompactionCommitEvent> {
+  private static final Logger LOG = LoggerFactory.getLogger(CompactFunction.class);
+
+  private static final long serialVersionUID = 1L;
 
   /**
    * Config options.
@@ -55,6 +75,16 @@ public class CompactFunction extends KeyedProcessFunction<Long, CompactionPlanEv
    */
   private int taskID;
 
+  /**
+   * Executor of the compaction operations, the pending operations are ordered largest first.
+   */
+  private transient ThreadPoolExecutor executor;
+
+  /**
+   * Memory shared by the running compaction operations.
+   */
+  private transient MemoryBudget memoryBudget;
+
   public CompactFunction(Configuration conf) {
     this.conf = conf;
   }
@@ -63,24 +93,65 @@ public class CompactFunction extends KeyedProcessFunction<Long, CompactionPlanEv
   public void open(Configuration parameters) throws Exception {
     this.taskID = getRuntimeContext().getIndexOfThisSubtask();
     initWriteClient();
+    final int concurrency = this.conf.getInteger(FlinkOptions.COMPACTION_CONCURRENCY);
+    this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+        // the compaction tasks are comparable
+        new PriorityBlockingQueue<>(),
+        r -> {
+          Thread t = new Thread(r, "hoodie-compact-" + taskID);
+          t.setDaemon(true);
+          return t;
+        });
+    this.memoryBudget = new MemoryBudget(this.conf.getInteger(FlinkOptions.COMPACTION_MAX_MEMORY) * 1024L * 1024L);
   }
 
   @Override
-  public void processElement(CompactionPlanEvent event, Context context, Collector<CompactionCommitEvent> collector) throws Exception {
+  public void asyncInvoke(CompactionPlanEvent event, ResultFuture<CompactionCommitEvent> resultFuture) {
+    HoodieFlinkCopyOnWriteTable<?> table = new HoodieFlinkCopyOnWriteTable<>(
+        this.writeClient.getConfig(),
+        this.writeClient.getEngineContext(),
+        this.writeClient.getHoodieTable().getMetaClient());
+    this.executor.execute(new CompactionTask(event, table, resultFuture));
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (this.executor != null) {
+      this.executor.shutdownNow();
+      if (!this.executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        LOG.warn("The compaction threads of subtask [{}] did not terminate in time", taskID);
+      }
+    }
+    super.close();
+  }
+
+  private void compact(
+      CompactionPlanEvent event,
+      HoodieFlinkCopyOnWriteTable<?> table,
+      ResultFuture<CompactionCommitEvent> resultFuture) throws Exception {
     final String instantTime = event.getCompactionInstantTime();
     final CompactionOperation compactionOperation = event.getOperation();
+    final long budget = memoryBudget.budgetOf(getLogFileSize(compactionOperation));
 
-    HoodieFlinkMergeOnReadTableCompactor compactor = new HoodieFlinkMergeOnReadTableCompactor();
-    List<WriteStatus> writeStatuses = compactor.compact(
-        new HoodieFlinkCopyOnWriteTable<>(
-            this.writeClient.getConfig(),
-            this.writeClient.getEngineContext(),
-            this.writeClient.getHoodieTable().getMetaClient()),
-        this.writeClient.getHoodieTable().getMetaClient(),
-        this.writeClient.getConfig(),
-        compactionOperation,
-        instantTime);
-    collector.collect(new CompactionCommitEvent(instantTime, writeStatuses, taskID));
+    memoryBudget.acquire(budget);
+    try {
+      HoodieFlinkMergeOnReadTableCompactor compactor = new HoodieFlinkMergeOnReadTableCompactor();
+      List<WriteStatus> writeStatuses = compactor.compact(
+          table,
+          table.getMetaClient(),
+          table.getConfig(),
+          compactionOperation,
+          instantTime,
+          budget);
+      resultFuture.complete(Collections.singletonList(new CompactionCommitEvent(instantTime, writeStatuses, taskID)));
+    } finally {
+      memoryBudget.release(budget);
+    }
+  }
+
+  private static long getLogFileSize(CompactionOperation operation) {
+    Double size = operation.getMetrics().get(CompactionStrategy.TOTAL_LOG_FILE_SIZE);
+    return size == null ? 0L : size.longValue();
   }
 
   private void initWriteClient() {
@@ -91,4 +162,78 @@ public class CompactFunction extends KeyedProcessFunction<Long, CompactionPlanEv
 
     writeClient = new HoodieFlinkWriteClient<>(context, StreamerUtil.getHoodieClientConfig(conf));
   }
+
+  // -------------------------------------------------------------------------
+  //  Inner Class
+  // -------------------------------------------------------------------------
+
+  /**
+   * A compaction operation to execute, the larger operation with more log data comes first.
+   */
+  private class CompactionTask implements Runnable, Comparable<CompactionTask> {
+    private final CompactionPlanEvent event;
+    private final HoodieFlinkCopyOnWriteTable<?> table;
+    private final ResultFuture<CompactionCommitEvent> resultFuture;
+    private final long logFileSize;
+
+    CompactionTask(
+        CompactionPlanEvent event,
+        HoodieFlinkCopyOnWriteTable<?> table,
+        ResultFuture<CompactionCommitEvent> resultFuture) {
+      this.event = event;
+      this.table = table;
+      this.resultFuture = resultFuture;
+      this.logFileSize = getLogFileSize(event.getOperation());
+    }
+
+    @Override
+    public void run() {
+      try {
+        compact(event, table, resultFuture);
+      } catch (Throwable t) {
+        LOG.error("Compaction of file group {} for instant {} failed",
+            event.getOperation().getFileId(), event.getCompactionInstantTime(), t);
+        resultFuture.completeExceptionally(t);
+      }
+    }
+
+    @Override
+    public int compareTo(CompactionTask other) {
+      return Long.compare(other.logFileSize, this.logFileSize);
+    }
+  }
+
+  /**
+   * Memory shared by the running compaction operations, an operation waits until its budget is available.
+   */
+  private static class MemoryBudget {
+    private final long totalBytes;
+    private long availableBytes;
+
+    MemoryBudget(long totalBytes) {
+      this.totalBytes = totalBytes;
+      this.availableBytes = totalBytes;
+    }
+
+    /**
+     * Returns the budget of an operation with the given log file size: the log size, but at least
+     * the min memory of a spillable map and at most the total memory.
+     */
+    long budgetOf(long logFileSize) {
+      long budget = Math.max(logFileSize, HoodieMemoryConfig.DEFAULT_MIN_MEMORY_FOR_SPILLABLE_MAP_IN_BYTES);
+      return Math.min(budget, totalBytes);
+    }
+
+    synchronized void acquire(long bytes) throws InterruptedException {
+      while (availableBytes < bytes) {
+        wait();
+      }
+      availableBytes -= bytes;
+    }
+
+    synchronized void release(long bytes) {
+      availableBytes += bytes;
+      notifyAll();
+    }
+  }
 }
@@ -75,6 +75,11 @@ public class CompactionCommitSink extends RichSinkFunction<CompactionCommitEvent
    */
   private String compactionInstantTime;
 
+  /**
+   * Number of the operations of the current compaction plan, loaded once per instant.
+   */
+  private transient int numOperations;
+
   public CompactionCommitSink(Configuration conf) {
     this.conf = conf;
   }
@@ -84,6 +89,7 @@ public class CompactionCommitSink extends RichSinkFunction<CompactionCommitEvent
     super.open(parameters);
     initWriteClient();
     this.commitBuffer = new ArrayList<>();
+    this.numOperations = -1;
   }
 
   @Override
@@ -94,7 +100,9 @@ public class CompactionCommitSink extends RichSinkFunction<CompactionCommitEvent
       // last compaction still not finish, rolls it back
       HoodieInstant inflightInstant = HoodieTimeline.getCompactionInflightInstant(this.compactionInstantTime);
       writeClient.rollbackInflightCompaction(inflightInstant);
+      this.commitBuffer.clear();
       this.compactionInstantTime = event.getInstant();
+      this.numOperations = -1;
     }
     this.commitBuffer.add(event);
     commitIfNecessary();
@@ -105,9 +113,12 @@ public class CompactionCommitSink extends RichSinkFunction<CompactionCommitEvent
    * and all the compact commit event {@link CompactionCommitEvent} has the same compaction instant time.
    */
   private void commitIfNecessary() throws IOException {
-    HoodieCompactionPlan compactionPlan = CompactionUtils.getCompactionPlan(
-        this.writeClient.getHoodieTable().getMetaClient(), compactionInstantTime);
-    boolean isReady = compactionPlan.getOperations().size() == commitBuffer.size()
+    if (this.numOperations < 0) {
+      HoodieCompactionPlan compactionPlan = CompactionUtils.getCompactionPlan(
+          this.writeClient.getHoodieTable().getMetaClient(), compactionInstantTime);
+      this.numOperations = compactionPlan.getOperations().size();
+    }
+    boolean isReady = this.numOperations == commitBuffer.size()
         && commitBuffer.stream().allMatch(event -> event != null && Objects.equals(event.getInstant(), compactionInstantTime));
     if (!isReady) {
       return;
@@ -137,6 +148,7 @@ public class CompactionCommitSink extends RichSinkFunction<CompactionCommitEvent
   private void reset() {
     this.commitBuffer.clear();
     this.compactionInstantTime = null;
+    this.numOperations = -1;
   }
 
   private void initWriteClient() {
@@ -29,6 +29,7 @@ import org.apache.hudi.common.table.timeline.HoodieTimeline;
 import org.apache.hudi.common.util.CompactionUtils;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.table.HoodieFlinkTable;
+import org.apache.hudi.table.action.compact.strategy.CompactionStrategy;
 import org.apache.hudi.util.StreamerUtil;
 
 import org.apache.flink.annotation.VisibleForTesting;
@@ -39,6 +40,7 @@ import org.apache.flink.streaming.api.operators.Output;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 
 import java.io.IOException;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
@@ -121,8 +123,11 @@ public class CompactionPlanOperator extends AbstractStreamOperator<CompactionPla
       table.getActiveTimeline().transitionCompactionRequestedToInflight(instant);
       table.getMetaClient().reloadActiveTimeline();
 
+      // emits the largest operations first, they take the longest to compact
       List<CompactionOperation> operations = compactionPlan.getOperations().stream()
-          .map(CompactionOperation::convertFromAvroRecordInstance).collect(toList());
+          .map(CompactionOperation::convertFromAvroRecordInstance)
+          .sorted(Comparator.comparingDouble(CompactionPlanOperator::getLogFileSize).reversed())
+          .collect(toList());
       LOG.info("CompactionPlanFunction compacting " + operations + " files");
       for (CompactionOperation operation : operations) {
         output.collect(new StreamRecord<>(new CompactionPlanEvent(compactionInstantTime, operation)));
@@ -130,6 +135,10 @@ public class CompactionPlanOperator extends AbstractStreamOperator<CompactionPla
     }
   }
 
+  private static double getLogFileSize(CompactionOperation operation) {
+    return operation.getMetrics().getOrDefault(CompactionStrategy.TOTAL_LOG_FILE_SIZE, 0d);
+  }
+
   @VisibleForTesting
   public void setOutput(Output<StreamRecord<CompactionPlanEvent>> output) {
     this.output = output;
@@ -20,22 +20,31 @@ package org.apache.hudi.operator.partitioner;
 
 import org.apache.hudi.client.FlinkTaskContextSupplier;
 import org.apache.hudi.client.common.HoodieFlinkEngineContext;
+import org.apache.hudi.common.bloom.BloomFilter;
 import org.apache.hudi.common.config.SerializableConfiguration;
 import org.apache.hudi.common.fs.FSUtils;
 import org.apache.hudi.common.model.HoodieBaseFile;
+import org.apache.hudi.common.model.HoodieCommitMetadata;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.HoodieReplaceCommitMetadata;
 import org.apache.hudi.common.model.HoodieTableType;
 import org.apache.hudi.common.model.WriteOperationType;
+import org.apache.hudi.common.table.timeline.HoodieInstant;
+import org.apache.hudi.common.table.timeline.HoodieTimeline;
+import org.apache.hudi.common.util.CollectionUtils;
 import org.apache.hudi.common.util.ParquetUtils;
+import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.exception.HoodieIOException;
+import org.apache.hudi.index.HoodieIndex;
 import org.apache.hudi.index.HoodieIndexUtils;
 import org.apache.hudi.operator.FlinkOptions;
 import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.table.action.commit.BucketInfo;
+import org.apache.hudi.table.action.commit.BucketType;
 import org.apache.hudi.util.StreamerUtil;
 
 import org.apache.flink.annotation.VisibleForTesting;
@@ -44,6 +53,10 @@ import org.apache.flink.api.common.state.MapStateDescriptor;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.common.typeinfo.Types;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Histogram;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
 import org.apache.flink.runtime.state.CheckpointListener;
 import org.apache.flink.runtime.state.FunctionInitializationContext;
 import org.apache.flink.runtime.state.FunctionSnapshotContext;
@@ -55,7 +68,11 @@ import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -72,6 +89,15 @@ import java.util.stream.Collectors;
  *
  * <p>The output records should then shuffle by the bucket ID and thus do scalable write.
  *
+ * <p>The input records are keyed by partition path by default. When they are keyed by record key instead
+ * (see {@link FlinkOptions#BUCKET_ASSIGN_KEY_BY}), the records of a partition spread across all the tasks:
+ * each task looks up a record key missing in the index state in the bloom filters of the latest base files of the
+ * partition, reads the keys of a matching file only, keeps the found location in the keyed index state, and packs
+ * inserts into its share of the small files.
+ *
+ * <p>With {@link FlinkOptions#INDEX_STATE_COMPACT_ENABLED}, the index is kept in a {@link CompactIndexState}
+ * that stores a key hash and a dictionary encoded file group ID per record key.
+ *
  * @see BucketAssigner
  */
 public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
@@ -80,6 +106,16 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
 
   private static final Logger LOG = LoggerFactory.getLogger(BucketAssignFunction.class);
 
+  /**
+   * Max number of the partitions whose bloom filters are cached, for records keyed by record key.
+   */
+  private static final int MAX_CACHED_PARTITIONS = 16;
+
+  /**
+   * Max number of the base files whose owned record keys are cached, for records keyed by record key.
+   */
+  private static final int MAX_CACHED_FILES = 8;
+
   private HoodieFlinkEngineContext context;
 
   /**
@@ -95,6 +131,11 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
    */
   private MapState<HoodieKey, HoodieRecordLocation> indexState;
 
+  /**
+   * Compact index state that replaces {@code indexState} when {@link FlinkOptions#INDEX_STATE_COMPACT_ENABLED} is set.
+   */
+  private CompactIndexState compactIndexState;
+
   /**
    * Bucket assigner to assign new bucket IDs or reuse existing ones.
    */
@@ -106,6 +147,36 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
 
   private final boolean isChangingRecords;
 
+  /**
+   * Whether the file group of a record is derived from its key by the bucket index,
+   * no index state is needed then.
+   */
+  private transient boolean isBucketIndex;
+
+  /**
+   * Whether the input records are keyed by record key, the records of a partition are then spread across
+   * all the tasks.
+   */
+  private transient boolean isKeyedByRecordKey;
+
+  /**
+   * Bloom filters of the latest base files of the recently looked up partitions, when the records are keyed by record
+   * key. The partitions written by the commits completed since the last checkpoint are dropped when a checkpoint
+   * completes, as their base files changed.
+   */
+  private transient Map<String, List<Pair<HoodieBaseFile, BloomFilter>>> partitionToBloomFilters;
+
+  /**
+   * Record keys owned by this task of the recently read base files, by file ID. The file IDs written by the commits
+   * completed since the last checkpoint are dropped when a checkpoint completes.
+   */
+  private transient Map<String, Set<String>> fileIdToOwnedKeys;
+
+  /**
+   * The completed instants of the table the cached bloom filters and record keys are up to date with.
+   */
+  private transient Set<String> cachedCompletedInstants;
+
   /**
    * All the partition paths when the task starts. It is used to help checking whether all the partitions
    * are loaded into the state.
@@ -123,6 +194,16 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
    */
   private boolean allPartitionsLoaded = false;
 
+  /**
+   * Number of the index entries written by this task.
+   */
+  private transient Counter indexStateEntries;
+
+  /**
+   * Latency of the index state lookups in nanoseconds.
+   */
+  private transient Histogram indexLookupLatency;
+
   public BucketAssignFunction(Configuration conf) {
     this.conf = conf;
     this.isChangingRecords = WriteOperationType.isChangingRecords(
@@ -133,6 +214,10 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
   public void open(Configuration parameters) throws Exception {
     super.open(parameters);
     HoodieWriteConfig writeConfig = StreamerUtil.getHoodieClientConfig(this.conf);
+    this.isBucketIndex = writeConfig.getIndexType() == HoodieIndex.IndexType.BUCKET;
+    this.isKeyedByRecordKey = StreamerUtil.isBucketAssignByRecordKey(this.conf);
+    this.partitionToBloomFilters = lruCache(MAX_CACHED_PARTITIONS);
+    this.fileIdToOwnedKeys = lruCache(MAX_CACHED_FILES);
     this.hadoopConf = StreamerUtil.getHadoopConf();
     this.context = new HoodieFlinkEngineContext(
         new SerializableConfiguration(this.hadoopConf),
@@ -141,9 +226,16 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
         HoodieTableType.valueOf(conf.getString(FlinkOptions.TABLE_TYPE)),
         context,
         writeConfig);
+    if (isKeyedByRecordKey) {
+      this.bucketAssigner.setNumSmallFileSharingTasks(getRuntimeContext().getNumberOfParallelSubtasks());
+      this.cachedCompletedInstants = getCompletedInstants(getCachedFilesTimeline());
+    }
+    registerMetrics();
 
     // initialize and check the partitions load state
-    loadInitialPartitions();
+    if (!isBucketIndex) {
+      loadInitialPartitions();
+    }
   }
 
   @Override
@@ -153,6 +245,13 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
 
   @Override
   public void initializeState(FunctionInitializationContext context) {
+    if (conf.getBoolean(FlinkOptions.INDEX_STATE_COMPACT_ENABLED)) {
+      if (StreamerUtil.isBucketAssignByRecordKey(conf)) {
+        throw new HoodieException("The compact index state requires the records keyed by partition path, "
+            + "set option " + FlinkOptions.BUCKET_ASSIGN_KEY_BY.key() + " to " + FlinkOptions.KEY_BY_PARTITION_PATH);
+      }
+      compactIndexState = new CompactIndexState(context.getKeyedStateStore());
+    }
     MapStateDescriptor<HoodieKey, HoodieRecordLocation> indexStateDesc =
         new MapStateDescriptor<>(
             "indexState",
@@ -174,7 +273,18 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
     final HoodieKey hoodieKey = record.getKey();
     final BucketInfo bucketInfo;
     final HoodieRecordLocation location;
-    if (!allPartitionsLoaded
+    if (isBucketIndex) {
+      bucketInfo = this.bucketAssigner.addBucketIndexRecord(hoodieKey.getPartitionPath(), hoodieKey.getRecordKey());
+      location = new HoodieRecordLocation(bucketInfo.getBucketType() == BucketType.INSERT ? "I" : "U",
+          bucketInfo.getFileIdPrefix());
+      record.unseal();
+      record.setCurrentLocation(location);
+      record.seal();
+      out.collect((O) record);
+      return;
+    }
+    if (!isKeyedByRecordKey
+        && !allPartitionsLoaded
         && initialPartitionsToLoad.contains(hoodieKey.getPartitionPath()) // this is an existing partition
         && !partitionLoadState.contains(hoodieKey.getPartitionPath())) {
       // If the partition records are never loaded, load the records first.
@@ -182,9 +292,19 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
     }
     // Only changing records need looking up the index for the location,
     // append only records are always recognized as INSERT.
-    if (isChangingRecords && this.indexState.contains(hoodieKey)) {
+    String fileId = isChangingRecords ? lookupFileId(hoodieKey) : null;
+    if (fileId == null && isChangingRecords && isKeyedByRecordKey
+        && initialPartitionsToLoad.contains(hoodieKey.getPartitionPath())) {
+      // the key may be in a base file written before the job started
+      HoodieRecordLocation baseFileLocation = lookupBaseFiles(hoodieKey);
+      if (baseFileLocation != null) {
+        putLocation(hoodieKey, baseFileLocation);
+        fileId = baseFileLocation.getFileId();
+      }
+    }
+    if (fileId != null) {
       // Set up the instant time as "U" to mark the bucket as an update bucket.
-      location = new HoodieRecordLocation("U", this.indexState.get(hoodieKey).getFileId());
+      location = new HoodieRecordLocation("U", fileId);
       this.bucketAssigner.addUpdate(record.getPartitionPath(), location.getFileId());
     } else {
       bucketInfo = this.bucketAssigner.addInsert(hoodieKey.getPartitionPath());
@@ -201,7 +321,7 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
         default:
           throw new AssertionError();
       }
-      this.indexState.put(hoodieKey, location);
+      putLocation(hoodieKey, location);
     }
     record.unseal();
     record.setCurrentLocation(location);
@@ -213,12 +333,43 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
   public void notifyCheckpointComplete(long l) {
     // Refresh the table state when there are new commits.
     this.bucketAssigner.refreshTable();
-    checkPartitionsLoaded();
+    if (isKeyedByRecordKey) {
+      invalidateCachedBaseFiles();
+    } else if (!isBucketIndex) {
+      checkPartitionsLoaded();
+    }
+  }
+
+  /**
+   * Returns the file ID of the key in the index state, or null if the key is not in the state.
+   */
+  private String lookupFileId(HoodieKey hoodieKey) throws Exception {
+    final long startTime = System.nanoTime();
+    try {
+      if (compactIndexState != null) {
+        return compactIndexState.getFileId(hoodieKey);
+      }
+      HoodieRecordLocation location = this.indexState.get(hoodieKey);
+      return location == null ? null : location.getFileId();
+    } finally {
+      this.indexLookupLatency.update(System.nanoTime() - startTime);
+    }
+  }
+
+  private void putLocation(HoodieKey hoodieKey, HoodieRecordLocation location) throws Exception {
+    if (compactIndexState != null) {
+      compactIndexState.put(hoodieKey, location.getFileId());
+    } else {
+      this.indexState.put(hoodieKey, location);
+    }
+    this.indexStateEntries.inc();
   }
 
   /**
    * Load all the indices of give partition path into the backup state.
    *
+   * <p>The record keys of the base files are read in parallel, the state is then updated in the task thread.
+   *
    * @param partitionPath The partition path
    * @throws Exception when error occurs for state update
    */
@@ -226,27 +377,176 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
     HoodieTable<?, ?, ?, ?> hoodieTable = bucketAssigner.getTable();
     List<HoodieBaseFile> latestBaseFiles =
         HoodieIndexUtils.getLatestBaseFilesForPartition(partitionPath, hoodieTable);
-    for (HoodieBaseFile baseFile : latestBaseFiles) {
-      List<HoodieKey> hoodieKeys =
-          ParquetUtils.fetchRecordKeyPartitionPathFromParquet(hadoopConf, new Path(baseFile.getPath()));
-      hoodieKeys.forEach(hoodieKey -> {
-        try {
-          this.indexState.put(hoodieKey, new HoodieRecordLocation(baseFile.getCommitTime(), baseFile.getFileId()));
-        } catch (Exception e) {
-          throw new HoodieIOException("Error when load record keys from file: " + baseFile);
+    final SerializableConfiguration serializableConf = this.context.getHadoopConf();
+    final int parallelism = Math.max(1, latestBaseFiles.size());
+    if (compactIndexState != null) {
+      // only the record key column is read, the keys are hashed by the reading threads
+      List<long[]> keyHashes = this.context.map(latestBaseFiles,
+          baseFile -> CompactIndexState.hashRecordKeys(
+              ParquetUtils.readRowKeysFromParquet(serializableConf.get(), new Path(baseFile.getPath()))),
+          parallelism);
+      for (int i = 0; i < latestBaseFiles.size(); i++) {
+        compactIndexState.putAll(partitionPath, latestBaseFiles.get(i).getFileId(), keyHashes.get(i));
+        this.indexStateEntries.inc(keyHashes.get(i).length);
+      }
+    } else {
+      List<List<HoodieKey>> hoodieKeys = this.context.map(latestBaseFiles,
+          baseFile -> ParquetUtils.fetchRecordKeyPartitionPathFromParquet(serializableConf.get(), new Path(baseFile.getPath())),
+          parallelism);
+      for (int i = 0; i < latestBaseFiles.size(); i++) {
+        HoodieBaseFile baseFile = latestBaseFiles.get(i);
+        HoodieRecordLocation location = new HoodieRecordLocation(baseFile.getCommitTime(), baseFile.getFileId());
+        for (HoodieKey hoodieKey : hoodieKeys.get(i)) {
+          try {
+            this.indexState.put(hoodieKey, location);
+          } catch (Exception e) {
+            throw new HoodieIOException("Error when load record keys from file: " + baseFile);
+          }
         }
-      });
+        this.indexStateEntries.inc(hoodieKeys.get(i).size());
+      }
     }
     // Mark the partition path as loaded.
     partitionLoadState.put(partitionPath, 0);
   }
 
+  /**
+   * Looks up the location of the record key in the latest base files of its partition, for records keyed by record
+   * key. Only the files whose bloom filter may contain the key have their record keys read.
+   *
+   * @param hoodieKey The key of the record
+   * @return the location of the record key, or null if it is in none of the base files
+   */
+  private HoodieRecordLocation lookupBaseFiles(HoodieKey hoodieKey) {
+    List<Pair<HoodieBaseFile, BloomFilter>> bloomFilters =
+        partitionToBloomFilters.computeIfAbsent(hoodieKey.getPartitionPath(), this::loadBloomFilters);
+    for (Pair<HoodieBaseFile, BloomFilter> bloomFilter : bloomFilters) {
+      HoodieBaseFile baseFile = bloomFilter.getLeft();
+      if (bloomFilter.getRight() != null && !bloomFilter.getRight().mightContain(hoodieKey.getRecordKey())) {
+        continue;
+      }
+      Set<String> ownedKeys = fileIdToOwnedKeys.computeIfAbsent(baseFile.getFileId(), fileId -> loadOwnedKeys(baseFile));
+      if (ownedKeys.contains(hoodieKey.getRecordKey())) {
+        return new HoodieRecordLocation(baseFile.getCommitTime(), baseFile.getFileId());
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Reads the bloom filters of the latest base files of the partition in parallel, a file without a bloom filter
+   * gets a null one.
+   */
+  private List<Pair<HoodieBaseFile, BloomFilter>> loadBloomFilters(String partitionPath) {
+    List<HoodieBaseFile> latestBaseFiles =
+        HoodieIndexUtils.getLatestBaseFilesForPartition(partitionPath, bucketAssigner.getTable());
+    final SerializableConfiguration serializableConf = this.context.getHadoopConf();
+    return this.context.map(latestBaseFiles,
+        baseFile -> Pair.of(baseFile,
+            ParquetUtils.readBloomFilterFromParquetMetadata(serializableConf.get(), new Path(baseFile.getPath()))),
+        Math.max(1, latestBaseFiles.size()));
+  }
+
+  /**
+   * Reads the record keys of the base file owned by this task.
+   */
+  private Set<String> loadOwnedKeys(HoodieBaseFile baseFile) {
+    final int parallelism = getRuntimeContext().getNumberOfParallelSubtasks();
+    final int maxParallelism = getRuntimeContext().getMaxNumberOfParallelSubtasks();
+    final int taskID = getRuntimeContext().getIndexOfThisSubtask();
+    return ParquetUtils.readRowKeysFromParquet(hadoopConf, new Path(baseFile.getPath())).stream()
+        // reference: org.apache.flink.streaming.api.datastream.KeyedStream
+        .filter(recordKey -> KeyGroupRangeAssignment.assignKeyToParallelOperator(
+            recordKey, maxParallelism, parallelism) == taskID)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Drops the cached bloom filters of the partitions and the cached record keys of the file groups written by the
+   * instants completed since the last call, the base files of the other partitions did not change. Everything is
+   * dropped after a rollback or restore, or if the metadata of a commit can not be read.
+   */
+  private void invalidateCachedBaseFiles() {
+    HoodieTimeline timeline = getCachedFilesTimeline();
+    Set<String> completedInstants = getCompletedInstants(timeline);
+    try {
+      // the instants do not complete in the order of their instant time, e.g. the async compactions
+      List<HoodieInstant> newInstants = timeline.getInstants()
+          .filter(instant -> !cachedCompletedInstants.contains(instant.getTimestamp()))
+          .collect(Collectors.toList());
+      for (HoodieInstant instant : newInstants) {
+        if (instant.getAction().equals(HoodieTimeline.ROLLBACK_ACTION)
+            || instant.getAction().equals(HoodieTimeline.RESTORE_ACTION)) {
+          clearCachedBaseFiles();
+          return;
+        }
+        HoodieCommitMetadata metadata = HoodieCommitMetadata.fromBytes(
+            timeline.getInstantDetails(instant).get(), HoodieCommitMetadata.class);
+        metadata.getPartitionToWriteStats().forEach((partitionPath, writeStats) -> {
+          partitionToBloomFilters.remove(partitionPath);
+          writeStats.forEach(writeStat -> fileIdToOwnedKeys.remove(writeStat.getFileId()));
+        });
+        if (instant.getAction().equals(HoodieTimeline.REPLACE_COMMIT_ACTION)) {
+          HoodieReplaceCommitMetadata replaceMetadata = HoodieReplaceCommitMetadata.fromBytes(
+              timeline.getInstantDetails(instant).get(), HoodieReplaceCommitMetadata.class);
+          replaceMetadata.getPartitionToReplaceFileIds().keySet().forEach(partitionToBloomFilters::remove);
+        }
+      }
+    } catch (IOException e) {
+      LOG.warn("Error when reading the metadata of the completed instants, drop all the cached base files", e);
+      clearCachedBaseFiles();
+    } finally {
+      this.cachedCompletedInstants = completedInstants;
+    }
+  }
+
+  private void clearCachedBaseFiles() {
+    this.partitionToBloomFilters.clear();
+    this.fileIdToOwnedKeys.clear();
+  }
+
+  /**
+   * Returns the completed instants of the table that change its latest base files.
+   */
+  private HoodieTimeline getCachedFilesTimeline() {
+    return bucketAssigner.getTable().getMetaClient().getActiveTimeline()
+        .getTimelineOfActions(CollectionUtils.createSet(HoodieTimeline.COMMIT_ACTION, HoodieTimeline.DELTA_COMMIT_ACTION,
+            HoodieTimeline.REPLACE_COMMIT_ACTION, HoodieTimeline.ROLLBACK_ACTION, HoodieTimeline.RESTORE_ACTION))
+        .filterCompletedInstants();
+  }
+
+  private static Set<String> getCompletedInstants(HoodieTimeline timeline) {
+    return timeline.getInstants().map(HoodieInstant::getTimestamp).collect(Collectors.toSet());
+  }
+
+  private static <K, V> Map<K, V> lruCache(int maxEntries) {
+    return new LinkedHashMap<K, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  private void registerMetrics() {
+    MetricGroup metrics = getRuntimeContext().getMetricGroup();
+    this.indexStateEntries = metrics.counter("indexStateEntries");
+    this.indexLookupLatency = metrics.histogram("indexLookupLatencyNanos", new DescriptiveStatisticsHistogram(1000));
+    // number of the file IDs in the dictionaries of the compact index state
+    metrics.gauge("indexStateFileIds", () -> compactIndexState == null ? 0 : compactIndexState.getNumFileIds());
+  }
+
   /**
    * Loads the existing partitions for this task.
    */
   private void loadInitialPartitions() {
     List<String> allPartitionPaths = FSUtils.getAllPartitionPaths(this.context,
         this.conf.getString(FlinkOptions.PATH), false, false, false);
+    if (isKeyedByRecordKey) {
+      // every task owns some record keys of each partition
+      this.initialPartitionsToLoad = new HashSet<>(allPartitionPaths);
+      return;
+    }
     final int parallelism = getRuntimeContext().getNumberOfParallelSubtasks();
     final int maxParallelism = getRuntimeContext().getMaxNumberOfParallelSubtasks();
     final int taskID = getRuntimeContext().getIndexOfThisSubtask();
@@ -282,13 +582,21 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
   @VisibleForTesting
   public void clearIndexState() {
     this.allPartitionsLoaded = false;
+    if (compactIndexState != null) {
+      this.compactIndexState.clear();
+    }
     this.indexState.clear();
+    this.partitionLoadState.clear();
+    clearCachedBaseFiles();
     loadInitialPartitions();
   }
 
   @VisibleForTesting
   public boolean isKeyInState(HoodieKey hoodieKey) {
     try {
+      if (compactIndexState != null) {
+        return compactIndexState.getFileId(hoodieKey) != null;
+      }
       return this.indexState.contains(hoodieKey);
     } catch (Exception e) {
       throw new HoodieException(e);
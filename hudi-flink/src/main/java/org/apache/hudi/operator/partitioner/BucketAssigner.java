@@ -25,7 +25,10 @@ import org.apache.hudi.common.model.HoodieCommitMetadata;
 import org.apache.hudi.common.model.HoodieRecordLocation;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
+import org.apache.hudi.common.util.Option;
 import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.index.bucket.BucketIdentifier;
+import org.apache.hudi.index.bucket.PartitionBuckets;
 import org.apache.hudi.table.HoodieFlinkTable;
 import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.table.action.commit.BucketInfo;
@@ -103,6 +106,24 @@ public class BucketAssigner {
    */
   private final Map<String, NewFileAssignState> newFileAssignStates;
 
+  /**
+   * Partition path -> buckets of the partition, for the bucket index.
+   */
+  private final Map<String, PartitionBuckets> partitionBucketsMap;
+
+  /**
+   * Partition path -> bucket id -> file id of the new file groups assigned by this assigner, for the bucket index.
+   * They are kept across table refreshes until the table lists their file groups: the instant writing a new file
+   * group may not be committed yet when the table is refreshed, and the bucket must not be inserted into twice.
+   */
+  private final Map<String, Map<Integer, String>> newBucketFileIds;
+
+  /**
+   * Number of assigners packing inserts into the same small files, each assigner takes an even share
+   * of the free space of a small file.
+   */
+  private int numSmallFileSharingTasks = 1;
+
   public BucketAssigner(
       HoodieFlinkEngineContext context,
       HoodieWriteConfig config) {
@@ -110,6 +131,8 @@ public class BucketAssigner {
     partitionSmallFilesMap = new HashMap<>();
     smallFileAssignStates = new HashMap<>();
     newFileAssignStates = new HashMap<>();
+    partitionBucketsMap = new HashMap<>();
+    newBucketFileIds = new HashMap<>();
     this.context = context;
     this.config = config;
     this.table = HoodieFlinkTable.create(this.config, this.context);
@@ -134,6 +157,18 @@ public class BucketAssigner {
     newFileAssignStates.clear();
   }
 
+  /**
+   * Sets up the number of assigners sharing the small files of the partitions, when the records of a partition are
+   * spread across all the assigners instead of going to one of them.
+   *
+   * <p>All the assigners list the same small files out of the same table view, the writer of a small file receives
+   * the inserts of every assigner, so each assigner only packs its share of the free space of the file.
+   */
+  public void setNumSmallFileSharingTasks(int numSmallFileSharingTasks) {
+    Preconditions.checkArgument(numSmallFileSharingTasks > 0, "Number of small file sharing tasks should be positive");
+    this.numSmallFileSharingTasks = numSmallFileSharingTasks;
+  }
+
   public BucketInfo addUpdate(String partitionPath, String fileIdHint) {
     final String key = StreamerUtil.generateBucketKey(partitionPath, fileIdHint);
     if (!bucketInfoMap.containsKey(key)) {
@@ -183,6 +218,38 @@ public class BucketAssigner {
     return bucketInfo;
   }
 
+  /**
+   * Assigns the record to the file group of its bucket for the bucket index: the existing file group of the bucket,
+   * or a new one when the bucket has none.
+   */
+  public BucketInfo addBucketIndexRecord(String partitionPath, String recordKey) {
+    PartitionBuckets buckets = partitionBucketsMap.computeIfAbsent(partitionPath,
+        k -> PartitionBuckets.load(table, partitionPath, config.getBucketIndexNumBuckets()));
+    final int bucketId = buckets.getBucketId(recordKey);
+    Option<HoodieRecordLocation> location = buckets.getLocation(bucketId);
+    Map<Integer, String> bucketIdToFileId = newBucketFileIds.computeIfAbsent(partitionPath, k -> new HashMap<>());
+    if (location.isPresent()) {
+      bucketIdToFileId.remove(bucketId);
+      return addUpdate(partitionPath, location.get().getFileId());
+    }
+    String fileId = bucketIdToFileId.get(bucketId);
+    // a file id of another number of buckets was assigned before clustering laid out the partition again
+    if (fileId != null && BucketIdentifier.numBucketsFromFileId(fileId) == buckets.getNumBuckets()) {
+      final String key = StreamerUtil.generateBucketKey(partitionPath, fileId);
+      // the file group is either created within this checkpoint, or by a previous one, committed or not
+      return bucketInfoMap.containsKey(key) ? bucketInfoMap.get(key) : addUpdate(partitionPath, fileId);
+    }
+    // all the bucket assign tasks pick the same file id for a new bucket, seeded by the last replace commit
+    // of the table so that a bucket never reuses the file id of a file group replaced by clustering
+    String seed = partitionPath + "/" + table.getMetaClient().getActiveTimeline().getCompletedReplaceTimeline()
+        .lastInstant().map(HoodieInstant::getTimestamp).orElse("");
+    fileId = BucketIdentifier.newBucketFileIdPrefix(bucketId, buckets.getNumBuckets(), seed) + "-0";
+    bucketIdToFileId.put(bucketId, fileId);
+    BucketInfo bucketInfo = new BucketInfo(BucketType.INSERT, fileId, partitionPath);
+    bucketInfoMap.put(StreamerUtil.generateBucketKey(partitionPath, fileId), bucketInfo);
+    return bucketInfo;
+  }
+
   private List<SmallFile> getSmallFilesForPartition(String partitionPath) {
     if (partitionSmallFilesMap.containsKey(partitionPath)) {
       return partitionSmallFilesMap.get(partitionPath);
@@ -194,7 +261,8 @@ public class BucketAssigner {
       smallFiles.forEach(smallFile ->
           smallFileAssignStates.put(
               StreamerUtil.generateBucketKey(partitionPath, smallFile.location.getFileId()),
-              new SmallFileAssignState(config.getParquetMaxFileSize(), smallFile, averageRecordSize)));
+              new SmallFileAssignState(config.getParquetMaxFileSize(), smallFile, averageRecordSize,
+                  numSmallFileSharingTasks)));
       return smallFiles;
     }
     return Collections.emptyList();
@@ -205,6 +273,7 @@ public class BucketAssigner {
    */
   public void refreshTable() {
     this.table = HoodieFlinkTable.create(this.config, this.context);
+    this.partitionBucketsMap.clear();
   }
 
   public HoodieTable<?, ?, ?, ?> getTable() {
@@ -278,9 +347,9 @@ public class BucketAssigner {
     long assigned;
     long totalUnassigned;
 
-    SmallFileAssignState(long parquetMaxFileSize, SmallFile smallFile, long averageRecordSize) {
+    SmallFileAssignState(long parquetMaxFileSize, SmallFile smallFile, long averageRecordSize, int numSharingTasks) {
       this.assigned = 0;
-      this.totalUnassigned = (parquetMaxFileSize - smallFile.sizeBytes) / averageRecordSize;
+      this.totalUnassigned = (parquetMaxFileSize - smallFile.sizeBytes) / averageRecordSize / numSharingTasks;
     }
 
     public boolean canAssign() {
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.operator.partitioner;
+
+import org.apache.hudi.common.model.HoodieKey;
+
+import org.apache.flink.api.common.state.KeyedStateStore;
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.typeinfo.Types;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact index state of {@link BucketAssignFunction}, for the records keyed by partition path.
+ *
+ * <p>Instead of {@link HoodieKey} and {@code HoodieRecordLocation} objects, the state maps a 64 bits hash of
+ * the record key to an int code of the file group ID, both written with the built-in long and int serializers.
+ * The file group IDs of a partition are dictionary encoded in a second map state under the same state key.
+ * The state is scoped by the partition path already, so it is not part of the hash. The value and the user key
+ * of an entry take 12 bytes whatever the length of the record key and the file ID, but the state backend adds
+ * its overhead to every entry: the RocksDB state backend prefixes each map entry with the key group and the
+ * serialized state key, that is the partition path.
+ *
+ * <p>Two keys of a partition with the same hash share the file group of the key that came first. A new key
+ * is then written to that file group as an insert, so no record is lost or duplicated, unless the two keys
+ * already exist in different file groups when the partition is bootstrapped.
+ */
+public class CompactIndexState {
+
+  private final MapState<Long, Integer> locationState;
+
+  private final MapState<Integer, String> fileIdState;
+
+  /**
+   * Partition path -> the dictionary of the file IDs of the partition, cached from {@code fileIdState}.
+   */
+  private final Map<String, FileIdDictionary> dictionaries = new HashMap<>();
+
+  public CompactIndexState(KeyedStateStore stateStore) {
+    this.locationState = stateStore.getMapState(
+        new MapStateDescriptor<>("compactIndexState", Types.LONG, Types.INT));
+    this.fileIdState = stateStore.getMapState(
+        new MapStateDescriptor<>("fileIdDictionary", Types.INT, Types.STRING));
+  }
+
+  /**
+   * Returns the file ID of the key, or null if the key is not in the state.
+   */
+  public String getFileId(HoodieKey hoodieKey) throws Exception {
+    Integer code = locationState.get(hash(hoodieKey.getRecordKey()));
+    return code == null ? null : getDictionary(hoodieKey.getPartitionPath()).decode(code);
+  }
+
+  public void put(HoodieKey hoodieKey, String fileId) throws Exception {
+    locationState.put(hash(hoodieKey.getRecordKey()), encode(hoodieKey.getPartitionPath(), fileId));
+  }
+
+  /**
+   * Puts the record keys of a base file, hashed with {@link #hashRecordKeys}.
+   */
+  public void putAll(String partitionPath, String fileId, long[] keyHashes) throws Exception {
+    final int code = encode(partitionPath, fileId);
+    for (long keyHash : keyHashes) {
+      locationState.put(keyHash, code);
+    }
+  }
+
+  public int getNumFileIds() {
+    return dictionaries.values().stream().mapToInt(dictionary -> dictionary.fileIds.size()).sum();
+  }
+
+  public void clear() {
+    locationState.clear();
+    fileIdState.clear();
+    dictionaries.clear();
+  }
+
+  /**
+   * Hashes the record keys of a partition, the keys can be hashed out of the task thread.
+   */
+  public static long[] hashRecordKeys(Collection<String> recordKeys) {
+    long[] keyHashes = new long[recordKeys.size()];
+    int i = 0;
+    for (String recordKey : recordKeys) {
+      keyHashes[i++] = hash(recordKey);
+    }
+    return keyHashes;
+  }
+
+  /**
+   * 64 bits FNV-1a hash of the record key, with the murmur3 finalizer to spread the bits.
+   */
+  static long hash(String recordKey) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < recordKey.length(); i++) {
+      char c = recordKey.charAt(i);
+      h = (h ^ (c & 0xff)) * 0x100000001b3L;
+      h = (h ^ (c >>> 8)) * 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private int encode(String partitionPath, String fileId) throws Exception {
+    FileIdDictionary dictionary = getDictionary(partitionPath);
+    Integer code = dictionary.codes.get(fileId);
+    if (code == null) {
+      code = dictionary.add(fileId);
+      fileIdState.put(code, fileId);
+    }
+    return code;
+  }
+
+  private FileIdDictionary getDictionary(String partitionPath) throws Exception {
+    FileIdDictionary dictionary = dictionaries.get(partitionPath);
+    if (dictionary == null) {
+      // restore the dictionary of the partition, e.g. after a failover
+      dictionary = new FileIdDictionary();
+      Map<Integer, String> restored = new HashMap<>();
+      for (Map.Entry<Integer, String> entry : fileIdState.entries()) {
+        restored.put(entry.getKey(), entry.getValue());
+      }
+      for (int code = 0; code < restored.size(); code++) {
+        dictionary.add(restored.get(code));
+      }
+      dictionaries.put(partitionPath, dictionary);
+    }
+    return dictionary;
+  }
+
+  /**
+   * The file IDs of a partition, the code of a file ID is its position.
+   */
+  private static class FileIdDictionary {
+    final List<String> fileIds = new ArrayList<>();
+    final Map<String, Integer> codes = new HashMap<>();
+
+    int add(String fileId) {
+      int code = fileIds.size();
+      fileIds.add(fileId);
+      codes.put(fileId, code);
+      return code;
+    }
+
+    String decode(int code) {
+      return fileIds.get(code);
+    }
+  }
+}
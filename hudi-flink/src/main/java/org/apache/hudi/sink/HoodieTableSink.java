@@ -22,7 +22,6 @@ import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.operator.FlinkOptions;
 import org.apache.hudi.operator.StreamWriteOperatorFactory;
 import org.apache.hudi.operator.compact.CompactFunction;
-import org.apache.hudi.operator.compact.CompactionCommitEvent;
 import org.apache.hudi.operator.compact.CompactionCommitSink;
 import org.apache.hudi.operator.compact.CompactionPlanEvent;
 import org.apache.hudi.operator.compact.CompactionPlanOperator;
@@ -32,6 +31,7 @@ import org.apache.hudi.util.StreamerUtil;
 
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.streaming.api.datastream.AsyncDataStream;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSink;
 import org.apache.flink.streaming.api.functions.sink.SinkFunction;
@@ -45,6 +45,7 @@ import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.logical.RowType;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Hoodie table sink.
@@ -68,30 +69,42 @@ public class HoodieTableSink implements AppendStreamTableSink<RowData>, Partitio
     int numWriteTasks = this.conf.getInteger(FlinkOptions.WRITE_TASKS);
     StreamWriteOperatorFactory<HoodieRecord> operatorFactory = new StreamWriteOperatorFactory<>(conf, isBounded);
 
-    DataStream<Object> pipeline = dataStream
-        .map(new RowDataToHoodieFunction<>(rowType, conf), TypeInformation.of(HoodieRecord.class))
-        // Key-by partition path, to avoid multiple subtasks write to a partition at the same time
-        .keyBy(HoodieRecord::getPartitionPath)
-        .transform(
-            "bucket_assigner",
-            TypeInformation.of(HoodieRecord.class),
-            new KeyedProcessOperator<>(new BucketAssignFunction<>(conf)))
-        .uid("uid_bucket_assigner")
-        // shuffle by fileId(bucket id)
-        .keyBy(record -> record.getCurrentLocation().getFileId())
-        .transform("hoodie_stream_write", TypeInformation.of(Object.class), operatorFactory)
-        .uid("uid_hoodie_stream_write")
-        .setParallelism(numWriteTasks);
+    DataStream<HoodieRecord> hoodieRecords = dataStream
+        .map(new RowDataToHoodieFunction<>(rowType, conf), TypeInformation.of(HoodieRecord.class));
+    DataStream<Object> pipeline;
+    if (StreamerUtil.isBulkInsert(conf)) {
+      pipeline = hoodieRecords
+          // no bucket assigning, the records always go into new files,
+          // key-by partition path or record key, see FlinkOptions#BUCKET_ASSIGN_KEY_BY
+          .keyBy(StreamerUtil.getBucketAssignKeySelector(conf))
+          .transform("hoodie_bulk_insert_write", TypeInformation.of(Object.class), operatorFactory)
+          .uid("uid_hoodie_bulk_insert_write")
+          .setParallelism(numWriteTasks);
+    } else {
+      pipeline = hoodieRecords
+          // Key-by partition path or record key, see FlinkOptions#BUCKET_ASSIGN_KEY_BY
+          .keyBy(StreamerUtil.getBucketAssignKeySelector(conf))
+          .transform(
+              "bucket_assigner",
+              TypeInformation.of(HoodieRecord.class),
+              new KeyedProcessOperator<>(new BucketAssignFunction<>(conf)))
+          .uid("uid_bucket_assigner")
+          // shuffle by fileId(bucket id)
+          .keyBy(record -> record.getCurrentLocation().getFileId())
+          .transform("hoodie_stream_write", TypeInformation.of(Object.class), operatorFactory)
+          .uid("uid_hoodie_stream_write")
+          .setParallelism(numWriteTasks);
+    }
     if (StreamerUtil.needsScheduleCompaction(conf)) {
-      return pipeline.transform("compact_plan_generate",
+      DataStream<CompactionPlanEvent> compactionPlans = pipeline.transform("compact_plan_generate",
           TypeInformation.of(CompactionPlanEvent.class),
           new CompactionPlanOperator(conf))
           .uid("uid_compact_plan_generate")
           .setParallelism(1) // plan generate must be singleton
-          .keyBy(event -> event.getOperation().hashCode())
-          .transform("compact_task",
-              TypeInformation.of(CompactionCommitEvent.class),
-              new KeyedProcessOperator<>(new CompactFunction(conf)))
+          .keyBy(event -> event.getOperation().hashCode());
+      // the compaction operations run asynchronously to the checkpoints, without timeout
+      return AsyncDataStream.unorderedWait(compactionPlans, new CompactFunction(conf), 0L, TimeUnit.MILLISECONDS)
+          .name("compact_task")
           .addSink(new CompactionCommitSink(conf))
           .name("compact_commit")
           .setParallelism(1); // compaction commit should be singleton
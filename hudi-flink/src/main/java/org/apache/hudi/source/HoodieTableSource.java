@@ -33,6 +33,7 @@ import org.apache.hudi.hadoop.utils.HoodieRealtimeInputFormatUtils;
 import org.apache.hudi.operator.FlinkOptions;
 import org.apache.hudi.operator.StreamReadMonitoringFunction;
 import org.apache.hudi.operator.StreamReadOperator;
+import org.apache.hudi.source.format.ExpressionPredicates;
 import org.apache.hudi.source.format.FilePathUtils;
 import org.apache.hudi.source.format.cow.CopyOnWriteInputFormat;
 import org.apache.hudi.source.format.mor.MergeOnReadInputFormat;
@@ -69,8 +70,11 @@ import org.apache.flink.table.sources.StreamTableSource;
 import org.apache.flink.table.sources.TableSource;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.utils.TableConnectorUtils;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.hadoop.ParquetInputFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,6 +84,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -228,6 +233,22 @@ public class HoodieTableSource implements
         requiredPartitions, requiredPos, limit, filters);
   }
 
+  @Override
+  public String explainSource() {
+    // the planner requires the explanation to change with the pushdown applied
+    StringBuilder sb = new StringBuilder(
+        TableConnectorUtils.generateRuntimeName(getClass(), getProducedFieldNames()));
+    if (isFilterPushedDown()) {
+      sb.append(", filter=[")
+          .append(this.filters.stream().map(Expression::asSummaryString).collect(Collectors.joining(" and ")))
+          .append("]");
+    }
+    if (isLimitPushedDown()) {
+      sb.append(", limit=[").append(this.limit).append("]");
+    }
+    return sb.toString();
+  }
+
   @Override
   public TableSchema getTableSchema() {
     return schema;
@@ -244,6 +265,11 @@ public class HoodieTableSource implements
         .bridgedTo(RowData.class);
   }
 
+  private String[] getProducedFieldNames() {
+    String[] schemaFieldNames = this.schema.getFieldNames();
+    return Arrays.stream(this.requiredPos).mapToObj(i -> schemaFieldNames[i]).toArray(String[]::new);
+  }
+
   private List<Map<String, String>> getOrFetchPartitions() {
     if (requiredPartitions == null) {
       requiredPartitions = getPartitions();
@@ -326,6 +352,8 @@ public class HoodieTableSource implements
     final RowType rowType = (RowType) rowDataType.getLogicalType();
     final RowType requiredRowType = (RowType) getProducedDataType().notNull().getLogicalType();
 
+    final FilterPredicate filterPredicate = getParquetPredicate();
+
     final String queryType = this.conf.getString(FlinkOptions.QUERY_TYPE);
     if (queryType.equals(FlinkOptions.QUERY_TYPE_SNAPSHOT)) {
       final HoodieTableType tableType = HoodieTableType.valueOf(this.conf.getString(FlinkOptions.TABLE_TYPE));
@@ -355,8 +383,13 @@ public class HoodieTableSource implements
               hoodieTableState,
               rowDataType.getChildren(), // use the explicit fields data type because the AvroSchemaConverter is not very stable.
               "default",
-              this.limit);
+              this.limit,
+              filterPredicate);
         case COPY_ON_WRITE:
+          final org.apache.hadoop.conf.Configuration parquetConf = getParquetConf(this.conf, this.hadoopConf);
+          if (filterPredicate != null) {
+            ParquetInputFormat.setFilterPredicate(parquetConf, filterPredicate);
+          }
           FileInputFormat<RowData> format = new CopyOnWriteInputFormat(
               paths,
               this.schema.getFieldNames(),
@@ -364,7 +397,7 @@ public class HoodieTableSource implements
               this.requiredPos,
               "default",
               this.limit == NO_LIMIT_CONSTANT ? Long.MAX_VALUE : this.limit, // ParquetInputFormat always uses the limit value
-              getParquetConf(this.conf, this.hadoopConf),
+              parquetConf,
               this.conf.getBoolean(FlinkOptions.UTC_TIMEZONE)
           );
           format.setFilesFilter(new LatestFileFilter(this.hadoopConf));
@@ -378,6 +411,26 @@ public class HoodieTableSource implements
     }
   }
 
+  /**
+   * Returns the parquet predicate translated from the pushed down filters to skip the row groups,
+   * or null if there is no filter to push into the parquet files.
+   *
+   * <p>The partition fields are pruned with the partition paths instead.
+   */
+  @VisibleForTesting
+  @Nullable
+  public FilterPredicate getParquetPredicate() {
+    Map<String, DataType> columnTypes = new HashMap<>();
+    String[] fieldNames = this.schema.getFieldNames();
+    DataType[] fieldTypes = this.schema.getFieldDataTypes();
+    for (int i = 0; i < fieldNames.length; i++) {
+      if (!this.partitionKeys.contains(fieldNames[i])) {
+        columnTypes.put(fieldNames[i], fieldTypes[i]);
+      }
+    }
+    return ExpressionPredicates.toParquetPredicate(this.filters, columnTypes);
+  }
+
   /**
    * Reload the active timeline view.
    */
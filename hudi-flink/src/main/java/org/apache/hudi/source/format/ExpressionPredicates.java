@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.source.format;
+
+import org.apache.flink.table.expressions.CallExpression;
+import org.apache.flink.table.expressions.Expression;
+import org.apache.flink.table.expressions.FieldReferenceExpression;
+import org.apache.flink.table.expressions.ResolvedExpression;
+import org.apache.flink.table.expressions.ValueLiteralExpression;
+import org.apache.flink.table.functions.BuiltInFunctionDefinitions;
+import org.apache.flink.table.functions.FunctionDefinition;
+import org.apache.flink.table.types.DataType;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.io.api.Binary;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utilities to translate the filter expressions pushed down to the table source into parquet
+ * {@link FilterPredicate}s, which are used to skip the row groups by their column statistics.
+ *
+ * <p>The comparisons between a column of a primitive type and a literal, the {@code IS [NOT] NULL} checks
+ * and their {@code AND}/{@code OR}/{@code NOT} combinations are translated. The filters are still evaluated
+ * by the planner on the rows read, so a predicate only needs to keep all the matching rows; an unsupported
+ * conjunct is just dropped.
+ */
+public class ExpressionPredicates {
+  private ExpressionPredicates() {
+  }
+
+  /**
+   * Translates the conjunctive filters into a parquet predicate.
+   *
+   * @param filters     The filters pushed down, in conjunction
+   * @param columnTypes The data types of the columns stored in the parquet files, keyed by column name
+   * @return the parquet predicate or null if none of the filters can be translated
+   */
+  @Nullable
+  public static FilterPredicate toParquetPredicate(List<Expression> filters, Map<String, DataType> columnTypes) {
+    FilterPredicate predicate = null;
+    for (Expression filter : filters) {
+      FilterPredicate converted = toParquetPredicate(filter, columnTypes, false);
+      if (converted != null) {
+        predicate = predicate == null ? converted : FilterApi.and(predicate, converted);
+      }
+    }
+    return predicate;
+  }
+
+  /**
+   * Translates the expression, a conjunct that can not be translated is dropped unless {@code strict}
+   * is true, then the expression can not be translated as a whole.
+   */
+  @Nullable
+  private static FilterPredicate toParquetPredicate(
+      Expression expression,
+      Map<String, DataType> columnTypes,
+      boolean strict) {
+    if (!(expression instanceof CallExpression)) {
+      return null;
+    }
+    CallExpression call = (CallExpression) expression;
+    FunctionDefinition function = call.getFunctionDefinition();
+    List<ResolvedExpression> args = call.getResolvedChildren();
+    if (function == BuiltInFunctionDefinitions.AND) {
+      FilterPredicate left = toParquetPredicate(args.get(0), columnTypes, strict);
+      FilterPredicate right = toParquetPredicate(args.get(1), columnTypes, strict);
+      if (left == null || right == null) {
+        return strict ? null : left == null ? right : left;
+      }
+      return FilterApi.and(left, right);
+    } else if (function == BuiltInFunctionDefinitions.OR) {
+      FilterPredicate left = toParquetPredicate(args.get(0), columnTypes, strict);
+      FilterPredicate right = toParquetPredicate(args.get(1), columnTypes, strict);
+      return left == null || right == null ? null : FilterApi.or(left, right);
+    } else if (function == BuiltInFunctionDefinitions.NOT) {
+      // a dropped conjunct would be negated into a filter of the matching rows
+      FilterPredicate child = toParquetPredicate(args.get(0), columnTypes, true);
+      return child == null ? null : FilterApi.not(child);
+    } else if (function == BuiltInFunctionDefinitions.IS_NULL || function == BuiltInFunctionDefinitions.IS_NOT_NULL) {
+      if (!(args.get(0) instanceof FieldReferenceExpression)) {
+        return null;
+      }
+      String name = ((FieldReferenceExpression) args.get(0)).getName();
+      FunctionDefinition comparison = function == BuiltInFunctionDefinitions.IS_NULL
+          ? BuiltInFunctionDefinitions.EQUALS
+          : BuiltInFunctionDefinitions.NOT_EQUALS;
+      return toComparison(comparison, name, null, columnTypes);
+    } else if (args.size() == 2) {
+      if (args.get(0) instanceof FieldReferenceExpression && args.get(1) instanceof ValueLiteralExpression) {
+        return toComparison(function, ((FieldReferenceExpression) args.get(0)).getName(),
+            (ValueLiteralExpression) args.get(1), columnTypes);
+      } else if (args.get(0) instanceof ValueLiteralExpression && args.get(1) instanceof FieldReferenceExpression) {
+        return toComparison(reverse(function), ((FieldReferenceExpression) args.get(1)).getName(),
+            (ValueLiteralExpression) args.get(0), columnTypes);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the comparison with the operands swapped, e.g. {@code 1 < a} is {@code a > 1}.
+   */
+  private static FunctionDefinition reverse(FunctionDefinition function) {
+    if (function == BuiltInFunctionDefinitions.GREATER_THAN) {
+      return BuiltInFunctionDefinitions.LESS_THAN;
+    } else if (function == BuiltInFunctionDefinitions.GREATER_THAN_OR_EQUAL) {
+      return BuiltInFunctionDefinitions.LESS_THAN_OR_EQUAL;
+    } else if (function == BuiltInFunctionDefinitions.LESS_THAN) {
+      return BuiltInFunctionDefinitions.GREATER_THAN;
+    } else if (function == BuiltInFunctionDefinitions.LESS_THAN_OR_EQUAL) {
+      return BuiltInFunctionDefinitions.GREATER_THAN_OR_EQUAL;
+    }
+    return function;
+  }
+
+  /**
+   * Translates the comparison of the column with the literal, a null {@code literal} stands for the null values.
+   */
+  @Nullable
+  private static FilterPredicate toComparison(
+      FunctionDefinition function,
+      String name,
+      @Nullable ValueLiteralExpression literal,
+      Map<String, DataType> columnTypes) {
+    DataType dataType = columnTypes.get(name);
+    if (dataType == null) {
+      // not a column of the parquet files, i.e. the partition fields
+      return null;
+    }
+    if (literal != null && literal.isNull()) {
+      // the planner simplifies the comparisons with null
+      return null;
+    }
+    Object value = literal == null
+        ? null
+        : literal.getValueAs(literal.getOutputDataType().getConversionClass()).orElse(null);
+    if (literal != null && value == null) {
+      return null;
+    }
+    switch (dataType.getLogicalType().getTypeRoot()) {
+      case BOOLEAN:
+        if (value != null && !(value instanceof Boolean)) {
+          return null;
+        }
+        // boolean columns only support the equality
+        Operators.BooleanColumn booleanColumn = FilterApi.booleanColumn(name);
+        if (function == BuiltInFunctionDefinitions.EQUALS) {
+          return FilterApi.eq(booleanColumn, (Boolean) value);
+        } else if (function == BuiltInFunctionDefinitions.NOT_EQUALS) {
+          return FilterApi.notEq(booleanColumn, (Boolean) value);
+        }
+        return null;
+      case INTEGER:
+        if (value != null && !(value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+          return null;
+        }
+        return compare(function, FilterApi.intColumn(name), value == null ? null : ((Number) value).intValue());
+      case BIGINT:
+        if (value != null && !(value instanceof Long || value instanceof Integer
+            || value instanceof Short || value instanceof Byte)) {
+          return null;
+        }
+        return compare(function, FilterApi.longColumn(name), value == null ? null : ((Number) value).longValue());
+      case FLOAT:
+        if (value != null && !(value instanceof Float)) {
+          return null;
+        }
+        return compare(function, FilterApi.floatColumn(name), (Float) value);
+      case DOUBLE:
+        if (value != null && !(value instanceof Double || value instanceof Float)) {
+          return null;
+        }
+        return compare(function, FilterApi.doubleColumn(name), value == null ? null : ((Number) value).doubleValue());
+      case CHAR:
+      case VARCHAR:
+        if (value != null && !(value instanceof String)) {
+          return null;
+        }
+        return compare(function, FilterApi.binaryColumn(name),
+            value == null ? null : Binary.fromString((String) value));
+      default:
+        // the other types are not stored as the plain primitive values
+        return null;
+    }
+  }
+
+  @Nullable
+  private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt>
+      FilterPredicate compare(
+      FunctionDefinition function,
+      C column,
+      @Nullable T value) {
+    if (function == BuiltInFunctionDefinitions.EQUALS) {
+      return FilterApi.eq(column, value);
+    } else if (function == BuiltInFunctionDefinitions.NOT_EQUALS) {
+      return FilterApi.notEq(column, value);
+    } else if (value == null) {
+      // the null values can only be compared for equality
+      return null;
+    } else if (function == BuiltInFunctionDefinitions.GREATER_THAN) {
+      return FilterApi.gt(column, value);
+    } else if (function == BuiltInFunctionDefinitions.GREATER_THAN_OR_EQUAL) {
+      return FilterApi.gtEq(column, value);
+    } else if (function == BuiltInFunctionDefinitions.LESS_THAN) {
+      return FilterApi.lt(column, value);
+    } else if (function == BuiltInFunctionDefinitions.LESS_THAN_OR_EQUAL) {
+      return FilterApi.ltEq(column, value);
+    }
+    return null;
+  }
+}
@@ -81,6 +81,11 @@ public class ParquetColumnarRowSplitReader implements Closeable {
 
   private final ColumnarRowData row;
 
+  /**
+   * Row view of the leading selected fields, see {@link #getProjectedRecord(int)}.
+   */
+  private ColumnarRowData projectedRow;
+
   private final LogicalType[] selectedTypes;
 
   private final int batchSize;
@@ -259,6 +264,21 @@ public class ParquetColumnarRowSplitReader implements Closeable {
     return row;
   }
 
+  /**
+   * Returns the row returned by the last {@link #nextRecord()} with only the first {@code numFields}
+   * selected fields, without copying the data.
+   *
+   * <p>This allows reading extra trailing columns, e.g. for merging, that are not part of the output rows.
+   */
+  public ColumnarRowData getProjectedRecord(int numFields) {
+    if (projectedRow == null) {
+      projectedRow = new ColumnarRowData(
+          new VectorizedColumnBatch(Arrays.copyOf(columnarBatch.columns, numFields)));
+    }
+    projectedRow.setRowId(this.nextRow - 1);
+    return projectedRow;
+  }
+
   /**
    * Checks if there is at least one row left in the batch to return. If no more row are
    * available, it reads another batch of rows.
@@ -20,6 +20,7 @@ package org.apache.hudi.source.format.mor;
 
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.OverwriteWithLatestAvroPayload;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.operator.FlinkOptions;
@@ -44,13 +45,19 @@ import org.apache.hudi.source.format.cow.ParquetSplitReaderUtil;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.logical.RowType;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.hadoop.ParquetInputFormat;
+
+import javax.annotation.Nullable;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.stream.IntStream;
 
@@ -65,6 +72,11 @@ import static org.apache.hudi.source.format.FormatUtils.buildAvroRecordBySchema;
  * <P>Use {@link org.apache.flink.formats.parquet.utils.ParquetRecordReader}
  * to read files instead of {@link org.apache.flink.core.fs.FSDataInputStream},
  * overrides {@link #createInputSplits(int)} and {@link #close()} to change the behaviors.
+ *
+ * <p>When the payload is {@link OverwriteWithLatestAvroPayload}, the merged record of a key is always the
+ * log record, so the base file is merged with the {@link OverwriteMergeIterator}: it reads only the required
+ * columns and the record key, passes the columnar rows without log records through as they are and never converts
+ * a base row to an Avro record. Only the log records are materialized, once each.
  */
 public class MergeOnReadInputFormat
     extends RichInputFormat<RowData, MergeOnReadInputSplit> {
@@ -116,13 +128,22 @@ public class MergeOnReadInputFormat
    */
   private long currentReadCount = 0;
 
+  // for filter push down
+  /**
+   * Parquet predicate to skip the row groups of the base files, null if no filter is pushed down.
+   * It is only applied where a skipped base record can not change the merged result of its key.
+   */
+  @Nullable
+  private final FilterPredicate filterPredicate;
+
   public MergeOnReadInputFormat(
       Configuration conf,
       Path[] paths,
       MergeOnReadTableState tableState,
       List<DataType> fieldTypes,
       String defaultPartName,
-      long limit) {
+      long limit,
+      @Nullable FilterPredicate filterPredicate) {
     this.conf = conf;
     this.paths = paths;
     this.tableState = tableState;
@@ -133,6 +154,7 @@ public class MergeOnReadInputFormat
     // because we need to
     this.requiredPos = tableState.getRequiredPositions();
     this.limit = limit;
+    this.filterPredicate = filterPredicate;
   }
 
   @Override
@@ -149,6 +171,25 @@ public class MergeOnReadInputFormat
       this.iterator = new SkipMergeIterator(
           getRequiredSchemaReader(split.getBasePath().get()),
           getLogFileIterator(split));
+    } else if (split.getMergeType().equals(FlinkOptions.REALTIME_PAYLOAD_COMBINE)
+        && OverwriteWithLatestAvroPayload.class.getName().equals(this.conf.getString(FlinkOptions.PAYLOAD_CLASS))) {
+      final int keyIndex = IntStream.range(0, this.requiredPos.length)
+          .filter(i -> this.requiredPos[i] == HOODIE_RECORD_KEY_COL_POS)
+          .findFirst()
+          .orElse(-1);
+      // appends the record key column if it is not required
+      final int[] readPos = keyIndex >= 0
+          ? this.requiredPos
+          : IntStream.concat(Arrays.stream(this.requiredPos), IntStream.of(HOODIE_RECORD_KEY_COL_POS)).toArray();
+      this.iterator = new OverwriteMergeIterator(
+          hadoopConf,
+          split,
+          new Schema.Parser().parse(this.tableState.getAvroSchema()),
+          new Schema.Parser().parse(this.tableState.getRequiredAvroSchema()),
+          this.tableState.getRequiredRowType(),
+          this.requiredPos,
+          keyIndex >= 0 ? keyIndex : this.requiredPos.length,
+          getReader(split.getBasePath().get(), readPos, true));
     } else if (split.getMergeType().equals(FlinkOptions.REALTIME_PAYLOAD_COMBINE)) {
       this.iterator = new MergeIterator(
           hadoopConf,
@@ -228,14 +269,18 @@ public class MergeOnReadInputFormat
   // -------------------------------------------------------------------------
 
   private ParquetColumnarRowSplitReader getFullSchemaReader(String path) throws IOException {
-    return getReader(path, IntStream.range(0, this.tableState.getRowType().getFieldCount()).toArray());
+    // the merged record may come from the base record, the row groups can not be skipped
+    return getReader(path, IntStream.range(0, this.tableState.getRowType().getFieldCount()).toArray(), false);
   }
 
   private ParquetColumnarRowSplitReader getRequiredSchemaReader(String path) throws IOException {
-    return getReader(path, this.requiredPos);
+    return getReader(path, this.requiredPos, true);
   }
 
-  private ParquetColumnarRowSplitReader getReader(String path, int[] requiredPos) throws IOException {
+  private ParquetColumnarRowSplitReader getReader(
+      String path,
+      int[] requiredPos,
+      boolean pushFilter) throws IOException {
     // generate partition specs.
     LinkedHashMap<String, String> partSpec = FilePathUtils.extractPartitionKeyValues(
         new org.apache.flink.core.fs.Path(path).getParent(),
@@ -246,10 +291,15 @@ public class MergeOnReadInputFormat
         defaultPartName.equals(v) ? null : v,
         fieldTypes.get(fieldNames.indexOf(k)))));
 
+    org.apache.hadoop.conf.Configuration parquetConf = FormatUtils.getParquetConf(this.conf, hadoopConf);
+    if (pushFilter && this.filterPredicate != null) {
+      ParquetInputFormat.setFilterPredicate(parquetConf, this.filterPredicate);
+    }
+
     return ParquetSplitReaderUtil.genPartColumnarRowReader(
         this.conf.getBoolean(FlinkOptions.UTC_TIMEZONE),
         true,
-        FormatUtils.getParquetConf(this.conf, hadoopConf),
+        parquetConf,
         fieldNames.toArray(new String[0]),
         fieldTypes.toArray(new DataType[0]),
         partObjects,
@@ -521,4 +571,113 @@ public class MergeOnReadInputFormat
       return logRecords.get(curKey).getData().combineAndGetUpdateValue(historyAvroRecord, tableSchema);
     }
   }
+
+  /**
+   * Merges the base file with the log records for {@link OverwriteWithLatestAvroPayload}, which always takes
+   * the log record as the merged record.
+   *
+   * <p>The base rows are read with the required columns only, plus the record key column at
+   * {@code keyIndex} that is projected out of the output rows when it is not required. A base row without
+   * a log record is returned as the columnar row view of the reader. A base row with a log record is replaced
+   * by the log record, or dropped if the log record is a delete, the base row is never materialized.
+   */
+  static class OverwriteMergeIterator implements RecordIterator {
+    // base file reader, with the required schema and the record key
+    private final ParquetColumnarRowSplitReader reader;
+    // log keys used for merging
+    private final Iterator<String> logKeysIterator;
+    // log records
+    private final Map<String, HoodieRecord<? extends HoodieRecordPayload>> logRecords;
+
+    private final Schema tableSchema;
+    private final Schema requiredSchema;
+    private final int[] requiredPos;
+    private final int keyIndex;
+    // whether the record key column is read in addition to the required columns
+    private final boolean projectKey;
+    private final AvroToRowDataConverters.AvroToRowDataConverter avroToRowDataConverter;
+    private final GenericRecordBuilder recordBuilder;
+    private final Properties payloadProps = new Properties();
+
+    private final Set<String> keyToSkip = new HashSet<>();
+
+    private RowData currentRecord;
+
+    OverwriteMergeIterator(
+        org.apache.hadoop.conf.Configuration hadoopConf,
+        MergeOnReadInputSplit split,
+        Schema tableSchema,
+        Schema requiredSchema,
+        RowType requiredRowType,
+        int[] requiredPos,
+        int keyIndex,
+        ParquetColumnarRowSplitReader reader) {
+      this.reader = reader;
+      this.logRecords = FormatUtils.scanLog(split, tableSchema, hadoopConf).getRecords();
+      this.logKeysIterator = this.logRecords.keySet().iterator();
+      this.tableSchema = tableSchema;
+      this.requiredSchema = requiredSchema;
+      this.requiredPos = requiredPos;
+      this.keyIndex = keyIndex;
+      this.projectKey = keyIndex == requiredPos.length;
+      this.recordBuilder = new GenericRecordBuilder(requiredSchema);
+      this.avroToRowDataConverter = AvroToRowDataConverters.createRowConverter(requiredRowType);
+    }
+
+    @Override
+    public boolean reachedEnd() throws IOException {
+      while (!this.reader.reachedEnd()) {
+        final RowData baseRow = this.reader.nextRecord();
+        final String curKey = baseRow.getString(keyIndex).toString();
+        final HoodieRecord<? extends HoodieRecordPayload> logRecord = logRecords.get(curKey);
+        if (logRecord == null) {
+          this.currentRecord = projectKey ? this.reader.getProjectedRecord(requiredPos.length) : baseRow;
+          return false;
+        }
+        keyToSkip.add(curKey);
+        if (materialize(logRecord)) {
+          return false;
+        }
+        // deleted
+      }
+      while (logKeysIterator.hasNext()) {
+        final String curKey = logKeysIterator.next();
+        if (!keyToSkip.contains(curKey) && materialize(logRecords.get(curKey))) {
+          return false;
+        }
+        // merged with the base file or stand alone delete record, skipping
+      }
+      return true;
+    }
+
+    @Override
+    public RowData nextRecord() {
+      return currentRecord;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (this.reader != null) {
+        this.reader.close();
+      }
+    }
+
+    /**
+     * Converts the log record to the current record, returns false if it is a delete.
+     */
+    private boolean materialize(HoodieRecord<? extends HoodieRecordPayload> logRecord) throws IOException {
+      // the decoded avro record is reused, it is copied to the required record right away
+      Option<IndexedRecord> avroRecord = logRecord.getData().getInsertValue(tableSchema, payloadProps, true);
+      if (!avroRecord.isPresent()) {
+        return false;
+      }
+      GenericRecord requiredAvroRecord = buildAvroRecordBySchema(
+          avroRecord.get(),
+          requiredSchema,
+          requiredPos,
+          recordBuilder);
+      this.currentRecord = (RowData) avroToRowDataConverter.convert(requiredAvroRecord);
+      return true;
+    }
+  }
 }
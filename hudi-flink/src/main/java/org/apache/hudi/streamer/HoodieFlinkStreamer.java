@@ -92,8 +92,8 @@ public class HoodieFlinkStreamer {
         .name("instant_generator")
         .uid("instant_generator_id")
 
-        // Keyby partition path, to avoid multiple subtasks writing to a partition at the same time
-        .keyBy(HoodieRecord::getPartitionPath)
+        // Key-by partition path or record key, see FlinkOptions#BUCKET_ASSIGN_KEY_BY
+        .keyBy(StreamerUtil.getBucketAssignKeySelector(conf))
         // use the bucket assigner to generate bucket IDs
         .transform(
             "bucket_assigner",
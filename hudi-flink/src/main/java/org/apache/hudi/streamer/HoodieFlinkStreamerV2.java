@@ -43,7 +43,7 @@ import java.util.Properties;
 
 /**
  * An Utility which can incrementally consume data from Kafka and apply it to the target table.
- * currently, it only support COW table and insert, upsert operation.
+ * currently, it only support COW table and insert, upsert, bulk_insert operation.
  */
 public class HoodieFlinkStreamerV2 {
   public static void main(String[] args) throws Exception {
@@ -76,7 +76,7 @@ public class HoodieFlinkStreamerV2 {
     StreamWriteOperatorFactory<HoodieRecord> operatorFactory =
         new StreamWriteOperatorFactory<>(conf);
 
-    DataStream<Object> dataStream = env.addSource(new FlinkKafkaConsumer<>(
+    DataStream<HoodieRecord> hoodieRecords = env.addSource(new FlinkKafkaConsumer<>(
         cfg.kafkaTopic,
         new JsonRowDataDeserializationSchema(
             rowType,
@@ -87,19 +87,32 @@ public class HoodieFlinkStreamerV2 {
         ), kafkaProps))
         .name("kafka_source")
         .uid("uid_kafka_source")
-        .map(new RowDataToHoodieFunction<>(rowType, conf), TypeInformation.of(HoodieRecord.class))
-        // Key-by partition path, to avoid multiple subtasks write to a partition at the same time
-        .keyBy(HoodieRecord::getPartitionPath)
-        .transform(
-            "bucket_assigner",
-            TypeInformation.of(HoodieRecord.class),
-            new KeyedProcessOperator<>(new BucketAssignFunction<>(conf)))
-        .uid("uid_bucket_assigner")
-        // shuffle by fileId(bucket id)
-        .keyBy(record -> record.getCurrentLocation().getFileId())
-        .transform("hoodie_stream_write", null, operatorFactory)
-        .uid("uid_hoodie_stream_write")
-        .setParallelism(numWriteTask);
+        .map(new RowDataToHoodieFunction<>(rowType, conf), TypeInformation.of(HoodieRecord.class));
+
+    DataStream<Object> dataStream;
+    if (StreamerUtil.isBulkInsert(conf)) {
+      dataStream = hoodieRecords
+          // no bucket assigning, the records always go into new files,
+          // key-by partition path or record key, see FlinkOptions#BUCKET_ASSIGN_KEY_BY
+          .keyBy(StreamerUtil.getBucketAssignKeySelector(conf))
+          .transform("hoodie_bulk_insert_write", null, operatorFactory)
+          .uid("uid_hoodie_bulk_insert_write")
+          .setParallelism(numWriteTask);
+    } else {
+      dataStream = hoodieRecords
+          // Key-by partition path or record key, see FlinkOptions#BUCKET_ASSIGN_KEY_BY
+          .keyBy(StreamerUtil.getBucketAssignKeySelector(conf))
+          .transform(
+              "bucket_assigner",
+              TypeInformation.of(HoodieRecord.class),
+              new KeyedProcessOperator<>(new BucketAssignFunction<>(conf)))
+          .uid("uid_bucket_assigner")
+          // shuffle by fileId(bucket id)
+          .keyBy(record -> record.getCurrentLocation().getFileId())
+          .transform("hoodie_stream_write", null, operatorFactory)
+          .uid("uid_hoodie_stream_write")
+          .setParallelism(numWriteTask);
+    }
 
     env.addOperator(dataStream.getTransformation());
 
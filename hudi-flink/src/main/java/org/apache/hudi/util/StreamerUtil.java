@@ -22,8 +22,10 @@ import org.apache.hudi.common.config.DFSPropertiesConfiguration;
 import org.apache.hudi.common.config.TypedProperties;
 import org.apache.hudi.common.engine.EngineType;
 import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordLocation;
 import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.WriteOperationType;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.ReflectionUtils;
@@ -42,6 +44,7 @@ import org.apache.hudi.table.action.compact.CompactionTriggerStrategy;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.flink.api.java.functions.KeySelector;
 import org.apache.flink.api.java.hadoop.mapred.utils.HadoopUtils;
 import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.Configuration;
@@ -308,6 +311,27 @@ public class StreamerUtil {
     return Objects.equals(loc.getInstantTime(), "I");
   }
 
+  /**
+   * Returns whether the records are shuffled to the bucket assign tasks by record key.
+   * @param conf The flink configuration.
+   */
+  public static boolean isBucketAssignByRecordKey(Configuration conf) {
+    return conf.getString(FlinkOptions.BUCKET_ASSIGN_KEY_BY).equalsIgnoreCase(FlinkOptions.KEY_BY_RECORD_KEY);
+  }
+
+  /**
+   * Returns the key selector to shuffle the records to the bucket assign tasks by.
+   * @param conf The flink configuration.
+   */
+  @SuppressWarnings("rawtypes")
+  public static KeySelector<HoodieRecord, String> getBucketAssignKeySelector(Configuration conf) {
+    if (isBucketAssignByRecordKey(conf)) {
+      return HoodieRecord::getRecordKey;
+    }
+    // avoids multiple subtasks assigning buckets of a partition at the same time
+    return HoodieRecord::getPartitionPath;
+  }
+
   public static String getTablePath(FileSystem fs, Path[] userProvidedPaths) throws IOException {
     LOG.info("Getting table path..");
     for (Path path : userProvidedPaths) {
@@ -334,4 +358,12 @@ public class StreamerUtil {
         .equals(FlinkOptions.TABLE_TYPE_MERGE_ON_READ)
         && conf.getBoolean(FlinkOptions.COMPACTION_ASYNC_ENABLED);
   }
+
+  /**
+   * Returns whether the write operation is bulk insert.
+   * @param conf The flink configuration.
+   */
+  public static boolean isBulkInsert(Configuration conf) {
+    return WriteOperationType.fromValue(conf.getString(FlinkOptions.OPERATION)) == WriteOperationType.BULK_INSERT;
+  }
 }
@@ -22,7 +22,6 @@ import org.apache.hudi.client.WriteStatus;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieTableType;
 import org.apache.hudi.operator.compact.CompactFunction;
-import org.apache.hudi.operator.compact.CompactionCommitEvent;
 import org.apache.hudi.operator.compact.CompactionCommitSink;
 import org.apache.hudi.operator.compact.CompactionPlanEvent;
 import org.apache.hudi.operator.compact.CompactionPlanOperator;
@@ -49,6 +48,7 @@ import org.apache.flink.core.fs.Path;
 import org.apache.flink.formats.json.JsonRowDataDeserializationSchema;
 import org.apache.flink.formats.json.TimestampFormat;
 import org.apache.flink.streaming.api.CheckpointingMode;
+import org.apache.flink.streaming.api.datastream.AsyncDataStream;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.streaming.api.functions.source.FileProcessingMode;
@@ -243,7 +243,7 @@ public class StreamWriteITCase extends TestLogger {
     TypeInformation<String> typeInfo = BasicTypeInfo.STRING_TYPE_INFO;
     format.setCharsetName("UTF-8");
 
-    execEnv
+    DataStream<CompactionPlanEvent> compactionPlans = execEnv
         // use PROCESS_CONTINUOUSLY mode to trigger checkpoint
         .readFile(format, sourcePath, FileProcessingMode.PROCESS_CONTINUOUSLY, 1000, typeInfo)
         .map(record -> deserializationSchema.deserialize(record.getBytes(StandardCharsets.UTF_8)))
@@ -265,10 +265,10 @@ public class StreamWriteITCase extends TestLogger {
             new CompactionPlanOperator(conf))
         .uid("uid_compact_plan_generate")
         .setParallelism(1) // plan generate must be singleton
-        .keyBy(event -> event.getOperation().hashCode())
-        .transform("compact_task",
-            TypeInformation.of(CompactionCommitEvent.class),
-            new KeyedProcessOperator<>(new CompactFunction(conf)))
+        .keyBy(event -> event.getOperation().hashCode());
+    // the compaction operations run asynchronously to the checkpoints, as the sink does
+    AsyncDataStream.unorderedWait(compactionPlans, new CompactFunction(conf), 0L, TimeUnit.MILLISECONDS)
+        .name("compact_task")
         .addSink(new CompactionCommitSink(conf))
         .name("compact_commit")
         .setParallelism(1);
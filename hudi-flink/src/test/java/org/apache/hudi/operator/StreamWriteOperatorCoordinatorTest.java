@@ -27,6 +27,7 @@ import org.apache.hudi.operator.event.BatchWriteSuccessEvent;
 import org.apache.hudi.operator.utils.TestConfigurations;
 import org.apache.hudi.util.StreamerUtil;
 
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.runtime.operators.coordination.OperatorEvent;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -42,6 +43,7 @@ import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -95,6 +97,38 @@ public class StreamWriteOperatorCoordinatorTest {
     assertNotEquals(instant, inflight, "Should start a new instant");
   }
 
+  @Test
+  public void testAsyncPostCommit() throws Exception {
+    String basePath = tempFile.getAbsolutePath();
+    Configuration conf = TestConfigurations.getDefaultConf(basePath);
+    conf.setBoolean(FlinkOptions.WRITE_ASYNC_POST_COMMIT_ENABLED, true);
+    coordinator.close();
+    coordinator = new StreamWriteOperatorCoordinator(conf, 2, false);
+    coordinator.start();
+
+    // the file system is shared with the write client, leave it open
+    FileSystem fs = FSUtils.getFs(basePath, StreamerUtil.getHadoopConf());
+    String instant = coordinator.getInstant();
+    Path markerDir = new Path(basePath, HoodieTableMetaClient.TEMPFOLDER_NAME + Path.SEPARATOR + instant);
+    fs.mkdirs(markerDir);
+
+    for (int taskID = 0; taskID < 2; taskID++) {
+      WriteStatus writeStatus = new WriteStatus(true, 0.1D);
+      writeStatus.setPartitionPath("par" + taskID);
+      writeStatus.setStat(new HoodieWriteStat());
+      coordinator.handleEventFromOperator(taskID,
+          new BatchWriteSuccessEvent(taskID, instant, Collections.singletonList(writeStatus), true));
+    }
+    coordinator.checkpointComplete(1);
+    // the instant is completed before the new instant starts
+    String lastCompleted = coordinator.getWriteClient().getLastCompletedInstant("COPY_ON_WRITE");
+    assertThat("Instant should be complete", lastCompleted, is(instant));
+    assertNotEquals(instant, coordinator.getInstant(), "Should start a new instant");
+
+    coordinator.getWriteClient().waitForPostCommit();
+    assertFalse(fs.exists(markerDir), "The marker files should be cleaned by the post commit actions");
+  }
+
   @Test
   public void testTableInitialized() throws IOException {
     final org.apache.hadoop.conf.Configuration hadoopConf = StreamerUtil.getHadoopConf();
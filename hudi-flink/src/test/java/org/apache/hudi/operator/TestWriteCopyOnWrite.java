@@ -29,6 +29,7 @@ import org.apache.hudi.operator.event.BatchWriteSuccessEvent;
 import org.apache.hudi.operator.utils.StreamWriteFunctionWrapper;
 import org.apache.hudi.operator.utils.TestConfigurations;
 import org.apache.hudi.operator.utils.TestData;
+import org.apache.hudi.util.StreamerUtil;
 
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.runtime.operators.coordination.OperatorEvent;
@@ -325,6 +326,143 @@ public class TestWriteCopyOnWrite {
     checkWrittenData(tempFile, EXPECTED2);
   }
 
+  @Test
+  public void testUpsertWithBinaryBuffer() throws Exception {
+    // buffer the records as bytes
+    funcWrapper.close();
+    conf.setBoolean(FlinkOptions.WRITE_BINARY_BUFFER_ENABLED, true);
+    funcWrapper = new StreamWriteFunctionWrapper<>(tempFile.getAbsolutePath(), conf);
+    testUpsert();
+  }
+
+  @Test
+  public void testUpsertWithAsyncFlush() throws Exception {
+    // write the buffer in a separate thread
+    funcWrapper.close();
+    conf.setBoolean(FlinkOptions.WRITE_ASYNC_FLUSH_ENABLED, true);
+    funcWrapper = new StreamWriteFunctionWrapper<>(tempFile.getAbsolutePath(), conf);
+
+    // open the function and ingest data
+    funcWrapper.openFunction();
+    for (RowData rowData : TestData.DATA_SET_ONE) {
+      funcWrapper.invoke(rowData);
+    }
+
+    // this hands the buffer over to the writer thread
+    funcWrapper.checkpointFunction(1);
+    assertTrue(funcWrapper.getDataBuffer().isEmpty(), "The task expects to buffer into a fresh buffer");
+
+    String instant = funcWrapper.getWriteClient()
+        .getInflightAndRequestedInstant(getTableType());
+
+    // the checkpoint completes before the coordinator receives the event
+    funcWrapper.getCoordinator().checkpointComplete(1);
+    checkInstantState(funcWrapper.getWriteClient(), HoodieInstant.State.REQUESTED, instant);
+
+    funcWrapper.waitForAsyncFlush();
+    OperatorEvent nextEvent = funcWrapper.getNextEvent();
+    assertThat("The operator expect to send an event", nextEvent, instanceOf(BatchWriteSuccessEvent.class));
+    assertTrue(((BatchWriteSuccessEvent) nextEvent).isLastBatch());
+
+    // the pending instant is committed once the event arrives
+    funcWrapper.getCoordinator().handleEventFromOperator(0, nextEvent);
+    checkInstantState(funcWrapper.getWriteClient(), HoodieInstant.State.COMPLETED, instant);
+    checkWrittenData(tempFile, EXPECTED1);
+
+    // upsert another data buffer
+    for (RowData rowData : TestData.DATA_SET_TWO) {
+      funcWrapper.invoke(rowData);
+    }
+    funcWrapper.checkpointFunction(2);
+
+    String instant2 = funcWrapper.getWriteClient()
+        .getInflightAndRequestedInstant(getTableType());
+    assertNotEquals(instant, instant2);
+
+    funcWrapper.waitForAsyncFlush();
+    nextEvent = funcWrapper.getNextEvent();
+    assertThat("The operator expect to send an event", nextEvent, instanceOf(BatchWriteSuccessEvent.class));
+    assertThat(((BatchWriteSuccessEvent) nextEvent).getInstantTime(), is(instant2));
+
+    funcWrapper.getCoordinator().handleEventFromOperator(0, nextEvent);
+    funcWrapper.checkpointComplete(2);
+    checkInstantState(funcWrapper.getWriteClient(), HoodieInstant.State.COMPLETED, instant2);
+    checkWrittenData(tempFile, EXPECTED2);
+  }
+
+  @Test
+  public void testAsyncFlushRestoresHandedOverBuffer() throws Exception {
+    funcWrapper.close();
+    conf.setBoolean(FlinkOptions.WRITE_ASYNC_FLUSH_ENABLED, true);
+    funcWrapper = new StreamWriteFunctionWrapper<>(tempFile.getAbsolutePath(), conf);
+
+    funcWrapper.openFunction();
+    for (RowData rowData : TestData.DATA_SET_ONE) {
+      funcWrapper.invoke(rowData);
+    }
+    funcWrapper.checkpointFunction(1);
+    funcWrapper.waitForAsyncFlush();
+    funcWrapper.getCoordinator().handleEventFromOperator(0, funcWrapper.getNextEvent());
+    funcWrapper.getCoordinator().checkpointComplete(1);
+
+    // the handed over records were committed before the failover
+    funcWrapper.restartWriteFunction(1);
+    assertTrue(funcWrapper.getDataBuffer().isEmpty(), "The committed records should not be restored");
+
+    for (RowData rowData : TestData.DATA_SET_TWO) {
+      funcWrapper.invoke(rowData);
+    }
+    funcWrapper.checkpointFunction(2);
+    funcWrapper.waitForAsyncFlush();
+
+    // the handed over records were written but not committed before the failover
+    funcWrapper.restartWriteFunction(2);
+    int numRestored = funcWrapper.getDataBuffer().values().stream().mapToInt(List::size).sum();
+    assertThat("The uncommitted records should be restored", numRestored, is(TestData.DATA_SET_TWO.size()));
+  }
+
+  @Test
+  public void testAsyncFlushRestoresSpilledBinaryBuffer() throws Exception {
+    funcWrapper.close();
+    conf.setBoolean(FlinkOptions.WRITE_ASYNC_FLUSH_ENABLED, true);
+    conf.setBoolean(FlinkOptions.WRITE_BINARY_BUFFER_ENABLED, true);
+    conf.setBoolean(FlinkOptions.INSERT_DROP_DUPS, true);
+    // the buffer keeps a single memory page
+    conf.setDouble(FlinkOptions.WRITE_BATCH_SIZE, 0.001);
+    funcWrapper = new StreamWriteFunctionWrapper<>(tempFile.getAbsolutePath(), conf);
+
+    funcWrapper.openFunction();
+    final int numRecords = 100 * TestData.DATA_SET_THREE.size();
+    for (int i = 0; i < 100; i++) {
+      for (RowData rowData : TestData.DATA_SET_THREE) {
+        funcWrapper.invoke(rowData);
+      }
+    }
+    assertTrue(funcWrapper.getNumSpilledRuns() > 0, "The buffer should spill");
+
+    // the spilled buffer is handed over and written
+    funcWrapper.checkpointFunction(1);
+    funcWrapper.waitForAsyncFlush();
+    funcWrapper.getCoordinator().handleEventFromOperator(0, funcWrapper.getNextEvent());
+    funcWrapper.getCoordinator().checkpointComplete(1);
+    checkWrittenData(tempFile, EXPECTED3, 1);
+
+    for (int i = 0; i < 100; i++) {
+      for (RowData rowData : TestData.DATA_SET_THREE) {
+        funcWrapper.invoke(rowData);
+      }
+    }
+    assertTrue(funcWrapper.getNumSpilledRuns() > 0, "The buffer should spill");
+    funcWrapper.checkpointFunction(2);
+    funcWrapper.waitForAsyncFlush();
+
+    // the spilled records handed over on the checkpoint are restored from the state
+    funcWrapper.restartWriteFunction(2);
+    int numRestored = funcWrapper.getDataBuffer().values().stream().mapToInt(List::size).sum();
+    assertThat("The uncommitted records should be restored", numRestored, is(numRecords));
+    assertTrue(funcWrapper.getNumSpilledRuns() > 0, "The restored records should spill");
+  }
+
   @Test
   public void testInsertWithMiniBatches() throws Exception {
     // reset the config option
@@ -429,10 +567,12 @@ public class TestWriteCopyOnWrite {
         new HoodieKey("id2", "par1"),
         new HoodieKey("id3", "par2"),
         new HoodieKey("id4", "par2"),
-        new HoodieKey("id5", "par3"),
-        new HoodieKey("id6", "par3"),
-        new HoodieKey("id7", "par4"),
-        new HoodieKey("id8", "par4"));
+        new HoodieKey("id5", "par3"));
+    // the records keyed by record key look up the base files per key instead of loading whole partitions
+    final boolean loadsPartitions = !StreamerUtil.isBucketAssignByRecordKey(conf);
+    assertThat(funcWrapper.isKeyInState(new HoodieKey("id6", "par3")), is(loadsPartitions));
+    assertThat(funcWrapper.isKeyInState(new HoodieKey("id7", "par4")), is(loadsPartitions));
+    assertThat(funcWrapper.isKeyInState(new HoodieKey("id8", "par4")), is(loadsPartitions));
     // the data is not flushed yet
     checkWrittenData(tempFile, EXPECTED1);
     // this triggers the data write and event send
@@ -455,8 +595,26 @@ public class TestWriteCopyOnWrite {
     // the coordinator checkpoint commits the inflight instant.
     checkInstantState(funcWrapper.getWriteClient(), HoodieInstant.State.COMPLETED, instant);
     checkWrittenData(tempFile, EXPECTED2);
-    assertTrue(funcWrapper.isAllPartitionsLoaded(),
-        "All partitions assume to be loaded into the index state");
+    assertThat("All partitions assume to be loaded into the index state",
+        funcWrapper.isAllPartitionsLoaded(), is(loadsPartitions));
+  }
+
+  @Test
+  public void testIndexStateBootstrapKeyedByRecordKey() throws Exception {
+    // spread the records of a partition across the bucket assign tasks
+    funcWrapper.close();
+    conf.setString(FlinkOptions.BUCKET_ASSIGN_KEY_BY, FlinkOptions.KEY_BY_RECORD_KEY);
+    funcWrapper = new StreamWriteFunctionWrapper<>(tempFile.getAbsolutePath(), conf);
+    testIndexStateBootstrap();
+  }
+
+  @Test
+  public void testIndexStateBootstrapWithCompactState() throws Exception {
+    // keep the key hashes and the encoded file IDs in the index state
+    funcWrapper.close();
+    conf.setBoolean(FlinkOptions.INDEX_STATE_COMPACT_ENABLED, true);
+    funcWrapper = new StreamWriteFunctionWrapper<>(tempFile.getAbsolutePath(), conf);
+    testIndexStateBootstrap();
   }
 
   // -------------------------------------------------------------------------
@@ -19,6 +19,7 @@
 package org.apache.hudi.operator;
 
 import org.apache.hudi.common.model.HoodieTableType;
+import org.apache.hudi.operator.utils.StreamWriteFunctionWrapper;
 
 import org.apache.flink.configuration.Configuration;
 import org.junit.jupiter.api.Disabled;
@@ -44,6 +45,16 @@ public class TestWriteMergeOnReadWithCompact extends TestWriteCopyOnWrite {
     // Ignore the index bootstrap because we only support parquet load now.
   }
 
+  @Test
+  public void testUpsertWithCompactionConcurrency() throws Exception {
+    // the operations run in parallel, but the memory budget only fits one operation at a time
+    funcWrapper.close();
+    conf.setInteger(FlinkOptions.COMPACTION_CONCURRENCY, 4);
+    conf.setInteger(FlinkOptions.COMPACTION_MAX_MEMORY, 100);
+    funcWrapper = new StreamWriteFunctionWrapper<>(tempFile.getAbsolutePath(), conf);
+    testUpsert();
+  }
+
   Map<String, String> getMiniBatchExpected() {
     Map<String, String> expected = new HashMap<>();
     // MOR mode merges the messages with the same key.
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.operator.buffer;
+
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.OverwriteWithLatestAvroPayload;
+import org.apache.hudi.common.util.Option;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link BinaryRecordBuffer}.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class TestBinaryRecordBuffer {
+
+  private BinaryRecordBuffer buffer;
+
+  @TempDir
+  File tempFile;
+
+  @BeforeEach
+  public void before() {
+    // a tiny memory budget to spill often
+    buffer = new BinaryRecordBuffer(
+        TypeInformation.of(HoodieRecord.class).createSerializer(new ExecutionConfig()),
+        4096, 1024, new String[] {tempFile.getAbsolutePath()});
+  }
+
+  @AfterEach
+  public void after() {
+    buffer.close();
+  }
+
+  @Test
+  public void testAddAndRead() throws Exception {
+    String[] buckets = new String[] {"par2_f1", "par1_f0", "par1_f2"};
+    for (int i = 0; i < 300; i++) {
+      buffer.add(buckets[i % buckets.length], createRecord(i, buckets[i % buckets.length]));
+    }
+    assertThat(buffer.getNumRecords(), is(300L));
+    assertTrue(buffer.getNumSpilledRuns() > 0, "The buffer is expected to spill");
+
+    assertThat(Arrays.asList(buffer.getBucketIDs().toArray()), is(Arrays.asList("par1_f0", "par1_f2", "par2_f1")));
+    for (int b = 0; b < buckets.length; b++) {
+      final int offset = b;
+      List<String> expectedKeys = IntStream.range(0, 300)
+          .filter(i -> i % buckets.length == offset)
+          .mapToObj(i -> "id" + i)
+          .collect(Collectors.toList());
+      List<HoodieRecord> records = new ArrayList<>();
+      Iterator<List<HoodieRecord>> batches = buffer.getRecords(buckets[b], 256);
+      while (batches.hasNext()) {
+        List<HoodieRecord> batch = batches.next();
+        assertFalse(batch.isEmpty());
+        records.addAll(batch);
+      }
+      // the records keep the arrival order across the spilled runs and the memory pages
+      assertThat(records.stream().map(HoodieRecord::getRecordKey).collect(Collectors.toList()), is(expectedKeys));
+      records.forEach(record -> {
+        assertNotNull(record.getCurrentLocation());
+        assertThat(record.getCurrentLocation().getFileId(), is(buckets[offset].split("_")[1]));
+      });
+    }
+
+    buffer.reset();
+    assertTrue(buffer.isEmpty());
+    assertTrue(buffer.getBucketIDs().isEmpty());
+    File[] spilledFiles = tempFile.listFiles();
+    assertNotNull(spilledFiles);
+    assertThat("The spilled files are expected to be deleted", spilledFiles.length, is(0));
+
+    // the buffer is reusable after reset
+    buffer.add("par1_f0", createRecord(1000, "par1_f0"));
+    assertThat(buffer.getRecords("par1_f0", Long.MAX_VALUE).next().get(0).getRecordKey(), is("id1000"));
+  }
+
+  private static HoodieRecord createRecord(int i, String bucketID) {
+    String[] partitionAndFileId = bucketID.split("_");
+    HoodieRecord record = new HoodieRecord(new HoodieKey("id" + i, partitionAndFileId[0]),
+        new OverwriteWithLatestAvroPayload(Option.empty()));
+    record.setCurrentLocation(new HoodieRecordLocation("I", partitionAndFileId[1]));
+    return record;
+  }
+}
@@ -187,6 +187,29 @@ public class TestBucketAssigner {
     assertBucketEquals(bucketInfo, "par2", BucketType.UPDATE, "f2");
   }
 
+  @Test
+  public void testInsertWithSharedSmallFiles() {
+    SmallFile f0 = new SmallFile();
+    f0.location = new HoodieRecordLocation("t0", "f0");
+    f0.sizeBytes = 12;
+
+    Map<String, List<SmallFile>> smallFilesMap = new HashMap<>();
+    smallFilesMap.put("par1", Collections.singletonList(f0));
+
+    // 4 assigners pack inserts into the small files, each one takes a quarter of the free space
+    MockBucketAssigner mockBucketAssigner = new MockBucketAssigner(context, writeConfig, smallFilesMap);
+    mockBucketAssigner.setNumSmallFileSharingTasks(4);
+    long share = (writeConfig.getParquetMaxFileSize() - f0.sizeBytes)
+        / writeConfig.getCopyOnWriteRecordSizeEstimate() / 4;
+    for (long i = 0; i < share; i++) {
+      BucketInfo bucketInfo = mockBucketAssigner.addInsert("par1");
+      assertBucketEquals(bucketInfo, "par1", BucketType.UPDATE, "f0");
+    }
+
+    BucketInfo bucketInfo = mockBucketAssigner.addInsert("par1");
+    assertBucketEquals(bucketInfo, "par1", BucketType.INSERT);
+  }
+
   private void assertBucketEquals(
       BucketInfo bucketInfo,
       String partition,
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.operator.partitioner;
+
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.operator.utils.MockOperatorStateStore;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test cases for {@link CompactIndexState}.
+ */
+public class TestCompactIndexState {
+
+  @Test
+  public void testPutAndGet() throws Exception {
+    MockOperatorStateStore stateStore = new MockOperatorStateStore();
+    CompactIndexState indexState = new CompactIndexState(stateStore);
+
+    indexState.putAll("par1", "f0", CompactIndexState.hashRecordKeys(Arrays.asList("id1", "id2", "id3")));
+    indexState.put(new HoodieKey("id4", "par1"), "f1");
+    indexState.put(new HoodieKey("id5", "par1"), "f0");
+
+    assertThat(indexState.getFileId(new HoodieKey("id1", "par1")), is("f0"));
+    assertThat(indexState.getFileId(new HoodieKey("id3", "par1")), is("f0"));
+    assertThat(indexState.getFileId(new HoodieKey("id4", "par1")), is("f1"));
+    assertThat(indexState.getFileId(new HoodieKey("id5", "par1")), is("f0"));
+    assertNull(indexState.getFileId(new HoodieKey("id6", "par1")));
+    assertThat("The file IDs are expected to be encoded once", indexState.getNumFileIds(), is(2));
+
+    // the dictionary is restored from the state
+    CompactIndexState restored = new CompactIndexState(stateStore);
+    assertThat(restored.getFileId(new HoodieKey("id2", "par1")), is("f0"));
+    assertThat(restored.getFileId(new HoodieKey("id4", "par1")), is("f1"));
+    restored.put(new HoodieKey("id6", "par1"), "f2");
+    assertThat(restored.getFileId(new HoodieKey("id6", "par1")), is("f2"));
+    assertThat(restored.getFileId(new HoodieKey("id1", "par1")), is("f0"));
+
+    restored.clear();
+    assertNull(restored.getFileId(new HoodieKey("id1", "par1")));
+  }
+
+  @Test
+  public void testHash() {
+    assertNotEquals(CompactIndexState.hash("id1"), CompactIndexState.hash("id2"));
+    // the high bytes of the chars are hashed
+    assertNotEquals(CompactIndexState.hash("\u0100"), CompactIndexState.hash("\u0000"));
+    assertThat(CompactIndexState.hash("id1"), is(CompactIndexState.hash("id1")));
+  }
+}
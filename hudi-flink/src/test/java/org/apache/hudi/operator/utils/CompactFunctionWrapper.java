@@ -31,16 +31,18 @@ import org.apache.flink.runtime.io.disk.iomanager.IOManagerAsync;
 import org.apache.flink.runtime.memory.MemoryManager;
 import org.apache.flink.runtime.operators.testutils.MockEnvironment;
 import org.apache.flink.runtime.operators.testutils.MockEnvironmentBuilder;
+import org.apache.flink.streaming.api.functions.async.ResultFuture;
 import org.apache.flink.streaming.api.operators.Output;
 import org.apache.flink.streaming.api.operators.StreamingRuntimeContext;
 import org.apache.flink.streaming.api.watermark.Watermark;
 import org.apache.flink.streaming.runtime.streamrecord.LatencyMarker;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
-import org.apache.flink.util.Collector;
 import org.apache.flink.util.OutputTag;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A wrapper class to manipulate the {@link org.apache.hudi.operator.compact.CompactFunction} instance for testing.
@@ -116,27 +118,34 @@ public class CompactFunctionWrapper {
     compactionPlanFunction.setOutput(output);
     compactionPlanFunction.notifyCheckpointComplete(checkpointID);
     // collect the CompactCommitEvents
-    List<CompactionCommitEvent> compactCommitEvents = new ArrayList<>();
+    List<CompletableFuture<Collection<CompactionCommitEvent>>> compactCommitEvents = new ArrayList<>();
     for (CompactionPlanEvent event: events) {
-      compactFunction.processElement(event, null, new Collector<CompactionCommitEvent>() {
+      CompletableFuture<Collection<CompactionCommitEvent>> future = new CompletableFuture<>();
+      compactFunction.asyncInvoke(event, new ResultFuture<CompactionCommitEvent>() {
         @Override
-        public void collect(CompactionCommitEvent event) {
-          compactCommitEvents.add(event);
+        public void complete(Collection<CompactionCommitEvent> result) {
+          future.complete(result);
         }
 
         @Override
-        public void close() {
-
+        public void completeExceptionally(Throwable error) {
+          future.completeExceptionally(error);
         }
       });
+      compactCommitEvents.add(future);
     }
     // handle and commit the compaction
-    for (CompactionCommitEvent event : compactCommitEvents) {
-      commitSink.invoke(event, null);
+    for (CompletableFuture<Collection<CompactionCommitEvent>> future : compactCommitEvents) {
+      for (CompactionCommitEvent event : future.get()) {
+        commitSink.invoke(event, null);
+      }
     }
   }
 
   public void close() throws Exception {
+    if (compactFunction != null) {
+      compactFunction.close();
+    }
     ioManager.close();
   }
 }
@@ -50,7 +50,7 @@ public class MockOperatorStateStore implements KeyedStateStore, OperatorStateSto
   private Map<String, TestUtils.MockListState> currentStateMap;
   private Map<String, TestUtils.MockListState> lastSuccessStateMap;
 
-  private MapState mapState;
+  private final Map<String, MapState> mapStates;
 
   public MockOperatorStateStore() {
     this.historyStateMap = new HashMap<>();
@@ -58,7 +58,7 @@ public class MockOperatorStateStore implements KeyedStateStore, OperatorStateSto
     this.currentStateMap = new HashMap<>();
     this.lastSuccessStateMap = new HashMap<>();
 
-    this.mapState = new MockMapState<>();
+    this.mapStates = new HashMap<>();
   }
 
   @Override
@@ -97,7 +97,7 @@ public class MockOperatorStateStore implements KeyedStateStore, OperatorStateSto
   @Override
   @SuppressWarnings("unchecked")
   public <K, V> MapState<K, V> getMapState(MapStateDescriptor<K, V> mapStateDescriptor) {
-    return this.mapState;
+    return this.mapStates.computeIfAbsent(mapStateDescriptor.getName(), k -> new MockMapState<>());
   }
 
   @Override
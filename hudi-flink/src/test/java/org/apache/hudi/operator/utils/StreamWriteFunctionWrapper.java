@@ -99,14 +99,29 @@ public class StreamWriteFunctionWrapper<I> {
     bucketAssignerFunction.open(conf);
     bucketAssignerFunction.initializeState(this.functionInitializationContext);
 
+    openWriteFunction();
+
+    if (conf.getBoolean(FlinkOptions.COMPACTION_ASYNC_ENABLED)) {
+      compactFunctionWrapper.openFunction();
+    }
+  }
+
+  private void openWriteFunction() throws Exception {
     writeFunction = new StreamWriteFunction<>(conf);
     writeFunction.setRuntimeContext(runtimeContext);
     writeFunction.setOperatorEventGateway(gateway);
+    writeFunction.initializeState(this.functionInitializationContext);
     writeFunction.open(conf);
+  }
 
-    if (conf.getBoolean(FlinkOptions.COMPACTION_ASYNC_ENABLED)) {
-      compactFunctionWrapper.openFunction();
-    }
+  /**
+   * Restarts the write function from the state of the given successful checkpoint, as a failover does.
+   */
+  public void restartWriteFunction(long checkpointId) throws Exception {
+    this.writeFunction.close();
+    this.functionInitializationContext.getOperatorStateStore().checkpointSuccess(checkpointId);
+    this.functionInitializationContext.getOperatorStateStore().rollBackToLastSuccessCheckpoint();
+    openWriteFunction();
   }
 
   public void invoke(I record) throws Exception {
@@ -139,6 +154,10 @@ public class StreamWriteFunctionWrapper<I> {
     return this.writeFunction.getBuffer();
   }
 
+  public int getNumSpilledRuns() {
+    return this.writeFunction.getNumSpilledRuns();
+  }
+
   @SuppressWarnings("rawtypes")
   public HoodieFlinkWriteClient getWriteClient() {
     return this.writeFunction.getWriteClient();
@@ -153,6 +172,10 @@ public class StreamWriteFunctionWrapper<I> {
     functionInitializationContext.getOperatorStateStore().checkpointBegin(checkpointId);
   }
 
+  public void waitForAsyncFlush() {
+    writeFunction.waitForAsyncFlush();
+  }
+
   public void checkpointComplete(long checkpointId) {
     functionInitializationContext.getOperatorStateStore().checkpointSuccess(checkpointId);
     coordinator.checkpointComplete(checkpointId);
@@ -174,6 +197,7 @@ public class StreamWriteFunctionWrapper<I> {
   public void close() throws Exception {
     coordinator.close();
     ioManager.close();
+    compactFunctionWrapper.close();
   }
 
   public StreamWriteOperatorCoordinator getCoordinator() {
@@ -29,7 +29,18 @@ import org.apache.flink.api.common.io.FileInputFormat;
 import org.apache.flink.api.common.io.InputFormat;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.core.fs.Path;
+import org.apache.flink.table.api.DataTypes;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.expressions.CallExpression;
+import org.apache.flink.table.expressions.Expression;
+import org.apache.flink.table.expressions.FieldReferenceExpression;
+import org.apache.flink.table.expressions.ResolvedExpression;
+import org.apache.flink.table.expressions.ValueLiteralExpression;
+import org.apache.flink.table.functions.BuiltInFunctionDefinitions;
+import org.apache.flink.table.functions.FunctionDefinition;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.io.api.Binary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -42,6 +53,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.IntStream;
 
@@ -49,6 +61,7 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -119,4 +132,45 @@ public class TestHoodieTableSource {
         () -> tableSource.getInputFormat(),
         "Invalid query type : 'incremental'. Only 'snapshot' is supported now");
   }
+
+  @Test
+  void testGetParquetPredicate() {
+    HoodieTableSource tableSource = new HoodieTableSource(
+        TestConfigurations.TABLE_SCHEMA,
+        new Path(tempFile.getPath()),
+        Arrays.asList(conf.getString(FlinkOptions.PARTITION_PATH_FIELD).split(",")),
+        "default-par",
+        conf);
+    assertNull(tableSource.getParquetPredicate());
+
+    FieldReferenceExpression age = new FieldReferenceExpression("age", DataTypes.INT(), 0, 2);
+    FieldReferenceExpression name = new FieldReferenceExpression("name", DataTypes.VARCHAR(10), 0, 1);
+    FieldReferenceExpression partition = new FieldReferenceExpression("partition", DataTypes.VARCHAR(10), 0, 4);
+    List<Expression> filters = Arrays.asList(
+        // reversed comparison
+        call(BuiltInFunctionDefinitions.LESS_THAN, new ValueLiteralExpression(30), age),
+        call(BuiltInFunctionDefinitions.OR,
+            call(BuiltInFunctionDefinitions.EQUALS, name, new ValueLiteralExpression("Danny")),
+            call(BuiltInFunctionDefinitions.IS_NULL, name)),
+        // the partition field is pruned with the partition paths
+        call(BuiltInFunctionDefinitions.EQUALS, partition, new ValueLiteralExpression("par1")),
+        // the conjunct of a negated expression can not be dropped
+        call(BuiltInFunctionDefinitions.NOT,
+            call(BuiltInFunctionDefinitions.AND,
+                call(BuiltInFunctionDefinitions.EQUALS, age, new ValueLiteralExpression(40)),
+                call(BuiltInFunctionDefinitions.LIKE, name, new ValueLiteralExpression("D%")))));
+    HoodieTableSource filteredSource = (HoodieTableSource) tableSource.applyPredicate(filters);
+
+    FilterPredicate expected = FilterApi.and(
+        FilterApi.gt(FilterApi.intColumn("age"), 30),
+        FilterApi.or(
+            FilterApi.eq(FilterApi.binaryColumn("name"), Binary.fromString("Danny")),
+            FilterApi.eq(FilterApi.binaryColumn("name"), null)));
+    assertThat(filteredSource.getParquetPredicate(), is(expected));
+    assertThat("All the filters should be still evaluated by the planner", filters.size(), is(4));
+  }
+
+  private static CallExpression call(FunctionDefinition function, ResolvedExpression... args) {
+    return new CallExpression(function, Arrays.asList(args), DataTypes.BOOLEAN());
+  }
 }
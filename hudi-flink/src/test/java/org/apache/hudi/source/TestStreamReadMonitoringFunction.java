@@ -139,6 +139,43 @@ public class TestStreamReadMonitoringFunction {
     }
   }
 
+  @Test
+  public void testConsumeWithMaxInstantsPerCheck() throws Exception {
+    // write 2 commits first and consume from the first commit, one instant is issued in each round.
+    TestData.writeData(TestData.DATA_SET_ONE, conf);
+    TestData.writeData(TestData.DATA_SET_TWO, conf);
+    String firstCommit = TestUtils.getFirstCommit(tempFile.getAbsolutePath());
+    String latestCommit = TestUtils.getLatestCommit(tempFile.getAbsolutePath());
+    conf.setString(FlinkOptions.READ_STREAMING_START_COMMIT, firstCommit);
+    conf.setInteger(FlinkOptions.READ_STREAMING_MAX_INSTANTS_PER_CHECK, 1);
+    StreamReadMonitoringFunction function = TestUtils.getMonitorFunc(conf);
+    try (AbstractStreamOperatorTestHarness<MergeOnReadInputSplit> harness = createHarness(function)) {
+      harness.setup();
+      harness.open();
+
+      CollectingSourceContext sourceContext = new CollectingSourceContext(new CountDownLatch(4));
+
+      function.monitorDirAndForwardSplits(sourceContext);
+      assertThat("Should produce the expected splits",
+          sourceContext.getPartitionPaths(), is("par1,par2,par3,par4"));
+      assertTrue(sourceContext.splits.stream().allMatch(split -> split.getLatestCommit().equals(firstCommit)),
+          "All the splits should be with the first instant time");
+
+      sourceContext.reset(new CountDownLatch(4));
+      function.monitorDirAndForwardSplits(sourceContext);
+      assertThat("Should produce the expected splits",
+          sourceContext.getPartitionPaths(), is("par1,par2,par3,par4"));
+      assertTrue(sourceContext.splits.stream().allMatch(split -> split.getLatestCommit().equals(latestCommit)),
+          "All the splits should be with the latest instant time");
+      assertTrue(sourceContext.splits.stream().allMatch(split -> split.getInstantRange().isPresent()),
+          "All the instants should have range limit");
+
+      sourceContext.reset(new CountDownLatch(0));
+      function.monitorDirAndForwardSplits(sourceContext);
+      assertTrue(sourceContext.splits.isEmpty(), "No new instant should be issued");
+    }
+  }
+
   @Test
   public void testCheckpointRestore() throws Exception {
     TestData.writeData(TestData.DATA_SET_ONE, conf);
@@ -270,7 +270,8 @@ public class TestStreamReadOperator {
         hoodieTableState,
         rowDataType.getChildren(),
         "default",
-        1000L);
+        1000L,
+        null);
 
     OneInputStreamOperatorFactory<MergeOnReadInputSplit, RowData> factory = StreamReadOperator.factory(inputFormat);
     OneInputStreamOperatorTestHarness<MergeOnReadInputSplit, RowData> harness = new OneInputStreamOperatorTestHarness<>(
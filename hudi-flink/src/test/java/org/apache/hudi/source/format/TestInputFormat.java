@@ -19,6 +19,7 @@
 package org.apache.hudi.source.format;
 
 import org.apache.hudi.common.model.HoodieTableType;
+import org.apache.hudi.common.model.OverwriteNonDefaultsWithLatestAvroPayload;
 import org.apache.hudi.operator.FlinkOptions;
 import org.apache.hudi.operator.utils.TestConfigurations;
 import org.apache.hudi.operator.utils.TestData;
@@ -29,7 +30,13 @@ import org.apache.flink.api.common.io.InputFormat;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.core.fs.Path;
 import org.apache.flink.core.io.InputSplit;
+import org.apache.flink.table.api.DataTypes;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.expressions.CallExpression;
+import org.apache.flink.table.expressions.Expression;
+import org.apache.flink.table.expressions.FieldReferenceExpression;
+import org.apache.flink.table.expressions.ValueLiteralExpression;
+import org.apache.flink.table.functions.BuiltInFunctionDefinitions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -38,6 +45,7 @@ import org.junit.jupiter.params.provider.EnumSource;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -151,6 +159,34 @@ public class TestInputFormat {
     assertThat(actual, is(expected));
   }
 
+  @Test
+  void testReadBaseAndLogFilesWithProjection() throws Exception {
+    beforeEach(HoodieTableType.MERGE_ON_READ);
+
+    // write parquet first with compaction
+    conf.setBoolean(FlinkOptions.COMPACTION_ASYNC_ENABLED, true);
+    TestData.writeData(TestData.DATA_SET_ONE, conf);
+
+    // write another commit using logs
+    conf.setBoolean(FlinkOptions.COMPACTION_ASYNC_ENABLED, false);
+    TestData.writeData(TestData.DATA_SET_TWO, conf);
+
+    // project the fields 'name' and 'age', the record key is not required
+    this.tableSource.reloadActiveTimeline();
+    HoodieTableSource projectedSource = (HoodieTableSource) this.tableSource.projectFields(new int[] {1, 2});
+    List<String> result = readProjectedData(projectedSource.getInputFormat());
+
+    String expected = "[Bob,44, Danny,24, Ella,38, Emma,20, Fabian,32, Han,56, "
+        + "Jane,19, Julian,54, Phoebe,52, Sophia,18, Stephen,34]";
+    assertThat(result.toString(), is(expected));
+
+    // merges with the payload generically and read again
+    conf.setString(FlinkOptions.PAYLOAD_CLASS, OverwriteNonDefaultsWithLatestAvroPayload.class.getName());
+    projectedSource = (HoodieTableSource) this.tableSource.projectFields(new int[] {1, 2});
+    result = readProjectedData(projectedSource.getInputFormat());
+    assertThat(result.toString(), is(expected));
+  }
+
   @ParameterizedTest
   @EnumSource(value = HoodieTableType.class)
   void testReadWithPartitionPrune(HoodieTableType tableType) throws Exception {
@@ -172,6 +208,34 @@ public class TestInputFormat {
     assertThat(actual, is(expected));
   }
 
+  @Test
+  void testReadWithFilterPushDown() throws Exception {
+    beforeEach(HoodieTableType.COPY_ON_WRITE);
+
+    TestData.writeData(TestData.DATA_SET_ONE, conf);
+
+    // the base file of partition 'par3' only has ages 18 and 20
+    Expression filter = new CallExpression(
+        BuiltInFunctionDefinitions.GREATER_THAN,
+        Arrays.asList(new FieldReferenceExpression("age", DataTypes.INT(), 0, 2), new ValueLiteralExpression(30)),
+        DataTypes.BOOLEAN());
+    HoodieTableSource filteredSource = (HoodieTableSource) tableSource
+        .applyPredicate(Collections.singletonList(filter));
+    InputFormat<RowData, ?> inputFormat = filteredSource.getInputFormat();
+
+    List<RowData> result = readData(inputFormat);
+
+    // the row groups are skipped by statistics, the rows are filtered by the planner
+    String actual = TestData.rowDataToString(result);
+    String expected = "[id1,Danny,23,1970-01-01T00:00:00.001,par1, "
+        + "id2,Stephen,33,1970-01-01T00:00:00.002,par1, "
+        + "id3,Julian,53,1970-01-01T00:00:00.003,par2, "
+        + "id4,Fabian,31,1970-01-01T00:00:00.004,par2, "
+        + "id7,Bob,44,1970-01-01T00:00:00.007,par4, "
+        + "id8,Han,56,1970-01-01T00:00:00.008,par4]";
+    assertThat(actual, is(expected));
+  }
+
   // -------------------------------------------------------------------------
   //  Utilities
   // -------------------------------------------------------------------------
@@ -191,4 +255,25 @@ public class TestInputFormat {
     }
     return result;
   }
+
+  /**
+   * Reads the rows projected to the fields 'name' and 'age' as sorted strings.
+   */
+  @SuppressWarnings("unchecked, rawtypes")
+  private static List<String> readProjectedData(InputFormat inputFormat) throws IOException {
+    InputSplit[] inputSplits = inputFormat.createInputSplits(1);
+
+    List<String> result = new ArrayList<>();
+
+    for (InputSplit inputSplit : inputSplits) {
+      inputFormat.open(inputSplit);
+      while (!inputFormat.reachedEnd()) {
+        RowData row = (RowData) inputFormat.nextRecord(null);
+        result.add(row.getString(0) + "," + row.getInt(1));
+      }
+      inputFormat.close();
+    }
+    Collections.sort(result);
+    return result;
+  }
 }
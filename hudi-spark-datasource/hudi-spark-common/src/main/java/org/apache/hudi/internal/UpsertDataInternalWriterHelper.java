@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.internal;
+
+import org.apache.hudi.client.HoodieInternalWriteStatus;
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.io.HoodieRowCreateHandle;
+import org.apache.hudi.io.HoodieRowMergeHandle;
+import org.apache.hudi.table.HoodieTable;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.StructType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Helper class to write the rows of one task of a datasource upsert with InternalRow, once they were merged against
+ * the current base files.
+ *
+ * <p>Meta columns of the incoming rows encode what to do with them:
+ * <ul>
+ *   <li>{@code _hoodie_file_name} holds the name of the current base file of the file group the row goes to, or is
+ *   null for inserts.</li>
+ *   <li>{@code _hoodie_commit_time} is empty for incoming rows, and holds the original commit time for rows copied
+ *   from the current base file.</li>
+ * </ul>
+ * Rows must arrive clustered by file name, with inserts clustered by partition path.
+ */
+public class UpsertDataInternalWriterHelper {
+
+  private static final Logger LOG = LogManager.getLogger(UpsertDataInternalWriterHelper.class);
+
+  private static final int FILE_NAME_POS = HoodieRecord.HOODIE_META_COLUMNS_NAME_TO_POS.get(HoodieRecord.FILENAME_METADATA_FIELD);
+  private static final int COMMIT_TIME_POS = HoodieRecord.HOODIE_META_COLUMNS_NAME_TO_POS.get(HoodieRecord.COMMIT_TIME_METADATA_FIELD);
+  private static final int PARTITION_PATH_POS = HoodieRecord.HOODIE_META_COLUMNS_NAME_TO_POS.get(HoodieRecord.PARTITION_PATH_METADATA_FIELD);
+
+  private final String instantTime;
+  private final int taskPartitionId;
+  private final long taskId;
+  private final long taskEpochId;
+  private final HoodieTable hoodieTable;
+  private final HoodieWriteConfig writeConfig;
+  private final StructType structType;
+  private final List<HoodieInternalWriteStatus> writeStatusList = new ArrayList<>();
+
+  private HoodieRowCreateHandle handle;
+  // Base file name of the file group being merged, null while writing inserts
+  private String lastKnownFileName = null;
+  private String lastKnownPartitionPath = null;
+  private String fileIdPrefix;
+  private int numFilesWritten = 0;
+
+  public UpsertDataInternalWriterHelper(HoodieTable hoodieTable, HoodieWriteConfig writeConfig,
+      String instantTime, int taskPartitionId, long taskId, long taskEpochId, StructType structType) {
+    this.hoodieTable = hoodieTable;
+    this.writeConfig = writeConfig;
+    this.instantTime = instantTime;
+    this.taskPartitionId = taskPartitionId;
+    this.taskId = taskId;
+    this.taskEpochId = taskEpochId;
+    this.structType = structType;
+    this.fileIdPrefix = UUID.randomUUID().toString();
+  }
+
+  public void write(InternalRow record) throws IOException {
+    try {
+      String fileName = record.isNullAt(FILE_NAME_POS) ? null : record.getUTF8String(FILE_NAME_POS).toString();
+      String partitionPath = record.getUTF8String(PARTITION_PATH_POS).toString();
+      if (fileName != null) {
+        if (handle == null || !fileName.equals(lastKnownFileName)) {
+          LOG.info("Merging into file " + fileName + " of partition path " + partitionPath);
+          createMergeHandle(partitionPath, fileName);
+        }
+        if (record.getUTF8String(COMMIT_TIME_POS).numBytes() == 0) {
+          handle.write(record);
+        } else {
+          ((HoodieRowMergeHandle) handle).copy(record);
+        }
+      } else {
+        if (handle == null || lastKnownFileName != null || !partitionPath.equals(lastKnownPartitionPath)
+            || !handle.canWrite()) {
+          LOG.info("Creating new file for partition path " + partitionPath);
+          createCreateHandle(partitionPath);
+        }
+        handle.write(record);
+      }
+    } catch (Throwable t) {
+      LOG.error("Global error thrown while trying to write records in row handle ", t);
+      throw t;
+    }
+  }
+
+  public List<HoodieInternalWriteStatus> getWriteStatuses() throws IOException {
+    close();
+    return writeStatusList;
+  }
+
+  private void createMergeHandle(String partitionPath, String fileName) throws IOException {
+    close();
+    handle = new HoodieRowMergeHandle(hoodieTable, writeConfig, partitionPath, FSUtils.getFileId(fileName),
+        FSUtils.getCommitTime(fileName), instantTime, taskPartitionId, taskId, taskEpochId, structType);
+    lastKnownFileName = fileName;
+    lastKnownPartitionPath = partitionPath;
+  }
+
+  private void createCreateHandle(String partitionPath) throws IOException {
+    close();
+    handle = new HoodieRowCreateHandle(hoodieTable, writeConfig, partitionPath, getNextFileId(),
+        instantTime, taskPartitionId, taskId, taskEpochId, structType);
+    lastKnownFileName = null;
+    lastKnownPartitionPath = partitionPath;
+  }
+
+  public void close() throws IOException {
+    if (null != handle) {
+      writeStatusList.add(handle.close());
+      handle = null;
+    }
+  }
+
+  private String getNextFileId() {
+    return String.format("%s-%d", fileIdPrefix, numFilesWritten++);
+  }
+}
@@ -292,6 +292,18 @@ object DataSourceWriteOptions {
   val ENABLE_ROW_WRITER_OPT_KEY = "hoodie.datasource.write.row.writer.enable"
   val DEFAULT_ENABLE_ROW_WRITER_OPT_VAL = "false"
 
+  /**
+   * When set to true, upserts and inserts into copy on write tables are written using the spark native `Row`
+   * representation, if the table and write configs allow it. Unlike `ENABLE_ROW_WRITER_OPT_KEY`, which only applies
+   * to bulk_insert. By default, false
+   *
+   * Note: inserts written this way always go to new file groups, they are never packed into the existing small files
+   * as the avro write path does (see `hoodie.parquet.small.file.limit`). Frequent small batches of inserts hence
+   * create many small files, until clustering rewrites them.
+   */
+  val ENABLE_UPSERT_ROW_WRITER_OPT_KEY = "hoodie.datasource.write.upsert.row.writer.enable"
+  val DEFAULT_ENABLE_UPSERT_ROW_WRITER_OPT_VAL = "false"
+
   /**
     * Option keys beginning with this prefix, are automatically added to the commit/deltacommit metadata.
     * This is useful to store checkpointing information, in a consistent way with the hoodie timeline
@@ -0,0 +1,318 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi;
+
+import org.apache.hudi.client.HoodieInternalWriteStatus;
+import org.apache.hudi.client.common.HoodieSparkEngineContext;
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.EmptyHoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieBaseFile;
+import org.apache.hudi.common.model.HoodieFileGroupId;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieTableType;
+import org.apache.hudi.common.model.OverwriteWithLatestAvroPayload;
+import org.apache.hudi.common.model.WriteOperationType;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.table.TableSchemaResolver;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.StringUtils;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieException;
+import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.internal.UpsertDataInternalWriterHelper;
+import org.apache.hudi.table.HoodieSparkTable;
+
+import org.apache.avro.Schema;
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.SQLContext;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.expressions.Window;
+import org.apache.spark.sql.functions;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.storage.StorageLevel;
+import scala.collection.JavaConverters;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.apache.spark.sql.functions.col;
+
+/**
+ * Helper class to perform upserts and inserts of {@link Dataset<Row>}s into copy on write tables with the datasource
+ * implementation, keeping records as rows end to end.
+ *
+ * <p>Record keys are tagged with the table index, and the file groups that receive updates are read back with Spark's
+ * parquet reader. Payload merging is done over rows with the semantics of {@link OverwriteWithLatestAvroPayload}:
+ * incoming duplicates are combined by keeping the row with the greatest precombine field, and an incoming row replaces
+ * the stored row with the same key. Inserts go to new file groups.
+ */
+public class HoodieDatasetUpsertHelper {
+
+  private static final Logger LOG = LogManager.getLogger(HoodieDatasetUpsertHelper.class);
+
+  private static final String TAG_RECORD_KEY = "_hoodie_tag_record_key";
+  private static final String TAG_PARTITION_PATH = "_hoodie_tag_partition_path";
+  private static final String TAG_FILE_NAME = "_hoodie_tag_file_name";
+  private static final String ROW_RANK = "_hoodie_row_rank";
+  // Field marking deletes in OverwriteWithLatestAvroPayload
+  private static final String IS_DELETED_FIELD = "_hoodie_is_deleted";
+
+  /**
+   * Checks whether a write can be done as rows. Writes that need payload or index features not expressed over rows
+   * go through the avro write path instead.
+   */
+  public static boolean canWriteAsRows(HoodieWriteConfig config, HoodieTableMetaClient metaClient, StructType schema,
+      WriteOperationType operation, boolean dropDuplicates) {
+    String reason = null;
+    if (operation != WriteOperationType.UPSERT && operation != WriteOperationType.INSERT) {
+      reason = "operation " + operation + " is not supported";
+    } else if (dropDuplicates) {
+      reason = "dropping incoming records that already exist in the table is not supported";
+    } else if (metaClient.getTableType() != HoodieTableType.COPY_ON_WRITE) {
+      reason = "only copy on write tables are supported";
+    } else if (!OverwriteWithLatestAvroPayload.class.getName().equals(config.getPayloadClass())) {
+      reason = "payload class " + config.getPayloadClass() + " has no row based merge";
+    } else if (Arrays.asList(schema.fieldNames()).contains(IS_DELETED_FIELD)) {
+      reason = "deletes through " + IS_DELETED_FIELD + " are not supported";
+    } else if (operation == WriteOperationType.UPSERT && config.getIndexType() != HoodieIndex.IndexType.BLOOM
+        && config.getIndexType() != HoodieIndex.IndexType.SIMPLE) {
+      reason = "index type " + config.getIndexType() + " is not supported";
+    } else if (metaClient.getTableConfig().getBootstrapBasePath().isPresent()) {
+      reason = "bootstrapped tables are not supported";
+    } else if (!metaClient.getActiveTimeline().filterPendingReplaceTimeline().empty()) {
+      reason = "table has pending clustering or replace instants";
+    }
+    if (reason != null) {
+      LOG.warn("Falling back to avro write path for " + operation + ", " + reason);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Writes input hoodie spark dataset to the table. It does the following steps.
+   *  1. Generates hoodie record keys, partition paths and meta columns, as for bulk insert.
+   *  2. Combines duplicate rows by the precombine field, if configured for the operation.
+   *  3. For upserts, tags record keys with the index, and merges the tagged rows with the current base files of
+   *     their file groups.
+   *  4. Writes merged file groups with {@link org.apache.hudi.io.HoodieRowMergeHandle}s and inserts with
+   *     {@link org.apache.hudi.io.HoodieRowCreateHandle}s.
+   *
+   * @param sqlContext SQL Context
+   * @param config     Hoodie Write Config
+   * @param rows       Spark Input dataset
+   * @param instantTime instant time of the inflight commit
+   * @param operation  either {@link WriteOperationType#UPSERT} or {@link WriteOperationType#INSERT}
+   * @return write statuses of all the files written.
+   */
+  public static List<HoodieInternalWriteStatus> write(SQLContext sqlContext, HoodieWriteConfig config,
+      Dataset<Row> rows, String instantTime, WriteOperationType operation) {
+    JavaSparkContext jsc = new JavaSparkContext(sqlContext.sparkContext());
+    HoodieSparkEngineContext context = new HoodieSparkEngineContext(jsc);
+    HoodieSparkTable table = HoodieSparkTable.create(config, context);
+
+    Dataset<Row> prepared = HoodieDatasetBulkInsertHelper.prepareHoodieDataset(sqlContext, config, rows);
+    boolean isUpsert = operation == WriteOperationType.UPSERT;
+    Dataset<Row> incoming = (isUpsert ? config.shouldCombineBeforeUpsert() : config.shouldCombineBeforeInsert())
+        ? deduplicate(prepared, config.getPreCombineField()) : prepared;
+    int parallelism = isUpsert ? config.getUpsertShuffleParallelism() : config.getInsertShuffleParallelism();
+    StructType structType = incoming.schema();
+
+    incoming.persist(StorageLevel.MEMORY_AND_DISK_SER());
+    Dataset<Row> locations = null;
+    try {
+      Dataset<Row> merged = null;
+      Dataset<Row> inserts = incoming.withColumn(HoodieRecord.FILENAME_METADATA_FIELD,
+          functions.lit(null).cast(DataTypes.StringType));
+      if (isUpsert) {
+        locations = tagLocations(sqlContext, context, table, incoming);
+        if (locations != null) {
+          Column joinCondition = incoming.col(HoodieRecord.RECORD_KEY_METADATA_FIELD).equalTo(locations.col(TAG_RECORD_KEY))
+              .and(incoming.col(HoodieRecord.PARTITION_PATH_METADATA_FIELD).equalTo(locations.col(TAG_PARTITION_PATH)));
+          Column tagFileName = locations.col(TAG_FILE_NAME);
+          Dataset<Row> tagged = incoming.join(locations, joinCondition, "left_outer")
+              .select(toSeq(Arrays.stream(incoming.columns())
+                  .map(name -> HoodieRecord.FILENAME_METADATA_FIELD.equals(name) ? tagFileName.as(name) : incoming.col(name))
+                  .collect(Collectors.toList())));
+          inserts = tagged.filter(col(HoodieRecord.FILENAME_METADATA_FIELD).isNull());
+          merged = mergeWithBaseFiles(sqlContext, table, structType,
+              tagged.filter(col(HoodieRecord.FILENAME_METADATA_FIELD).isNotNull()), locations);
+        }
+      }
+
+      JavaRDD<InternalRow> rowsToWrite = inserts
+          .sort(col(HoodieRecord.PARTITION_PATH_METADATA_FIELD), col(HoodieRecord.RECORD_KEY_METADATA_FIELD))
+          .coalesce(parallelism)
+          .queryExecution().toRdd().toJavaRDD();
+      if (merged != null) {
+        // Every file group must be written by exactly one task
+        rowsToWrite = merged
+            .repartition(parallelism, col(HoodieRecord.FILENAME_METADATA_FIELD))
+            .sortWithinPartitions(col(HoodieRecord.FILENAME_METADATA_FIELD), col(HoodieRecord.RECORD_KEY_METADATA_FIELD))
+            .queryExecution().toRdd().toJavaRDD()
+            .union(rowsToWrite);
+      }
+      return rowsToWrite.mapPartitions(rowItr -> {
+        TaskContext taskContext = TaskContext.get();
+        UpsertDataInternalWriterHelper writer = new UpsertDataInternalWriterHelper(table, config, instantTime,
+            taskContext.partitionId(), taskContext.stageId(), taskContext.taskAttemptId(), structType);
+        while (rowItr.hasNext()) {
+          writer.write(rowItr.next());
+        }
+        return writer.getWriteStatuses().iterator();
+      }).collect();
+    } finally {
+      incoming.unpersist();
+      if (locations != null) {
+        locations.unpersist();
+      }
+    }
+  }
+
+  private static Dataset<Row> deduplicate(Dataset<Row> incoming, String preCombineField) {
+    if (StringUtils.isNullOrEmpty(preCombineField)) {
+      return incoming.dropDuplicates(HoodieRecord.RECORD_KEY_METADATA_FIELD, HoodieRecord.PARTITION_PATH_METADATA_FIELD);
+    }
+    return incoming.withColumn(ROW_RANK, functions.row_number().over(
+        Window.partitionBy(col(HoodieRecord.RECORD_KEY_METADATA_FIELD), col(HoodieRecord.PARTITION_PATH_METADATA_FIELD))
+            .orderBy(col(preCombineField).desc())))
+        .filter(col(ROW_RANK).equalTo(1))
+        .drop(ROW_RANK);
+  }
+
+  /**
+   * Tags the incoming record keys with the index.
+   *
+   * @return record key, partition path and current base file name of every incoming key that already exists, or
+   * null if there is none.
+   */
+  private static Dataset<Row> tagLocations(SQLContext sqlContext, HoodieSparkEngineContext context,
+      HoodieSparkTable table, Dataset<Row> incoming) {
+    JavaRDD<HoodieRecord> keys = incoming
+        .select(col(HoodieRecord.RECORD_KEY_METADATA_FIELD), col(HoodieRecord.PARTITION_PATH_METADATA_FIELD))
+        .toJavaRDD()
+        .map(row -> new HoodieRecord(new HoodieKey(row.getString(0), row.getString(1)), new EmptyHoodieRecordPayload()));
+    JavaRDD<HoodieRecord> tagged = ((JavaRDD<HoodieRecord>) table.getIndex().tagLocation(keys, context, table))
+        .filter(HoodieRecord::isCurrentLocationKnown);
+    tagged.persist(StorageLevel.MEMORY_AND_DISK_SER());
+
+    // Resolve the current base file of every file group receiving updates
+    Map<String, Set<String>> partitionToFileIds = tagged
+        .map(record -> new HoodieFileGroupId(record.getPartitionPath(), record.getCurrentLocation().getFileId()))
+        .distinct()
+        .collect().stream()
+        .collect(Collectors.groupingBy(HoodieFileGroupId::getPartitionPath,
+            Collectors.mapping(HoodieFileGroupId::getFileId, Collectors.toSet())));
+    if (partitionToFileIds.isEmpty()) {
+      tagged.unpersist();
+      return null;
+    }
+    Map<String, String> fileIdToFileName = partitionToFileIds.entrySet().stream()
+        .flatMap(entry -> table.getBaseFileOnlyView().getLatestBaseFiles(entry.getKey())
+            .filter(baseFile -> entry.getValue().contains(baseFile.getFileId())))
+        .collect(Collectors.toMap(HoodieBaseFile::getFileId, HoodieBaseFile::getFileName));
+    // Updates are merged with the latest base file of their file group, a group without one cannot be written as rows
+    List<HoodieFileGroupId> fileGroupsWithoutBaseFile = partitionToFileIds.entrySet().stream()
+        .flatMap(entry -> entry.getValue().stream()
+            .filter(fileId -> !fileIdToFileName.containsKey(fileId))
+            .map(fileId -> new HoodieFileGroupId(entry.getKey(), fileId)))
+        .collect(Collectors.toList());
+    if (!fileGroupsWithoutBaseFile.isEmpty()) {
+      tagged.unpersist();
+      throw new HoodieException("Incoming records are tagged to file groups without a latest base file "
+          + fileGroupsWithoutBaseFile + ", they cannot be upserted with the row writer");
+    }
+    LOG.info("Incoming records update " + fileIdToFileName.size() + " file groups");
+
+    JavaRDD<Row> locations = tagged.map(record -> RowFactory.create(record.getRecordKey(), record.getPartitionPath(),
+        fileIdToFileName.get(record.getCurrentLocation().getFileId())));
+    StructType locationSchema = new StructType()
+        .add(TAG_RECORD_KEY, DataTypes.StringType, false)
+        .add(TAG_PARTITION_PATH, DataTypes.StringType, false)
+        .add(TAG_FILE_NAME, DataTypes.StringType, false);
+    Dataset<Row> locationDataset = sqlContext.createDataFrame(locations, locationSchema);
+    locationDataset.persist(StorageLevel.MEMORY_AND_DISK_SER());
+    tagged.unpersist();
+    return locationDataset;
+  }
+
+  /**
+   * Reads the current base files of the file groups receiving updates, and replaces their rows with the updated rows.
+   * Base files are read with the table schema and the stored rows are then projected onto the incoming schema.
+   */
+  private static Dataset<Row> mergeWithBaseFiles(SQLContext sqlContext, HoodieSparkTable table, StructType structType,
+      Dataset<Row> updates, Dataset<Row> locations) {
+    String[] baseFilePaths = locations.select(col(TAG_PARTITION_PATH), col(TAG_FILE_NAME)).distinct()
+        .collectAsList().stream()
+        .map(row -> new Path(FSUtils.getPartitionPath(table.getMetaClient().getBasePath(), row.getString(0)),
+            row.getString(1)).toString())
+        .toArray(String[]::new);
+    // The file name column carries the base file a row was read from, so that it is written to the same file group
+    Dataset<Row> storedRows = sqlContext.read().schema(getTableStructType(table)).parquet(baseFilePaths);
+    Dataset<Row> baseRows = storedRows.select(toSeq(Arrays.stream(structType.fields())
+        .map(field -> reconcileColumn(storedRows, field))
+        .collect(Collectors.toList())))
+        .withColumn(HoodieRecord.FILENAME_METADATA_FIELD, functions.substring_index(functions.input_file_name(), "/", -1));
+    Column updateCondition = baseRows.col(HoodieRecord.RECORD_KEY_METADATA_FIELD).equalTo(locations.col(TAG_RECORD_KEY))
+        .and(baseRows.col(HoodieRecord.PARTITION_PATH_METADATA_FIELD).equalTo(locations.col(TAG_PARTITION_PATH)));
+    return updates.union(baseRows.join(locations, updateCondition, "left_anti"));
+  }
+
+  private static StructType getTableStructType(HoodieSparkTable table) {
+    try {
+      Schema tableSchema = new TableSchemaResolver(table.getMetaClient()).getTableAvroSchema();
+      return AvroConversionUtils.convertAvroSchemaToStructType(tableSchema);
+    } catch (Exception e) {
+      throw new HoodieException("Failed to read the schema of table " + table.getMetaClient().getBasePath(), e);
+    }
+  }
+
+  /**
+   * Returns the column of a stored row for a field of the incoming schema: null if the table does not have it, and
+   * cast to the incoming type if the table stores another type.
+   */
+  private static Column reconcileColumn(Dataset<Row> storedRows, StructField field) {
+    Option<StructField> storedField = Option.fromJavaOptional(Arrays.stream(storedRows.schema().fields())
+        .filter(f -> f.name().equals(field.name())).findFirst());
+    if (!storedField.isPresent()) {
+      return functions.lit(null).cast(field.dataType()).as(field.name());
+    }
+    Column column = storedRows.col(field.name());
+    return storedField.get().dataType().equals(field.dataType()) ? column : column.cast(field.dataType()).as(field.name());
+  }
+
+  private static scala.collection.Seq<Column> toSeq(List<Column> columns) {
+    return JavaConverters.collectionAsScalaIterableConverter(columns).asScala().toSeq();
+  }
+}
@@ -29,10 +29,12 @@ import org.apache.hudi.DataSourceWriteOptions._
 import org.apache.hudi.avro.HoodieAvroUtils
 import org.apache.hudi.client.HoodieWriteResult
 import org.apache.hudi.client.SparkRDDWriteClient
+import org.apache.hudi.client.common.HoodieSparkEngineContext
 import org.apache.hudi.common.config.{HoodieMetadataConfig, TypedProperties}
 import org.apache.hudi.common.model.{HoodieRecordPayload, HoodieTableType, WriteOperationType}
 import org.apache.hudi.common.table.{HoodieTableConfig, HoodieTableMetaClient}
-import org.apache.hudi.common.table.timeline.HoodieActiveTimeline
+import org.apache.hudi.common.table.timeline.{HoodieActiveTimeline, HoodieInstant}
+import org.apache.hudi.common.table.timeline.HoodieInstant.State
 import org.apache.hudi.common.util.ReflectionUtils
 import org.apache.hudi.config.HoodieBootstrapConfig.{BOOTSTRAP_BASE_PATH_PROP, BOOTSTRAP_INDEX_CLASS_PROP, DEFAULT_BOOTSTRAP_INDEX_CLASS}
 import org.apache.hudi.config.HoodieWriteConfig
@@ -132,6 +134,24 @@ private[hudi] object HoodieSparkSqlWriter {
                                                                                 basePath, path, instantTime)
         return (success, commitTime, common.util.Option.empty(), hoodieWriteClient.orNull, tableConfig)
       }
+
+      // short-circuit if upsert/insert via row is enabled and supported for the table.
+      if (parameters(ENABLE_UPSERT_ROW_WRITER_OPT_KEY).toBoolean &&
+        (operation == WriteOperationType.UPSERT || operation == WriteOperationType.INSERT)) {
+        val (structName, nameSpace) = AvroConversionUtils.getAvroRecordNameAndNamespace(tblName)
+        val schema = AvroConversionUtils.convertStructTypeToAvroSchema(df.schema, structName, nameSpace)
+        val writeConfig = hoodieWriteClient.map(_.getConfig).getOrElse(DataSourceUtils.createHoodieConfig(schema.toString,
+          path.get, tblName, mapAsJavaMap(parameters - HoodieWriteConfig.HOODIE_AUTO_COMMIT_PROP)))
+        val metaClient = HoodieTableMetaClient.builder().setConf(sparkContext.hadoopConfiguration).setBasePath(path.get).build()
+        if (HoodieDatasetUpsertHelper.canWriteAsRows(writeConfig, metaClient, df.schema, operation,
+          parameters(INSERT_DROP_DUPS_OPT_KEY).toBoolean)) {
+          val client = hoodieWriteClient.getOrElse(new SparkRDDWriteClient[HoodieRecordPayload[Nothing]](
+            new HoodieSparkEngineContext(jsc), writeConfig))
+          val success = writeAsRow(sqlContext, parameters, df, client, metaClient,
+            TableInstantInfo(basePath, instantTime, commitActionType, operation))
+          return (success, common.util.Option.ofNullable(instantTime), common.util.Option.empty(), client, tableConfig)
+        }
+      }
       // scalastyle:on
 
       val (writeResult, writeClient: SparkRDDWriteClient[HoodieRecordPayload[Nothing]]) =
@@ -326,6 +346,64 @@ private[hudi] object HoodieSparkSqlWriter {
     (syncHiveSucess, common.util.Option.ofNullable(instantTime))
   }
 
+  def writeAsRow(sqlContext: SQLContext,
+                 parameters: Map[String, String],
+                 df: DataFrame,
+                 client: SparkRDDWriteClient[HoodieRecordPayload[Nothing]],
+                 metaClient: HoodieTableMetaClient,
+                 tableInstantInfo: TableInstantInfo): Boolean = {
+    client.setOperationType(tableInstantInfo.operation)
+    client.startCommitWithTime(tableInstantInfo.instantTime, tableInstantInfo.commitActionType)
+    try {
+      metaClient.getActiveTimeline.transitionRequestedToInflight(new HoodieInstant(State.REQUESTED,
+        tableInstantInfo.commitActionType, tableInstantInfo.instantTime), common.util.Option.empty())
+      val writeStatuses = try {
+        HoodieDatasetUpsertHelper.write(sqlContext, client.getConfig, df,
+          tableInstantInfo.instantTime, tableInstantInfo.operation)
+      } catch {
+        case e: Exception =>
+          log.error(s"${tableInstantInfo.operation} failed, rolling back ${tableInstantInfo.instantTime}", e)
+          client.rollback(tableInstantInfo.instantTime)
+          throw e
+      }
+
+      val errorCount = writeStatuses.count(ws => ws.hasErrors || ws.getGlobalError != null)
+      if (errorCount == 0) {
+        log.info("No errors. Proceeding to commit the write.")
+        val metaMap = parameters.filter(kv =>
+          kv._1.startsWith(parameters(COMMIT_METADATA_KEYPREFIX_OPT_KEY)))
+        val commitSuccess = client.commitStats(tableInstantInfo.instantTime, seqAsJavaList(writeStatuses.map(_.getStat)),
+          common.util.Option.of(new util.HashMap[String, String](mapAsJavaMap(metaMap))),
+          tableInstantInfo.commitActionType)
+
+        if (commitSuccess) {
+          log.info("Commit " + tableInstantInfo.instantTime + " successful!")
+        }
+        else {
+          log.info("Commit " + tableInstantInfo.instantTime + " failed!")
+        }
+        val metaSyncSuccess = metaSync(parameters, tableInstantInfo.basePath, sqlContext.sparkContext.hadoopConfiguration)
+        commitSuccess && metaSyncSuccess
+      } else {
+        log.error(s"${tableInstantInfo.operation} failed with $errorCount errors :")
+        if (log.isTraceEnabled) {
+          log.trace("Printing out the top 100 errors")
+          writeStatuses.filter(ws => ws.hasErrors || ws.getGlobalError != null)
+            .take(100)
+            .foreach(ws => {
+              log.trace("Global error :", ws.getGlobalError)
+              ws.getFailedRecordKeys.foreach(kt =>
+                log.trace(s"Error for key: ${kt.getKey}", kt.getValue))
+            })
+        }
+        client.rollback(tableInstantInfo.instantTime)
+        false
+      }
+    } finally {
+      client.close()
+    }
+  }
+
   def toProperties(params: Map[String, String]): TypedProperties = {
     val props = new TypedProperties()
     params.foreach(kv => props.setProperty(kv._1, kv._2))
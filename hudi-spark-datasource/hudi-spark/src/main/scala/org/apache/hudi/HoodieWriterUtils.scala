@@ -72,7 +72,8 @@ object HoodieWriterUtils {
       HIVE_STYLE_PARTITIONING_OPT_KEY -> DEFAULT_HIVE_STYLE_PARTITIONING_OPT_VAL,
       HIVE_USE_JDBC_OPT_KEY -> DEFAULT_HIVE_USE_JDBC_OPT_VAL,
       ASYNC_COMPACT_ENABLE_OPT_KEY -> DEFAULT_ASYNC_COMPACT_ENABLE_OPT_VAL,
-      ENABLE_ROW_WRITER_OPT_KEY -> DEFAULT_ENABLE_ROW_WRITER_OPT_VAL
+      ENABLE_ROW_WRITER_OPT_KEY -> DEFAULT_ENABLE_ROW_WRITER_OPT_VAL,
+      ENABLE_UPSERT_ROW_WRITER_OPT_KEY -> DEFAULT_ENABLE_UPSERT_ROW_WRITER_OPT_VAL
     ) ++ translateStorageTypeToTableType(parameters)
   }
 
@@ -275,6 +275,58 @@ class HoodieSparkSqlWriterSuite extends FunSuite with Matchers {
     }
   }
 
+  test("test upsert dataset with row writer") {
+    initSparkContext("test_upsert_datasource_row_writer")
+    val path = java.nio.file.Files.createTempDirectory("hoodie_test_path")
+    try {
+
+      val hoodieFooTableName = "hoodie_foo_tbl"
+
+      //create a new table
+      val fooTableModifier = Map("path" -> path.toAbsolutePath.toString,
+        HoodieWriteConfig.TABLE_NAME -> hoodieFooTableName,
+        HoodieWriteConfig.INSERT_PARALLELISM -> "2",
+        HoodieWriteConfig.UPSERT_PARALLELISM -> "2",
+        DataSourceWriteOptions.ENABLE_UPSERT_ROW_WRITER_OPT_KEY -> "true",
+        DataSourceWriteOptions.RECORDKEY_FIELD_OPT_KEY -> "_row_key",
+        DataSourceWriteOptions.PARTITIONPATH_FIELD_OPT_KEY -> "partition",
+        DataSourceWriteOptions.KEYGENERATOR_CLASS_OPT_KEY -> classOf[SimpleKeyGenerator].getCanonicalName)
+      val fooTableParams = HoodieWriterUtils.parametersWithWriteDefaults(fooTableModifier)
+
+      val schema = DataSourceTestUtils.getStructTypeExampleSchema
+      val structType = AvroConversionUtils.convertAvroSchemaToStructType(schema)
+
+      // insert the first batch
+      val records = DataSourceTestUtils.generateRandomRows(100)
+      val insertDf = spark.createDataFrame(sc.parallelize(convertRowListToSeq(records)), structType)
+      HoodieSparkSqlWriter.write(sqlContext, SaveMode.Append,
+        fooTableParams + (DataSourceWriteOptions.OPERATION_OPT_KEY -> DataSourceWriteOptions.INSERT_OPERATION_OPT_VAL), insertDf)
+
+      // update half of the records and insert new ones
+      val updates = records.take(50).map(r => Row(r.getString(0), r.getString(1), r.getLong(2) + 1))
+      val upsertDf = spark.createDataFrame(sc.parallelize(updates ++ convertRowListToSeq(DataSourceTestUtils.generateRandomRows(50))),
+        structType)
+      HoodieSparkSqlWriter.write(sqlContext, SaveMode.Append,
+        fooTableParams + (DataSourceWriteOptions.OPERATION_OPT_KEY -> DataSourceWriteOptions.UPSERT_OPERATION_OPT_VAL), upsertDf)
+
+      // fetch the latest records of the table
+      val actualDf = spark.read.format("org.apache.hudi").load(path.toAbsolutePath.toString + "/*/*/*/*")
+      // records not updated keep the commit time of the first batch
+      assert(actualDf.select(HoodieRecord.COMMIT_TIME_METADATA_FIELD).distinct().count() == 2)
+
+      val trimmedDf = actualDf.drop(HoodieRecord.HOODIE_META_COLUMNS.get(0)).drop(HoodieRecord.HOODIE_META_COLUMNS.get(1))
+        .drop(HoodieRecord.HOODIE_META_COLUMNS.get(2)).drop(HoodieRecord.HOODIE_META_COLUMNS.get(3))
+        .drop(HoodieRecord.HOODIE_META_COLUMNS.get(4))
+      val updatedKeys = updates.map(r => r.getString(0))
+      val expectedDf = insertDf.filter(!insertDf("_row_key").isin(updatedKeys: _*)).union(upsertDf)
+      assert(trimmedDf.count() == 150)
+      assert(expectedDf.except(trimmedDf).count() == 0)
+    } finally {
+      spark.stop()
+      FileUtils.deleteDirectory(path.toFile)
+    }
+  }
+
   List(DataSourceWriteOptions.COW_TABLE_TYPE_OPT_VAL, DataSourceWriteOptions.MOR_TABLE_TYPE_OPT_VAL)
     .foreach(tableType => {
       test("test basic HoodieSparkSqlWriter functionality with datasource insert for " + tableType) {